@@ -0,0 +1,148 @@
+#!/usr/bin/env bash
+#
+# Startup and memory benchmark: JVM mode versus native mode.
+#
+# For each mode and each run, the script starts the packaged application and
+# measures:
+#   ttfr_ms       time from process start to the first successful GET /warehouse
+#   rss_idle_kb   resident set size right after that first request
+#   rss_peak_kb   highest RSS sampled while LOAD_SECONDS of concurrent GET
+#                 /warehouse and /warehouse/search traffic runs against it
+#   requests      requests completed during the load phase
+# and prints one row per run plus the median of each column per mode.
+#
+# Build the artifacts first (the script does not build):
+#   ./mvnw package -DskipTests                        # target/quarkus-app/quarkus-run.jar
+#   ./mvnw package -DskipTests -Dnative \
+#       -Dquarkus.native.container-build=true         # target/*-runner
+#
+# The prod profile needs PostgreSQL on localhost:15432 (see application.properties).
+# Set START_DB=1 to have the script start a throwaway container with docker.
+#
+# Usage: scripts/benchmark-startup.sh [jvm] [native]    (default: both)
+# Tunables (env): RUNS=5 LOAD_SECONDS=30 CONCURRENCY=16 PORT=8080 START_DB=0
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+LOAD_SECONDS=${LOAD_SECONDS:-30}
+CONCURRENCY=${CONCURRENCY:-16}
+PORT=${PORT:-8080}
+START_DB=${START_DB:-0}
+BASE_URL="http://localhost:${PORT}"
+MODES=("$@")
+[ ${#MODES[@]} -eq 0 ] && MODES=(jvm native)
+
+for tool in curl ps; do
+  command -v "$tool" >/dev/null || { echo "missing required tool: $tool" >&2; exit 1; }
+done
+
+DB_CONTAINER=""
+APP_PID=""
+
+cleanup() {
+  [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null && wait "$APP_PID" 2>/dev/null || true
+  [ -n "$DB_CONTAINER" ] && docker rm -f "$DB_CONTAINER" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+if [ "$START_DB" = "1" ]; then
+  DB_CONTAINER=$(docker run -d --rm -p 15432:5432 \
+    -e POSTGRES_USER=quarkus_test -e POSTGRES_PASSWORD=quarkus_test -e POSTGRES_DB=quarkus_test \
+    postgres:13.3)
+  until docker exec "$DB_CONTAINER" pg_isready -U quarkus_test >/dev/null 2>&1; do sleep 0.5; done
+fi
+
+command_for() {
+  case "$1" in
+    jvm)
+      [ -f target/quarkus-app/quarkus-run.jar ] || return 1
+      echo "java -jar target/quarkus-app/quarkus-run.jar"
+      ;;
+    native)
+      local runner
+      runner=$(ls target/*-runner 2>/dev/null | head -n 1)
+      [ -n "$runner" ] || return 1
+      echo "$runner"
+      ;;
+    *)
+      return 1
+      ;;
+  esac
+}
+
+now_ms() { date +%s%3N; }
+
+rss_kb() { ps -o rss= -p "$1" 2>/dev/null | tr -d ' ' || echo 0; }
+
+# One client: sequential requests until the deadline, prints how many completed.
+client() {
+  local deadline=$1 count=0
+  while [ "$(now_ms)" -lt "$deadline" ]; do
+    curl -sf -o /dev/null "${BASE_URL}/warehouse" && count=$((count + 1))
+    curl -sf -o /dev/null "${BASE_URL}/warehouse/search?location=ZWOLLE-001&sortBy=capacity" \
+      && count=$((count + 1))
+  done
+  echo "$count"
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'; }
+
+# Starts $1 once and appends "ttfr idle peak requests" to the file $2.
+run_once() {
+  local cmd=$1 out=$2 start ttfr idle peak deadline rss counts
+  local -a clients=()
+  start=$(now_ms)
+  # The app log goes to a file so it does not interleave with the results.
+  QUARKUS_HTTP_PORT=$PORT $cmd >"target/benchmark-$MODE.log" 2>&1 &
+  APP_PID=$!
+
+  until curl -sf -o /dev/null "${BASE_URL}/warehouse"; do
+    kill -0 "$APP_PID" 2>/dev/null || { echo "application exited, see target/benchmark-$MODE.log" >&2; exit 1; }
+    sleep 0.005
+  done
+  ttfr=$(( $(now_ms) - start ))
+  idle=$(rss_kb "$APP_PID")
+
+  counts=$(mktemp)
+  deadline=$(( $(now_ms) + LOAD_SECONDS * 1000 ))
+  for _ in $(seq "$CONCURRENCY"); do
+    client "$deadline" >>"$counts" &
+    clients+=($!)
+  done
+  peak=$idle
+  while [ "$(now_ms)" -lt "$deadline" ]; do
+    rss=$(rss_kb "$APP_PID")
+    [ "${rss:-0}" -gt "$peak" ] && peak=$rss
+    sleep 0.5
+  done
+  wait "${clients[@]}"
+
+  kill "$APP_PID" && wait "$APP_PID" 2>/dev/null || true
+  APP_PID=""
+
+  echo "$ttfr $idle $peak $(awk '{ s += $1 } END { print s + 0 }' "$counts")" >>"$out"
+  rm -f "$counts"
+}
+
+printf '%-7s %-4s %10s %12s %12s %10s\n' mode run ttfr_ms rss_idle_kb rss_peak_kb requests
+for MODE in "${MODES[@]}"; do
+  if ! CMD=$(command_for "$MODE"); then
+    echo "no $MODE artifact in target/, skipping (build it first, see header)" >&2
+    continue
+  fi
+  results=$(mktemp)
+  for run in $(seq "$RUNS"); do
+    run_once "$CMD" "$results"
+    read -r ttfr idle peak total < <(tail -n 1 "$results")
+    printf '%-7s %-4s %10s %12s %12s %10s\n' "$MODE" "$run" "$ttfr" "$idle" "$peak" "$total"
+  done
+  printf '%-7s %-4s %10s %12s %12s %10s\n' "$MODE" median \
+    "$(cut -d' ' -f1 "$results" | median)" \
+    "$(cut -d' ' -f2 "$results" | median)" \
+    "$(cut -d' ' -f3 "$results" | median)" \
+    "$(cut -d' ' -f4 "$results" | median)"
+  rm -f "$results"
+done
@@ -0,0 +1,183 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Caps the number of database-bound requests in flight, and moves the cap with
+ * their latency.
+ *
+ * The JDBC pool has a handful of connections; requests beyond that wait in the
+ * pool queue, so under a burst latency climbs for everyone long before anything
+ * fails. The limit here follows the gradient algorithm: completed requests are
+ * averaged over windows of {@code concurrency-limit.window-samples}, a slow
+ * moving average of those windows is the latency the backend has without a
+ * queue, and each window the limit is multiplied by
+ * {@code clamp(tolerance * long / short, 0.5, 1)} and given a headroom of
+ * {@code sqrt(limit)}. While latency holds steady the limit grows by that
+ * headroom; once requests start queueing the gradient drops below one and the
+ * limit shrinks back toward the pool's real concurrency. Windows with a gradient
+ * below one move the baseline ten times slower, so sustained overload cannot
+ * pull it up to the queued latency. Requests over the limit are shed at once
+ * rather than queued.
+ *
+ * Windows in which less than half the limit was used carry no information about
+ * queueing and leave the limit alone, so a quiet period does not inflate it.
+ */
+@ApplicationScoped
+public class AdaptiveConcurrencyLimiter {
+
+  // Smallest and largest factor a single window can apply to the limit
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double MAX_GRADIENT = 1.0;
+
+  // Number of windows the no-queue latency is averaged over
+  private static final int LONG_WINDOWS = 50;
+
+  // How much slower the baseline rises from windows that show queueing
+  private static final int QUEUEING_SLOWDOWN = 10;
+
+  @ConfigProperty(name = "concurrency-limit.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "concurrency-limit.initial-limit", defaultValue = "16")
+  int initialLimit;
+
+  @ConfigProperty(name = "concurrency-limit.min-limit", defaultValue = "2")
+  int minLimit;
+
+  @ConfigProperty(name = "concurrency-limit.max-limit", defaultValue = "64")
+  int maxLimit;
+
+  @ConfigProperty(name = "concurrency-limit.window-samples", defaultValue = "20")
+  int windowSamples;
+
+  @ConfigProperty(name = "concurrency-limit.tolerance", defaultValue = "1.5")
+  double tolerance;
+
+  @ConfigProperty(name = "concurrency-limit.smoothing", defaultValue = "0.2")
+  double smoothing;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  private volatile int limit;
+  private double estimatedLimit;
+  private double longRttNanos;
+  private double lastWindowRttNanos;
+
+  // Current window, guarded by this
+  private long windowRttSum;
+  private int windowCount;
+  private int windowMaxInFlight;
+
+  @PostConstruct
+  void init() {
+    estimatedLimit = initialLimit;
+    limit = initialLimit;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Takes a slot for one request. Returns null when the limit is reached and the
+   * request should be shed.
+   */
+  public Permit tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        rejected.increment();
+        return null;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        admitted.increment();
+        return new Permit(System.nanoTime(), current + 1);
+      }
+    }
+  }
+
+  public ConcurrencyLimitStatus status() {
+    double longRtt;
+    double windowRtt;
+    synchronized (this) {
+      longRtt = longRttNanos;
+      windowRtt = lastWindowRttNanos;
+    }
+    return new ConcurrencyLimitStatus(
+        limit, inFlight.get(), admitted.sum(), rejected.sum(), longRtt / 1_000_000, windowRtt / 1_000_000);
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  synchronized void onSample(long rttNanos, int inFlightAtStart) {
+    windowRttSum += rttNanos;
+    windowCount++;
+    windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+    if (windowCount < windowSamples) {
+      return;
+    }
+
+    double shortRtt = (double) windowRttSum / windowCount;
+    boolean saturated = windowMaxInFlight * 2 >= estimatedLimit;
+    windowRttSum = 0;
+    windowCount = 0;
+    windowMaxInFlight = 0;
+
+    lastWindowRttNanos = shortRtt;
+    if (longRttNanos == 0) {
+      longRttNanos = shortRtt;
+    }
+    double gradient = Math.max(MIN_GRADIENT, Math.min(MAX_GRADIENT, tolerance * longRttNanos / shortRtt));
+
+    // A window that shows queueing must not raise the baseline at full speed,
+    // or under sustained overload the baseline chases the queue and the limit
+    // drifts up to max-limit. It still rises slowly, to follow a backend that
+    // has become slower for good.
+    int windows = gradient < MAX_GRADIENT ? LONG_WINDOWS * QUEUEING_SLOWDOWN : LONG_WINDOWS;
+    longRttNanos += (shortRtt - longRttNanos) / windows;
+    // Let the baseline come down quickly after a period of high latency
+    if (longRttNanos > 2 * shortRtt) {
+      longRttNanos *= 0.95;
+    }
+    if (!saturated) {
+      return;
+    }
+
+    double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    double smoothed = estimatedLimit * (1 - smoothing) + target * smoothing;
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    limit = (int) estimatedLimit;
+  }
+
+  /** A slot taken by {@link #tryAcquire()}; release it exactly once. */
+  public final class Permit {
+
+    private final long startNanos;
+    private final int inFlightAtStart;
+
+    private Permit(long startNanos, int inFlightAtStart) {
+      this.startNanos = startNanos;
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    // The request completed normally: its latency counts toward the limit
+    public void complete() {
+      inFlight.decrementAndGet();
+      onSample(System.nanoTime() - startNanos, inFlightAtStart);
+    }
+
+    // The request failed: its latency says nothing about the backend
+    public void abandon() {
+      inFlight.decrementAndGet();
+    }
+  }
+}
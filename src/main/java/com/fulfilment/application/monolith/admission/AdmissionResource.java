@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * Admission control state: per-client write quota consumption, the current
+ * concurrency limit in front of the database, and bulkhead saturation.
+ */
+@Path("admin")
+@ApplicationScoped
+@Produces(MediaType.APPLICATION_JSON)
+public class AdmissionResource {
+
+  @Inject
+  ClientQuotas clientQuotas;
+
+  @Inject
+  AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+  @Inject
+  Bulkheads bulkheads;
+
+  @GET
+  @Path("quotas")
+  public QuotaUsage quotas() {
+    return clientQuotas.usage();
+  }
+
+  @GET
+  @Path("concurrency")
+  public ConcurrencyLimitStatus concurrency() {
+    return concurrencyLimiter.status();
+  }
+
+  @GET
+  @Path("bulkheads")
+  public List<BulkheadStatus> bulkheads() {
+    return bulkheads.status();
+  }
+}
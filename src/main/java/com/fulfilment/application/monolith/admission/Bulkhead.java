@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a resource method in the read or the write compartment of
+ * {@link Bulkheads}, so each kind of traffic has its own share of worker threads
+ * and JDBC connections.
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+  @Nonbinding
+  Kind value();
+
+  enum Kind {
+    // Queries only: listings, search, lookups
+    READ,
+    // Anything that changes data, and anything that takes row locks
+    WRITE
+  }
+}
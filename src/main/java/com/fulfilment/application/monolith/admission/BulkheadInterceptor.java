@@ -0,0 +1,53 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * Runs {@link Bulkhead} methods inside their compartment of {@link Bulkheads}.
+ * It is the outermost admission step: only requests holding a slot count toward
+ * the {@link AdaptiveConcurrencyLimiter}, so requests queued in one compartment
+ * cannot use up the limit for the other. A request that finds the queue full or
+ * waits too long gets 503 with a Retry-After of one second.
+ */
+@Bulkhead(Bulkhead.Kind.READ)
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 50)
+public class BulkheadInterceptor {
+
+  @Inject
+  Bulkheads bulkheads;
+
+  @AroundInvoke
+  Object isolate(InvocationContext context) throws Exception {
+    if (!bulkheads.isEnabled()) {
+      return context.proceed();
+    }
+
+    Bulkhead binding = context.getMethod().getAnnotation(Bulkhead.class);
+    if (binding == null) {
+      binding = context.getMethod().getDeclaringClass().getAnnotation(Bulkhead.class);
+    }
+    Bulkheads.Compartment compartment = bulkheads.compartment(binding.value());
+    if (!compartment.acquire()) {
+      throw new WebApplicationException(Response.status(503)
+          .header("Retry-After", 1)
+          .type(MediaType.APPLICATION_JSON)
+          .entity(Map.of("error", "The " + compartment.name() + " bulkhead is full, retry after 1s"))
+          .build());
+    }
+
+    try {
+      return context.proceed();
+    } finally {
+      compartment.release();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.fulfilment.application.monolith.admission;
+
+/**
+ * Saturation of one bulkhead: requests running against its connection budget
+ * and waiting for a slot, their peaks and limits, and totals since startup.
+ * Requests that found the queue full or waited too long are counted apart.
+ */
+public record BulkheadStatus(
+    String name,
+    int maxConcurrent,
+    int maxQueued,
+    int active,
+    int queued,
+    int peakActive,
+    int peakQueued,
+    double utilization,
+    long admitted,
+    long admittedAfterWait,
+    long rejectedQueueFull,
+    long rejectedTimeout) {}
@@ -0,0 +1,166 @@
+package com.fulfilment.application.monolith.admission;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Separate compartments for read and write traffic.
+ *
+ * Each compartment has a connection budget, the number of its requests that may
+ * run at once, and a bounded queue of requests waiting for one of those slots.
+ * A request runs on the worker thread it arrived on and holds at most one JDBC
+ * connection, so a compartment never uses more than its budget of connections
+ * nor more than budget plus queue of worker threads. With the budgets adding up
+ * to the pool size, a burst of searches can fill the read compartment and be
+ * turned away from its queue, but never take a connection or a thread the write
+ * compartment is entitled to.
+ *
+ * The compartments are semaphores rather than thread pools of their own: the
+ * resource methods are synchronous, so handing the call to another executor
+ * would still park the worker thread until it finished, and would cost a thread
+ * switch and context propagation on every request.
+ */
+@ApplicationScoped
+public class Bulkheads {
+
+  private static final Logger LOGGER = Logger.getLogger(Bulkheads.class.getName());
+
+  @ConfigProperty(name = "bulkhead.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "bulkhead.read.connections", defaultValue = "5")
+  int readConnections;
+
+  @ConfigProperty(name = "bulkhead.read.queue", defaultValue = "16")
+  int readQueue;
+
+  @ConfigProperty(name = "bulkhead.read.max-wait", defaultValue = "500ms")
+  Duration readMaxWait;
+
+  @ConfigProperty(name = "bulkhead.write.connections", defaultValue = "3")
+  int writeConnections;
+
+  @ConfigProperty(name = "bulkhead.write.queue", defaultValue = "32")
+  int writeQueue;
+
+  @ConfigProperty(name = "bulkhead.write.max-wait", defaultValue = "2s")
+  Duration writeMaxWait;
+
+  private Compartment read;
+  private Compartment write;
+
+  @PostConstruct
+  void init() {
+    read = new Compartment("read", readConnections, readQueue, readMaxWait);
+    write = new Compartment("write", writeConnections, writeQueue, writeMaxWait);
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+    int poolSize = ConfigProvider.getConfig()
+        .getOptionalValue("quarkus.datasource.jdbc.max-size", Integer.class).orElse(20);
+    if (readConnections + writeConnections > poolSize) {
+      LOGGER.warnf("Bulkhead connection budgets (read %d + write %d) exceed the JDBC pool of %d:"
+          + " reads can still hold connections writes are meant to have",
+          readConnections, writeConnections, poolSize);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Compartment compartment(Bulkhead.Kind kind) {
+    return kind == Bulkhead.Kind.READ ? read : write;
+  }
+
+  public List<BulkheadStatus> status() {
+    return List.of(read.status(), write.status());
+  }
+
+  /** One bulkhead: a connection budget and a bounded queue in front of it. */
+  public static final class Compartment {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Semaphore slots;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder admittedAfterWait = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    Compartment(String name, int maxConcurrent, int maxQueued, Duration maxWait) {
+      this.name = name;
+      this.maxConcurrent = maxConcurrent;
+      this.maxQueued = maxQueued;
+      this.maxWaitNanos = maxWait.toNanos();
+      this.slots = new Semaphore(maxConcurrent, true);
+    }
+
+    public String name() {
+      return name;
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if there is room and for at most the
+     * configured time. Returns whether the request may run; if so it must call
+     * {@link #release()} when done.
+     */
+    public boolean acquire() throws InterruptedException {
+      if (!slots.tryAcquire()) {
+        int waiting = queued.incrementAndGet();
+        if (waiting > maxQueued) {
+          queued.decrementAndGet();
+          rejectedQueueFull.increment();
+          return false;
+        }
+        peakQueued.accumulateAndGet(waiting, Math::max);
+        boolean acquired;
+        try {
+          acquired = slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } finally {
+          queued.decrementAndGet();
+        }
+        if (!acquired) {
+          rejectedTimeout.increment();
+          return false;
+        }
+        admittedAfterWait.increment();
+      }
+      admitted.increment();
+      peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+      return true;
+    }
+
+    public void release() {
+      active.decrementAndGet();
+      slots.release();
+    }
+
+    BulkheadStatus status() {
+      int running = active.get();
+      return new BulkheadStatus(name, maxConcurrent, maxQueued, running, queued.get(),
+          peakActive.get(), peakQueued.get(), (double) running / maxConcurrent,
+          admitted.sum(), admittedAfterWait.sum(), rejectedQueueFull.sum(), rejectedTimeout.sum());
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.admission;
+
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * How callers are told apart: by the API key header when it carries one of
+ * the keys registered in {@code quota.api-keys}, otherwise by their address.
+ * An unknown key is ignored rather than trusted, so rotating made-up keys does
+ * not buy a caller a fresh quota or read-your-writes window.
+ */
+@ApplicationScoped
+public class ClientIdentity {
+
+  @ConfigProperty(name = "quota.client-header", defaultValue = "X-API-Key")
+  String header;
+
+  @ConfigProperty(name = "quota.api-keys")
+  Optional<List<String>> apiKeys;
+
+  private Set<String> registered;
+
+  @PostConstruct
+  void init() {
+    registered = apiKeys.orElse(List.of()).stream()
+        .map(String::trim)
+        .filter(key -> !key.isEmpty())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  public String of(ContainerRequestContext requestContext, HttpServerRequest httpRequest) {
+    String key = requestContext.getHeaderString(header);
+    if (key != null && registered.contains(key.trim())) {
+      return "key:" + key.trim();
+    }
+    var address = httpRequest.remoteAddress();
+    return "address:" + (address != null ? address.hostAddress() : "unknown");
+  }
+}
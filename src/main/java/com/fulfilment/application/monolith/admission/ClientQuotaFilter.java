@@ -0,0 +1,61 @@
+package com.fulfilment.application.monolith.admission;
+
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Enforces {@link ClientQuotas} on every write (POST, PUT, PATCH, DELETE) once
+ * the request is matched to a resource method, so before any transaction is
+ * started or JDBC connection taken. Clients are told apart by
+ * {@link ClientIdentity}: a registered API key, otherwise their address.
+ * Over-quota requests get 429 with a Retry-After in seconds.
+ */
+@Provider
+@Priority(Priorities.AUTHORIZATION)
+public class ClientQuotaFilter implements ContainerRequestFilter {
+
+  private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+  @Inject
+  ClientQuotas clientQuotas;
+
+  @ConfigProperty(name = "quota.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @Inject
+  ClientIdentity clientIdentity;
+
+  @Context
+  HttpServerRequest httpRequest;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if (!enabled || !WRITE_METHODS.contains(requestContext.getMethod())) {
+      return;
+    }
+
+    String client = clientIdentity.of(requestContext, httpRequest);
+    long waitNanos = clientQuotas.tryAcquire(client);
+    if (waitNanos > 0) {
+      long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+      requestContext.abortWith(Response.status(429)
+          .header("Retry-After", retryAfter)
+          .type(MediaType.APPLICATION_JSON)
+          .entity(Map.of("error", "Write quota exceeded for client '" + client
+              + "', retry after " + retryAfter + "s"))
+          .build());
+    }
+  }
+}
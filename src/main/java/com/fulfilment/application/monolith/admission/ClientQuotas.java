@@ -0,0 +1,150 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Per-client token buckets for write requests.
+ *
+ * A client may burst up to {@code quota.burst} requests and then sustain
+ * {@code quota.requests-per-second}. Each bucket is a single {@link AtomicLong}
+ * holding the time at which it will be full again (the GCRA form of a token
+ * bucket): taking a token moves that time one interval forward with a CAS, and
+ * a request that would move it more than a full bucket ahead is rejected with
+ * the time left until it would not. No locks are taken.
+ *
+ * Buckets idle for {@code quota.idle-eviction} and full again are dropped by a
+ * sweep that piggybacks on requests; a dropped bucket is recreated full, so
+ * eviction never gives a client more than it would have had anyway.
+ *
+ * At most {@code quota.max-clients} buckets are kept. Once that many are live,
+ * clients without a bucket share a single overflow bucket until the sweep
+ * frees room, so a flood of new addresses cannot grow the map or escape the
+ * limit.
+ */
+@ApplicationScoped
+public class ClientQuotas {
+
+  static final String OVERFLOW = "overflow";
+
+  @ConfigProperty(name = "quota.requests-per-second", defaultValue = "20")
+  double requestsPerSecond;
+
+  @ConfigProperty(name = "quota.burst", defaultValue = "40")
+  int burst;
+
+  @ConfigProperty(name = "quota.idle-eviction", defaultValue = "10m")
+  Duration idleEviction;
+
+  @ConfigProperty(name = "quota.max-clients", defaultValue = "10000")
+  int maxClients;
+
+  private final LongSupplier clock;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweep;
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  public ClientQuotas() {
+    this(System::nanoTime);
+  }
+
+  ClientQuotas(LongSupplier clock) {
+    this.clock = clock;
+    this.lastSweep = new AtomicLong(clock.getAsLong());
+  }
+
+  /**
+   * Takes one token from the client's bucket. Returns 0 when the request is
+   * admitted, otherwise the nanoseconds until a token will be available.
+   */
+  public long tryAcquire(String client) {
+    long now = clock.getAsLong();
+    sweepIfDue(now);
+
+    Bucket bucket = buckets.get(client);
+    if (bucket == null) {
+      // Concurrent first requests may overshoot the cap by a few, never by a flood
+      String key = buckets.size() < maxClients ? client : OVERFLOW;
+      bucket = buckets.computeIfAbsent(key, c -> new Bucket(now));
+    }
+    bucket.lastSeen = now;
+    long interval = intervalNanos();
+    long capacity = interval * burst;
+    while (true) {
+      long fullAt = bucket.fullAt.get();
+      long next = Math.max(fullAt, now) + interval;
+      long excess = next - now - capacity;
+      if (excess > 0) {
+        bucket.rejected.increment();
+        rejected.increment();
+        return excess;
+      }
+      if (bucket.fullAt.compareAndSet(fullAt, next)) {
+        bucket.admitted.increment();
+        admitted.increment();
+        return 0;
+      }
+    }
+  }
+
+  public QuotaUsage usage() {
+    long now = clock.getAsLong();
+    long interval = intervalNanos();
+    long capacity = interval * burst;
+
+    List<QuotaUsage.Client> clients = new ArrayList<>(buckets.size());
+    for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+      Bucket bucket = entry.getValue();
+      long pending = Math.max(0, bucket.fullAt.get() - now);
+      double available = (double) (capacity - pending) / interval;
+      clients.add(new QuotaUsage.Client(
+          entry.getKey(), bucket.admitted.sum(), bucket.rejected.sum(), Math.max(0, available)));
+    }
+    clients.sort(Comparator.comparing(QuotaUsage.Client::client));
+    return new QuotaUsage(
+        requestsPerSecond, burst, admitted.sum(), rejected.sum(), evicted.sum(), clients);
+  }
+
+  private long intervalNanos() {
+    return Math.max(1, Math.round(1_000_000_000L / requestsPerSecond));
+  }
+
+  private void sweepIfDue(long now) {
+    long idle = idleEviction.toNanos();
+    long last = lastSweep.get();
+    // One sweep per quarter of the idle period, by whichever request gets there first
+    if (now - last < idle / 4 || !lastSweep.compareAndSet(last, now)) {
+      return;
+    }
+    buckets.forEach((client, bucket) -> {
+      if (now - bucket.lastSeen > idle && bucket.fullAt.get() <= now && buckets.remove(client, bucket)) {
+        evicted.increment();
+      }
+    });
+  }
+
+  private static final class Bucket {
+
+    // When the bucket will hold burst tokens again; at or before now means full
+    final AtomicLong fullAt;
+    final LongAdder admitted = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    volatile long lastSeen;
+
+    Bucket(long now) {
+      this.fullAt = new AtomicLong(now);
+      this.lastSeen = now;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * Admits {@link ConcurrencyLimited} calls through the
+ * {@link AdaptiveConcurrencyLimiter}. Runs outside {@code @Transactional}, so a
+ * shed request never starts a transaction or asks the pool for a connection; it
+ * gets 503 with a Retry-After of one second.
+ */
+@ConcurrencyLimited
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class ConcurrencyLimitInterceptor {
+
+  @Inject
+  AdaptiveConcurrencyLimiter limiter;
+
+  @AroundInvoke
+  Object limit(InvocationContext context) throws Exception {
+    if (!limiter.isEnabled()) {
+      return context.proceed();
+    }
+
+    AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+    if (permit == null) {
+      throw new WebApplicationException(Response.status(503)
+          .header("Retry-After", 1)
+          .type(MediaType.APPLICATION_JSON)
+          .entity(Map.of("error", "Server is at its concurrency limit, retry after 1s"))
+          .build());
+    }
+
+    try {
+      Object result = context.proceed();
+      permit.complete();
+      return result;
+    } catch (Exception | Error e) {
+      permit.abandon();
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.admission;
+
+/**
+ * Current state of the {@link AdaptiveConcurrencyLimiter}: the limit it has
+ * settled on, requests in flight, totals since startup, and the two latencies
+ * the limit is derived from (milliseconds).
+ */
+public record ConcurrencyLimitStatus(
+    int limit,
+    int inFlight,
+    long admitted,
+    long rejected,
+    double baselineLatencyMs,
+    double recentLatencyMs) {}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.admission;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks resource methods (or whole resources) that hold a database connection
+ * while they run, to be admitted through the {@link AdaptiveConcurrencyLimiter}.
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.admission;
+
+import java.util.List;
+
+/**
+ * Write quota consumption since startup: totals over all clients (including
+ * buckets evicted since) and the current state of every live bucket.
+ */
+public record QuotaUsage(
+    double requestsPerSecond,
+    int burst,
+    long admitted,
+    long rejected,
+    long evictedClients,
+    List<Client> clients) {
+
+  public record Client(String client, long admitted, long rejected, double availableTokens) {}
+}
@@ -0,0 +1,201 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.admission.ClientIdentity;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Idempotency-Key support for POST requests.
+ *
+ * The first request with a key runs and its response is kept in the
+ * {@link IdempotencyStore}; a retry with the same key gets that response back,
+ * marked {@code Idempotent-Replayed: true}, without the resource running again.
+ * A retry that arrives while the first is still running waits for it rather
+ * than racing it, but only briefly: the wait parks a worker before any
+ * bulkhead or limit applies, so after {@code idempotency.in-flight-wait} the
+ * retry gets 409 with a Retry-After instead. Keys are scoped per client (as for
+ * write quotas), and a key reused for a different method, path or body is
+ * refused with 422.
+ *
+ * The in-flight wait covers one instance only. Duplicates that reach different
+ * instances both run, and later retries replay whichever response was saved
+ * last.
+ *
+ * Only final outcomes are kept: server errors, conflicts and rate limiting are
+ * worth retrying, so a retry after one of those runs the request again.
+ */
+@Provider
+@Priority(Priorities.USER)
+public class IdempotencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final String CLAIM = IdempotencyFilter.class.getName() + ".claim";
+
+  @Inject
+  IdempotencyStore store;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  @ConfigProperty(name = "idempotency.in-flight-wait", defaultValue = "2s")
+  Duration inFlightWait;
+
+  @Inject
+  ClientIdentity clientIdentity;
+
+  @Context
+  HttpServerRequest httpRequest;
+
+  // Executions in progress on this instance, by scoped key
+  private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) throws IOException {
+    String key = requestContext.getHeaderString(HEADER);
+    if (key == null || !"POST".equals(requestContext.getMethod())) {
+      return;
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      abort(requestContext, 400, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+      return;
+    }
+
+    byte[] body = requestContext.getEntityStream().readAllBytes();
+    requestContext.setEntityStream(new ByteArrayInputStream(body));
+    String requestHash = hash(requestContext, body);
+    String scopedKey = clientIdentity.of(requestContext, httpRequest) + " " + key.trim();
+
+    while (true) {
+      StoredResponse stored = store.find(scopedKey);
+      if (stored != null) {
+        replay(requestContext, stored, requestHash);
+        return;
+      }
+
+      var execution = new CompletableFuture<StoredResponse>();
+      CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopedKey, execution);
+      if (running == null) {
+        requestContext.setProperty(CLAIM, new Claim(scopedKey, requestHash, execution));
+        return;
+      }
+
+      try {
+        stored = running.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        stillInProgress(requestContext);
+        return;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        stillInProgress(requestContext);
+        return;
+      } catch (ExecutionException e) {
+        stored = null;
+      }
+      if (stored != null) {
+        replay(requestContext, stored, requestHash);
+        return;
+      }
+      // The first attempt ended without a final outcome: take over
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+      throws JsonProcessingException {
+    if (!(requestContext.getProperty(CLAIM) instanceof Claim claim)) {
+      return;
+    }
+
+    try {
+      StoredResponse stored = null;
+      int status = responseContext.getStatus();
+      if (isFinal(status)) {
+        Object entity = responseContext.getEntity();
+        String body = entity == null ? null
+            : entity instanceof String text ? text : objectMapper.writeValueAsString(entity);
+        MediaType mediaType = responseContext.getMediaType();
+        stored = store.save(claim.scopedKey(), claim.requestHash(), status,
+            mediaType != null ? mediaType.toString() : MediaType.APPLICATION_JSON, body);
+      }
+      claim.execution().complete(stored);
+    } catch (RuntimeException | JsonProcessingException e) {
+      claim.execution().complete(null);
+      throw e;
+    } finally {
+      inFlight.remove(claim.scopedKey(), claim.execution());
+    }
+  }
+
+  private static boolean isFinal(int status) {
+    return status < 500 && status != 409 && status != 429;
+  }
+
+  private void replay(ContainerRequestContext requestContext, StoredResponse stored, String requestHash) {
+    if (!stored.requestHash().equals(requestHash)) {
+      abort(requestContext, 422, HEADER + " was already used for a different request");
+      return;
+    }
+    Response.ResponseBuilder response = Response.status(stored.status()).header(REPLAYED_HEADER, "true");
+    if (stored.body() != null) {
+      response.entity(stored.body()).type(stored.contentType());
+    }
+    requestContext.abortWith(response.build());
+  }
+
+  private static void stillInProgress(ContainerRequestContext requestContext) {
+    requestContext.abortWith(Response.status(409)
+        .header("Retry-After", 1)
+        .type(MediaType.APPLICATION_JSON)
+        .entity(Map.of("error", "A request with this " + HEADER + " is still in progress"))
+        .build());
+  }
+
+  private static void abort(ContainerRequestContext requestContext, int status, String error) {
+    requestContext.abortWith(Response.status(status)
+        .type(MediaType.APPLICATION_JSON)
+        .entity(Map.of("error", error))
+        .build());
+  }
+
+  private static String hash(ContainerRequestContext requestContext, byte[] body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update((requestContext.getMethod() + " " + requestContext.getUriInfo().getPath() + "\n")
+          .getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest(body));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Claim(String scopedKey, String requestHash, CompletableFuture<StoredResponse> execution) {}
+}
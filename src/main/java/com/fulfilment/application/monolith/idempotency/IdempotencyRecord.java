@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Durable copy of a response to a request sent with an Idempotency-Key, kept
+ * until {@link #expiresAt}. The key is scoped to the client that sent it.
+ */
+@Entity
+@Table(name = "idempotency_record")
+public class IdempotencyRecord {
+
+  @Id
+  public String idempotencyKey;
+
+  @Column(nullable = false)
+  public String requestHash;
+
+  @Column(nullable = false)
+  public int status;
+
+  public String contentType;
+
+  public String body;
+
+  @Column(nullable = false)
+  public LocalDateTime createdAt;
+
+  @Column(nullable = false)
+  public LocalDateTime expiresAt;
+}
@@ -0,0 +1,126 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Completed responses by idempotency key: a bounded in-memory LRU in front of
+ * the {@code idempotency_record} table.
+ *
+ * Lookups that miss memory read the table, so a retry still finds its response
+ * after a restart or on another instance. Records live for
+ * {@code idempotency.ttl}; expired rows are deleted by a purge that piggybacks
+ * on saves, at most once per {@code idempotency.purge-interval}. Table access
+ * runs in its own transaction, which always goes to the primary.
+ */
+@ApplicationScoped
+public class IdempotencyStore {
+
+  private static final Logger LOGGER = Logger.getLogger(IdempotencyStore.class.getName());
+
+  @Inject
+  EntityManager entityManager;
+
+  @ConfigProperty(name = "idempotency.ttl", defaultValue = "24h")
+  Duration ttl;
+
+  @ConfigProperty(name = "idempotency.cache-size", defaultValue = "10000")
+  int cacheSize;
+
+  @ConfigProperty(name = "idempotency.purge-interval", defaultValue = "10m")
+  Duration purgeInterval;
+
+  private final Map<String, StoredResponse> cache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+      return size() > cacheSize;
+    }
+  };
+  private final AtomicReference<LocalDateTime> lastPurge = new AtomicReference<>(LocalDateTime.now());
+
+  public StoredResponse find(String key) {
+    LocalDateTime now = LocalDateTime.now();
+    StoredResponse cached;
+    synchronized (cache) {
+      cached = cache.get(key);
+    }
+    if (cached != null) {
+      return cached.isExpired(now) ? null : cached;
+    }
+
+    IdempotencyRecord record = QuarkusTransaction.requiringNew()
+        .call(() -> entityManager.find(IdempotencyRecord.class, key));
+    if (record == null) {
+      return null;
+    }
+    StoredResponse stored = new StoredResponse(
+        record.requestHash, record.status, record.contentType, record.body, record.expiresAt);
+    if (stored.isExpired(now)) {
+      return null;
+    }
+    synchronized (cache) {
+      cache.put(key, stored);
+    }
+    return stored;
+  }
+
+  public StoredResponse save(String key, String requestHash, int status, String contentType, String body) {
+    LocalDateTime now = LocalDateTime.now();
+    StoredResponse stored = new StoredResponse(requestHash, status, contentType, body, now.plus(ttl));
+    synchronized (cache) {
+      cache.put(key, stored);
+    }
+
+    try {
+      QuarkusTransaction.requiringNew().run(() -> {
+        var record = new IdempotencyRecord();
+        record.idempotencyKey = key;
+        record.requestHash = requestHash;
+        record.status = status;
+        record.contentType = contentType;
+        record.body = body;
+        record.createdAt = now;
+        record.expiresAt = stored.expiresAt();
+        entityManager.merge(record);
+      });
+    } catch (RuntimeException e) {
+      // The response is still replayed from memory on this instance
+      LOGGER.warnf(e, "Could not persist idempotency record %s", key);
+    }
+    purgeIfDue(now);
+    return stored;
+  }
+
+  // Drops the in-memory copies only, as a restart would
+  void clearCache() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  private void purgeIfDue(LocalDateTime now) {
+    LocalDateTime last = lastPurge.get();
+    if (now.isBefore(last.plus(purgeInterval)) || !lastPurge.compareAndSet(last, now)) {
+      return;
+    }
+    int purged = QuarkusTransaction.requiringNew().call(() -> entityManager
+        .createQuery("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+        .setParameter("now", now)
+        .executeUpdate());
+    synchronized (cache) {
+      cache.values().removeIf(stored -> stored.isExpired(now));
+    }
+    if (purged > 0) {
+      LOGGER.infof("Purged %d expired idempotency records", purged);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed response as replayed to retries: status, content type and the
+ * serialized body (null when there was none), with the hash of the request it
+ * answered so a key reused for a different request can be refused.
+ */
+public record StoredResponse(
+    String requestHash, int status, String contentType, String body, LocalDateTime expiresAt) {
+
+  boolean isExpired(LocalDateTime now) {
+    return !expiresAt.isAfter(now);
+  }
+}
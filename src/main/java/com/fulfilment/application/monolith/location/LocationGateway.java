@@ -12,14 +12,14 @@ public class LocationGateway implements LocationResolver {
   private static final List<Location> locations = new ArrayList<>();
 
   static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+    locations.add(new Location("ZWOLLE-001", 1, 40, 52.5168, 6.0830));
+    locations.add(new Location("ZWOLLE-002", 2, 50, 52.4929, 6.1269));
+    locations.add(new Location("AMSTERDAM-001", 5, 100, 52.3676, 4.9041));
+    locations.add(new Location("AMSTERDAM-002", 3, 75, 52.3105, 4.7683));
+    locations.add(new Location("TILBURG-001", 1, 40, 51.5555, 5.0913));
+    locations.add(new Location("HELMOND-001", 1, 45, 51.4793, 5.6570));
+    locations.add(new Location("EINDHOVEN-001", 2, 70, 51.4416, 5.4697));
+    locations.add(new Location("VETSBY-001", 1, 90, 56.1629, 10.2039));
   }
 
   @Override
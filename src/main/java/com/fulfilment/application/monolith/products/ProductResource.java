@@ -2,6 +2,10 @@ package com.fulfilment.application.monolith.products;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.admission.Bulkhead;
+import com.fulfilment.application.monolith.admission.ConcurrencyLimited;
+import com.fulfilment.application.monolith.routing.ReadOnly;
+import com.fulfilment.application.monolith.serialization.BinaryJacksonWriters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -22,6 +26,7 @@ import org.jboss.logging.Logger;
 
 @Path("product")
 @ApplicationScoped
+@ConcurrencyLimited
 @Produces("application/json")
 @Consumes("application/json")
 public class ProductResource {
@@ -31,12 +36,18 @@ public class ProductResource {
   private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
 
   @GET
+  @Produces({"application/json", BinaryJacksonWriters.APPLICATION_CBOR, BinaryJacksonWriters.APPLICATION_SMILE})
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ReadOnly
   public List<Product> get() {
     return productRepository.listAll(Sort.by("name"));
   }
 
   @GET
+  @Produces({"application/json", BinaryJacksonWriters.APPLICATION_CBOR, BinaryJacksonWriters.APPLICATION_SMILE})
   @Path("{id}")
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ReadOnly
   public Product getSingle(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
@@ -47,6 +58,7 @@ public class ProductResource {
 
   @POST
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Response create(Product product) {
     if (product.id != null) {
       throw new WebApplicationException("Id was invalidly set on request.", 422);
@@ -59,6 +71,7 @@ public class ProductResource {
   @PUT
   @Path("{id}")
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Product update(Long id, Product product) {
     if (product.name == null) {
       throw new WebApplicationException("Product Name was not set on request.", 422);
@@ -83,6 +96,7 @@ public class ProductResource {
   @DELETE
   @Path("{id}")
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Response delete(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
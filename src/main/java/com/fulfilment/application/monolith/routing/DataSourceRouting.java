@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.routing;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Where the current request's queries go.
+ *
+ * Hibernate picks the datasource when it opens the request's session, that is
+ * on the first query, through {@link ReplicaTenantResolver}. The replica is
+ * chosen only if that query runs inside a {@link ReadOnly} call, outside any
+ * transaction, and the caller is not pinned to the primary by the staleness
+ * policy. Transactions always use the primary, so writes and the reads that
+ * check or return what was just written never see replica lag.
+ *
+ * Work started off a request, on a worker thread, has no request to route:
+ * Quarkus only asks {@link ReplicaTenantResolver} for a tenant inside a request
+ * context, and Hibernate refuses a session without one. Such work runs through
+ * {@link #outsideRequest}, which gives it a fresh context pinned to the
+ * primary, so a background read never sees replica lag either.
+ */
+@RequestScoped
+public class DataSourceRouting {
+
+  @Inject
+  ReadReplicaPolicy policy;
+
+  private int readOnlyDepth;
+  private boolean pinnedToPrimary;
+  private boolean readOnlyOutsideTransaction;
+
+  void enterReadOnly() {
+    if (!QuarkusTransaction.isActive()) {
+      readOnlyOutsideTransaction = true;
+    }
+    readOnlyDepth++;
+  }
+
+  void exitReadOnly() {
+    readOnlyDepth--;
+  }
+
+  void pinToPrimary() {
+    pinnedToPrimary = true;
+  }
+
+  // Whether read-only work ran outside a transaction, as in a read-only POST lookup
+  boolean readOnlyOutsideTransaction() {
+    return readOnlyOutsideTransaction;
+  }
+
+  /**
+   * Wraps a worker thread's task so it runs against the primary: in a request
+   * context of its own when none is active, ended when the task returns. A task
+   * already inside a request keeps that request's routing.
+   */
+  public static Runnable outsideRequest(Runnable task) {
+    return () -> {
+      ManagedContext requestContext = Arc.container().requestContext();
+      if (requestContext.isActive()) {
+        task.run();
+        return;
+      }
+      requestContext.activate();
+      try {
+        Arc.container().instance(DataSourceRouting.class).get().pinToPrimary();
+        task.run();
+      } finally {
+        requestContext.terminate();
+      }
+    };
+  }
+
+  public boolean useReplica() {
+    return policy.isEnabled() && readOnlyDepth > 0 && !pinnedToPrimary && !QuarkusTransaction.isActive();
+  }
+}
@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.routing;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * With database multi-tenancy Hibernate looks a tenant's datasource up by
+ * {@code @DataSource(tenant)}, a qualifier the default datasource does not
+ * carry. This exposes the default datasource under its name as well, so the
+ * primary is a tenant like the replica without a second pool.
+ */
+@ApplicationScoped
+public class PrimaryDataSourceProducer {
+
+  @Produces
+  @Singleton
+  @DataSource(ReplicaTenantResolver.PRIMARY)
+  AgroalDataSource primary(AgroalDataSource dataSource) {
+    return dataSource;
+  }
+}
@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.routing;
+
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks queries (and the GET handlers built on them) that may be answered by
+ * the read replica. Only a hint: inside a transaction, or for a caller that has
+ * just written, they still go to the primary; see {@link DataSourceRouting}.
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {}
@@ -0,0 +1,36 @@
+package com.fulfilment.application.monolith.routing;
+
+import io.quarkus.arc.Arc;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Opens a {@link ReadOnly} scope on the request's {@link DataSourceRouting} for
+ * the duration of the call. Outside a request (startup loads, background work)
+ * there is nothing to route and the call goes to the primary.
+ */
+@ReadOnly
+@Interceptor
+@Priority(Interceptor.Priority.LIBRARY_BEFORE)
+public class ReadOnlyInterceptor {
+
+  @Inject
+  DataSourceRouting routing;
+
+  @AroundInvoke
+  Object route(InvocationContext context) throws Exception {
+    if (!Arc.container().requestContext().isActive()) {
+      return context.proceed();
+    }
+
+    routing.enterReadOnly();
+    try {
+      return context.proceed();
+    } finally {
+      routing.exitReadOnly();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.fulfilment.application.monolith.routing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * The staleness policy for replica reads.
+ *
+ * Replication is asynchronous, so a caller reading from the replica right after
+ * a write may not see it. For {@code datasource-routing.read-your-writes-window}
+ * after a caller's last successful write, its reads are pinned to the primary;
+ * other callers keep reading from the replica and may see the write late, by
+ * up to the replica's lag. A window of zero makes every caller eventually
+ * consistent. Callers are forgotten once their window is over, by a sweep that
+ * piggybacks on writes.
+ */
+@ApplicationScoped
+public class ReadReplicaPolicy {
+
+  @ConfigProperty(name = "datasource-routing.read-replica.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "datasource-routing.read-your-writes-window", defaultValue = "5s")
+  Duration readYourWritesWindow;
+
+  private final LongSupplier clock;
+  private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweep;
+  private final LongAdder replicaSessions = new LongAdder();
+  private final LongAdder primarySessions = new LongAdder();
+
+  public ReadReplicaPolicy() {
+    this(System::nanoTime);
+  }
+
+  ReadReplicaPolicy(LongSupplier clock) {
+    this.clock = clock;
+    this.lastSweep = new AtomicLong(clock.getAsLong());
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void recordWrite(String client) {
+    long now = clock.getAsLong();
+    lastWrites.put(client, now);
+    sweepIfDue(now);
+  }
+
+  // Whether the client wrote recently enough that its reads must see the primary
+  public boolean mustReadPrimary(String client) {
+    Long lastWrite = lastWrites.get(client);
+    return lastWrite != null && clock.getAsLong() - lastWrite < readYourWritesWindow.toNanos();
+  }
+
+  void recordSession(boolean replica) {
+    (replica ? replicaSessions : primarySessions).increment();
+  }
+
+  public RoutingStatus status() {
+    return new RoutingStatus(enabled, readYourWritesWindow.toMillis(), lastWrites.size(),
+        replicaSessions.sum(), primarySessions.sum());
+  }
+
+  private void sweepIfDue(long now) {
+    long window = readYourWritesWindow.toNanos();
+    long last = lastSweep.get();
+    if (now - last < window || !lastSweep.compareAndSet(last, now)) {
+      return;
+    }
+    lastWrites.values().removeIf(lastWrite -> now - lastWrite >= window);
+  }
+}
@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.routing;
+
+import com.fulfilment.application.monolith.admission.ClientIdentity;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Set;
+
+/**
+ * Applies the {@link ReadReplicaPolicy} per caller: successful writes are
+ * recorded when they respond, and reads from a caller inside its
+ * read-your-writes window are pinned to the primary before they run. A POST
+ * served by a {@link ReadOnly} handler (a batch lookup) is a read, not a write.
+ * Callers are told apart as for write quotas.
+ */
+@Provider
+public class ReadYourWritesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+  @Inject
+  ReadReplicaPolicy policy;
+
+  @Inject
+  DataSourceRouting routing;
+
+  @Inject
+  ClientIdentity clientIdentity;
+
+  @Context
+  HttpServerRequest httpRequest;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if (policy.isEnabled() && !WRITE_METHODS.contains(requestContext.getMethod())
+        && policy.mustReadPrimary(clientIdentity.of(requestContext, httpRequest))) {
+      routing.pinToPrimary();
+    }
+  }
+
+  @Override
+  public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+    if (policy.isEnabled() && WRITE_METHODS.contains(requestContext.getMethod())
+        && !routing.readOnlyOutsideTransaction()
+        && responseContext.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
+      policy.recordWrite(clientIdentity.of(requestContext, httpRequest));
+    }
+  }
+}
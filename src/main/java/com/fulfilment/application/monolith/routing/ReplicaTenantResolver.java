@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.routing;
+
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Routes sessions between the primary and the read replica. The persistence
+ * unit runs with database multi-tenancy, where a tenant is a datasource name:
+ * the default datasource is the primary, the {@code replica} datasource the
+ * read replica. Quarkus consults it only inside a request context; worker
+ * threads get one pinned to the primary from
+ * {@link DataSourceRouting#outsideRequest}.
+ */
+@PersistenceUnitExtension
+@RequestScoped
+public class ReplicaTenantResolver implements TenantResolver {
+
+  static final String PRIMARY = DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+  static final String REPLICA = "replica";
+
+  @Inject
+  DataSourceRouting routing;
+
+  @Inject
+  ReadReplicaPolicy policy;
+
+  @Override
+  public String getDefaultTenantId() {
+    return PRIMARY;
+  }
+
+  @Override
+  public String resolveTenantId() {
+    boolean replica = routing.useReplica();
+    policy.recordSession(replica);
+    return replica ? REPLICA : PRIMARY;
+  }
+}
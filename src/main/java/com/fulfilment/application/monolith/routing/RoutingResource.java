@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.routing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Read replica routing state: the staleness policy in force and how many
+ * request sessions went to the replica and to the primary.
+ */
+@Path("admin/routing")
+@ApplicationScoped
+public class RoutingResource {
+
+  @Inject
+  ReadReplicaPolicy policy;
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public RoutingStatus get() {
+    return policy.status();
+  }
+}
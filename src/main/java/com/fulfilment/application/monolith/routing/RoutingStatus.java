@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.routing;
+
+/**
+ * Read replica routing since startup: whether it is on, the read-your-writes
+ * window, callers currently pinned to the primary, and sessions opened on each
+ * datasource from requests.
+ */
+public record RoutingStatus(
+    boolean readReplicaEnabled,
+    long readYourWritesWindowMs,
+    int pinnedClients,
+    long replicaSessions,
+    long primarySessions) {}
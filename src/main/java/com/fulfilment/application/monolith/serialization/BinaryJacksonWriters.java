@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.serialization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Binary encodings of the JSON read models, chosen through the {@code Accept}
+ * header. A resource method opts in by listing {@link #APPLICATION_CBOR} and/or
+ * {@link #APPLICATION_SMILE} after {@code application/json} in its
+ * {@code @Produces}; JSON stays the default for clients that accept anything.
+ *
+ * <p>The mappers are copies of the application {@link ObjectMapper}, so
+ * annotations, modules and features behave exactly as for JSON: a client gets
+ * the same document, only encoded differently.
+ */
+public final class BinaryJacksonWriters {
+
+  public static final String APPLICATION_CBOR = "application/cbor";
+  public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+  private BinaryJacksonWriters() {}
+
+  abstract static class Base implements MessageBodyWriter<Object> {
+
+    private final ObjectMapper mapper;
+
+    Base(ObjectMapper objectMapper, JsonFactory factory) {
+      this.mapper = objectMapper.copyWith(factory);
+    }
+
+    @Override
+    public boolean isWriteable(
+        Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+      return true;
+    }
+
+    @Override
+    public void writeTo(
+        Object entity,
+        Class<?> type,
+        Type genericType,
+        Annotation[] annotations,
+        MediaType mediaType,
+        MultivaluedMap<String, Object> httpHeaders,
+        OutputStream entityStream) throws IOException {
+      // Keep the declared element type of generic lists, as the JSON provider does
+      ObjectWriter writer = mapper.writer();
+      if (genericType != null && genericType != type) {
+        JavaType declared = mapper.getTypeFactory().constructType(genericType);
+        if (declared.getRawClass().isAssignableFrom(type)) {
+          writer = mapper.writerFor(declared);
+        }
+      }
+      writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(entityStream, entity);
+    }
+  }
+
+  @Provider
+  @Produces(APPLICATION_CBOR)
+  public static class Cbor extends Base {
+
+    @Inject
+    public Cbor(ObjectMapper objectMapper) {
+      super(objectMapper, new CBORFactory());
+    }
+  }
+
+  @Provider
+  @Produces(APPLICATION_SMILE)
+  public static class Smile extends Base {
+
+    @Inject
+    public Smile(ObjectMapper objectMapper) {
+      super(objectMapper, new SmileFactory());
+    }
+  }
+}
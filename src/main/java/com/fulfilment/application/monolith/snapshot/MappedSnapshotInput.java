@@ -0,0 +1,166 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the snapshot encoding from a memory-mapped file.
+ *
+ * The file is mapped a window at a time, so its size is not bounded by one
+ * mapping (2 GB) nor by the heap; values are decoded straight from the
+ * mapping and the checksum is taken over each window as it is left behind.
+ * Any malformed or missing byte is an IOException.
+ */
+final class MappedSnapshotInput implements Closeable {
+
+  static final long WINDOW = 64L * 1024 * 1024;
+
+  private final FileChannel channel;
+  // Everything before the trailing checksum
+  private final long dataSize;
+  private final CRC32 crc = new CRC32();
+  private MappedByteBuffer window;
+  private long windowStart;
+  private int checksummed;
+
+  private MappedSnapshotInput(FileChannel channel) throws IOException {
+    this.channel = channel;
+    this.dataSize = channel.size() - 8;
+    if (dataSize < SnapshotFormat.MAGIC.length + 1) {
+      throw new IOException("Not a snapshot: the file is too short");
+    }
+    map(0);
+  }
+
+  static MappedSnapshotInput open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new MappedSnapshotInput(channel);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  int readByte() throws IOException {
+    ensure(1);
+    return window.get() & 0xFF;
+  }
+
+  byte[] readBytes(int length) throws IOException {
+    if (length < 0 || length > SnapshotFormat.MAX_VALUE_BYTES) {
+      throw new IOException("Corrupt snapshot: a value of " + length + " bytes at byte " + position());
+    }
+    ensure(length);
+    byte[] value = new byte[length];
+    window.get(value);
+    return value;
+  }
+
+  long readVarLong() throws IOException {
+    long zigzag = 0;
+    for (int shift = 0; ; shift += 7) {
+      if (shift > 63) {
+        throw new IOException("Corrupt snapshot: an integer longer than 10 bytes at byte " + position());
+      }
+      int b = readByte();
+      zigzag |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    }
+  }
+
+  int readVarInt() throws IOException {
+    long value = readVarLong();
+    if (value != (int) value) {
+      throw new IOException("Corrupt snapshot: " + value + " does not fit an int at byte " + position());
+    }
+    return (int) value;
+  }
+
+  String readString() throws IOException {
+    return new String(readBytes(readVarInt()), StandardCharsets.UTF_8);
+  }
+
+  BigDecimal readDecimal() throws IOException {
+    int scale = readVarInt();
+    return new BigDecimal(new BigInteger(readBytes(readVarInt())), scale);
+  }
+
+  LocalDateTime readTimestamp() throws IOException {
+    long seconds = readVarLong();
+    int nanos = readVarInt();
+    try {
+      return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    } catch (DateTimeException e) {
+      throw new IOException("Corrupt snapshot: invalid timestamp at byte " + position(), e);
+    }
+  }
+
+  // Once everything has been read: the file must end here, with the checksum of what came before
+  void verifyChecksum() throws IOException {
+    if (position() != dataSize) {
+      throw new IOException("Corrupt snapshot: " + (dataSize - position()) + " unexpected bytes at the end");
+    }
+    checksumWindow();
+    if (storedChecksum() != crc.getValue()) {
+      throw new IOException("Corrupt snapshot: checksum mismatch");
+    }
+  }
+
+  // The checksum the file ends with, as written; verifyChecksum compares it with the data
+  long storedChecksum() throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, dataSize, 8).getLong();
+  }
+
+  long size() {
+    return dataSize + 8;
+  }
+
+  long position() {
+    return windowStart + window.position();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void ensure(int length) throws IOException {
+    if (window.remaining() >= length) {
+      return;
+    }
+    long position = position();
+    if (position + length > dataSize) {
+      throw new IOException("Corrupt snapshot: truncated at byte " + position);
+    }
+    checksumWindow();
+    map(position);
+  }
+
+  private void checksumWindow() {
+    ByteBuffer consumed = window.duplicate();
+    consumed.position(checksummed).limit(window.position());
+    crc.update(consumed);
+    checksummed = window.position();
+  }
+
+  private void map(long start) throws IOException {
+    window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, dataSize - start));
+    windowStart = start;
+    checksummed = 0;
+  }
+}
@@ -0,0 +1,35 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of a snapshot file, version 1:
+ *
+ * <pre>
+ *   "WSNP" version:u8
+ *   per table:  TABLE name:string columns:varint (name:string type:u8)*
+ *               (ROW nulls:varlong value*)* END rows:varlong
+ *   FINISH crc32:u64
+ * </pre>
+ *
+ * Integers are zigzag varints, strings a varint byte length and UTF-8, a
+ * decimal its scale and unscaled two's complement bytes, a timestamp epoch
+ * seconds (as UTC) and nanoseconds. Bit i of {@code nulls} marks column i as
+ * null; null values take no bytes. The CRC32 covers every byte before it.
+ */
+final class SnapshotFormat {
+
+  static final byte[] MAGIC = "WSNP".getBytes(StandardCharsets.US_ASCII);
+  static final int VERSION = 1;
+
+  static final int TABLE = 'T';
+  static final int ROW = 'R';
+  static final int END = 'E';
+  static final int FINISH = 'F';
+
+  // Longest string or decimal accepted when reading, so a corrupt length
+  // fails fast instead of reading the rest of the file as one value
+  static final int MAX_VALUE_BYTES = 1 << 20;
+
+  private SnapshotFormat() {}
+}
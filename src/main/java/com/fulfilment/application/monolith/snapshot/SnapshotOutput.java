@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/** Writes the snapshot encoding to a stream, counting and checksumming every byte. */
+final class SnapshotOutput {
+
+  private final OutputStream out;
+  private final CRC32 crc = new CRC32();
+  private long bytes;
+
+  SnapshotOutput(OutputStream out) {
+    this.out = new BufferedOutputStream(out, 64 * 1024);
+  }
+
+  long bytes() {
+    return bytes;
+  }
+
+  void writeByte(int value) throws IOException {
+    out.write(value);
+    crc.update(value);
+    bytes++;
+  }
+
+  void writeBytes(byte[] value) throws IOException {
+    out.write(value);
+    crc.update(value);
+    bytes += value.length;
+  }
+
+  void writeVarLong(long value) throws IOException {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & ~0x7FL) != 0) {
+      writeByte((int) ((zigzag & 0x7F) | 0x80));
+      zigzag >>>= 7;
+    }
+    writeByte((int) zigzag);
+  }
+
+  void writeString(String value) throws IOException {
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(utf8.length);
+    writeBytes(utf8);
+  }
+
+  void writeDecimal(BigDecimal value) throws IOException {
+    byte[] unscaled = value.unscaledValue().toByteArray();
+    writeVarLong(value.scale());
+    writeVarLong(unscaled.length);
+    writeBytes(unscaled);
+  }
+
+  void writeTimestamp(LocalDateTime value) throws IOException {
+    writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+    writeVarLong(value.getNano());
+  }
+
+  // The checksum of everything written so far, then flush
+  void finish() throws IOException {
+    long checksum = crc.getValue();
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      out.write((int) (checksum >>> shift));
+    }
+    bytes += 8;
+    out.flush();
+  }
+}
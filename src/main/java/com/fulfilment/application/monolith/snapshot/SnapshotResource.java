@@ -0,0 +1,84 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import com.fulfilment.application.monolith.admission.Bulkhead;
+import com.fulfilment.application.monolith.admission.Bulkheads;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.jboss.logging.Logger;
+
+/**
+ * Downloads a snapshot of the warehouse, store and product tables, streamed
+ * as it is read. Restore it into another environment with
+ * {@code snapshot.restore-from}.
+ *
+ * Every row of those tables goes out, so the endpoint exists only when
+ * {@code snapshot.export.enabled} is set at build time. An export holds one
+ * connection for as long as it streams, so it is admitted through the read
+ * bulkhead and keeps a read slot until the last byte is written.
+ */
+@Path("admin/snapshot")
+@ApplicationScoped
+@IfBuildProperty(name = "snapshot.export.enabled", stringValue = "true")
+public class SnapshotResource {
+
+  private static final Logger LOGGER = Logger.getLogger(SnapshotResource.class.getName());
+
+  private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  @Inject
+  SnapshotService snapshots;
+
+  @Inject
+  Bulkheads bulkheads;
+
+  @GET
+  @Bulkhead(Bulkhead.Kind.READ)
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response export() {
+    try {
+      snapshots.checkAvailable();
+    } catch (IllegalStateException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+    // The rows are read after this method returns, outside its bulkhead slot
+    StreamingOutput body = out -> {
+      Bulkheads.Compartment compartment = bulkheads.isEnabled()
+          ? bulkheads.compartment(Bulkhead.Kind.READ) : null;
+      try {
+        if (compartment != null && !compartment.acquire()) {
+          throw new IOException("The " + compartment.name() + " bulkhead is full, snapshot export refused");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Snapshot export interrupted", e);
+      }
+      try {
+        SnapshotSummary summary = snapshots.export(out);
+        LOGGER.infof("Exported snapshot: %s rows, %d bytes in %d ms",
+            summary.rows(), summary.bytes(), summary.millis());
+      } catch (SQLException e) {
+        throw new IOException("Snapshot export failed", e);
+      } finally {
+        if (compartment != null) {
+          compartment.release();
+        }
+      }
+    };
+    String fileName = "snapshot-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".wsnap";
+    return Response.ok(body)
+        .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+        .build();
+  }
+}
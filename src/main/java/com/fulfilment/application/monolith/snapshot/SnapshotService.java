@@ -0,0 +1,378 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import com.fulfilment.application.monolith.snapshot.SnapshotTable.Column;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Snapshots of the warehouse, store and product tables in a compact binary
+ * file (see {@link SnapshotFormat}), for seeding staging and performance
+ * environments far faster than replaying SQL.
+ *
+ * An export reads the three tables in one repeatable-read transaction and
+ * streams the rows out as they are fetched. A restore replaces the contents
+ * of the three tables in one JDBC transaction: it decodes the file through
+ * {@link MappedSnapshotInput} into batched INSERTs, checks the trailing
+ * checksum before it commits, and then moves each id sequence past the
+ * restored ids. Warehouse history is cleared with it, since it would describe
+ * warehouses that no longer exist, and so are the write-behind stock
+ * counter's checkpoints and delta log, whose unflushed changes belong to the
+ * replaced warehouses. Each restored file is recorded by checksum and size.
+ *
+ * The in-memory indexes and caches load from the tables at startup but are
+ * not told about a restore, so restores run at startup only
+ * ({@code snapshot.restore-from}), before anything else reads the tables or
+ * the delta log. The file restored last is not restored again, so the setting
+ * can stay in place across restarts.
+ * Sharded warehouses are not covered: with sharding enabled both directions
+ * are refused.
+ */
+@ApplicationScoped
+public class SnapshotService {
+
+  private static final Logger LOGGER = Logger.getLogger(SnapshotService.class.getName());
+
+  // Hibernate hands out ids up to a sequence value in blocks of this size
+  private static final int SEQUENCE_INCREMENT = 50;
+
+  @Inject
+  AgroalDataSource dataSource;
+
+  @ConfigProperty(name = "snapshot.restore-from")
+  Optional<Path> restoreFrom;
+
+  @ConfigProperty(name = "snapshot.batch-size", defaultValue = "1000")
+  int batchSize;
+
+  @ConfigProperty(name = "warehouse.sharding.enabled", defaultValue = "false")
+  boolean sharding;
+
+  @ConfigProperty(name = "warehouse.stock-counter.log", defaultValue = "data/stock-deltas.log")
+  Path stockDeltaLog;
+
+  // Before the observers that load the in-memory indexes from the tables
+  void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_BEFORE) StartupEvent event)
+      throws IOException, SQLException {
+    if (restoreFrom.isEmpty()) {
+      return;
+    }
+    Path file = restoreFrom.get();
+    if (restored(file)) {
+      LOGGER.infof("Snapshot %s is already restored, skipping it", file);
+      return;
+    }
+    SnapshotSummary summary = restore(file);
+    LOGGER.infof("Restored snapshot %s: %s rows, %d bytes in %d ms",
+        file, summary.rows(), summary.bytes(), summary.millis());
+  }
+
+  // Whether the last snapshot restored into this database has this file's checksum and size
+  boolean restored(Path file) throws IOException, SQLException {
+    try (MappedSnapshotInput input = MappedSnapshotInput.open(file);
+        Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "SELECT checksum, bytes FROM snapshot_restore ORDER BY restoredAt DESC FETCH FIRST 1 ROW ONLY")) {
+      return resultSet.next()
+          && resultSet.getLong(1) == input.storedChecksum()
+          && resultSet.getLong(2) == input.size();
+    }
+  }
+
+  public SnapshotSummary export(OutputStream out) throws IOException, SQLException {
+    checkAvailable();
+    long started = System.nanoTime();
+    SnapshotOutput output = new SnapshotOutput(out);
+    Map<String, Long> rows = new LinkedHashMap<>();
+    try (Connection connection = dataSource.getConnection()) {
+      int isolation = connection.getTransactionIsolation();
+      connection.setAutoCommit(false);
+      connection.setReadOnly(true);
+      connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+      try {
+        output.writeBytes(SnapshotFormat.MAGIC);
+        output.writeByte(SnapshotFormat.VERSION);
+        for (SnapshotTable table : SnapshotTable.values()) {
+          rows.put(table.tableName, exportTable(connection, table, output));
+        }
+        output.writeByte(SnapshotFormat.FINISH);
+        output.finish();
+      } finally {
+        connection.rollback();
+        connection.setTransactionIsolation(isolation);
+        connection.setReadOnly(false);
+        connection.setAutoCommit(true);
+      }
+    }
+    return new SnapshotSummary(rows, output.bytes(), millisSince(started));
+  }
+
+  SnapshotSummary restore(Path file) throws IOException, SQLException {
+    checkAvailable();
+    long started = System.nanoTime();
+    Map<String, Long> rows = new LinkedHashMap<>();
+    long bytes;
+    try (MappedSnapshotInput input = MappedSnapshotInput.open(file);
+        Connection connection = dataSource.getConnection()) {
+      byte[] magic = input.readBytes(SnapshotFormat.MAGIC.length);
+      if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+        throw new IOException("Not a snapshot: " + file);
+      }
+      int version = input.readByte();
+      if (version != SnapshotFormat.VERSION) {
+        throw new IOException("Snapshot format version " + version + " is not supported, only "
+            + SnapshotFormat.VERSION);
+      }
+
+      connection.setAutoCommit(false);
+      try {
+        try (Statement statement = connection.createStatement()) {
+          // DELETE rather than TRUNCATE, which some databases commit at once
+          statement.executeUpdate("DELETE FROM warehouse_history");
+          statement.executeUpdate("DELETE FROM stock_delta_checkpoint");
+          for (SnapshotTable table : SnapshotTable.values()) {
+            statement.executeUpdate("DELETE FROM " + table.tableName);
+          }
+        }
+        EnumSet<SnapshotTable> restored = EnumSet.noneOf(SnapshotTable.class);
+        for (int marker = input.readByte(); marker != SnapshotFormat.FINISH; marker = input.readByte()) {
+          if (marker != SnapshotFormat.TABLE) {
+            throw new IOException("Corrupt snapshot: unexpected byte " + marker + " at byte " + (input.position() - 1));
+          }
+          SnapshotTable table = readTableHeader(input);
+          if (!restored.add(table)) {
+            throw new IOException("Corrupt snapshot: table " + table.tableName + " appears twice");
+          }
+          rows.put(table.tableName, restoreTable(connection, table, input));
+        }
+        input.verifyChecksum();
+        bytes = input.size();
+        record(connection, file, input.storedChecksum(), bytes);
+        // Before the commit: should it fail, the replaced warehouses lose their
+        // unflushed changes, rather than the restored ones receiving them
+        Files.deleteIfExists(stockDeltaLog);
+        connection.commit();
+      } catch (IOException | SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+
+      // Separately: some databases commit a transaction at ALTER SEQUENCE
+      for (SnapshotTable table : SnapshotTable.values()) {
+        restartSequence(connection, table);
+      }
+    }
+    return new SnapshotSummary(rows, bytes, millisSince(started));
+  }
+
+  private static void record(Connection connection, Path file, long checksum, long bytes) throws SQLException {
+    // A file restored again, after another one, becomes the last one restored
+    try (PreparedStatement statement = connection.prepareStatement(
+        "DELETE FROM snapshot_restore WHERE checksum = ? AND bytes = ?")) {
+      statement.setLong(1, checksum);
+      statement.setLong(2, bytes);
+      statement.executeUpdate();
+    }
+    try (PreparedStatement statement = connection.prepareStatement(
+        "INSERT INTO snapshot_restore (checksum, bytes, fileName, restoredAt) VALUES (?, ?, ?, ?)")) {
+      statement.setLong(1, checksum);
+      statement.setLong(2, bytes);
+      statement.setString(3, file.toAbsolutePath().toString());
+      statement.setObject(4, LocalDateTime.now());
+      statement.executeUpdate();
+    }
+  }
+
+  private long exportTable(Connection connection, SnapshotTable table, SnapshotOutput output)
+      throws IOException, SQLException {
+    output.writeByte(SnapshotFormat.TABLE);
+    output.writeString(table.tableName);
+    output.writeVarLong(table.columns.size());
+    for (Column column : table.columns) {
+      output.writeString(column.name());
+      output.writeByte(column.type().ordinal());
+    }
+
+    long count = 0;
+    try (PreparedStatement statement = connection.prepareStatement(table.selectSql())) {
+      // Stream the rows instead of loading the table into the driver
+      statement.setFetchSize(batchSize);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        Object[] values = new Object[table.columns.size()];
+        while (resultSet.next()) {
+          long nulls = 0;
+          for (int i = 0; i < values.length; i++) {
+            values[i] = read(resultSet, i + 1, table.columns.get(i));
+            if (values[i] == null) {
+              nulls |= 1L << i;
+            }
+          }
+          output.writeByte(SnapshotFormat.ROW);
+          output.writeVarLong(nulls);
+          for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+              write(output, table.columns.get(i), values[i]);
+            }
+          }
+          count++;
+        }
+      }
+    }
+    output.writeByte(SnapshotFormat.END);
+    output.writeVarLong(count);
+    return count;
+  }
+
+  private long restoreTable(Connection connection, SnapshotTable table, MappedSnapshotInput input)
+      throws IOException, SQLException {
+    List<Column> columns = table.columns;
+    long count = 0;
+    try (PreparedStatement statement = connection.prepareStatement(table.insertSql())) {
+      int batched = 0;
+      for (int marker = input.readByte(); marker != SnapshotFormat.END; marker = input.readByte()) {
+        if (marker != SnapshotFormat.ROW) {
+          throw new IOException("Corrupt snapshot: unexpected byte " + marker + " at byte " + (input.position() - 1));
+        }
+        long nulls = input.readVarLong();
+        for (int i = 0; i < columns.size(); i++) {
+          bind(statement, i + 1, columns.get(i), (nulls & (1L << i)) != 0 ? null : input);
+        }
+        statement.addBatch();
+        count++;
+        if (++batched == batchSize) {
+          statement.executeBatch();
+          batched = 0;
+        }
+      }
+      if (batched > 0) {
+        statement.executeBatch();
+      }
+    }
+    long expected = input.readVarLong();
+    if (expected != count) {
+      throw new IOException("Corrupt snapshot: " + count + " rows of " + table.tableName + ", expected " + expected);
+    }
+    return count;
+  }
+
+  private static SnapshotTable readTableHeader(MappedSnapshotInput input) throws IOException {
+    String name = input.readString();
+    SnapshotTable table = SnapshotTable.named(name);
+    if (table == null) {
+      throw new IOException("Snapshot has a table '" + name + "' this application does not know");
+    }
+    int columnCount = input.readVarInt();
+    boolean matches = columnCount == table.columns.size();
+    for (int i = 0; i < columnCount; i++) {
+      String columnName = input.readString();
+      int type = input.readByte();
+      matches &= i < table.columns.size()
+          && table.columns.get(i).name().equals(columnName)
+          && table.columns.get(i).type().ordinal() == type;
+    }
+    if (!matches) {
+      throw new IOException("Snapshot columns of " + name + " do not match this application's " + table.columns);
+    }
+    return table;
+  }
+
+  private static Object read(ResultSet resultSet, int index, Column column) throws SQLException {
+    return switch (column.type()) {
+      case LONG -> resultSet.getObject(index, Long.class);
+      case INT -> resultSet.getObject(index, Integer.class);
+      case STRING -> resultSet.getString(index);
+      case DECIMAL -> resultSet.getBigDecimal(index);
+      case TIMESTAMP -> resultSet.getObject(index, LocalDateTime.class);
+    };
+  }
+
+  private static void write(SnapshotOutput output, Column column, Object value) throws IOException {
+    switch (column.type()) {
+      case LONG, INT -> output.writeVarLong(((Number) value).longValue());
+      case STRING -> output.writeString((String) value);
+      case DECIMAL -> output.writeDecimal((BigDecimal) value);
+      case TIMESTAMP -> output.writeTimestamp((LocalDateTime) value);
+    }
+  }
+
+  // Binds the column's next value from the input, or NULL without input
+  private static void bind(PreparedStatement statement, int index, Column column, MappedSnapshotInput input)
+      throws IOException, SQLException {
+    switch (column.type()) {
+      case LONG -> {
+        if (input == null) {
+          statement.setNull(index, Types.BIGINT);
+        } else {
+          statement.setLong(index, input.readVarLong());
+        }
+      }
+      case INT -> {
+        if (input == null) {
+          statement.setNull(index, Types.INTEGER);
+        } else {
+          statement.setInt(index, input.readVarInt());
+        }
+      }
+      case STRING -> statement.setString(index, input == null ? null : input.readString());
+      case DECIMAL -> statement.setBigDecimal(index, input == null ? null : input.readDecimal());
+      case TIMESTAMP -> {
+        if (input == null) {
+          statement.setNull(index, Types.TIMESTAMP);
+        } else {
+          statement.setObject(index, input.readTimestamp());
+        }
+      }
+    }
+  }
+
+  private static void restartSequence(Connection connection, SnapshotTable table) throws SQLException {
+    long maxId;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM " + table.tableName)) {
+      resultSet.next();
+      maxId = resultSet.getLong(1);
+    }
+    // The first block handed out ends at the sequence value, so it must start past maxId
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ALTER SEQUENCE " + table.sequence + " RESTART WITH " + (maxId + SEQUENCE_INCREMENT));
+    }
+  }
+
+  // IllegalStateException if this deployment's data cannot be snapshotted
+  public void checkAvailable() {
+    if (sharding) {
+      throw new IllegalStateException("Snapshots do not cover sharded warehouses; disable warehouse.sharding first");
+    }
+  }
+
+  private static long millisSince(long started) {
+    return (System.nanoTime() - started) / 1_000_000;
+  }
+}
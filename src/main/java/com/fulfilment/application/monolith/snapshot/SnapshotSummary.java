@@ -0,0 +1,6 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import java.util.Map;
+
+/** Rows per table, file size and duration of a snapshot export or restore. */
+public record SnapshotSummary(Map<String, Long> rows, long bytes, long millis) {}
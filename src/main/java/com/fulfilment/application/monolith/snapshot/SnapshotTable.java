@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The tables a snapshot holds, and their columns in file order. A snapshot
+ * records this layout in its header, so a file written for another layout is
+ * refused instead of restored into the wrong columns.
+ */
+enum SnapshotTable {
+  STORE("store", "store_seq", List.of(
+      new Column("id", Type.LONG),
+      new Column("name", Type.STRING),
+      new Column("quantityProductsInStock", Type.INT))),
+  PRODUCT("product", "product_seq", List.of(
+      new Column("id", Type.LONG),
+      new Column("name", Type.STRING),
+      new Column("description", Type.STRING),
+      new Column("price", Type.DECIMAL),
+      new Column("stock", Type.INT))),
+  WAREHOUSE("warehouse", "warehouse_seq", List.of(
+      new Column("id", Type.LONG),
+      new Column("version", Type.LONG),
+      new Column("businessUnitCode", Type.STRING),
+      new Column("location", Type.STRING),
+      new Column("capacity", Type.INT),
+      new Column("stock", Type.INT),
+      new Column("createdAt", Type.TIMESTAMP),
+      new Column("archivedAt", Type.TIMESTAMP)));
+
+  enum Type {
+    LONG, INT, STRING, DECIMAL, TIMESTAMP
+  }
+
+  record Column(String name, Type type) {}
+
+  final String tableName;
+  final String sequence;
+  final List<Column> columns;
+
+  SnapshotTable(String tableName, String sequence, List<Column> columns) {
+    this.tableName = tableName;
+    this.sequence = sequence;
+    this.columns = columns;
+  }
+
+  String selectSql() {
+    return "SELECT " + columnList() + " FROM " + tableName + " ORDER BY id";
+  }
+
+  String insertSql() {
+    String parameters = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+    return "INSERT INTO " + tableName + " (" + columnList() + ") VALUES (" + parameters + ")";
+  }
+
+  static SnapshotTable named(String tableName) {
+    for (SnapshotTable table : values()) {
+      if (table.tableName.equals(tableName)) {
+        return table;
+      }
+    }
+    return null;
+  }
+
+  private String columnList() {
+    return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+  }
+}
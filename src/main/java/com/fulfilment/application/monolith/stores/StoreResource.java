@@ -2,6 +2,10 @@ package com.fulfilment.application.monolith.stores;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.admission.Bulkhead;
+import com.fulfilment.application.monolith.admission.ConcurrencyLimited;
+import com.fulfilment.application.monolith.routing.ReadOnly;
+import com.fulfilment.application.monolith.serialization.BinaryJacksonWriters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
@@ -24,6 +28,7 @@ import org.jboss.logging.Logger;
 
 @Path("store")
 @ApplicationScoped
+@ConcurrencyLimited
 @Produces("application/json")
 @Consumes("application/json")
 public class StoreResource {
@@ -40,12 +45,18 @@ public class StoreResource {
   private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
 
   @GET
+  @Produces({"application/json", BinaryJacksonWriters.APPLICATION_CBOR, BinaryJacksonWriters.APPLICATION_SMILE})
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ReadOnly
   public List<Store> get() {
     return Store.listAll(Sort.by("name"));
   }
 
   @GET
+  @Produces({"application/json", BinaryJacksonWriters.APPLICATION_CBOR, BinaryJacksonWriters.APPLICATION_SMILE})
   @Path("{id}")
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ReadOnly
   public Store getSingle(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
@@ -56,6 +67,7 @@ public class StoreResource {
 
   @POST
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Response create(Store store) {
     if (store.id != null) {
       throw new WebApplicationException("Id was invalidly set on request.", 422);
@@ -70,6 +82,7 @@ public class StoreResource {
   @PUT
   @Path("{id}")
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Store update(Long id, Store updatedStore) {
     if (updatedStore.name == null) {
       throw new WebApplicationException("Store Name was not set on request.", 422);
@@ -92,6 +105,7 @@ public class StoreResource {
   @PATCH
   @Path("{id}")
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Store patch(Long id, Store updatedStore) {
     if (updatedStore.name == null) {
       throw new WebApplicationException("Store Name was not set on request.", 422);
@@ -119,6 +133,7 @@ public class StoreResource {
   @DELETE
   @Path("{id}")
   @Transactional
+  @Bulkhead(Bulkhead.Kind.WRITE)
   public Response delete(Long id) {
     Store entity = Store.findById(id);
     if (entity == null) {
@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.warehouses.adapters;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChange;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Domain types that the adapters reach reflectively and that Quarkus cannot
+ * discover at build time, registered here so the domain stays free of Quarkus
+ * annotations. Only matters for the native image; a no-op on the JVM.
+ *
+ * <ul>
+ *   <li>{@link WarehouseChange}, {@link Warehouse}: serialized by Jackson as the
+ *       data of change feed SSE events, not as a resource return type.
+ * </ul>
+ *
+ * Generated {@code com.warehouse.api} interfaces and beans, Panache entities
+ * and the store/product resources need nothing here: their types are all
+ * resource parameters, return types or entities, which Quarkus registers.
+ */
+@RegisterForReflection(
+    targets = {
+      WarehouseChange.class,
+      WarehouseChangedEvent.Type.class,
+      Warehouse.class
+    })
+public final class NativeReflectionConfiguration {
+
+  private NativeReflectionConfiguration() {}
+}
@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/** A row of an import that was not created, numbered from the first row after the header. */
+@Entity
+@Table(
+    name = "warehouse_import_error",
+    indexes = @Index(name = "idx_warehouse_import_error_job", columnList = "jobId, rowNumber"))
+public class DbWarehouseImportError {
+
+  @Id
+  @GeneratedValue
+  public Long id;
+
+  @Column(nullable = false, length = 36)
+  public String jobId;
+
+  @Column(nullable = false)
+  public long rowNumber;
+
+  public String businessUnitCode;
+
+  @Column(nullable = false, length = 1024)
+  public String message;
+}
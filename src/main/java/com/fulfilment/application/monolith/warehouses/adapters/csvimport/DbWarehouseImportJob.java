@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A warehouse CSV import and its progress. Everything up to bytesCommitted of
+ * the spooled file is committed, rows and rejections included, in the same
+ * transactions as the warehouses it created.
+ */
+@Entity
+@Table(name = "warehouse_import_job")
+public class DbWarehouseImportJob {
+
+  public enum Status {
+    QUEUED, RUNNING, CANCELLING, CANCELLED, FAILED, COMPLETED
+  }
+
+  @Id
+  public String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  public Status status;
+
+  @Column(nullable = false)
+  public long bytesTotal;
+
+  @Column(nullable = false)
+  public long bytesCommitted;
+
+  @Column(nullable = false)
+  public long rowsProcessed;
+
+  @Column(nullable = false)
+  public long rowsAccepted;
+
+  @Column(nullable = false)
+  public long rowsRejected;
+
+  // Time spent running, summed over resumes, for throughput
+  @Column(nullable = false)
+  public long activeMillis;
+
+  @Column(nullable = false)
+  public LocalDateTime createdAt;
+
+  public LocalDateTime startedAt;
+
+  public LocalDateTime finishedAt;
+
+  @Column(length = 1024)
+  public String failure;
+}
@@ -0,0 +1,4 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+/** A rejected import row, numbered from the first row after the header, and why. */
+public record ImportRowError(long row, String businessUnitCode, String message) {}
@@ -0,0 +1,181 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader over a UTF-8 file: comma separated fields, LF or
+ * CRLF line ends, double-quoted fields that may hold commas, line breaks and
+ * doubled quotes. Blank lines are skipped and a leading byte order mark is
+ * ignored.
+ *
+ * It works on bytes, which is safe because every delimiter is ASCII, so
+ * {@link #offset()} is an exact file position: a reader opened there again
+ * continues with the next record. Only one buffer and one record are held in
+ * memory, whatever the size of the file.
+ */
+final class WarehouseCsvReader implements Closeable {
+
+  // A record this long is a missing closing quote, not data
+  static final int MAX_RECORD_BYTES = 64 * 1024;
+
+  private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+  private long bufferStart;
+  private long offset;
+
+  private byte[] field = new byte[256];
+  private int fieldLength;
+  private int recordLength;
+
+  private WarehouseCsvReader(FileChannel channel, long offset) throws IOException {
+    this.channel = channel;
+    this.bufferStart = offset;
+    this.offset = offset;
+    channel.position(offset);
+    buffer.limit(0);
+  }
+
+  // Starting at a record boundary returned by offset(), or 0 for the header
+  static WarehouseCsvReader open(Path file, long offset) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      WarehouseCsvReader reader = new WarehouseCsvReader(channel, offset);
+      if (offset == 0) {
+        reader.skipByteOrderMark();
+      }
+      return reader;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  // Position just past the last record returned by next()
+  long offset() {
+    return offset;
+  }
+
+  // Fields of the next record, or null at the end of the file
+  List<String> next() throws IOException {
+    int c = read();
+    while (c == '\r' || c == '\n') {
+      offset = position();
+      c = read();
+    }
+    if (c == -1) {
+      return null;
+    }
+
+    List<String> fields = new ArrayList<>();
+    long recordStart = offset;
+    recordLength = 0;
+    fieldLength = 0;
+    boolean quoted = false;
+    while (true) {
+      if (quoted) {
+        if (c == -1) {
+          throw new IOException("Unterminated quoted field in the record at byte " + recordStart);
+        }
+        if (c == '"') {
+          if (peek() == '"') {
+            read();
+            append('"', recordStart);
+          } else {
+            quoted = false;
+          }
+        } else {
+          append(c, recordStart);
+        }
+      } else if (c == ',') {
+        fields.add(takeField());
+      } else if (c == '\n' || c == -1) {
+        break;
+      } else if (c == '\r') {
+        if (peek() == '\n') {
+          read();
+        }
+        break;
+      } else if (c == '"' && fieldLength == 0) {
+        quoted = true;
+      } else {
+        append(c, recordStart);
+      }
+      c = read();
+    }
+    fields.add(takeField());
+    offset = position();
+    return fields;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void skipByteOrderMark() throws IOException {
+    for (byte expected : BYTE_ORDER_MARK) {
+      if (peek() != (expected & 0xFF)) {
+        return;
+      }
+      read();
+    }
+    offset = position();
+  }
+
+  private void append(int c, long recordStart) throws IOException {
+    if (++recordLength > MAX_RECORD_BYTES) {
+      throw new IOException(
+          "The record at byte " + recordStart + " is longer than " + MAX_RECORD_BYTES + " bytes");
+    }
+    if (fieldLength == field.length) {
+      field = Arrays.copyOf(field, field.length * 2);
+    }
+    field[fieldLength++] = (byte) c;
+  }
+
+  private String takeField() {
+    String value = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+    fieldLength = 0;
+    return value;
+  }
+
+  private long position() {
+    return bufferStart + buffer.position();
+  }
+
+  private int read() throws IOException {
+    if (!buffer.hasRemaining() && !fill()) {
+      return -1;
+    }
+    return buffer.get() & 0xFF;
+  }
+
+  private int peek() throws IOException {
+    if (!buffer.hasRemaining() && !fill()) {
+      return -1;
+    }
+    return buffer.get(buffer.position()) & 0xFF;
+  }
+
+  private boolean fill() throws IOException {
+    bufferStart += buffer.limit();
+    buffer.clear();
+    int read;
+    do {
+      read = channel.read(buffer);
+    } while (read == 0);
+    buffer.flip();
+    return read > 0;
+  }
+}
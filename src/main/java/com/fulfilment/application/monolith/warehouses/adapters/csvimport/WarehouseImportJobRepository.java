@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import com.fulfilment.application.monolith.warehouses.adapters.csvimport.DbWarehouseImportJob.Status;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Every method must run in a transaction
+@ApplicationScoped
+public class WarehouseImportJobRepository implements PanacheRepositoryBase<DbWarehouseImportJob, String> {
+
+  public DbWarehouseImportJob create(String id, long bytesTotal) {
+    DbWarehouseImportJob job = new DbWarehouseImportJob();
+    job.id = id;
+    job.status = Status.QUEUED;
+    job.bytesTotal = bytesTotal;
+    job.createdAt = LocalDateTime.now();
+    persist(job);
+    return job;
+  }
+
+  public DbWarehouseImportJob lock(String id) {
+    return findById(id, LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  // QUEUED to RUNNING, unless another worker got there first or the job was
+  // cancelled while queued; null then
+  public DbWarehouseImportJob claim(String id) {
+    DbWarehouseImportJob job = lock(id);
+    if (job == null || job.status != Status.QUEUED) {
+      return null;
+    }
+    job.status = Status.RUNNING;
+    if (job.startedAt == null) {
+      job.startedAt = LocalDateTime.now();
+    }
+    return job;
+  }
+
+  // Jobs a previous run of the application left unfinished, back in the queue
+  public List<String> requeueInterrupted() {
+    update("status = ?1, finishedAt = ?2 WHERE status = ?3", Status.CANCELLED, LocalDateTime.now(), Status.CANCELLING);
+    update("status = ?1 WHERE status = ?2", Status.QUEUED, Status.RUNNING);
+    return list("status", Sort.ascending("createdAt"), Status.QUEUED).stream().map(job -> job.id).toList();
+  }
+
+  /**
+   * Records a committed chunk: the file position after its last row, its row
+   * counts and time, and its rejected rows while the job has stored fewer than
+   * maxStoredErrors. Must run in the transaction that created the chunk's
+   * warehouses. Returns false if the job was asked to stop, having marked it
+   * CANCELLED.
+   */
+  public boolean advance(
+      String id, long bytesCommitted, int rows, List<ImportRowError> errors, long millis, int maxStoredErrors) {
+    DbWarehouseImportJob job = lock(id);
+    long stored = job.rowsRejected;
+    for (ImportRowError error : errors) {
+      if (stored++ >= maxStoredErrors) {
+        break;
+      }
+      DbWarehouseImportError row = new DbWarehouseImportError();
+      row.jobId = id;
+      row.rowNumber = error.row();
+      row.businessUnitCode = error.businessUnitCode();
+      row.message = truncate(error.message(), 1024);
+      getEntityManager().persist(row);
+    }
+    job.bytesCommitted = bytesCommitted;
+    job.rowsProcessed += rows;
+    job.rowsAccepted += rows - errors.size();
+    job.rowsRejected += errors.size();
+    job.activeMillis += millis;
+    if (job.status == Status.CANCELLING) {
+      job.status = Status.CANCELLED;
+      job.finishedAt = LocalDateTime.now();
+      return false;
+    }
+    return true;
+  }
+
+  public void finish(String id, Status status, String failure) {
+    DbWarehouseImportJob job = lock(id);
+    job.status = status;
+    job.failure = failure != null ? truncate(failure, 1024) : null;
+    job.finishedAt = LocalDateTime.now();
+  }
+
+  public List<ImportRowError> errors(String id, int page, int pageSize) {
+    return getEntityManager()
+        .createQuery("FROM DbWarehouseImportError e WHERE e.jobId = :id ORDER BY e.rowNumber", DbWarehouseImportError.class)
+        .setParameter("id", id)
+        .setFirstResult(page * pageSize)
+        .setMaxResults(pageSize)
+        .getResultStream()
+        .map(e -> new ImportRowError(e.rowNumber, e.businessUnitCode, e.message))
+        .toList();
+  }
+
+  private static String truncate(String value, int length) {
+    return value.length() <= length ? value : value.substring(0, length);
+  }
+}
@@ -0,0 +1,352 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import com.fulfilment.application.monolith.routing.DataSourceRouting;
+import com.fulfilment.application.monolith.warehouses.adapters.csvimport.DbWarehouseImportJob.Status;
+import com.fulfilment.application.monolith.warehouses.domain.models.RejectedWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ImportWarehousesOperation;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Warehouse CSV imports run in the background.
+ *
+ * An upload is spooled to {@code warehouse.import.directory} as it arrives and
+ * its header checked; the job is then queued and the caller gets its id. A
+ * worker streams the file through {@link WarehouseCsvReader} and hands every
+ * {@code chunk-size} rows to {@link ImportWarehousesOperation} in one
+ * transaction, which also records the rows refused and the file position
+ * after the chunk. Progress therefore never runs ahead of the warehouses
+ * created: a cancelled, failed or interrupted job resumes at that position,
+ * without creating any row twice.
+ *
+ * A chunk that fails because a concurrent create took one of its codes is
+ * retried a row per transaction, so only that row is refused. Any other error
+ * fails the job at its last committed chunk.
+ */
+@ApplicationScoped
+public class WarehouseImportJobs {
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseImportJobs.class.getName());
+
+  private static final List<String> COLUMNS = List.of("businessUnitCode", "location", "capacity", "stock");
+
+  @ConfigProperty(name = "warehouse.import.directory", defaultValue = "data/imports")
+  Path directory;
+
+  @ConfigProperty(name = "warehouse.import.chunk-size", defaultValue = "500")
+  int chunkSize;
+
+  @ConfigProperty(name = "warehouse.import.workers", defaultValue = "1")
+  int workerCount;
+
+  @ConfigProperty(name = "warehouse.import.max-stored-errors", defaultValue = "10000")
+  int maxStoredErrors;
+
+  @ConfigProperty(name = "warehouse.import.resume-at-startup", defaultValue = "true")
+  boolean resumeAtStartup;
+
+  @Inject
+  ImportWarehousesOperation importOperation;
+
+  @Inject
+  WarehouseImportJobRepository jobs;
+
+  private ExecutorService workers;
+  private volatile boolean stopping;
+
+  void onStart(@Observes StartupEvent event) throws IOException {
+    Files.createDirectories(directory);
+    AtomicInteger threads = new AtomicInteger();
+    workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+      Thread thread = new Thread(runnable, "warehouse-import-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (resumeAtStartup) {
+      recover();
+    }
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    // Running jobs stop after their current chunk and stay RUNNING, to be
+    // resumed at the next startup
+    stopping = true;
+    workers.shutdown();
+    try {
+      workers.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Queues the jobs a previous run left unfinished
+  void recover() {
+    List<String> interrupted = QuarkusTransaction.requiringNew().call(jobs::requeueInterrupted);
+    for (String id : interrupted) {
+      LOGGER.infof("Resuming warehouse import %s", id);
+      queue(id);
+    }
+  }
+
+  /**
+   * Spools the CSV and queues its import. The header must name the columns
+   * businessUnitCode, location, capacity and stock, in any order; other
+   * columns are ignored.
+   */
+  public WarehouseImportStatus submit(InputStream csv) throws IOException {
+    String id = UUID.randomUUID().toString();
+    Path file = file(id);
+    try {
+      Files.copy(csv, file);
+      try (WarehouseCsvReader reader = WarehouseCsvReader.open(file, 0)) {
+        Columns.of(reader.next());
+      }
+      long size = Files.size(file);
+      WarehouseImportStatus status = QuarkusTransaction.requiringNew()
+          .call(() -> WarehouseImportStatus.of(jobs.create(id, size)));
+      queue(id);
+      return status;
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  public WarehouseImportStatus status(String id) {
+    return QuarkusTransaction.requiringNew().call(() -> {
+      DbWarehouseImportJob job = jobs.findById(id);
+      return job != null ? WarehouseImportStatus.of(job) : null;
+    });
+  }
+
+  public List<ImportRowError> errors(String id, int page, int pageSize) {
+    return QuarkusTransaction.requiringNew().call(() -> jobs.errors(id, page, pageSize));
+  }
+
+  // A queued job is cancelled at once, a running one after its current chunk.
+  // IllegalStateException if the job has already ended
+  public WarehouseImportStatus cancel(String id) {
+    return QuarkusTransaction.requiringNew().call(() -> {
+      DbWarehouseImportJob job = jobs.lock(id);
+      if (job == null) {
+        return null;
+      }
+      switch (job.status) {
+        case QUEUED -> {
+          job.status = Status.CANCELLED;
+          job.finishedAt = LocalDateTime.now();
+        }
+        case RUNNING -> job.status = Status.CANCELLING;
+        case CANCELLING -> { }
+        default -> throw new IllegalStateException(
+            "Import " + id + " is " + job.status.name().toLowerCase(Locale.ROOT) + " and cannot be cancelled");
+      }
+      return WarehouseImportStatus.of(job);
+    });
+  }
+
+  // Queues a cancelled or failed job again, to continue after its last
+  // committed chunk. IllegalStateException for any other job
+  public WarehouseImportStatus resume(String id) {
+    WarehouseImportStatus status = QuarkusTransaction.requiringNew().call(() -> {
+      DbWarehouseImportJob job = jobs.lock(id);
+      if (job == null) {
+        return null;
+      }
+      if (job.status != Status.CANCELLED && job.status != Status.FAILED) {
+        throw new IllegalStateException(
+            "Import " + id + " is " + job.status.name().toLowerCase(Locale.ROOT) + " and cannot be resumed");
+      }
+      job.status = Status.QUEUED;
+      job.failure = null;
+      job.finishedAt = null;
+      return WarehouseImportStatus.of(job);
+    });
+    if (status != null) {
+      queue(id);
+    }
+    return status;
+  }
+
+  // Each job runs in a request context of its own, ended when the job returns
+  private void queue(String id) {
+    workers.execute(DataSourceRouting.outsideRequest(() -> run(id)));
+  }
+
+  private void run(String id) {
+    DbWarehouseImportJob job = QuarkusTransaction.requiringNew().call(() -> jobs.claim(id));
+    if (job == null) {
+      return;
+    }
+
+    long row = job.rowsProcessed;
+    try (WarehouseCsvReader reader = WarehouseCsvReader.open(file(id), 0)) {
+      Columns columns = Columns.of(reader.next());
+      WarehouseCsvReader rows = job.bytesCommitted > reader.offset()
+          ? WarehouseCsvReader.open(file(id), job.bytesCommitted)
+          : reader;
+      try {
+        while (!stopping) {
+          List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+          List<String> fields;
+          while (chunk.size() < chunkSize && (fields = rows.next()) != null) {
+            chunk.add(columns.parse(++row, fields, rows.offset()));
+          }
+          if (chunk.isEmpty()) {
+            QuarkusTransaction.requiringNew().run(() -> jobs.finish(id, Status.COMPLETED, null));
+            Files.deleteIfExists(file(id));
+            LOGGER.infof("Warehouse import %s completed", id);
+            return;
+          }
+          if (!commit(id, chunk)) {
+            LOGGER.infof("Warehouse import %s cancelled after row %d", id, row);
+            return;
+          }
+        }
+      } finally {
+        if (rows != reader) {
+          rows.close();
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.errorf(e, "Warehouse import %s failed", id);
+      String failure = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+      QuarkusTransaction.requiringNew().run(() -> jobs.finish(id, Status.FAILED, failure));
+    }
+  }
+
+  // False if the job was cancelled meanwhile
+  private boolean commit(String id, List<ParsedRow> chunk) {
+    try {
+      return commitChunk(id, chunk);
+    } catch (IllegalArgumentException e) {
+      // A code created concurrently: find it a row at a time
+      for (ParsedRow row : chunk) {
+        boolean carryOn;
+        try {
+          carryOn = commitChunk(id, List.of(row));
+        } catch (IllegalArgumentException refused) {
+          ParsedRow rejected = new ParsedRow(row.number(), null, row.businessUnitCode(), refused.getMessage(), row.end());
+          carryOn = commitChunk(id, List.of(rejected));
+        }
+        if (!carryOn) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private boolean commitChunk(String id, List<ParsedRow> chunk) {
+    long started = System.nanoTime();
+    return QuarkusTransaction.requiringNew().call(() -> {
+      List<Warehouse> valid = new ArrayList<>(chunk.size());
+      Map<Warehouse, ParsedRow> rowsByWarehouse = new IdentityHashMap<>();
+      List<ImportRowError> errors = new ArrayList<>();
+      for (ParsedRow row : chunk) {
+        if (row.warehouse() != null) {
+          valid.add(row.warehouse());
+          rowsByWarehouse.put(row.warehouse(), row);
+        } else {
+          errors.add(new ImportRowError(row.number(), row.businessUnitCode(), row.error()));
+        }
+      }
+      if (!valid.isEmpty()) {
+        for (RejectedWarehouse rejected : importOperation.importBatch(valid)) {
+          ParsedRow row = rowsByWarehouse.get(rejected.warehouse());
+          errors.add(new ImportRowError(row.number(), row.businessUnitCode(), rejected.reason()));
+        }
+      }
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+      return jobs.advance(id, chunk.get(chunk.size() - 1).end(), chunk.size(), errors, millis, maxStoredErrors);
+    });
+  }
+
+  private Path file(String id) {
+    return directory.resolve(id + ".csv");
+  }
+
+  // A data row: the warehouse it describes, or why it could not be read
+  private record ParsedRow(long number, Warehouse warehouse, String businessUnitCode, String error, long end) {}
+
+  // Positions of the required columns in the header
+  private record Columns(int[] positions) {
+
+    static Columns of(List<String> header) {
+      if (header == null) {
+        throw new IllegalArgumentException("The CSV is empty; it needs a header row naming " + COLUMNS);
+      }
+      int[] positions = new int[COLUMNS.size()];
+      for (int i = 0; i < COLUMNS.size(); i++) {
+        positions[i] = -1;
+        for (int column = 0; column < header.size(); column++) {
+          if (header.get(column).trim().equalsIgnoreCase(COLUMNS.get(i))) {
+            positions[i] = column;
+          }
+        }
+        if (positions[i] < 0) {
+          throw new IllegalArgumentException(
+              "The CSV header has no '" + COLUMNS.get(i) + "' column; it must name " + COLUMNS);
+        }
+      }
+      return new Columns(positions);
+    }
+
+    ParsedRow parse(long number, List<String> fields, long end) {
+      String[] values = new String[positions.length];
+      for (int i = 0; i < positions.length; i++) {
+        values[i] = positions[i] < fields.size() ? fields.get(positions[i]).trim() : "";
+      }
+      String code = values[0].isEmpty() ? null : values[0];
+      for (int i = 0; i < values.length; i++) {
+        if (values[i].isEmpty()) {
+          return new ParsedRow(number, null, code, "Missing value for " + COLUMNS.get(i), end);
+        }
+      }
+
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = code;
+      warehouse.location = values[1];
+      for (int i = 2; i <= 3; i++) {
+        int value;
+        try {
+          value = Integer.parseInt(values[i]);
+        } catch (NumberFormatException e) {
+          return new ParsedRow(
+              number, null, code, COLUMNS.get(i) + " must be a whole number, not '" + values[i] + "'", end);
+        }
+        if (value < 0) {
+          return new ParsedRow(number, null, code, COLUMNS.get(i) + " must not be negative", end);
+        }
+        if (i == 2) {
+          warehouse.capacity = value;
+        } else {
+          warehouse.stock = value;
+        }
+      }
+      return new ParsedRow(number, warehouse, code, null, end);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a warehouse import: bytes and rows committed so far, and rows
+ * per second of running time.
+ */
+public record WarehouseImportStatus(
+    String id,
+    String status,
+    long bytesTotal,
+    long bytesCommitted,
+    long rowsProcessed,
+    long rowsAccepted,
+    long rowsRejected,
+    double rowsPerSecond,
+    LocalDateTime createdAt,
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    String failure) {
+
+  static WarehouseImportStatus of(DbWarehouseImportJob job) {
+    double rowsPerSecond = job.activeMillis > 0 ? job.rowsProcessed * 1000.0 / job.activeMillis : 0;
+    return new WarehouseImportStatus(
+        job.id,
+        job.status.name(),
+        job.bytesTotal,
+        job.bytesCommitted,
+        job.rowsProcessed,
+        job.rowsAccepted,
+        job.rowsRejected,
+        Math.round(rowsPerSecond * 10) / 10.0,
+        job.createdAt,
+        job.startedAt,
+        job.finishedAt,
+        job.failure);
+  }
+}
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Last stock delta log entry written to a warehouse, committed together with
+ * the stock it produced, so entries up to it are never replayed after a crash.
+ */
+@Entity
+@Table(name = "stock_delta_checkpoint")
+public class DbStockDeltaCheckpoint {
+
+  @Id
+  public String businessUnitCode;
+
+  @Column(nullable = false)
+  public long lastSequence;
+}
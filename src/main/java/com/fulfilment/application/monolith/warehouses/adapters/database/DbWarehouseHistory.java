@@ -0,0 +1,68 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a committed warehouse change, one row per
+ * (businessUnitCode, version).
+ *
+ * Snapshot rows carry the full state. Delta rows only carry the fields that
+ * changed since the previous version; unchanged fields are null. That is
+ * unambiguous because location, capacity and stock are never cleared and
+ * archivedAt only ever goes from null to a value.
+ */
+@Entity
+@Table(
+    name = "warehouse_history",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"businessUnitCode", "version"}),
+    indexes = @Index(name = "idx_warehouse_history_changed", columnList = "changedAt, snapshot"))
+public class DbWarehouseHistory {
+
+  @Id
+  @GeneratedValue
+  public Long id;
+
+  @Column(nullable = false)
+  public String businessUnitCode;
+
+  @Column(nullable = false)
+  public Long version;
+
+  @Column(nullable = false)
+  public LocalDateTime changedAt;
+
+  @Column(nullable = false)
+  public boolean snapshot;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  public ChangeType changeType;
+
+  public String location;
+
+  public Integer capacity;
+
+  public Integer stock;
+
+  public LocalDateTime createdAt;
+
+  public LocalDateTime archivedAt;
+
+  public enum ChangeType {
+    CREATED,
+    UPDATED,
+    ARCHIVED
+  }
+
+  public DbWarehouseHistory() {
+  }
+}
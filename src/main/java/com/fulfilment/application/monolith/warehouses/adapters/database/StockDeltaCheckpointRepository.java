@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@ApplicationScoped
+public class StockDeltaCheckpointRepository implements PanacheRepositoryBase<DbStockDeltaCheckpoint, String> {
+
+  // Last sequence written per business unit code; codes never flushed are absent
+  public Map<String, Long> findLastSequences(Collection<String> businessUnitCodes) {
+    if (businessUnitCodes.isEmpty()) {
+      return Map.of();
+    }
+    return list("businessUnitCode IN ?1", businessUnitCodes).stream()
+        .collect(Collectors.toMap(c -> c.businessUnitCode, c -> c.lastSequence));
+  }
+
+  public long maxLastSequence() {
+    Long max = getEntityManager()
+        .createQuery("SELECT MAX(c.lastSequence) FROM DbStockDeltaCheckpoint c", Long.class)
+        .getSingleResult();
+    return max != null ? max : 0;
+  }
+
+  // Must run in the transaction that writes the stock up to lastSequence
+  public void save(String businessUnitCode, long lastSequence) {
+    DbStockDeltaCheckpoint checkpoint = findById(businessUnitCode);
+    if (checkpoint == null) {
+      checkpoint = new DbStockDeltaCheckpoint();
+      checkpoint.businessUnitCode = businessUnitCode;
+      checkpoint.lastSequence = lastSequence;
+      persist(checkpoint);
+    } else {
+      checkpoint.lastSequence = lastSequence;
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseHistoryStore;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.Query;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class WarehouseHistoryRepository
+    implements WarehouseHistoryStore, PanacheRepository<DbWarehouseHistory> {
+
+  @ConfigProperty(name = "warehouse.history.snapshot-interval", defaultValue = "10")
+  int snapshotInterval;
+
+  /**
+   * Synchronous (IN_PROGRESS) observer: the history row is persisted in the
+   * same transaction as the change itself, so it commits or rolls back with it.
+   */
+  void onWarehouseChanged(@Observes WarehouseChangedEvent event) {
+    Warehouse previous = event.getPrevious();
+    Warehouse current = event.getCurrent();
+    long version = current.version != null ? current.version : 0L;
+
+    // Nothing was dirty, so Hibernate did not bump the version: nothing to record
+    if (previous != null && Objects.equals(previous.version, current.version)) {
+      return;
+    }
+
+    DbWarehouseHistory row = new DbWarehouseHistory();
+    row.businessUnitCode = current.businessUnitCode;
+    row.version = version;
+    row.changedAt = LocalDateTime.now();
+    row.changeType = DbWarehouseHistory.ChangeType.valueOf(event.getType().name());
+    row.snapshot = previous == null || version % snapshotInterval == 0;
+
+    if (row.snapshot) {
+      row.location = current.location;
+      row.capacity = current.capacity;
+      row.stock = current.stock;
+      row.createdAt = current.createdAt;
+      row.archivedAt = current.archivedAt;
+    } else {
+      row.location = Objects.equals(previous.location, current.location) ? null : current.location;
+      row.capacity = Objects.equals(previous.capacity, current.capacity) ? null : current.capacity;
+      row.stock = Objects.equals(previous.stock, current.stock) ? null : current.stock;
+      row.archivedAt = Objects.equals(previous.archivedAt, current.archivedAt) ? null : current.archivedAt;
+    }
+
+    persist(row);
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCodeAsOf(String buCode, LocalDateTime asOf) {
+    // Start from the latest snapshot at or before asOf and apply only the deltas after it
+    DbWarehouseHistory base = find(
+        "businessUnitCode = ?1 AND snapshot = true AND changedAt <= ?2",
+        Sort.descending("version"), buCode, asOf).firstResult();
+    if (base == null) {
+      return null;
+    }
+
+    Warehouse warehouse = apply(null, base);
+    for (DbWarehouseHistory delta : list(
+        "businessUnitCode = ?1 AND version > ?2 AND changedAt <= ?3",
+        Sort.ascending("version"), buCode, base.version, asOf)) {
+      warehouse = apply(warehouse, delta);
+    }
+    return warehouse;
+  }
+
+  @Override
+  public List<Warehouse> getAllAsOf(LocalDateTime asOf) {
+    return search(asOf, null, null, null, null, null, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Same filters, sorting and paging as {@link WarehouseRepository#search},
+   * evaluated over the fleet as it was at {@code asOf}. Warehouses without a
+   * capacity sort first, ties by business unit code.
+   */
+  @SuppressWarnings("unchecked")
+  public List<Warehouse> search(
+      LocalDateTime asOf,
+      String location,
+      Integer minCapacity,
+      Integer maxCapacity,
+      String sortBy,
+      String sortOrder,
+      int page,
+      int pageSize) {
+
+    Map<String, Object> params = new HashMap<>();
+    StringBuilder sql = new StringBuilder("SELECT w.businessUnitCode, w.version, w.location, w.capacity,"
+        + " w.stock, w.createdAt, w.archivedAt FROM ");
+    appendActiveAsOf(sql, params, asOf, location, minCapacity, maxCapacity);
+
+    String sortField = "capacity".equals(sortBy) ? "w.capacity" : "w.createdAt";
+    sql.append(" ORDER BY ").append(sortField)
+        .append("desc".equalsIgnoreCase(sortOrder) ? " DESC NULLS LAST" : " ASC NULLS FIRST")
+        .append(", w.businessUnitCode");
+
+    Query query = getEntityManager().createNativeQuery(sql.toString());
+    params.forEach(query::setParameter);
+    query.setFirstResult((int) Math.min((long) page * pageSize, Integer.MAX_VALUE));
+    query.setMaxResults(pageSize);
+
+    List<Object[]> rows = query.getResultList();
+    List<Warehouse> result = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = (String) row[0];
+      warehouse.version = ((Number) row[1]).longValue();
+      warehouse.location = (String) row[2];
+      warehouse.capacity = row[3] != null ? ((Number) row[3]).intValue() : null;
+      warehouse.stock = row[4] != null ? ((Number) row[4]).intValue() : null;
+      warehouse.createdAt = toLocalDateTime(row[5]);
+      warehouse.archivedAt = toLocalDateTime(row[6]);
+      result.add(warehouse);
+    }
+    return result;
+  }
+
+  /** Number of warehouses {@link #search} matches across all pages. */
+  public long countAsOf(
+      LocalDateTime asOf, String location, Integer minCapacity, Integer maxCapacity) {
+    Map<String, Object> params = new HashMap<>();
+    StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ");
+    appendActiveAsOf(sql, params, asOf, location, minCapacity, maxCapacity);
+
+    Query query = getEntityManager().createNativeQuery(sql.toString());
+    params.forEach(query::setParameter);
+    return ((Number) query.getSingleResult()).longValue();
+  }
+
+  /*
+   * The state of every warehouse at asOf as a derived table w, restricted to the
+   * active ones matching the filters. For each code, r holds its latest version
+   * at or before asOf and the latest snapshot it starts from; each field is then
+   * the newest value stored between the two, which is what replaying the
+   * snapshot and its deltas gives (deltas leave unchanged fields null).
+   */
+  private static void appendActiveAsOf(
+      StringBuilder sql,
+      Map<String, Object> params,
+      LocalDateTime asOf,
+      String location,
+      Integer minCapacity,
+      Integer maxCapacity) {
+    sql.append("(SELECT r.businessUnitCode, r.version, ")
+        .append(latestValue("location")).append(", ")
+        .append(latestValue("capacity")).append(", ")
+        .append(latestValue("stock")).append(", ")
+        .append(latestValue("createdAt")).append(", ")
+        .append(latestValue("archivedAt"))
+        .append(" FROM (SELECT h.businessUnitCode, MAX(h.version) AS version,"
+            + " MAX(CASE WHEN h.snapshot THEN h.version END) AS base"
+            + " FROM warehouse_history h WHERE h.changedAt <= :asOf GROUP BY h.businessUnitCode) r"
+            + " WHERE r.base IS NOT NULL) w WHERE w.archivedAt IS NULL");
+    params.put("asOf", asOf);
+
+    if (location != null && !location.trim().isEmpty()) {
+      sql.append(" AND w.location = :location");
+      params.put("location", location);
+    }
+    if (minCapacity != null) {
+      sql.append(" AND w.capacity >= :minCapacity");
+      params.put("minCapacity", minCapacity);
+    }
+    if (maxCapacity != null) {
+      sql.append(" AND w.capacity <= :maxCapacity");
+      params.put("maxCapacity", maxCapacity);
+    }
+  }
+
+  private static String latestValue(String column) {
+    return "(SELECT f." + column + " FROM warehouse_history f"
+        + " WHERE f.businessUnitCode = r.businessUnitCode AND f.version BETWEEN r.base AND r.version"
+        + " AND f." + column + " IS NOT NULL ORDER BY f.version DESC FETCH FIRST 1 ROW ONLY) AS " + column;
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+  }
+
+  private Warehouse apply(Warehouse warehouse, DbWarehouseHistory row) {
+    if (row.snapshot || warehouse == null) {
+      warehouse = new Warehouse();
+      warehouse.businessUnitCode = row.businessUnitCode;
+      warehouse.location = row.location;
+      warehouse.capacity = row.capacity;
+      warehouse.stock = row.stock;
+      warehouse.createdAt = row.createdAt;
+      warehouse.archivedAt = row.archivedAt;
+    } else {
+      warehouse.location = row.location != null ? row.location : warehouse.location;
+      warehouse.capacity = row.capacity != null ? row.capacity : warehouse.capacity;
+      warehouse.stock = row.stock != null ? row.stock : warehouse.stock;
+      warehouse.archivedAt = row.archivedAt != null ? row.archivedAt : warehouse.archivedAt;
+    }
+    warehouse.version = row.version;
+    return warehouse;
+  }
+}
@@ -1,15 +1,40 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.routing.ReadOnly;
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 
 @ApplicationScoped
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  private static final String BUSINESS_UNIT_CODE_CONSTRAINT = "uk_warehouse_business_unit_code";
+
+  // Rows per INSERT batch in createAll
+  private static final int CREATE_BATCH_SIZE = 50;
+
+  // Guarded stock updates retried after the row changed between statement and read
+  private static final int MAX_ADJUST_ATTEMPTS = 3;
+
+  @Inject
+  Event<WarehouseChangedEvent> warehouseChangedEvent;
+
   @Override
+  @ReadOnly
   public List<Warehouse> getAll() {
     // Only return active (non-archived) warehouses
     return list("archivedAt IS NULL").stream().map(DbWarehouse::toWarehouse).toList();
@@ -26,6 +51,71 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     dbWarehouse.archivedAt = warehouse.archivedAt;
 
     this.persist(dbWarehouse);
+    // Flush so a duplicate code fails here, as the same error the lookup gives,
+    // rather than at commit: create may skip that lookup for codes the
+    // BusinessUnitCodeFilter rules out, leaving the unique constraint to decide
+    try {
+      getEntityManager().flush();
+    } catch (PersistenceException e) {
+      if (violates(e, BUSINESS_UNIT_CODE_CONSTRAINT)) {
+        throw new IllegalArgumentException(
+            "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists", e);
+      }
+      throw e;
+    }
+    warehouseChangedEvent.fire(new WarehouseChangedEvent(
+        WarehouseChangedEvent.Type.CREATED, null, dbWarehouse.toWarehouse()));
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    List<DbWarehouse> created = new ArrayList<>(warehouses.size());
+    for (Warehouse warehouse : warehouses) {
+      DbWarehouse dbWarehouse = new DbWarehouse();
+      dbWarehouse.businessUnitCode = warehouse.businessUnitCode;
+      dbWarehouse.location = warehouse.location;
+      dbWarehouse.capacity = warehouse.capacity;
+      dbWarehouse.stock = warehouse.stock;
+      dbWarehouse.createdAt = warehouse.createdAt;
+      dbWarehouse.archivedAt = warehouse.archivedAt;
+      created.add(dbWarehouse);
+    }
+
+    // One flush for all of them, sent as JDBC batches of this session only
+    // (ids come from warehouse_seq in blocks of 50, which batching needs); the
+    // history rows written by the CREATED observers get a second one
+    Session session = getEntityManager().unwrap(Session.class);
+    Integer batchSize = session.getJdbcBatchSize();
+    session.setJdbcBatchSize(CREATE_BATCH_SIZE);
+    try {
+      persist(created);
+      try {
+        session.flush();
+      } catch (PersistenceException e) {
+        if (violates(e, BUSINESS_UNIT_CODE_CONSTRAINT)) {
+          throw new IllegalArgumentException(
+              "A warehouse with one of these business unit codes already exists", e);
+        }
+        throw e;
+      }
+      for (DbWarehouse dbWarehouse : created) {
+        warehouseChangedEvent.fire(new WarehouseChangedEvent(
+            WarehouseChangedEvent.Type.CREATED, null, dbWarehouse.toWarehouse()));
+      }
+      session.flush();
+    } finally {
+      session.setJdbcBatchSize(batchSize);
+    }
+  }
+
+  private static boolean violates(Throwable e, String constraint) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+          && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -39,6 +129,8 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
           "Warehouse with business unit code '" + warehouse.businessUnitCode + "' not found for update");
     }
 
+    Warehouse previous = managed.toWarehouse();
+
     // Apply changes onto the managed entity.
     // JPA will increment the @Version column and throw OptimisticLockException
     // on flush if another transaction committed a change in the meantime.
@@ -50,6 +142,48 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     // persist() is a no-op for already-managed entities; flush forces the
     // version check and the UPDATE to happen within this transaction.
     getEntityManager().flush();
+
+    WarehouseChangedEvent.Type type = previous.archivedAt == null && managed.archivedAt != null
+        ? WarehouseChangedEvent.Type.ARCHIVED
+        : WarehouseChangedEvent.Type.UPDATED;
+    warehouseChangedEvent.fire(new WarehouseChangedEvent(type, previous, managed.toWarehouse()));
+  }
+
+  @Override
+  public StockAdjustment adjustStock(String buCode, int delta) {
+    for (int attempt = 1; ; attempt++) {
+      // The guard and the addition are one statement: the row lock it takes
+      // orders concurrent adjustments, and each sees the stock the last left
+      int updated = update(
+          "stock = COALESCE(stock, 0) + ?1, version = version + 1"
+              + " WHERE businessUnitCode = ?2 AND archivedAt IS NULL"
+              + " AND COALESCE(stock, 0) + ?1 BETWEEN 0 AND COALESCE(capacity, 0)",
+          delta, buCode);
+
+      // Bulk statements bypass the persistence context; read the row as it is now
+      DbWarehouse row = find("businessUnitCode", buCode).firstResult();
+      if (row != null) {
+        getEntityManager().refresh(row);
+      }
+      if (updated == 1) {
+        Warehouse current = row.toWarehouse();
+        Warehouse previous = row.toWarehouse();
+        previous.stock -= delta;
+        previous.version -= 1;
+        warehouseChangedEvent.fire(
+            new WarehouseChangedEvent(WarehouseChangedEvent.Type.UPDATED, previous, current));
+        return new StockAdjustment(buCode, delta, StockAdjustment.Outcome.APPLIED, row.stock, row.capacity);
+      }
+
+      StockAdjustment refused = StockAdjustment.refusedBy(buCode, delta, row != null ? row.toWarehouse() : null);
+      if (refused != null) {
+        return refused;
+      }
+      // Changed in between by a writer that has committed since: the guard may pass now
+      if (attempt == MAX_ADJUST_ATTEMPTS) {
+        throw new OptimisticLockException("Stock of warehouse " + buCode + " kept changing during adjustment");
+      }
+    }
   }
 
   @Override
@@ -58,6 +192,8 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     throw new UnsupportedOperationException("Unimplemented method 'remove'");
   }
 
+  @Override
+  @ReadOnly
   public List<com.fulfilment.application.monolith.warehouses.domain.models.Warehouse> search(
       String location,
       Integer minCapacity,
@@ -67,9 +203,33 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       int page,
       int pageSize) {
 
-    StringBuilder query = new StringBuilder("archivedAt IS NULL");
     java.util.Map<String, Object> params = new java.util.HashMap<>();
+    StringBuilder query = activeFilter(location, minCapacity, maxCapacity, params);
+
+    // Default sort mapping
+    String sortField = "capacity".equals(sortBy) ? "capacity" : "createdAt";
+    String order = "desc".equalsIgnoreCase(sortOrder) ? "DESC" : "ASC";
+    query.append(" ORDER BY ").append(sortField).append(" ").append(order);
 
+    return find(query.toString(), params)
+        .page(page, pageSize)
+        .list()
+        .stream()
+        .map(DbWarehouse::toWarehouse)
+        .toList();
+  }
+
+  @Override
+  @ReadOnly
+  public long countActive(String location, Integer minCapacity, Integer maxCapacity) {
+    java.util.Map<String, Object> params = new java.util.HashMap<>();
+    return count(activeFilter(location, minCapacity, maxCapacity, params).toString(), params);
+  }
+
+  // WHERE clause shared by search and countActive, binding its parameters into params
+  private StringBuilder activeFilter(
+      String location, Integer minCapacity, Integer maxCapacity, java.util.Map<String, Object> params) {
+    StringBuilder query = new StringBuilder("archivedAt IS NULL");
     if (location != null && !location.trim().isEmpty()) {
       query.append(" AND location = :location");
       params.put("location", location);
@@ -82,18 +242,7 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
       query.append(" AND capacity <= :maxCapacity");
       params.put("maxCapacity", maxCapacity);
     }
-
-    // Default sort mapping
-    String sortField = "capacity".equals(sortBy) ? "capacity" : "createdAt";
-    String order = "desc".equalsIgnoreCase(sortOrder) ? "DESC" : "ASC";
-    query.append(" ORDER BY ").append(sortField).append(" ").append(order);
-
-    return find(query.toString(), params)
-        .page(page, pageSize)
-        .list()
-        .stream()
-        .map(DbWarehouse::toWarehouse)
-        .toList();
+    return query;
   }
 
   @Override
@@ -101,4 +250,30 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     DbWarehouse dbWarehouse = find("businessUnitCode", buCode).firstResult();
     return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
   }
+
+  @Override
+  public List<String> getAllBusinessUnitCodes() {
+    return getEntityManager()
+        .createQuery("SELECT w.businessUnitCode FROM DbWarehouse w", String.class)
+        .getResultList();
+  }
+
+  @Override
+  @ReadOnly
+  public List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    if (buCodes.isEmpty()) {
+      return List.of();
+    }
+    return list("businessUnitCode IN ?1", buCodes).stream().map(DbWarehouse::toWarehouse).toList();
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+    // SELECT ... FOR UPDATE: blocks concurrent writers on this row until the
+    // surrounding transaction ends. Must be called inside a transaction.
+    DbWarehouse dbWarehouse = find("businessUnitCode", buCode)
+        .withLock(LockModeType.PESSIMISTIC_WRITE)
+        .firstResult();
+    return dbWarehouse != null ? dbWarehouse.toWarehouse() : null;
+  }
 }
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+/**
+ * Business unit code filter since startup: its size and estimated false
+ * positive rate from the bits set, the create lookups it answered, the SELECTs
+ * it saved ("definitely absent"), and the false positives it let through, also
+ * as a share of the absent codes checked.
+ */
+public record BusinessUnitCodeFilterStats(
+    boolean enabled,
+    int codes,
+    long bits,
+    int hashFunctions,
+    double estimatedFalsePositiveRate,
+    long lookups,
+    long selectsSaved,
+    long falsePositives,
+    double observedFalsePositiveRate) {}
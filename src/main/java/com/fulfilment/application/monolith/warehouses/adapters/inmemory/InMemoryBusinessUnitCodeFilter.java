@@ -0,0 +1,223 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitCodeFilter;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Bloom filter over every business unit code in the store, archived warehouses
+ * included, so creating a warehouse with a new code can skip the uniqueness
+ * lookup.
+ *
+ * Sized for {@code warehouse.code-filter.expected-codes} (or twice the codes
+ * loaded, if more) at {@code warehouse.code-filter.false-positive-rate}, with
+ * {@code k} probes derived from one 64-bit hash by double hashing. Loaded at
+ * startup and then fed the codes of committed creates; codes created while a
+ * rebuild is loading are replayed into the new filter before it is published.
+ * Warehouses are never deleted, so the filter never has to forget a code; rows
+ * removed behind its back only cost a false positive.
+ *
+ * The filter is an optimization, never the authority: a code it has not seen
+ * (created by another instance, or written without an event) is still refused
+ * by the unique constraint when the store inserts it. Until the first load, or
+ * when disabled, every code might exist.
+ */
+@ApplicationScoped
+public class InMemoryBusinessUnitCodeFilter implements BusinessUnitCodeFilter {
+
+  private static final Logger LOGGER = Logger.getLogger(InMemoryBusinessUnitCodeFilter.class.getName());
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @ConfigProperty(name = "warehouse.code-filter.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "warehouse.code-filter.expected-codes", defaultValue = "100000")
+  int expectedCodes;
+
+  @ConfigProperty(name = "warehouse.code-filter.false-positive-rate", defaultValue = "0.01")
+  double falsePositiveRate;
+
+  private final Object rebuildLock = new Object();
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder selectsSaved = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  // Guarded by this for writes; null until loaded
+  private volatile Bits bits;
+  // Codes added while a rebuild is loading, guarded by this
+  private List<String> pending;
+
+  void onStart(@Observes StartupEvent event) {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    if (event.getType() == WarehouseChangedEvent.Type.CREATED) {
+      add(event.getCurrent().businessUnitCode);
+    }
+  }
+
+  @Override
+  public boolean mightExist(String businessUnitCode) {
+    Bits current = bits;
+    if (!enabled || current == null || businessUnitCode == null) {
+      return true;
+    }
+    lookups.increment();
+    if (current.mightContain(businessUnitCode)) {
+      return true;
+    }
+    selectsSaved.increment();
+    return false;
+  }
+
+  @Override
+  public void recordFalsePositive(String businessUnitCode) {
+    if (enabled && bits != null) {
+      falsePositives.increment();
+    }
+  }
+
+  @Override
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      synchronized (this) {
+        pending = new ArrayList<>();
+      }
+      List<String> codes = QuarkusTransaction.requiringNew().call(warehouseStore::getAllBusinessUnitCodes);
+
+      Bits next = Bits.sizedFor(Math.max(expectedCodes, codes.size() * 2), falsePositiveRate);
+      codes.forEach(next::add);
+      synchronized (this) {
+        pending.forEach(next::add);
+        pending = null;
+        bits = next;
+      }
+      LOGGER.infof("Business unit code filter rebuilt: %d codes, %d bits, %d hash functions",
+          codes.size(), next.size(), next.hashFunctions);
+    }
+  }
+
+  public synchronized BusinessUnitCodeFilterStats stats() {
+    long saved = selectsSaved.sum();
+    long falsePositive = falsePositives.sum();
+    long absent = saved + falsePositive;
+    return new BusinessUnitCodeFilterStats(
+        enabled && bits != null,
+        bits != null ? bits.codes : 0,
+        bits != null ? bits.size() : 0,
+        bits != null ? bits.hashFunctions : 0,
+        bits != null ? bits.estimatedFalsePositiveRate() : 0,
+        lookups.sum(),
+        saved,
+        falsePositive,
+        absent == 0 ? 0 : (double) falsePositive / absent);
+  }
+
+  private synchronized void add(String businessUnitCode) {
+    if (bits != null) {
+      bits.add(businessUnitCode);
+    }
+    if (pending != null) {
+      pending.add(businessUnitCode);
+    }
+  }
+
+  /** The bit array; adds and counts are guarded by the owning filter, lookups take no lock. */
+  static final class Bits {
+
+    private final AtomicLongArray words;
+    private final long size;
+    final int hashFunctions;
+    private long setBits;
+    private int codes;
+
+    private Bits(long size, int hashFunctions) {
+      this.words = new AtomicLongArray((int) ((size + 63) / 64));
+      this.size = size;
+      this.hashFunctions = hashFunctions;
+    }
+
+    // m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 probes minimize the false
+    // positive rate for n codes
+    static Bits sizedFor(int expectedCodes, double falsePositiveRate) {
+      int n = Math.max(1, expectedCodes);
+      long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+      int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+      return new Bits(m, k);
+    }
+
+    long size() {
+      return size;
+    }
+
+    void add(String code) {
+      long hash = hash(code);
+      long h1 = hash;
+      long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < hashFunctions; i++) {
+        long bit = Math.floorMod(h1 + i * h2, size);
+        long mask = 1L << bit;
+        long before = words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        if ((before & mask) == 0) {
+          setBits++;
+        }
+      }
+      codes++;
+    }
+
+    boolean mightContain(String code) {
+      long hash = hash(code);
+      long h1 = hash;
+      long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+      for (int i = 0; i < hashFunctions; i++) {
+        long bit = Math.floorMod(h1 + i * h2, size);
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // Chance that all k probes of an absent code hit set bits, from the fill
+    double estimatedFalsePositiveRate() {
+      return Math.pow((double) setBits / size, hashFunctions);
+    }
+
+    // FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer
+    private static long hash(String code) {
+      long hash = 0xCBF29CE484222325L;
+      for (int i = 0; i < code.length(); i++) {
+        hash ^= code.charAt(i);
+        hash *= 0x100000001B3L;
+      }
+      return mix(hash);
+    }
+
+    private static long mix(long h) {
+      h ^= h >>> 33;
+      h *= 0xFF51AFD7ED558CCDL;
+      h ^= h >>> 33;
+      h *= 0xC4CEB9FE1A85EC53L;
+      h ^= h >>> 33;
+      return h;
+    }
+  }
+}
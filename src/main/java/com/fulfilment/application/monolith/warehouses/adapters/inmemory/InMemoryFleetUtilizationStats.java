@@ -0,0 +1,221 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.FleetUtilization;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUtilization;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FleetUtilizationStats;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.jboss.logging.Logger;
+
+/**
+ * Running totals of warehouse count, capacity and stock per location, kept up
+ * to date from committed {@link WarehouseChangedEvent}s: each change subtracts
+ * the previous state and adds the new one. Reading the totals costs one entry
+ * per location, whatever the size of the fleet.
+ *
+ * A rebuild reads the active warehouses without holding the totals, then
+ * swaps in the totals computed from them. Changes that commit while it reads
+ * may or may not be in what it read, so they are recorded, and only those newer
+ * than the version read are applied on top. Before swapping it waits for the
+ * transactions that were committing when the read returned, so none of those
+ * can be applied after the swap to totals that already contain it.
+ */
+@ApplicationScoped
+public class InMemoryFleetUtilizationStats implements FleetUtilizationStats {
+
+  private static final Logger LOGGER =
+      Logger.getLogger(InMemoryFleetUtilizationStats.class.getName());
+
+  // How long a rebuild waits for transactions that were committing as it read
+  private static final long COMMIT_WAIT_MILLIS = 10_000;
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  // Guarded by this
+  private Map<String, Totals> byLocation = new TreeMap<>();
+
+  // Guarded by this: changes fired in transactions that have not completed yet
+  private final Set<WarehouseChangedEvent> inFlight = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  // Guarded by this: changes committed since a running rebuild started, null otherwise
+  private List<WarehouseChangedEvent> committedDuringRebuild;
+
+  // Serializes rebuilds
+  private final Object rebuildLock = new Object();
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  // Before any other observer, so even a change fired outside a transaction is in flight first
+  synchronized void onWarehouseChanging(
+      @Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) WarehouseChangedEvent event) {
+    inFlight.add(event);
+  }
+
+  synchronized void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    apply(byLocation, event.getPrevious(), event.getCurrent());
+    if (committedDuringRebuild != null) {
+      committedDuringRebuild.add(event);
+    }
+    completed(event);
+  }
+
+  synchronized void onWarehouseChangeRolledBack(
+      @Observes(during = TransactionPhase.AFTER_FAILURE) WarehouseChangedEvent event) {
+    completed(event);
+  }
+
+  @Override
+  public synchronized FleetUtilization current() {
+    List<LocationUtilization> locations = new ArrayList<>(byLocation.size());
+    long count = 0;
+    long capacity = 0;
+    long stock = 0;
+    for (Map.Entry<String, Totals> entry : byLocation.entrySet()) {
+      Totals totals = entry.getValue();
+      locations.add(new LocationUtilization(
+          entry.getKey(), totals.count, totals.capacity, totals.stock));
+      count += totals.count;
+      capacity += totals.capacity;
+      stock += totals.stock;
+    }
+    return new FleetUtilization(count, capacity, stock, List.copyOf(locations));
+  }
+
+  @Override
+  public FleetUtilization rebuild() {
+    synchronized (rebuildLock) {
+      synchronized (this) {
+        committedDuringRebuild = new ArrayList<>();
+      }
+      try {
+        List<Warehouse> active = QuarkusTransaction.requiringNew().call(warehouseStore::getAll);
+        Map<String, Totals> fromStore = new TreeMap<>();
+        Map<String, Long> versionRead = new HashMap<>();
+        for (Warehouse warehouse : active) {
+          add(fromStore, warehouse, 1);
+          versionRead.put(warehouse.businessUnitCode, versionOf(warehouse));
+        }
+        return swap(fromStore, versionRead);
+      } finally {
+        synchronized (this) {
+          committedDuringRebuild = null;
+        }
+      }
+    }
+  }
+
+  private synchronized FleetUtilization swap(Map<String, Totals> fromStore, Map<String, Long> versionRead) {
+    awaitCommitting(new ArrayList<>(inFlight));
+
+    Set<String> createdSinceRead = new HashSet<>();
+    for (WarehouseChangedEvent event : committedDuringRebuild) {
+      if (event.getType() == WarehouseChangedEvent.Type.CREATED) {
+        createdSinceRead.add(event.getCurrent().businessUnitCode);
+      }
+    }
+    for (WarehouseChangedEvent event : committedDuringRebuild) {
+      if (newerThanRead(event, versionRead, createdSinceRead)) {
+        apply(fromStore, event.getPrevious(), event.getCurrent());
+      }
+    }
+
+    FleetUtilization before = current();
+    byLocation = fromStore;
+    FleetUtilization after = current();
+    if (!before.equals(after)) {
+      LOGGER.infof("Fleet utilization rebuilt: maintained totals %s, store totals %s", before, after);
+    }
+    return after;
+  }
+
+  private static boolean newerThanRead(
+      WarehouseChangedEvent event, Map<String, Long> versionRead, Set<String> createdSinceRead) {
+    String code = event.getCurrent().businessUnitCode;
+    Long read = versionRead.get(code);
+    if (read == null) {
+      // Not active in what was read: either created after the read, or
+      // archived before it, in which case its changes are all in already
+      return createdSinceRead.contains(code);
+    }
+    return versionOf(event.getCurrent()) > read;
+  }
+
+  // Waits on this, which lets the committing transactions' observers run
+  private void awaitCommitting(List<WarehouseChangedEvent> committing) {
+    long deadline = System.currentTimeMillis() + COMMIT_WAIT_MILLIS;
+    while (committing.stream().anyMatch(inFlight::contains)) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        LOGGER.warnf("Rebuilding fleet utilization without waiting any longer for %d committing changes",
+            committing.stream().filter(inFlight::contains).count());
+        return;
+      }
+      try {
+        wait(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void completed(WarehouseChangedEvent event) {
+    if (inFlight.remove(event)) {
+      notifyAll();
+    }
+  }
+
+  private static void apply(Map<String, Totals> byLocation, Warehouse previous, Warehouse current) {
+    add(byLocation, previous, -1);
+    add(byLocation, current, 1);
+  }
+
+  private static void add(Map<String, Totals> byLocation, Warehouse warehouse, int sign) {
+    if (warehouse == null || warehouse.archivedAt != null) {
+      return;
+    }
+    Totals totals = byLocation.computeIfAbsent(warehouse.location, l -> new Totals());
+    totals.count += sign;
+    totals.capacity += sign * (long) valueOf(warehouse.capacity);
+    totals.stock += sign * (long) valueOf(warehouse.stock);
+    if (totals.count == 0) {
+      byLocation.remove(warehouse.location);
+    }
+  }
+
+  private static long versionOf(Warehouse warehouse) {
+    return warehouse.version != null ? warehouse.version : 0L;
+  }
+
+  private static int valueOf(Integer value) {
+    return value != null ? value : 0;
+  }
+
+  private static final class Totals {
+    long count;
+    long capacity;
+    long stock;
+  }
+}
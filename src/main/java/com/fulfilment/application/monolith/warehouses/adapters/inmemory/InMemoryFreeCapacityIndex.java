@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.FreeCapacity;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FreeCapacityIndex;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.jboss.logging.Logger;
+
+/**
+ * Free capacity ({@code capacity - stock}) of every active warehouse, kept in
+ * sorted sets (one global, one per location) so the allocation planner can
+ * take the largest candidates without scanning the warehouse table.
+ *
+ * Loaded once at startup and then maintained from committed
+ * {@link WarehouseChangedEvent}s. Writers are serialized; readers iterate the
+ * skip lists lock-free and may observe a change that is still being applied,
+ * which is fine because allocations are re-validated under row locks on commit.
+ */
+@ApplicationScoped
+public class InMemoryFreeCapacityIndex implements FreeCapacityIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(InMemoryFreeCapacityIndex.class.getName());
+
+  private static final Comparator<FreeCapacity> LARGEST_FIRST =
+      Comparator.comparingInt(FreeCapacity::freeCapacity).reversed()
+          .thenComparing(FreeCapacity::businessUnitCode);
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  private final Map<String, FreeCapacity> byCode = new ConcurrentHashMap<>();
+  private final NavigableSet<FreeCapacity> global = new ConcurrentSkipListSet<>(LARGEST_FIRST);
+  private final Map<String, NavigableSet<FreeCapacity>> byLocation = new ConcurrentHashMap<>();
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    Warehouse previous = event.getPrevious();
+    if (previous != null && !previous.businessUnitCode.equals(event.getCurrent().businessUnitCode)) {
+      remove(previous.businessUnitCode);
+    }
+    apply(event.getCurrent());
+  }
+
+  @Override
+  public Iterable<FreeCapacity> byFreeCapacityDescending() {
+    return Collections.unmodifiableSet(global);
+  }
+
+  @Override
+  public Iterable<FreeCapacity> byFreeCapacityDescending(String location) {
+    NavigableSet<FreeCapacity> entries = byLocation.get(location);
+    return entries == null ? List.of() : Collections.unmodifiableSet(entries);
+  }
+
+  @Override
+  public synchronized void rebuild() {
+    List<Warehouse> active = QuarkusTransaction.requiringNew().call(warehouseStore::getAll);
+
+    byCode.clear();
+    global.clear();
+    byLocation.clear();
+    active.forEach(this::apply);
+
+    LOGGER.infof("Free capacity index rebuilt: %d warehouses with free capacity", byCode.size());
+  }
+
+  synchronized void apply(Warehouse warehouse) {
+    remove(warehouse.businessUnitCode);
+
+    if (warehouse.archivedAt != null) {
+      return;
+    }
+    // A missing stock or capacity counts as 0, as in StockAdjustment
+    int free = (warehouse.capacity != null ? warehouse.capacity : 0)
+        - (warehouse.stock != null ? warehouse.stock : 0);
+    if (free <= 0) {
+      return;
+    }
+
+    FreeCapacity entry = new FreeCapacity(warehouse.businessUnitCode, warehouse.location, free);
+    byCode.put(entry.businessUnitCode(), entry);
+    global.add(entry);
+    byLocation.computeIfAbsent(entry.location(), l -> new ConcurrentSkipListSet<>(LARGEST_FIRST))
+        .add(entry);
+  }
+
+  private synchronized void remove(String businessUnitCode) {
+    FreeCapacity existing = byCode.remove(businessUnitCode);
+    if (existing == null) {
+      return;
+    }
+    global.remove(existing);
+    NavigableSet<FreeCapacity> entries = byLocation.get(existing.location());
+    if (entries != null) {
+      entries.remove(existing);
+    }
+  }
+}
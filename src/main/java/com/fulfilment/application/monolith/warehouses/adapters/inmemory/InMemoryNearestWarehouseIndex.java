@@ -0,0 +1,263 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.NearestWarehouseIndex;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.jboss.logging.Logger;
+
+/**
+ * Active warehouses by position, for "nearest warehouse with free capacity"
+ * routing decisions.
+ *
+ * Warehouses have the coordinates of their location, so the spatial index is a
+ * KD-tree over the distinct locations rather than over warehouses, which would
+ * put many identical points in the tree. Locations are points on the unit
+ * sphere: the straight-line (chord) distance between two of them orders exactly
+ * like the great-circle distance, and a split plane gives a valid lower bound.
+ * Each location keeps its warehouses sorted by free capacity, largest first. A
+ * query visits locations nearest first and takes warehouses until it has enough,
+ * leaving a location at its first warehouse below the requested free capacity.
+ *
+ * Loaded once at startup and then maintained from committed
+ * {@link WarehouseChangedEvent}s. The tree is immutable and only replaced when
+ * a location gets its first warehouse; other changes touch the per-location
+ * sets. Writers are serialized, readers never lock.
+ */
+@ApplicationScoped
+public class InMemoryNearestWarehouseIndex implements NearestWarehouseIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(InMemoryNearestWarehouseIndex.class.getName());
+
+  // Mean Earth radius (IUGG)
+  static final double EARTH_RADIUS_KM = 6371.0088;
+
+  private static final Comparator<Entry> LARGEST_FREE_FIRST =
+      Comparator.comparingInt(Entry::freeCapacity).reversed()
+          .thenComparing(e -> e.warehouse().businessUnitCode);
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Inject
+  LocationResolver locationResolver;
+
+  private final Map<String, Entry> byCode = new ConcurrentHashMap<>();
+  private final Map<String, Site> sites = new ConcurrentHashMap<>();
+  private volatile KdTree tree = KdTree.build(List.of());
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    Warehouse previous = event.getPrevious();
+    if (previous != null && !previous.businessUnitCode.equals(event.getCurrent().businessUnitCode)) {
+      remove(previous.businessUnitCode);
+    }
+    apply(event.getCurrent());
+  }
+
+  @Override
+  public List<NearbyWarehouse> nearest(
+      double latitude, double longitude, int limit, int minFreeCapacity) {
+    List<NearbyWarehouse> nearest = new ArrayList<>(Math.max(0, limit));
+    if (limit <= 0) {
+      return nearest;
+    }
+
+    tree.visitNearestFirst(unitVector(latitude, longitude), (site, chord) -> {
+      double distanceKm = toKilometres(chord);
+      for (Entry entry : site.warehouses) {
+        if (entry.freeCapacity() < minFreeCapacity) {
+          break;
+        }
+        nearest.add(new NearbyWarehouse(entry.warehouse(), entry.freeCapacity(), distanceKm));
+        if (nearest.size() == limit) {
+          return false;
+        }
+      }
+      return true;
+    });
+    return nearest;
+  }
+
+  @Override
+  public synchronized void rebuild() {
+    List<Warehouse> active = QuarkusTransaction.requiringNew().call(warehouseStore::getAll);
+
+    byCode.clear();
+    sites.clear();
+    active.forEach(this::add);
+    tree = KdTree.build(sites.values());
+
+    LOGGER.infof("Nearest warehouse index rebuilt: %d warehouses at %d locations",
+        byCode.size(), sites.size());
+  }
+
+  synchronized void apply(Warehouse warehouse) {
+    remove(warehouse.businessUnitCode);
+    if (add(warehouse)) {
+      tree = KdTree.build(sites.values());
+    }
+  }
+
+  // Returns whether the warehouse is the first one seen at its location
+  private boolean add(Warehouse warehouse) {
+    if (warehouse.archivedAt != null || warehouse.capacity == null || warehouse.stock == null) {
+      return false;
+    }
+
+    boolean newSite = false;
+    Site site = sites.get(warehouse.location);
+    if (site == null) {
+      Location location = locationResolver.resolveByIdentifier(warehouse.location);
+      if (location == null) {
+        LOGGER.warnf("Warehouse %s has unknown location %s, left out of the nearest warehouse index",
+            warehouse.businessUnitCode, warehouse.location);
+        return false;
+      }
+      site = new Site(warehouse.location, unitVector(location.latitude(), location.longitude()));
+      sites.put(site.location, site);
+      newSite = true;
+    }
+
+    Entry entry = new Entry(warehouse, warehouse.capacity - warehouse.stock);
+    byCode.put(warehouse.businessUnitCode, entry);
+    site.warehouses.add(entry);
+    return newSite;
+  }
+
+  private synchronized void remove(String businessUnitCode) {
+    Entry existing = byCode.remove(businessUnitCode);
+    if (existing == null) {
+      return;
+    }
+    Site site = sites.get(existing.warehouse().location);
+    if (site != null) {
+      site.warehouses.remove(existing);
+    }
+  }
+
+  static double[] unitVector(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    return new double[] {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+  }
+
+  static double toKilometres(double chord) {
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, chord / 2));
+  }
+
+  private record Entry(Warehouse warehouse, int freeCapacity) {}
+
+  // A location with at least one warehouse seen since the last rebuild
+  private static final class Site {
+
+    final String location;
+    final double[] point;
+    final NavigableSet<Entry> warehouses = new ConcurrentSkipListSet<>(LARGEST_FREE_FIRST);
+
+    Site(String location, double[] point) {
+      this.location = location;
+      this.point = point;
+    }
+  }
+
+  private interface SiteVisitor {
+    // Returns whether to continue with the next nearest site
+    boolean visit(Site site, double chord);
+  }
+
+  /**
+   * Balanced 3-d tree in an array: the node of a range is its middle element and
+   * splits it on axis {@code depth % 3}.
+   */
+  private static final class KdTree {
+
+    private final Site[] nodes;
+
+    private KdTree(Site[] nodes) {
+      this.nodes = nodes;
+    }
+
+    static KdTree build(Collection<Site> sites) {
+      Site[] nodes = sites.toArray(new Site[0]);
+      sort(nodes, 0, nodes.length, 0);
+      return new KdTree(nodes);
+    }
+
+    private static void sort(Site[] nodes, int from, int to, int axis) {
+      if (to - from <= 1) {
+        return;
+      }
+      Arrays.sort(nodes, from, to, Comparator.comparingDouble(site -> site.point[axis]));
+      int middle = (from + to) >>> 1;
+      sort(nodes, from, middle, (axis + 1) % 3);
+      sort(nodes, middle + 1, to, (axis + 1) % 3);
+    }
+
+    // Best-first search: sub-ranges queued by a lower bound of their distance
+    void visitNearestFirst(double[] target, SiteVisitor visitor) {
+      PriorityQueue<Step> queue = new PriorityQueue<>(Comparator.comparingDouble(Step::distance));
+      if (nodes.length > 0) {
+        queue.add(new Step(0, 0, nodes.length, 0, null));
+      }
+
+      while (!queue.isEmpty()) {
+        Step step = queue.poll();
+        if (step.site() != null) {
+          if (!visitor.visit(step.site(), step.distance())) {
+            return;
+          }
+          continue;
+        }
+
+        int middle = (step.from() + step.to()) >>> 1;
+        Site site = nodes[middle];
+        queue.add(new Step(distance(target, site.point), 0, 0, 0, site));
+
+        // Lower coordinates are on the left; the far side is at least |offset| away
+        double offset = target[step.axis()] - site.point[step.axis()];
+        double farBound = Math.max(step.distance(), Math.abs(offset));
+        int next = (step.axis() + 1) % 3;
+        if (step.from() < middle) {
+          queue.add(new Step(offset < 0 ? step.distance() : farBound, step.from(), middle, next, null));
+        }
+        if (middle + 1 < step.to()) {
+          queue.add(new Step(offset < 0 ? farBound : step.distance(), middle + 1, step.to(), next, null));
+        }
+      }
+    }
+
+    private static double distance(double[] a, double[] b) {
+      double dx = a[0] - b[0];
+      double dy = a[1] - b[1];
+      double dz = a[2] - b[2];
+      return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+  }
+
+  // Either a site at its exact distance, or a range of the tree at a lower bound
+  private record Step(double distance, int from, int to, int axis, Site site) {}
+}
@@ -0,0 +1,509 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMatch;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseTextIndex;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.jboss.logging.Logger;
+
+/**
+ * Trigram index over the business unit code and location of every active
+ * warehouse, for substring and typo-tolerant search.
+ *
+ * Text is lowercased and padded as in PostgreSQL's pg_trgm ({@code "  mwh.001 "})
+ * and similarity is the Jaccard index of the two trigram sets. A field that
+ * contains the query scores at least 0.5, more the larger the share of the field
+ * it covers, so substring hits rank above fuzzy ones; fuzzy hits need a
+ * similarity of {@value #MIN_SIMILARITY}.
+ *
+ * Codes are indexed per warehouse: a sorted list of slots per trigram, plus the
+ * trigrams of every slot for scoring. Candidates are collected only from the
+ * query's selective trigrams (found in at most 1/16 of the warehouses), so a
+ * prefix the whole fleet shares, like "MWH.", does not turn every query into a
+ * full scan; common trigrams still count towards the score. Locations are few
+ * and shared by many warehouses, so they are scored once per distinct location.
+ *
+ * Loaded once at startup and then maintained from committed
+ * {@link WarehouseChangedEvent}s; a change that keeps the code and location only
+ * replaces the stored warehouse. Queries share a read lock, writers take the
+ * write lock; a rebuild holds it while it reads the table.
+ */
+@ApplicationScoped
+public class InMemoryTrigramIndex implements WarehouseTextIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(InMemoryTrigramIndex.class.getName());
+
+  static final double MIN_SIMILARITY = 0.3;
+
+  // A trigram in more than 1/16 of the warehouses (and more than 256) does not select candidates
+  private static final int COMMON_TRIGRAM_DIVISOR = 16;
+  private static final int MIN_COMMON_TRIGRAM_POSTINGS = 256;
+  private static final int INITIAL_SLOTS = 1024;
+
+  private static final Comparator<WarehouseMatch> WORST_FIRST =
+      Comparator.comparingDouble(WarehouseMatch::score)
+          .thenComparing(m -> m.warehouse().businessUnitCode, Comparator.reverseOrder());
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Per slot; slots are handed out in increasing order, so posting lists stay sorted
+  private Warehouse[] warehouses;
+  private String[] codes;
+  private long[][] codeTrigrams;
+  private LocationEntry[] slotLocations;
+  private int nextSlot;
+  private int liveCount;
+
+  private final Map<String, Integer> slotByCode = new HashMap<>();
+  private final Map<Long, Postings> codePostings = new HashMap<>();
+  private final Map<String, LocationEntry> locations = new HashMap<>();
+
+  public InMemoryTrigramIndex() {
+    reset(INITIAL_SLOTS);
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    rebuild();
+  }
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    Warehouse previous = event.getPrevious();
+    lock.writeLock().lock();
+    try {
+      if (previous != null && !previous.businessUnitCode.equals(event.getCurrent().businessUnitCode)) {
+        Integer slot = slotByCode.get(previous.businessUnitCode);
+        if (slot != null) {
+          remove(slot);
+        }
+      }
+      apply(event.getCurrent());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public List<WarehouseMatch> search(String query, int limit) {
+    String normalized = normalize(query);
+    if (normalized.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    long[] trigrams = trigrams(normalized, true);
+    long[] inner = trigrams(normalized, false);
+
+    lock.readLock().lock();
+    try {
+      // Location similarity once per distinct location
+      Map<LocationEntry, Double> locationScores = new IdentityHashMap<>();
+      for (LocationEntry location : locations.values()) {
+        double score = score(normalized, trigrams, inner.length, location.normalized, location.trigrams);
+        if (score > 0 && !location.slotsByCode.isEmpty()) {
+          locationScores.put(location, score);
+        }
+      }
+
+      Candidates candidates = codeCandidates(trigrams, inner);
+      try {
+        PriorityQueue<WarehouseMatch> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        // Most hits first: the heap fills with good matches early and the bound skips the rest
+        for (int slot : candidates.byHitsDescending()) {
+          double locationScore = locationScores.getOrDefault(slotLocations[slot], 0.0);
+          double floor = best.size() == limit ? best.peek().score() : MIN_SIMILARITY;
+          double bound = codeScoreBound(
+              candidates, candidates.hits[slot], trigrams.length, normalized.length(),
+              codes[slot], codeTrigrams[slot]);
+          if (Math.max(bound, locationScore) < floor) {
+            continue;
+          }
+          double codeScore = score(normalized, trigrams, inner.length, codes[slot], codeTrigrams[slot]);
+          if (codeScore >= locationScore) {
+            offer(best, limit, warehouses[slot], codeScore, WarehouseMatch.Field.BUSINESS_UNIT_CODE);
+          } else {
+            offer(best, limit, warehouses[slot], locationScore, WarehouseMatch.Field.LOCATION);
+          }
+        }
+
+        // The rest of a matching location all score the same, so its first codes are enough
+        for (Map.Entry<LocationEntry, Double> location : locationScores.entrySet()) {
+          int offered = 0;
+          for (int slot : location.getKey().slotsByCode.values()) {
+            if (offered == limit) {
+              break;
+            }
+            if (candidates.hits[slot] == 0) {
+              offer(best, limit, warehouses[slot], location.getValue(), WarehouseMatch.Field.LOCATION);
+              offered++;
+            }
+          }
+        }
+
+        List<WarehouseMatch> matches = new ArrayList<>(best);
+        matches.sort(WORST_FIRST.reversed());
+        return matches;
+      } finally {
+        candidates.clear();
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void rebuild() {
+    // Read under the write lock: a change committed meanwhile waits and is applied
+    // after the reset, not wiped by it
+    lock.writeLock().lock();
+    try {
+      List<Warehouse> active = QuarkusTransaction.requiringNew().call(warehouseStore::getAll);
+      reset(Math.max(INITIAL_SLOTS, active.size() * 2));
+      active.forEach(this::apply);
+      LOGGER.infof("Trigram index rebuilt: %d warehouses, %d code trigrams, %d locations",
+          liveCount, codePostings.size(), locations.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void apply(Warehouse warehouse) {
+    lock.writeLock().lock();
+    try {
+      Integer slot = slotByCode.get(warehouse.businessUnitCode);
+      boolean active = warehouse.archivedAt == null;
+      if (slot != null) {
+        if (active && slotLocations[slot].name.equals(Objects.toString(warehouse.location, ""))) {
+          // Same code and location, so the same trigrams
+          warehouses[slot] = warehouse;
+          return;
+        }
+        remove(slot);
+      }
+      if (active) {
+        add(warehouse);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Candidates codeCandidates(long[] trigrams, long[] inner) {
+    int commonAbove = Math.max(MIN_COMMON_TRIGRAM_POSTINGS, liveCount / COMMON_TRIGRAM_DIVISOR);
+    Candidates candidates = new Candidates(nextSlot);
+    for (long trigram : trigrams) {
+      Postings postings = codePostings.get(trigram);
+      if (postings != null && postings.size <= commonAbove) {
+        candidates.count(postings, Arrays.binarySearch(inner, trigram) >= 0);
+      }
+    }
+    if (candidates.countedInner > 0) {
+      return candidates;
+    }
+
+    if (inner.length > 0) {
+      // A code containing the query has every inner trigram, so the rarest one finds them all
+      Postings rarest = null;
+      for (long trigram : inner) {
+        Postings postings = codePostings.get(trigram);
+        if (postings == null) {
+          return candidates;
+        }
+        if (rarest == null || postings.size < rarest.size) {
+          rarest = postings;
+        }
+      }
+      candidates.count(rarest, true);
+    } else {
+      // Shorter than a trigram: only matches at the start or end of a code are found
+      for (long trigram : trigrams) {
+        Postings postings = codePostings.get(trigram);
+        if (postings != null && postings.size > commonAbove) {
+          candidates.count(postings, false);
+        }
+      }
+    }
+    return candidates;
+  }
+
+  // Highest score a code can reach with this many hits on the counted trigrams
+  private static double codeScoreBound(
+      Candidates candidates, int hits, int queryTrigrams, int queryLength, String code,
+      long[] codeTrigrams) {
+    int shared = Math.min(hits + queryTrigrams - candidates.countedTrigrams, codeTrigrams.length);
+    double bound = (double) shared / (queryTrigrams + codeTrigrams.length - shared);
+    if (hits >= candidates.countedInner) {
+      bound = Math.max(bound, 0.5 + 0.5 * queryLength / code.length());
+    }
+    return bound;
+  }
+
+  private static double score(
+      String query, long[] queryTrigrams, int innerCount, String text, long[] textTrigrams) {
+    int shared = countShared(queryTrigrams, textTrigrams);
+    double score = (double) shared / (queryTrigrams.length + textTrigrams.length - shared);
+    // Containing the query implies sharing all its inner trigrams; check that first
+    if (shared >= innerCount && text.contains(query)) {
+      score = Math.max(score, 0.5 + 0.5 * query.length() / text.length());
+    }
+    return score >= MIN_SIMILARITY ? score : 0;
+  }
+
+  private static int countShared(long[] a, long[] b) {
+    int shared = 0;
+    for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+      if (a[i] == b[j]) {
+        shared++;
+        i++;
+        j++;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return shared;
+  }
+
+  private static void offer(
+      PriorityQueue<WarehouseMatch> best, int limit, Warehouse warehouse, double score,
+      WarehouseMatch.Field field) {
+    if (score <= 0) {
+      return;
+    }
+    if (best.size() == limit) {
+      WarehouseMatch worst = best.peek();
+      if (score < worst.score()
+          || (score == worst.score()
+              && warehouse.businessUnitCode.compareTo(worst.warehouse().businessUnitCode) > 0)) {
+        return;
+      }
+      best.poll();
+    }
+    best.add(new WarehouseMatch(warehouse, score, field));
+  }
+
+  private void add(Warehouse warehouse) {
+    if (nextSlot == warehouses.length) {
+      if (liveCount < nextSlot / 2) {
+        compact();
+      } else {
+        grow(warehouses.length * 2);
+      }
+    }
+
+    int slot = nextSlot++;
+    String code = normalize(warehouse.businessUnitCode);
+    long[] trigrams = trigrams(code, true);
+    warehouses[slot] = warehouse;
+    codes[slot] = code;
+    codeTrigrams[slot] = trigrams;
+    for (long trigram : trigrams) {
+      codePostings.computeIfAbsent(trigram, t -> new Postings()).add(slot);
+    }
+
+    LocationEntry location = locations.computeIfAbsent(
+        Objects.toString(warehouse.location, ""), LocationEntry::new);
+    location.slotsByCode.put(warehouse.businessUnitCode, slot);
+    slotLocations[slot] = location;
+    slotByCode.put(warehouse.businessUnitCode, slot);
+    liveCount++;
+  }
+
+  private void remove(int slot) {
+    for (long trigram : codeTrigrams[slot]) {
+      Postings postings = codePostings.get(trigram);
+      postings.remove(slot);
+      if (postings.size == 0) {
+        codePostings.remove(trigram);
+      }
+    }
+    String code = warehouses[slot].businessUnitCode;
+    slotLocations[slot].slotsByCode.remove(code);
+    slotByCode.remove(code);
+
+    warehouses[slot] = null;
+    codes[slot] = null;
+    codeTrigrams[slot] = null;
+    slotLocations[slot] = null;
+    liveCount--;
+  }
+
+  // Archived warehouses leave holes; reassign slots instead of growing when most are empty
+  private void compact() {
+    Warehouse[] live = Arrays.stream(warehouses, 0, nextSlot)
+        .filter(Objects::nonNull)
+        .toArray(Warehouse[]::new);
+    reset(warehouses.length);
+    for (Warehouse warehouse : live) {
+      add(warehouse);
+    }
+  }
+
+  private void grow(int slots) {
+    warehouses = Arrays.copyOf(warehouses, slots);
+    codes = Arrays.copyOf(codes, slots);
+    codeTrigrams = Arrays.copyOf(codeTrigrams, slots);
+    slotLocations = Arrays.copyOf(slotLocations, slots);
+  }
+
+  private void reset(int slots) {
+    warehouses = new Warehouse[slots];
+    codes = new String[slots];
+    codeTrigrams = new long[slots][];
+    slotLocations = new LocationEntry[slots];
+    nextSlot = 0;
+    liveCount = 0;
+    slotByCode.clear();
+    codePostings.clear();
+    locations.clear();
+  }
+
+  static String normalize(String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  // Distinct trigrams, sorted, each packed as three 16-bit chars
+  static long[] trigrams(String text, boolean padded) {
+    String source = padded ? "  " + text + " " : text;
+    if (source.length() < 3) {
+      return new long[0];
+    }
+    long[] trigrams = new long[source.length() - 2];
+    for (int i = 0; i < trigrams.length; i++) {
+      trigrams[i] = (long) source.charAt(i) << 32
+          | (long) source.charAt(i + 1) << 16
+          | source.charAt(i + 2);
+    }
+    Arrays.sort(trigrams);
+    int distinct = 0;
+    for (int i = 0; i < trigrams.length; i++) {
+      if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+        trigrams[distinct++] = trigrams[i];
+      }
+    }
+    return Arrays.copyOf(trigrams, distinct);
+  }
+
+  private static final class LocationEntry {
+
+    final String name;
+    final String normalized;
+    final long[] trigrams;
+    // Slots of the location's active warehouses, by business unit code
+    final TreeMap<String, Integer> slotsByCode = new TreeMap<>();
+
+    LocationEntry(String name) {
+      this.name = name;
+      this.normalized = normalize(name);
+      this.trigrams = trigrams(normalized, true);
+    }
+  }
+
+  // Codes hit by the counted trigrams of one query, with their number of hits
+  private static final class Candidates {
+
+    // Per thread, indexed by slot; zeroed again by clear()
+    private static final ThreadLocal<int[]> HITS = ThreadLocal.withInitial(() -> new int[0]);
+
+    final int[] hits;
+    int[] slots = new int[64];
+    int size;
+    int countedTrigrams;
+    int countedInner;
+
+    Candidates(int slotCount) {
+      int[] scratch = HITS.get();
+      if (scratch.length < slotCount) {
+        scratch = new int[slotCount];
+        HITS.set(scratch);
+      }
+      this.hits = scratch;
+    }
+
+    void count(Postings postings, boolean inner) {
+      countedTrigrams++;
+      if (inner) {
+        countedInner++;
+      }
+      for (int i = 0; i < postings.size; i++) {
+        int slot = postings.slots[i];
+        if (hits[slot]++ == 0) {
+          if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+          }
+          slots[size++] = slot;
+        }
+      }
+    }
+
+    // Counting sort on the number of hits
+    int[] byHitsDescending() {
+      int most = 0;
+      for (int i = 0; i < size; i++) {
+        most = Math.max(most, hits[slots[i]]);
+      }
+      int[] next = new int[most + 2];
+      for (int i = 0; i < size; i++) {
+        next[most - hits[slots[i]] + 1]++;
+      }
+      for (int bucket = 1; bucket < next.length; bucket++) {
+        next[bucket] += next[bucket - 1];
+      }
+      int[] ordered = new int[size];
+      for (int i = 0; i < size; i++) {
+        ordered[next[most - hits[slots[i]]]++] = slots[i];
+      }
+      return ordered;
+    }
+
+    void clear() {
+      for (int i = 0; i < size; i++) {
+        hits[slots[i]] = 0;
+      }
+    }
+  }
+
+  // Ascending slot numbers of the codes containing one trigram
+  private static final class Postings {
+
+    int[] slots = new int[4];
+    int size;
+
+    void add(int slot) {
+      if (size == slots.length) {
+        slots = Arrays.copyOf(slots, size * 2);
+      }
+      slots[size++] = slot;
+    }
+
+    void remove(int slot) {
+      int index = Arrays.binarySearch(slots, 0, size, slot);
+      if (index >= 0) {
+        System.arraycopy(slots, index + 1, slots, index, size - index - 1);
+        size--;
+      }
+    }
+  }
+}
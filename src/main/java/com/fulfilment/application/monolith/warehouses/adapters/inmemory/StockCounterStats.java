@@ -0,0 +1,17 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+/**
+ * Write-behind stock counter since startup: warehouses tracked and those with
+ * changes not yet in the database, receipts and shipments admitted and
+ * rejected, flushes and the warehouse writes they made, changes dropped on
+ * flush, and the current size of the delta log.
+ */
+public record StockCounterStats(
+    int warehouses,
+    int unflushedWarehouses,
+    long admitted,
+    long rejected,
+    long flushes,
+    long warehousesWritten,
+    long dropped,
+    long logBytes) {}
@@ -0,0 +1,160 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only file of admitted stock changes, one {@code sequence code delta}
+ * line each, forced to disk before the change is acknowledged.
+ *
+ * The log also tracks, per code, the net delta not yet written to the
+ * database and its last sequence, so it can be compacted to one line per code
+ * with unflushed changes. Compaction must not run while a flush is in
+ * progress: a merged line would carry the in-flight part under a sequence
+ * newer than the checkpoint that flush commits, and replay it.
+ */
+final class StockDeltaLog implements Closeable {
+
+  record Entry(long sequence, String businessUnitCode, int delta) {}
+
+  private final Path path;
+  private final Map<String, Entry> unflushed = new LinkedHashMap<>();
+  private FileChannel channel;
+  private long lastSequence;
+
+  private StockDeltaLog(Path path, long lastSequence) {
+    this.path = path;
+    this.lastSequence = lastSequence;
+  }
+
+  /**
+   * Entries in the log at {@code path}, oldest first. A torn last line, left by
+   * a crash in the middle of an append that was never acknowledged, is skipped.
+   */
+  static List<Entry> read(Path path) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+    } catch (NoSuchFileException e) {
+      return List.of();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<Entry> entries = new ArrayList<>(lines.size());
+    for (String line : lines) {
+      String[] fields = line.split(" ");
+      if (fields.length != 3) {
+        continue;
+      }
+      try {
+        entries.add(new Entry(Long.parseLong(fields[0]), fields[1], Integer.parseInt(fields[2])));
+      } catch (NumberFormatException e) {
+        // torn line
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Replaces the log at {@code path} with {@code unflushed}, the changes still
+   * to be written to the database, and opens it for appends numbered after
+   * {@code lastSequence}.
+   */
+  static StockDeltaLog open(Path path, Collection<Entry> unflushed, long lastSequence) {
+    StockDeltaLog log = new StockDeltaLog(path, lastSequence);
+    unflushed.forEach(entry -> log.unflushed.put(entry.businessUnitCode(), entry));
+    log.compact();
+    return log;
+  }
+
+  synchronized long append(String businessUnitCode, int delta) {
+    long sequence = ++lastSequence;
+    write(channel, sequence + " " + businessUnitCode + " " + delta + "\n");
+    force(channel);
+    unflushed.merge(businessUnitCode, new Entry(sequence, businessUnitCode, delta),
+        (old, added) -> new Entry(sequence, businessUnitCode, old.delta() + added.delta()));
+    return sequence;
+  }
+
+  // delta of businessUnitCode is now in the database
+  synchronized void flushed(String businessUnitCode, int delta) {
+    Entry entry = unflushed.get(businessUnitCode);
+    if (entry == null) {
+      return;
+    }
+    if (entry.delta() == delta) {
+      unflushed.remove(businessUnitCode);
+    } else {
+      unflushed.put(businessUnitCode, new Entry(entry.sequence(), businessUnitCode, entry.delta() - delta));
+    }
+  }
+
+  synchronized long size() {
+    try {
+      return channel.size();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // Rewrites the log as one line per code with unflushed changes, atomically
+  synchronized void compact() {
+    try {
+      Path parent = path.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path compacted = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+      try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+        StringBuilder lines = new StringBuilder();
+        unflushed.values().forEach(entry -> lines.append(entry.sequence()).append(' ')
+            .append(entry.businessUnitCode()).append(' ').append(entry.delta()).append('\n'));
+        write(out, lines.toString());
+        force(out);
+      }
+      if (channel != null) {
+        channel.close();
+      }
+      Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private static void write(FileChannel channel, String text) {
+    ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void force(FileChannel channel) {
+    try {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
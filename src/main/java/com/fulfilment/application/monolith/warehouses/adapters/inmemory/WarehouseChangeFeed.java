@@ -0,0 +1,96 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChange;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Sequenced stream of committed warehouse changes.
+ *
+ * The last {@code replay-buffer-size} changes are kept so that a reconnecting
+ * consumer can resume after the last sequence it saw. Each subscriber gets its
+ * own bounded buffer (at least replay + subscriber buffer size); publishing
+ * never waits on a subscriber, and a subscriber whose buffer overflows is
+ * failed and dropped (it can reconnect and resume).
+ */
+@ApplicationScoped
+public class WarehouseChangeFeed {
+
+  private static final Logger LOGGER = Logger.getLogger(WarehouseChangeFeed.class.getName());
+
+  @ConfigProperty(name = "warehouse.change-feed.replay-buffer-size", defaultValue = "1000")
+  int replayBufferSize;
+
+  @ConfigProperty(name = "warehouse.change-feed.subscriber-buffer-size", defaultValue = "256")
+  int subscriberBufferSize;
+
+  private final ArrayDeque<WarehouseChange> replay = new ArrayDeque<>();
+  private final Set<MultiEmitter<? super WarehouseChange>> subscribers = ConcurrentHashMap.newKeySet();
+  private long lastSequence;
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    publish(event);
+  }
+
+  synchronized WarehouseChange publish(WarehouseChangedEvent event) {
+    WarehouseChange change = new WarehouseChange(
+        ++lastSequence, event.getType(), LocalDateTime.now(), event.getCurrent());
+
+    replay.addLast(change);
+    if (replay.size() > replayBufferSize) {
+      replay.removeFirst();
+    }
+
+    // emit() only appends to the subscriber's own buffer, it never blocks
+    subscribers.forEach(emitter -> emitter.emit(change));
+    return change;
+  }
+
+  public synchronized long lastSequence() {
+    return lastSequence;
+  }
+
+  /** Whether every change after {@code afterSequence} is still in the replay buffer. */
+  public synchronized boolean canResumeAfter(long afterSequence) {
+    long oldest = replay.isEmpty() ? lastSequence + 1 : replay.peekFirst().sequence();
+    return afterSequence >= oldest - 1 && afterSequence <= lastSequence;
+  }
+
+  /**
+   * Changes with a sequence greater than {@code afterSequence}: first the
+   * buffered ones, then live ones as they are committed.
+   */
+  public Multi<WarehouseChange> subscribe(long afterSequence) {
+    return Multi.createFrom().<WarehouseChange>emitter(emitter -> {
+      // Replay and registration happen under the publish lock so nothing is
+      // missed or delivered twice between the two.
+      synchronized (this) {
+        replay.stream()
+            .filter(change -> change.sequence() > afterSequence)
+            .forEach(emitter::emit);
+        subscribers.add(emitter);
+      }
+      emitter.onTermination(() -> subscribers.remove(emitter));
+    })
+        // Room for a full replay plus the live backlog; beyond that the subscriber is too slow
+        .onOverflow().buffer(replayBufferSize + subscriberBufferSize)
+        .onFailure(BackPressureFailure.class)
+        .invoke(failure -> LOGGER.warn("Dropping slow change feed subscriber"));
+  }
+
+  int subscriberCount() {
+    return subscribers.size();
+  }
+}
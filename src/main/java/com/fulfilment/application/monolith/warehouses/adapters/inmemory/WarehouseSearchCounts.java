@@ -0,0 +1,111 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.FleetUtilization;
+import com.fulfilment.application.monolith.warehouses.domain.models.LocationUtilization;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FleetUtilizationStats;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Total counts for warehouse search pagination.
+ *
+ * Exact counts run one {@code COUNT} per normalized filter and are cached
+ * until a committed change could move a warehouse in or out of some filter
+ * (create, archive, or a new location or capacity; stock-only changes keep the
+ * cache). Every cached count is tagged with the generation it was computed in,
+ * so a count racing with a commit is never served after it.
+ *
+ * Estimated counts cost no query: the active warehouse count of the location
+ * (or of the fleet) from {@link FleetUtilizationStats}, ignoring capacity
+ * bounds, so they are an upper bound.
+ */
+@ApplicationScoped
+public class WarehouseSearchCounts {
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Inject
+  FleetUtilizationStats fleetUtilizationStats;
+
+  @ConfigProperty(name = "warehouse.search.count-cache-size", defaultValue = "10000")
+  int cacheSize;
+
+  private final AtomicLong generation = new AtomicLong();
+  private final Map<Filter, CachedCount> exactCounts = new ConcurrentHashMap<>();
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    if (affectsCounts(event.getPrevious(), event.getCurrent())) {
+      invalidate();
+    }
+  }
+
+  public long exact(String location, Integer minCapacity, Integer maxCapacity) {
+    Filter filter = Filter.of(location, minCapacity, maxCapacity);
+    long current = generation.get();
+    CachedCount cached = exactCounts.get(filter);
+    if (cached != null && cached.generation == current) {
+      return cached.count;
+    }
+
+    long count = warehouseStore.countActive(filter.location, minCapacity, maxCapacity);
+    if (exactCounts.size() >= cacheSize) {
+      exactCounts.clear();
+    }
+    exactCounts.put(filter, new CachedCount(current, count));
+    return count;
+  }
+
+  public long estimated(String location) {
+    FleetUtilization fleet = fleetUtilizationStats.current();
+    String normalized = Filter.normalize(location);
+    if (normalized == null) {
+      return fleet.warehouseCount();
+    }
+    return fleet.locations().stream()
+        .filter(l -> l.location().equals(normalized))
+        .mapToLong(LocationUtilization::warehouseCount)
+        .findFirst()
+        .orElse(0);
+  }
+
+  // Drops every cached exact count; for writes that bypass WarehouseChangedEvent
+  public void invalidate() {
+    generation.incrementAndGet();
+    exactCounts.clear();
+  }
+
+  private static boolean affectsCounts(Warehouse previous, Warehouse current) {
+    if (previous == null || current == null) {
+      return true;
+    }
+    return (previous.archivedAt == null) != (current.archivedAt == null)
+        || !Objects.equals(previous.location, current.location)
+        || !Objects.equals(previous.capacity, current.capacity);
+  }
+
+  private record Filter(String location, Integer minCapacity, Integer maxCapacity) {
+
+    static Filter of(String location, Integer minCapacity, Integer maxCapacity) {
+      return new Filter(normalize(location), minCapacity, maxCapacity);
+    }
+
+    // Search ignores a blank location, so it is the same filter as none
+    static String normalize(String location) {
+      return location == null || location.trim().isEmpty() ? null : location;
+    }
+  }
+
+  private record CachedCount(long generation, long count) {}
+}
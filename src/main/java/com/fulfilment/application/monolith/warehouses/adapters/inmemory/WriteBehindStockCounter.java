@@ -0,0 +1,498 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.routing.DataSourceRouting;
+import com.fulfilment.application.monolith.warehouses.adapters.database.StockDeltaCheckpointRepository;
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.UnflushedStock;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Receipts and shipments accumulated in memory per warehouse and written to
+ * the WarehouseStore behind the caller's back.
+ *
+ * Each change is admitted against the warehouse's committed stock and capacity
+ * plus every change admitted before it, so {@code 0 <= stock <= capacity}
+ * holds at admission, appended to the {@link StockDeltaLog} and forced to disk,
+ * and only then acknowledged. Every {@code flush-interval}, or as soon as
+ * {@code flush-threshold} changes are waiting, one transaction applies each
+ * touched warehouse's net change, in code order, with
+ * {@link WarehouseStore#adjustStock}: a guarded statement that never conflicts
+ * with other adjustments, and bumps the version and fires the change events
+ * like any other update. The same transaction records, per warehouse, the last
+ * log sequence it wrote ({@code stock_delta_checkpoint}).
+ *
+ * Committed stock and capacity come from the store on first use and then from
+ * committed {@link WarehouseChangedEvent}s, newest version first. Every other
+ * writer of a warehouse (adjustments, transfers, allocations, replacements,
+ * archival) goes through {@link #hold} in its transaction: no change is admitted
+ * for the warehouse until that transaction ends, the writer leaves room for the
+ * unflushed changes, and the next admission after a commit reloads the
+ * warehouse from the store. A flushed change the guarded statement still
+ * refuses, because something wrote the row past the counter, is dropped,
+ * logged and counted rather than written.
+ *
+ * At startup the log is replayed: entries past their warehouse's checkpoint
+ * were acknowledged but never written, and are flushed before anything else.
+ */
+@ApplicationScoped
+public class WriteBehindStockCounter implements StockCounter {
+
+  private static final Logger LOGGER = Logger.getLogger(WriteBehindStockCounter.class.getName());
+
+  @ConfigProperty(name = "warehouse.stock-counter.flush-interval", defaultValue = "200ms")
+  Duration flushInterval;
+
+  @ConfigProperty(name = "warehouse.stock-counter.flush-threshold", defaultValue = "500")
+  int flushThreshold;
+
+  @ConfigProperty(name = "warehouse.stock-counter.log", defaultValue = "data/stock-deltas.log")
+  Path logPath;
+
+  @ConfigProperty(name = "warehouse.stock-counter.log-compact-bytes", defaultValue = "1048576")
+  long logCompactBytes;
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Inject
+  StockDeltaCheckpointRepository checkpoints;
+
+  @Inject
+  TransactionSynchronizationRegistry transactions;
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder warehousesWritten = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  private StockDeltaLog log;
+  private ScheduledExecutorService flusher;
+  // The batch of the flush whose transaction is committing, by code; guarded by this
+  private Map<String, Pending> committing;
+
+  void onStart(@Observes StartupEvent event) {
+    recover();
+    flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "stock-counter-flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Each flush runs in a request context of its own, ended when the flush returns
+    flusher.scheduleWithFixedDelay(DataSourceRouting.outsideRequest(this::flushQuietly),
+        flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  void onStop(@Observes ShutdownEvent event) throws IOException {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    DataSourceRouting.outsideRequest(this::flushQuietly).run();
+    log.close();
+  }
+
+  void onWarehouseChanged(
+      @Observes(during = TransactionPhase.AFTER_SUCCESS) WarehouseChangedEvent event) {
+    Warehouse current = event.getCurrent();
+    // A flush's own write, observed on the flush thread as its transaction commits:
+    // the committed stock now holds the delta, so it leaves flushing in the same step
+    Pending own = Thread.holdsLock(this) && committing != null
+        ? committing.remove(current.businessUnitCode)
+        : null;
+    if (own != null) {
+      synchronized (own.counter()) {
+        own.counter().refresh(current);
+        own.counter().flushing -= own.delta();
+      }
+      return;
+    }
+    Counter counter = counters.get(current.businessUnitCode);
+    if (counter != null) {
+      synchronized (counter) {
+        counter.refresh(current);
+      }
+    }
+  }
+
+  @Override
+  public StockLevel adjust(String businessUnitCode, int delta) {
+    Counter counter = counter(businessUnitCode);
+    StockLevel level;
+    synchronized (counter) {
+      awaitRelease(counter);
+      if (counter.retired) {
+        return adjust(businessUnitCode, delta);
+      }
+      if (counter.stale) {
+        // Written by a holder since it was loaded
+        Warehouse warehouse = warehouseStore.findByBusinessUnitCode(businessUnitCode);
+        if (warehouse == null && counter.pending == 0 && counter.flushing == 0) {
+          retire(counter);
+          return adjust(businessUnitCode, delta);
+        }
+        if (warehouse != null) {
+          counter.refresh(warehouse);
+        }
+        counter.stale = false;
+      }
+      if (counter.archived) {
+        rejected.increment();
+        throw new IllegalArgumentException(
+            "Warehouse with business unit code '" + businessUnitCode + "' is archived and cannot move stock");
+      }
+      int stock = counter.stock + counter.flushing + counter.pending + delta;
+      if (stock < 0) {
+        rejected.increment();
+        throw new IllegalArgumentException(
+            "Warehouse '" + businessUnitCode + "' has insufficient stock (" + (stock - delta)
+                + ") to ship " + -delta);
+      }
+      if (stock > counter.capacity) {
+        rejected.increment();
+        throw new IllegalArgumentException(
+            "Warehouse stock (" + stock + ") exceeds warehouse capacity (" + counter.capacity
+                + ") for '" + businessUnitCode + "'");
+      }
+
+      // Durable before it is counted or acknowledged
+      counter.lastSequence = log.append(businessUnitCode, delta);
+      counter.pending += delta;
+      level = new StockLevel(businessUnitCode, stock, counter.capacity, counter.flushing + counter.pending);
+    }
+    admitted.increment();
+
+    if (waiting.incrementAndGet() == flushThreshold) {
+      flusher.execute(DataSourceRouting.outsideRequest(this::flushQuietly));
+    }
+    return level;
+  }
+
+  @Override
+  public UnflushedStock hold(String businessUnitCode) {
+    if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      throw new IllegalStateException("Holding the stock of '" + businessUnitCode + "' needs an active transaction");
+    }
+    while (true) {
+      // A warehouse first seen here is loaded by the first admission after the hold
+      Counter counter = counters.computeIfAbsent(businessUnitCode, code -> {
+        Counter unloaded = new Counter(code);
+        unloaded.stale = true;
+        return unloaded;
+      });
+      synchronized (counter) {
+        if (counter.retired) {
+          continue;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+          @Override
+          public void beforeCompletion() {
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            release(counter, status == Status.STATUS_COMMITTED);
+          }
+        });
+        counter.held++;
+        return UnflushedStock.of(counter.flushing, counter.pending);
+      }
+    }
+  }
+
+  /**
+   * Writes every admitted change in one transaction. On failure the changes go
+   * back to pending and the next flush retries them.
+   */
+  @Override
+  public synchronized void flush() {
+    waiting.set(0);
+    List<Pending> batch = new ArrayList<>();
+    for (Counter counter : counters.values()) {
+      synchronized (counter) {
+        // Changes that cancel out still need their checkpoint, or the log keeps them
+        if (counter.lastSequence > counter.takenSequence) {
+          batch.add(new Pending(counter, counter.pending, counter.lastSequence, counter.takenSequence));
+          counter.flushing += counter.pending;
+          counter.pending = 0;
+          counter.takenSequence = counter.lastSequence;
+        }
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    // Row locks taken in the same order as transfers, so the two cannot deadlock
+    batch.sort(Comparator.comparing(pending -> pending.counter().businessUnitCode));
+
+    List<StockAdjustment> rejectedOnWrite = new ArrayList<>();
+    committing = new HashMap<>();
+    for (Pending pending : batch) {
+      committing.put(pending.counter().businessUnitCode, pending);
+    }
+    try {
+      QuarkusTransaction.requiringNew().run(() -> {
+        rejectedOnWrite.clear();
+        for (Pending pending : batch) {
+          String code = pending.counter().businessUnitCode;
+          checkpoints.save(code, pending.lastSequence());
+          if (pending.delta() != 0) {
+            StockAdjustment adjustment = warehouseStore.adjustStock(code, pending.delta());
+            if (!adjustment.applied()) {
+              rejectedOnWrite.add(adjustment);
+            }
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      for (Pending pending : batch) {
+        synchronized (pending.counter()) {
+          pending.counter().flushing -= pending.delta();
+          pending.counter().pending += pending.delta();
+          pending.counter().takenSequence = pending.previouslyTaken();
+        }
+      }
+      LOGGER.warnf(e, "Stock flush of %d warehouses failed, retrying", batch.size());
+      committing = null;
+      return;
+    }
+
+    // Those the store fired no change for: nothing to write, or refused
+    for (Pending pending : committing.values()) {
+      synchronized (pending.counter()) {
+        pending.counter().flushing -= pending.delta();
+      }
+    }
+    committing = null;
+    for (Pending pending : batch) {
+      log.flushed(pending.counter().businessUnitCode, pending.delta());
+    }
+    for (StockAdjustment adjustment : rejectedOnWrite) {
+      dropped.increment();
+      LOGGER.warnf("Stock change %+d for '%s' dropped: %s",
+          adjustment.delta(), adjustment.businessUnitCode(), adjustment.reason());
+      // Its view of the warehouse is wrong; the next change reloads it
+      Counter counter = counters.get(adjustment.businessUnitCode());
+      if (counter != null) {
+        synchronized (counter) {
+          if (counter.pending == 0 && counter.flushing == 0 && counter.held == 0) {
+            retire(counter);
+          }
+        }
+      }
+    }
+    flushes.increment();
+    warehousesWritten.add(batch.stream().filter(pending -> pending.delta() != 0).count()
+        - rejectedOnWrite.size());
+
+    if (log.size() > logCompactBytes) {
+      log.compact();
+    }
+  }
+
+  public StockCounterStats stats() {
+    int unflushedWarehouses = 0;
+    for (Counter counter : counters.values()) {
+      synchronized (counter) {
+        if (counter.pending != 0 || counter.flushing != 0) {
+          unflushedWarehouses++;
+        }
+      }
+    }
+    return new StockCounterStats(
+        counters.size(),
+        unflushedWarehouses,
+        admitted.sum(),
+        rejected.sum(),
+        flushes.sum(),
+        warehousesWritten.sum(),
+        dropped.sum(),
+        log.size());
+  }
+
+  // Replays acknowledged changes the database does not have yet
+  synchronized void recover() {
+    List<StockDeltaLog.Entry> entries = StockDeltaLog.read(logPath);
+    Map<String, Long> lastWritten = QuarkusTransaction.requiringNew().call(() -> checkpoints.findLastSequences(
+        entries.stream().map(StockDeltaLog.Entry::businessUnitCode).distinct().toList()));
+    long lastSequence = QuarkusTransaction.requiringNew().call(checkpoints::maxLastSequence);
+
+    Map<String, StockDeltaLog.Entry> unflushed = new HashMap<>();
+    int replayed = 0;
+    for (StockDeltaLog.Entry entry : entries) {
+      lastSequence = Math.max(lastSequence, entry.sequence());
+      if (entry.sequence() > lastWritten.getOrDefault(entry.businessUnitCode(), 0L)) {
+        replayed++;
+        unflushed.merge(entry.businessUnitCode(), entry, (old, added) -> new StockDeltaLog.Entry(
+            added.sequence(), added.businessUnitCode(), old.delta() + added.delta()));
+      }
+    }
+
+    if (log != null) {
+      try {
+        log.close();
+      } catch (IOException e) {
+        LOGGER.warn("Closing the stock delta log failed", e);
+      }
+    }
+    counters.clear();
+    log = StockDeltaLog.open(logPath, unflushed.values(), lastSequence);
+
+    for (StockDeltaLog.Entry entry : unflushed.values()) {
+      Counter counter = new Counter(entry.businessUnitCode());
+      Warehouse warehouse = warehouseStore.findByBusinessUnitCode(entry.businessUnitCode());
+      if (warehouse != null) {
+        counter.refresh(warehouse);
+      }
+      counter.pending = entry.delta();
+      counter.lastSequence = entry.sequence();
+      counters.put(counter.businessUnitCode, counter);
+    }
+    LOGGER.infof("Stock delta log %s replayed: %d unflushed changes for %d warehouses",
+        logPath, replayed, unflushed.size());
+    flush();
+  }
+
+  // Drops the changes waiting in memory without writing them, as a crash would
+  synchronized void crash() {
+    counters.clear();
+  }
+
+  private Counter counter(String businessUnitCode) {
+    Counter counter = counters.get(businessUnitCode);
+    if (counter != null) {
+      return counter;
+    }
+    Warehouse warehouse = warehouseStore.findByBusinessUnitCode(businessUnitCode);
+    if (warehouse == null) {
+      rejected.increment();
+      throw new IllegalArgumentException(
+          "Warehouse with business unit code '" + businessUnitCode + "' does not exist");
+    }
+    Counter loaded = new Counter(businessUnitCode);
+    loaded.refresh(warehouse);
+    Counter raced = counters.putIfAbsent(businessUnitCode, loaded);
+    return raced != null ? raced : loaded;
+  }
+
+  // Called with the counter's monitor held
+  private void awaitRelease(Counter counter) {
+    boolean interrupted = false;
+    while (counter.held > 0 && !counter.retired) {
+      try {
+        counter.wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void release(Counter counter, boolean committed) {
+    synchronized (counter) {
+      counter.held--;
+      if (committed || counter.stale) {
+        if (counter.held == 0 && counter.pending == 0 && counter.flushing == 0) {
+          // Nothing to keep: the next change loads the warehouse afresh
+          retire(counter);
+        } else {
+          counter.stale = true;
+        }
+      }
+      counter.notifyAll();
+    }
+  }
+
+  // Called with the counter's monitor held
+  private void retire(Counter counter) {
+    counter.retired = true;
+    counters.remove(counter.businessUnitCode, counter);
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOGGER.warn("Stock flush failed", e);
+    }
+  }
+
+  // Guarded by its own monitor
+  private static final class Counter {
+
+    final String businessUnitCode;
+    // As committed in the WarehouseStore
+    int stock;
+    int capacity;
+    boolean archived;
+    // Admitted and logged, not yet taken by a flush
+    int pending;
+    // Taken by the flush in progress
+    int flushing;
+    // Removed from the map; changes must go to its replacement
+    boolean retired;
+    // Open transactions holding the warehouse, and whether one has written it
+    // since stock and capacity were loaded
+    int held;
+    boolean stale;
+    long version;
+    // Last log sequence admitted, and the last one taken by a flush
+    long lastSequence;
+    long takenSequence;
+
+    Counter(String businessUnitCode) {
+      this.businessUnitCode = businessUnitCode;
+    }
+
+    void refresh(Warehouse warehouse) {
+      // Events can arrive out of commit order; an older state is ignored
+      if (warehouse.version != null) {
+        if (warehouse.version < version) {
+          return;
+        }
+        version = warehouse.version;
+      }
+      stock = warehouse.stock != null ? warehouse.stock : 0;
+      capacity = warehouse.capacity != null ? warehouse.capacity : 0;
+      archived = warehouse.archivedAt != null;
+    }
+  }
+
+  private record Pending(Counter counter, int delta, long lastSequence, long previouslyTaken) {}
+}
@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.BusinessUnitCodeFilterStats;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.InMemoryBusinessUnitCodeFilter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Business unit code filter effectiveness: uniqueness lookups saved on create
+ * and the false positive rate, estimated and observed.
+ */
+@Path("admin/business-unit-code-filter")
+@ApplicationScoped
+public class BusinessUnitCodeFilterResource {
+
+  @Inject
+  InMemoryBusinessUnitCodeFilter businessUnitCodeFilter;
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public BusinessUnitCodeFilterStats get() {
+    return businessUnitCodeFilter.stats();
+  }
+}
@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.StockCounterStats;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WriteBehindStockCounter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Write-behind stock counter: changes waiting to be written and flush
+ * activity, and a flush on demand (e.g. before a stock report).
+ */
+@Path("admin/stock-counter")
+@ApplicationScoped
+public class StockCounterResource {
+
+  @Inject
+  WriteBehindStockCounter stockCounter;
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public StockCounterStats get() {
+    return stockCounter.stats();
+  }
+
+  @POST
+  @Path("flush")
+  @Produces(MediaType.APPLICATION_JSON)
+  public StockCounterStats flush() {
+    stockCounter.flush();
+    return stockCounter.stats();
+  }
+}
@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseChangeFeed;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChange;
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+
+/**
+ * Server-sent events stream of committed warehouse creates, replaces and
+ * archives, so mirrors can consume changes instead of polling GET /warehouse.
+ *
+ * Each event carries its sequence as the SSE id. Clients resume with the
+ * standard Last-Event-ID header (or the afterSequence query parameter); when
+ * the requested point has already left the replay buffer the server answers
+ * 410 Gone and the client has to resynchronise from GET /warehouse.
+ */
+@Path("warehouse/changes")
+@ApplicationScoped
+public class WarehouseChangeFeedResource {
+
+  @Inject
+  WarehouseChangeFeed warehouseChangeFeed;
+
+  @GET
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  public Multi<OutboundSseEvent> stream(
+      @QueryParam("afterSequence") Long afterSequence,
+      @HeaderParam("Last-Event-ID") String lastEventId,
+      @Context Sse sse) {
+    long after = resolveStartSequence(afterSequence, lastEventId);
+
+    return warehouseChangeFeed.subscribe(after).map(change -> toSseEvent(sse, change));
+  }
+
+  private long resolveStartSequence(Long afterSequence, String lastEventId) {
+    Long requested = afterSequence;
+    if (requested == null && lastEventId != null && !lastEventId.isBlank()) {
+      try {
+        requested = Long.parseLong(lastEventId.trim());
+      } catch (NumberFormatException e) {
+        throw new WebApplicationException("Invalid Last-Event-ID '" + lastEventId + "'", 400);
+      }
+    }
+
+    // No resume point: live changes only
+    if (requested == null) {
+      return warehouseChangeFeed.lastSequence();
+    }
+    if (!warehouseChangeFeed.canResumeAfter(requested)) {
+      throw new WebApplicationException(
+          "Cannot resume after sequence " + requested + ", it is no longer in the replay buffer", 410);
+    }
+    return requested;
+  }
+
+  private OutboundSseEvent toSseEvent(Sse sse, WarehouseChange change) {
+    return sse.newEventBuilder()
+        .id(String.valueOf(change.sequence()))
+        .name(change.type().name())
+        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+        .data(WarehouseChange.class, change)
+        .build();
+  }
+}
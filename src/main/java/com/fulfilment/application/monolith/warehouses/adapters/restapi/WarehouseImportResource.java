@@ -0,0 +1,164 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.csvimport.ImportRowError;
+import com.fulfilment.application.monolith.warehouses.adapters.csvimport.WarehouseImportJobs;
+import com.fulfilment.application.monolith.warehouses.adapters.csvimport.WarehouseImportStatus;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bulk warehouse imports from CSV: upload a file to start a background job,
+ * then follow its progress and rejected rows, cancel it or resume it. An
+ * upload larger than {@code warehouse.import.max-upload-size} is refused with
+ * 413.
+ */
+@Path("warehouse/imports")
+@ApplicationScoped
+public class WarehouseImportResource {
+
+  private static final int MAX_PAGE_SIZE = 1000;
+
+  @Inject
+  WarehouseImportJobs imports;
+
+  @ConfigProperty(name = "warehouse.import.max-upload-size", defaultValue = "10M")
+  MemorySize maxUploadSize;
+
+  @POST
+  @Consumes({"text/csv", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response upload(InputStream csv, @Context UriInfo uriInfo) throws IOException {
+    WarehouseImportStatus status;
+    try {
+      status = imports.submit(new LimitedInputStream(csv, maxUploadSize.asLongValue()));
+    } catch (UploadTooLargeException e) {
+      throw new WebApplicationException(e.getMessage(), 413);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+    return Response.accepted(status)
+        .location(uriInfo.getAbsolutePathBuilder().path(status.id()).build())
+        .build();
+  }
+
+  @GET
+  @Path("{id}")
+  @Produces(MediaType.APPLICATION_JSON)
+  public WarehouseImportStatus get(@PathParam("id") String id) {
+    return found(id, imports.status(id));
+  }
+
+  @GET
+  @Path("{id}/errors")
+  @Produces(MediaType.APPLICATION_JSON)
+  public List<ImportRowError> errors(
+      @PathParam("id") String id,
+      @QueryParam("page") @DefaultValue("0") int page,
+      @QueryParam("pageSize") @DefaultValue("100") int pageSize) {
+    if (page < 0 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new WebApplicationException(
+          "page must not be negative and pageSize must be between 1 and " + MAX_PAGE_SIZE, 400);
+    }
+    found(id, imports.status(id));
+    return imports.errors(id, page, pageSize);
+  }
+
+  @POST
+  @Path("{id}/cancel")
+  @Produces(MediaType.APPLICATION_JSON)
+  public WarehouseImportStatus cancel(@PathParam("id") String id) {
+    try {
+      return found(id, imports.cancel(id));
+    } catch (IllegalStateException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+
+  @POST
+  @Path("{id}/resume")
+  @Produces(MediaType.APPLICATION_JSON)
+  public WarehouseImportStatus resume(@PathParam("id") String id) {
+    try {
+      return found(id, imports.resume(id));
+    } catch (IllegalStateException e) {
+      throw new WebApplicationException(e.getMessage(), 409);
+    }
+  }
+
+  // Counts the bytes read and fails once they pass the limit, whatever the
+  // request declared as its length; the spooled part is then deleted
+  private static final class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long read;
+
+    LimitedInputStream(InputStream in, long limit) {
+      super(in);
+      this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int n = super.read(buffer, offset, length);
+      if (n > 0) {
+        count(n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count(skipped);
+      return skipped;
+    }
+
+    private void count(long n) throws UploadTooLargeException {
+      read += n;
+      if (read > limit) {
+        throw new UploadTooLargeException("Upload exceeds the maximum import size of " + limit + " bytes");
+      }
+    }
+  }
+
+  private static final class UploadTooLargeException extends IOException {
+    UploadTooLargeException(String message) {
+      super(message);
+    }
+  }
+
+  private static WarehouseImportStatus found(String id, WarehouseImportStatus status) {
+    if (status == null) {
+      throw new WebApplicationException("Import " + id + " not found", 404);
+    }
+    return status;
+  }
+}
@@ -0,0 +1,173 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Writes a {@link WarehouseResponseList} as JSON straight from the domain rows,
+ * without building a {@code com.warehouse.api.beans.Warehouse} per row or going
+ * through Jackson's reflective bean serializer.
+ *
+ * <p>The output is byte-for-byte what Jackson produces for the generated bean:
+ * same property order, nulls omitted, timestamps as
+ * {@code yyyy-MM-dd'T'HH:mm:ss'Z'} in UTC. Field names are pre-encoded once,
+ * the system zone rules are resolved once, and timestamps are formatted into a
+ * char buffer shared by all rows of a response.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class WarehouseListJsonWriter implements MessageBodyWriter<WarehouseResponseList> {
+
+  private static final SerializedString BUSINESS_UNIT_CODE = new SerializedString("businessUnitCode");
+  private static final SerializedString LOCATION = new SerializedString("location");
+  private static final SerializedString CAPACITY = new SerializedString("capacity");
+  private static final SerializedString STOCK = new SerializedString("stock");
+  private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+  private static final SerializedString ARCHIVED_AT = new SerializedString("archivedAt");
+
+  private static final int TIMESTAMP_LENGTH = "yyyy-MM-ddTHH:mm:ssZ".length();
+  private static final long SECONDS_PER_DAY = 86_400;
+
+  private final JsonFactory jsonFactory;
+  private final ZoneRules zoneRules;
+
+  @Inject
+  public WarehouseListJsonWriter(ObjectMapper objectMapper) {
+    this.jsonFactory = objectMapper.getFactory();
+    this.zoneRules = ZoneId.systemDefault().getRules();
+  }
+
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return WarehouseResponseList.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public void writeTo(
+      WarehouseResponseList warehouses,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream) throws IOException {
+    try (JsonGenerator generator = jsonFactory.createGenerator(entityStream, JsonEncoding.UTF8)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      write(warehouses, generator);
+    }
+  }
+
+  void write(WarehouseResponseList warehouses, JsonGenerator generator) throws IOException {
+    char[] timestamp = new char[TIMESTAMP_LENGTH];
+    var rows = warehouses.rows();
+
+    generator.writeStartArray();
+    for (int i = 0, n = rows.size(); i < n; i++) {
+      Warehouse warehouse = rows.get(i);
+      generator.writeStartObject();
+      if (warehouse.businessUnitCode != null) {
+        generator.writeFieldName(BUSINESS_UNIT_CODE);
+        generator.writeString(warehouse.businessUnitCode);
+      }
+      if (warehouse.location != null) {
+        generator.writeFieldName(LOCATION);
+        generator.writeString(warehouse.location);
+      }
+      if (warehouse.capacity != null) {
+        generator.writeFieldName(CAPACITY);
+        generator.writeNumber(warehouse.capacity);
+      }
+      if (warehouse.stock != null) {
+        generator.writeFieldName(STOCK);
+        generator.writeNumber(warehouse.stock);
+      }
+      if (warehouse.createdAt != null) {
+        generator.writeFieldName(CREATED_AT);
+        writeTimestamp(generator, warehouse.createdAt, timestamp);
+      }
+      if (warehouse.archivedAt != null) {
+        generator.writeFieldName(ARCHIVED_AT);
+        writeTimestamp(generator, warehouse.archivedAt, timestamp);
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  private void writeTimestamp(JsonGenerator generator, LocalDateTime local, char[] buffer)
+      throws IOException {
+    // Same instant as local.atZone(systemDefault()): in gaps and overlaps both
+    // resolve to the offset before the transition.
+    long epochSecond = local.toEpochSecond(zoneRules.getOffset(local));
+    long days = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+    // Civil date from days since 1970-01-01 (proleptic Gregorian, March-based years)
+    long z = days + 719_468;
+    long era = Math.floorDiv(z, 146_097);
+    int dayOfEra = (int) (z - era * 146_097);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int monthIndex = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+    if (year < 1 || year > 9999) {
+      // Outside the four-digit range SimpleDateFormat switches to era years; defer to it
+      generator.writeString(legacyFormat(epochSecond));
+      return;
+    }
+
+    put4(buffer, 0, (int) year);
+    buffer[4] = '-';
+    put2(buffer, 5, month);
+    buffer[7] = '-';
+    put2(buffer, 8, day);
+    buffer[10] = 'T';
+    put2(buffer, 11, secondOfDay / 3600);
+    buffer[13] = ':';
+    put2(buffer, 14, secondOfDay / 60 % 60);
+    buffer[16] = ':';
+    put2(buffer, 17, secondOfDay % 60);
+    buffer[19] = 'Z';
+    generator.writeString(buffer, 0, TIMESTAMP_LENGTH);
+  }
+
+  private static String legacyFormat(long epochSecond) {
+    var format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(new Date(epochSecond * 1000));
+  }
+
+  private static void put2(char[] buffer, int offset, int value) {
+    buffer[offset] = (char) ('0' + value / 10);
+    buffer[offset + 1] = (char) ('0' + value % 10);
+  }
+
+  private static void put4(char[] buffer, int offset, int value) {
+    put2(buffer, offset, value / 100);
+    put2(buffer, offset + 2, value % 100);
+  }
+}
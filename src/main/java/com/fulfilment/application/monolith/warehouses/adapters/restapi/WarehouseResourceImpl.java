@@ -1,39 +1,113 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
-import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.admission.Bulkhead;
+import com.fulfilment.application.monolith.admission.ConcurrencyLimited;
+import com.fulfilment.application.monolith.routing.ReadOnly;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseHistoryRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseSearchCounts;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustStockOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AllocateStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FleetUtilizationStats;
+import com.fulfilment.application.monolith.warehouses.domain.ports.MoveStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.NearestWarehouseIndex;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.TransferStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseTextIndex;
 import com.warehouse.api.WarehouseResource;
+import com.warehouse.api.beans.AllocationPlan;
+import com.warehouse.api.beans.AllocationRequest;
+import com.warehouse.api.beans.FleetUtilization;
+import com.warehouse.api.beans.LocationUtilization;
+import com.warehouse.api.beans.NearbyWarehouse;
+import com.warehouse.api.beans.StockAdjustment;
+import com.warehouse.api.beans.StockAdjustmentRequest;
+import com.warehouse.api.beans.StockLevel;
+import com.warehouse.api.beans.StockMovement;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehouseLookupRequest;
+import com.warehouse.api.beans.WarehouseLookupResult;
+import com.warehouse.api.beans.WarehouseMatch;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RequestScoped
 public class WarehouseResourceImpl implements WarehouseResource {
 
+  // Upper bound of POST /warehouse/lookup, keeps the IN list and response bounded
+  static final int MAX_LOOKUP_CODES = 500;
+
+  // Upper bound of GET /warehouse/search/fuzzy results
+  static final int MAX_FUZZY_RESULTS = 100;
+
+  // Upper bound of GET /warehouse/nearest results
+  static final int MAX_NEAREST_RESULTS = 100;
+
+  @Inject
+  private WarehouseStore warehouseStore;
   @Inject
-  private WarehouseRepository warehouseRepository;
+  private WarehouseHistoryRepository warehouseHistoryRepository;
   @Inject
   private CreateWarehouseOperation createWarehouseOperation;
   @Inject
   private ArchiveWarehouseOperation archiveWarehouseOperation;
   @Inject
   private ReplaceWarehouseOperation replaceWarehouseOperation;
+  @Inject
+  private TransferStockOperation transferStockOperation;
+  @Inject
+  private AllocateStockOperation allocateStockOperation;
+  @Inject
+  private MoveStockOperation moveStockOperation;
+  @Inject
+  private AdjustStockOperation adjustStockOperation;
+  @Inject
+  private FleetUtilizationStats fleetUtilizationStats;
+  @Inject
+  private WarehouseSearchCounts warehouseSearchCounts;
+  @Inject
+  private WarehouseTextIndex warehouseTextIndex;
+  @Inject
+  private NearestWarehouseIndex nearestWarehouseIndex;
+  @Context
+  HttpServerRequest httpRequest;
+  @Context
+  HttpServerResponse httpResponse;
 
   @Override
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ConcurrencyLimited
+  @ReadOnly
   public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseRepository.getAll().stream().map(this::toWarehouseResponse).toList();
+    // Written row by row from the domain objects by WarehouseListJsonWriter
+    return new WarehouseResponseList(warehouseStore.getAll(), WarehouseResourceImpl::toWarehouseResponse);
   }
 
   @Override
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ConcurrencyLimited
+  @ReadOnly
   public List<Warehouse> searchAndFilterWarehouses(
       String location,
       java.math.BigInteger minCapacity,
@@ -41,21 +115,83 @@ public class WarehouseResourceImpl implements WarehouseResource {
       String sortBy,
       String sortOrder,
       java.math.BigInteger page,
-      java.math.BigInteger pageSize) {
-    return warehouseRepository.search(
-        location,
-        minCapacity != null ? minCapacity.intValue() : null,
-        maxCapacity != null ? maxCapacity.intValue() : null,
-        sortBy,
-        sortOrder,
-        page != null ? page.intValue() : 0,
-        pageSize != null ? pageSize.intValue() : 10)
-        .stream()
-        .map(this::toWarehouseResponse)
-        .toList();
+      java.math.BigInteger pageSize,
+      String asOf,
+      String count) {
+    Integer min = minCapacity != null ? minCapacity.intValue() : null;
+    Integer max = maxCapacity != null ? maxCapacity.intValue() : null;
+    int pageIndex = page != null ? page.intValue() : 0;
+    int size = pageSize != null ? pageSize.intValue() : 10;
+    LocalDateTime asOfTime = asOf != null ? parseAsOf(asOf) : null;
+    addTotalCountHeaders(count, asOfTime, location, min, max);
+
+    var results = asOfTime == null
+        ? warehouseStore.search(location, min, max, sortBy, sortOrder, pageIndex, size)
+        : warehouseHistoryRepository.search(
+            asOfTime, location, min, max, sortBy, sortOrder, pageIndex, size);
+
+    return new WarehouseResponseList(results, WarehouseResourceImpl::toWarehouseResponse);
+  }
+
+  @Override
+  public List<WarehouseMatch> fuzzySearchWarehousesByCodeOrLocation(
+      String q, java.math.BigInteger limit) {
+    if (q == null || q.isBlank()) {
+      throw new WebApplicationException("Query q must not be blank", 400);
+    }
+    int size = limit != null ? limit.intValue() : 20;
+    if (size < 1 || size > MAX_FUZZY_RESULTS) {
+      throw new WebApplicationException(
+          "limit must be between 1 and " + MAX_FUZZY_RESULTS + ", got " + limit, 400);
+    }
+
+    return warehouseTextIndex.search(q, size).stream().map(match -> {
+      var item = new WarehouseMatch();
+      item.setWarehouse(toWarehouseResponse(match.warehouse()));
+      item.setScore(match.score());
+      boolean onLocation = match.matchedOn()
+          == com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMatch.Field.LOCATION;
+      item.setMatchedOn(onLocation ? "location" : "businessUnitCode");
+      return item;
+    }).toList();
+  }
+
+  @Override
+  public List<NearbyWarehouse> findNearestWarehouses(
+      double latitude,
+      double longitude,
+      java.math.BigInteger limit,
+      java.math.BigInteger minFreeCapacity) {
+    // The generated signature has primitives, so a missing coordinate would read as 0
+    if (httpRequest.getParam("latitude") == null || httpRequest.getParam("longitude") == null) {
+      throw new WebApplicationException("latitude and longitude are required", 400);
+    }
+    if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+      throw new WebApplicationException(
+          "Coordinates out of range: latitude " + latitude + ", longitude " + longitude, 400);
+    }
+    int size = limit != null ? limit.intValue() : 5;
+    if (size < 1 || size > MAX_NEAREST_RESULTS) {
+      throw new WebApplicationException(
+          "limit must be between 1 and " + MAX_NEAREST_RESULTS + ", got " + limit, 400);
+    }
+    int minFree = minFreeCapacity != null ? minFreeCapacity.intValue() : 0;
+    if (minFree < 0) {
+      throw new WebApplicationException("minFreeCapacity must not be negative", 400);
+    }
+
+    return nearestWarehouseIndex.nearest(latitude, longitude, size, minFree).stream().map(nearby -> {
+      var item = new NearbyWarehouse();
+      item.setWarehouse(toWarehouseResponse(nearby.warehouse()));
+      item.setFreeCapacity(nearby.freeCapacity());
+      item.setDistanceKm(nearby.distanceKm());
+      return item;
+    }).toList();
   }
 
   @Override
+  @Bulkhead(Bulkhead.Kind.WRITE)
+  @ConcurrencyLimited
   @Transactional
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
     // Convert API model to domain model
@@ -77,9 +213,14 @@ public class WarehouseResourceImpl implements WarehouseResource {
   }
 
   @Override
-  public Warehouse getAWarehouseUnitByID(String id) {
-    // Find warehouse by business unit code
-    var domainWarehouse = warehouseRepository.findByBusinessUnitCode(id);
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ConcurrencyLimited
+  @ReadOnly
+  public Warehouse getAWarehouseUnitByID(String id, String asOf) {
+    // Find warehouse by business unit code, optionally as it was at a point in time
+    var domainWarehouse = asOf == null
+        ? warehouseStore.findByBusinessUnitCode(id)
+        : warehouseHistoryRepository.findByBusinessUnitCodeAsOf(id, parseAsOf(asOf));
 
     if (domainWarehouse == null) {
       throw new WebApplicationException("Warehouse with business unit code '" + id + "' not found", 404);
@@ -89,6 +230,48 @@ public class WarehouseResourceImpl implements WarehouseResource {
   }
 
   @Override
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ConcurrencyLimited
+  @ReadOnly
+  public WarehouseLookupResult lookUpWarehousesByBusinessUnitCodes(@NotNull WarehouseLookupRequest data) {
+    List<String> codes = data.getBusinessUnitCodes();
+    if (codes == null || codes.isEmpty()) {
+      throw new WebApplicationException("At least one business unit code is required", 400);
+    }
+    if (codes.size() > MAX_LOOKUP_CODES) {
+      throw new WebApplicationException(
+          "At most " + MAX_LOOKUP_CODES + " business unit codes per lookup, got " + codes.size(), 400);
+    }
+    if (codes.stream().anyMatch(code -> code == null || code.isBlank())) {
+      throw new WebApplicationException("Business unit codes must not be blank", 400);
+    }
+
+    // One query for all codes, then answer in request order (duplicates once)
+    var requested = new LinkedHashSet<>(codes);
+    Map<String, com.fulfilment.application.monolith.warehouses.domain.models.Warehouse> found =
+        warehouseStore.findByBusinessUnitCodes(requested).stream()
+            .collect(Collectors.toMap(w -> w.businessUnitCode, Function.identity()));
+
+    var warehouses = new ArrayList<Warehouse>(found.size());
+    var missing = new ArrayList<String>();
+    for (String code : requested) {
+      var warehouse = found.get(code);
+      if (warehouse != null) {
+        warehouses.add(toWarehouseResponse(warehouse));
+      } else {
+        missing.add(code);
+      }
+    }
+
+    var result = new WarehouseLookupResult();
+    result.setWarehouses(warehouses);
+    result.setMissing(missing);
+    return result;
+  }
+
+  @Override
+  @Bulkhead(Bulkhead.Kind.WRITE)
+  @ConcurrencyLimited
   @Transactional
   public void archiveAWarehouseUnitByID(String id) {
     // The use case performs the existence check internally.
@@ -99,13 +282,17 @@ public class WarehouseResourceImpl implements WarehouseResource {
     try {
       archiveWarehouseOperation.archive(stub);
     } catch (IllegalArgumentException e) {
-      // "does not exist" → 404, any other validation failure → 400
-      int status = e.getMessage().contains("does not exist") ? 404 : 400;
+      // "does not exist" → 404, movements still being written → 409, any other
+      // validation failure → 400
+      int status = e.getMessage().contains("does not exist") ? 404
+          : e.getMessage().contains("not yet written") ? 409 : 400;
       throw new WebApplicationException(e.getMessage(), status);
     }
   }
 
   @Override
+  @Bulkhead(Bulkhead.Kind.WRITE)
+  @ConcurrencyLimited
   @Transactional
   public Warehouse replaceTheCurrentActiveWarehouse(
       String businessUnitCode, @NotNull Warehouse data) {
@@ -121,7 +308,7 @@ public class WarehouseResourceImpl implements WarehouseResource {
       replaceWarehouseOperation.replace(domainWarehouse);
 
       // Return the updated warehouse
-      var updated = warehouseRepository.findByBusinessUnitCode(businessUnitCode);
+      var updated = warehouseStore.findByBusinessUnitCode(businessUnitCode);
       return toWarehouseResponse(updated);
     } catch (IllegalArgumentException e) {
       // "does not exist" → 404, any other validation failure → 400
@@ -130,7 +317,139 @@ public class WarehouseResourceImpl implements WarehouseResource {
     }
   }
 
-  private Warehouse toWarehouseResponse(
+  @Override
+  @Bulkhead(Bulkhead.Kind.WRITE)
+  @ConcurrencyLimited
+  @Transactional
+  public List<Warehouse> transferStockBetweenWarehouses(
+      @NotNull List<com.warehouse.api.beans.StockTransfer> data) {
+    // Convert API model to domain model
+    var legs = data.stream()
+        .map(leg -> new StockTransfer(
+            leg.getSourceBusinessUnitCode(),
+            leg.getDestinationBusinessUnitCode(),
+            leg.getQuantity() != null ? leg.getQuantity() : 0))
+        .toList();
+
+    try {
+      // Transfer through use case (locks, validates and applies every leg)
+      return transferStockOperation.transfer(legs).stream().map(WarehouseResourceImpl::toWarehouseResponse).toList();
+    } catch (IllegalArgumentException e) {
+      // "does not exist" → 404, any other validation failure → 400
+      int status = e.getMessage().contains("does not exist") ? 404 : 400;
+      throw new WebApplicationException(e.getMessage(), status);
+    }
+  }
+
+  @Override
+  @Bulkhead(Bulkhead.Kind.WRITE)
+  @ConcurrencyLimited
+  @Transactional
+  public StockAdjustment adjustTheStockOfAWarehouse(
+      String businessUnitCode, @NotNull StockAdjustmentRequest data) {
+    if (data.getDelta() == null || data.getDelta() == 0) {
+      throw new WebApplicationException("A non-zero stock adjustment delta is required", 400);
+    }
+    com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment adjustment;
+    try {
+      adjustment = adjustStockOperation.adjust(businessUnitCode, data.getDelta());
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+
+    // A refusal is an answer, not a failure: its body says why
+    StockAdjustment response = toStockAdjustmentResponse(adjustment);
+    return switch (adjustment.outcome()) {
+      case APPLIED -> response;
+      case NOT_FOUND -> throw new WebApplicationException(Response.status(404).entity(response).build());
+      default -> throw new WebApplicationException(Response.status(409).entity(response).build());
+    };
+  }
+
+  // Receipts and shipments are admitted in memory and written behind (see
+  // WriteBehindStockCounter): no transaction, and a connection only the first
+  // time a warehouse is seen
+  @Override
+  public StockLevel receiveStockIntoAWarehouse(String businessUnitCode, @NotNull StockMovement data) {
+    try {
+      return toStockLevelResponse(moveStockOperation.receive(businessUnitCode, quantity(data)));
+    } catch (IllegalArgumentException e) {
+      int status = e.getMessage().contains("does not exist") ? 404 : 400;
+      throw new WebApplicationException(e.getMessage(), status);
+    }
+  }
+
+  @Override
+  public StockLevel shipStockOutOfAWarehouse(String businessUnitCode, @NotNull StockMovement data) {
+    try {
+      return toStockLevelResponse(moveStockOperation.ship(businessUnitCode, quantity(data)));
+    } catch (IllegalArgumentException e) {
+      int status = e.getMessage().contains("does not exist") ? 404 : 400;
+      throw new WebApplicationException(e.getMessage(), status);
+    }
+  }
+
+  @Override
+  @Bulkhead(Bulkhead.Kind.WRITE)
+  @ConcurrencyLimited
+  @Transactional
+  public AllocationPlan planStockAllocationAcrossWarehouses(@NotNull AllocationRequest data) {
+    int quantity = data.getQuantity() != null ? data.getQuantity() : 0;
+
+    try {
+      var plan = Boolean.TRUE.equals(data.getCommit())
+          ? allocateStockOperation.commit(quantity, data.getPreferredLocation())
+          : allocateStockOperation.plan(quantity, data.getPreferredLocation());
+
+      var response = new AllocationPlan();
+      response.setRequestedQuantity(plan.requestedQuantity());
+      response.setAllocatedQuantity(plan.allocatedQuantity());
+      response.setAllocations(plan.allocations().stream().map(allocation -> {
+        var item = new com.warehouse.api.beans.Allocation();
+        item.setBusinessUnitCode(allocation.businessUnitCode());
+        item.setLocation(allocation.location());
+        item.setQuantity(allocation.quantity());
+        return item;
+      }).toList());
+      return response;
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+  }
+
+  @Override
+  public FleetUtilization getFleetUtilizationStatistics() {
+    return toFleetUtilizationResponse(fleetUtilizationStats.current());
+  }
+
+  @Override
+  @Bulkhead(Bulkhead.Kind.READ)
+  @ConcurrencyLimited
+  public FleetUtilization rebuildFleetUtilizationStatistics() {
+    return toFleetUtilizationResponse(fleetUtilizationStats.rebuild());
+  }
+
+  private FleetUtilization toFleetUtilizationResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.FleetUtilization stats) {
+    var response = new FleetUtilization();
+    response.setWarehouseCount(stats.warehouseCount());
+    response.setTotalCapacity(stats.totalCapacity());
+    response.setTotalStock(stats.totalStock());
+    response.setUtilization(stats.utilization());
+    response.setLocations(stats.locations().stream().map(location -> {
+      var item = new LocationUtilization();
+      item.setLocation(location.location());
+      item.setWarehouseCount(location.warehouseCount());
+      item.setTotalCapacity(location.totalCapacity());
+      item.setTotalStock(location.totalStock());
+      item.setUtilization(location.utilization());
+      return item;
+    }).toList());
+    return response;
+  }
+
+  // The response bean of a warehouse, as every endpoint returns it
+  public static Warehouse toWarehouseResponse(
       com.fulfilment.application.monolith.warehouses.domain.models.Warehouse warehouse) {
     var response = new Warehouse();
     response.setBusinessUnitCode(warehouse.businessUnitCode);
@@ -143,7 +462,69 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return response;
   }
 
-  private Date toDate(LocalDateTime ldt) {
+  private StockLevel toStockLevelResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.StockLevel level) {
+    var response = new StockLevel();
+    response.setBusinessUnitCode(level.businessUnitCode());
+    response.setStock(level.stock());
+    response.setCapacity(level.capacity());
+    response.setUnflushed(level.unflushed());
+    return response;
+  }
+
+  private StockAdjustment toStockAdjustmentResponse(
+      com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment adjustment) {
+    var response = new StockAdjustment();
+    response.setBusinessUnitCode(adjustment.businessUnitCode());
+    response.setDelta(adjustment.delta());
+    response.setOutcome(StockAdjustment.Outcome.valueOf(adjustment.outcome().name()));
+    response.setStock(adjustment.stock());
+    response.setCapacity(adjustment.capacity());
+    response.setReason(adjustment.reason());
+    return response;
+  }
+
+  private static int quantity(StockMovement movement) {
+    return movement.getQuantity() != null ? movement.getQuantity() : 0;
+  }
+
+  private void addTotalCountHeaders(
+      String count, LocalDateTime asOf, String location, Integer min, Integer max) {
+    if (count == null || "none".equals(count)) {
+      return;
+    }
+    if (!"exact".equals(count) && !"estimated".equals(count)) {
+      throw new WebApplicationException(
+          "Invalid count '" + count + "', expected none, exact or estimated", 400);
+    }
+
+    // Past states are counted from history; there is no cheaper estimate for them
+    boolean exact = "exact".equals(count) || asOf != null;
+    long total = asOf != null
+        ? warehouseHistoryRepository.countAsOf(asOf, location, min, max)
+        : exact
+            ? warehouseSearchCounts.exact(location, min, max)
+            : warehouseSearchCounts.estimated(location);
+    httpResponse.putHeader("X-Total-Count", Long.toString(total));
+    httpResponse.putHeader("X-Total-Count-Accuracy", exact ? "exact" : "estimated");
+  }
+
+  private LocalDateTime parseAsOf(String asOf) {
+    // Accept both local (2024-07-01T10:00:00) and offset (2024-07-01T10:00:00Z) timestamps
+    try {
+      return LocalDateTime.parse(asOf);
+    } catch (DateTimeParseException e) {
+      try {
+        return OffsetDateTime.parse(asOf)
+            .atZoneSameInstant(ZoneId.systemDefault())
+            .toLocalDateTime();
+      } catch (DateTimeParseException ignored) {
+        throw new WebApplicationException("Invalid asOf timestamp '" + asOf + "'", 400);
+      }
+    }
+  }
+
+  private static Date toDate(LocalDateTime ldt) {
     return ldt == null ? null
         : Date.from(ldt.atZone(ZoneId.systemDefault()).toInstant());
   }
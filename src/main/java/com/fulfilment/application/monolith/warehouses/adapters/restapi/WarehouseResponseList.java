@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Warehouse list response that keeps the domain rows. Satisfies the generated
+ * {@code List<com.warehouse.api.beans.Warehouse>} signatures, but a bean is
+ * only built when an element is actually read through {@link #get(int)}: JSON
+ * responses are written straight from {@link #rows()} by
+ * {@link WarehouseListJsonWriter}.
+ */
+public final class WarehouseResponseList extends AbstractList<com.warehouse.api.beans.Warehouse>
+    implements RandomAccess {
+
+  private final List<Warehouse> rows;
+  private final Function<Warehouse, com.warehouse.api.beans.Warehouse> toBean;
+
+  public WarehouseResponseList(
+      List<Warehouse> rows, Function<Warehouse, com.warehouse.api.beans.Warehouse> toBean) {
+    this.rows = rows;
+    this.toBean = toBean;
+  }
+
+  public List<Warehouse> rows() {
+    return rows;
+  }
+
+  @Override
+  public com.warehouse.api.beans.Warehouse get(int index) {
+    return toBean.apply(rows.get(index));
+  }
+
+  @Override
+  public int size() {
+    return rows.size();
+  }
+}
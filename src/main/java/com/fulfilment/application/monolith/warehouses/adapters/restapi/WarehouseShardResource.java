@@ -0,0 +1,50 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.sharded.LocationMove;
+import com.fulfilment.application.monolith.warehouses.adapters.sharded.ShardRebalancer;
+import com.fulfilment.application.monolith.warehouses.adapters.sharded.ShardStatus;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * Warehouse shards, when sharding is enabled: rows and locations per shard,
+ * and moving a location to another shard.
+ */
+@Path("admin/shards")
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.sharding.enabled", stringValue = "true")
+public class WarehouseShardResource {
+
+  @Inject
+  ShardRebalancer shardRebalancer;
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public List<ShardStatus> get() {
+    return shardRebalancer.status();
+  }
+
+  @POST
+  @Path("locations/{location}")
+  @Produces(MediaType.APPLICATION_JSON)
+  public LocationMove move(@PathParam("location") String location, @QueryParam("to") String to) {
+    if (to == null || to.isBlank()) {
+      throw new WebApplicationException("Target shard ('to') is required", 400);
+    }
+    try {
+      return shardRebalancer.moveLocation(location, to);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), 400);
+    }
+  }
+}
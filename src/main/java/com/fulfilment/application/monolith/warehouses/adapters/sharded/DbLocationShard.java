@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The shard a location's warehouses live on, written when the location gets
+ * its first warehouse and changed only by the {@link ShardRebalancer}.
+ */
+@Entity
+@Table(name = "location_shard")
+public class DbLocationShard {
+
+  @Id
+  public String location;
+
+  @Column(nullable = false)
+  public String shard;
+}
@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/** The shard holding a business unit code; one row per warehouse, archived included. */
+@Entity
+@Table(name = "warehouse_shard_directory")
+public class DbWarehouseShardEntry {
+
+  @Id
+  public String businessUnitCode;
+
+  @Column(nullable = false)
+  public String shard;
+}
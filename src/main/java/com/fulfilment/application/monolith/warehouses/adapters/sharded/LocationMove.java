@@ -0,0 +1,4 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+/** Outcome of moving a location between shards: warehouses moved, 0 when already there. */
+public record LocationMove(String location, String from, String to, int warehouses) {}
@@ -0,0 +1,69 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import org.jboss.logging.Logger;
+
+/**
+ * Moves a location, with all its warehouses, to another shard.
+ *
+ * One transaction across the directory and both shards: the location's
+ * directory row is locked exclusively (creates at the location wait), its rows
+ * on the source shard are locked, copied to the target and deleted, and the
+ * directory is pointed at the target. Updates that read the old shard before
+ * the move fail with an optimistic lock conflict and can be retried. A
+ * location is moved in a single transaction, so its size bounds how long its
+ * writes wait.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.sharding.enabled", stringValue = "true")
+public class ShardRebalancer {
+
+  private static final Logger LOGGER = Logger.getLogger(ShardRebalancer.class.getName());
+
+  @Inject
+  WarehouseShards shards;
+
+  @Inject
+  WarehouseShardDirectory directory;
+
+  @Inject
+  ShardedWarehouseStore store;
+
+  public LocationMove moveLocation(String location, String target) {
+    if (!shards.contains(target)) {
+      throw new IllegalArgumentException("Unknown warehouse shard '" + target + "'");
+    }
+
+    LocationMove move = QuarkusTransaction.requiringNew().call(() -> {
+      String source = directory.shardForLocation(location, LockModeType.PESSIMISTIC_WRITE);
+      if (source.equals(target)) {
+        return new LocationMove(location, source, target, 0);
+      }
+      List<Warehouse> warehouses = store.lockLocation(source, location);
+      if (!warehouses.isEmpty()) {
+        store.insert(target, warehouses);
+        store.deleteLocation(source, location);
+        directory.move(warehouses.stream().map(w -> w.businessUnitCode).toList(), target);
+      }
+      directory.assign(location, target);
+      return new LocationMove(location, source, target, warehouses.size());
+    });
+    LOGGER.infof("Moved location %s from shard %s to %s: %d warehouses",
+        location, move.from(), move.to(), move.warehouses());
+    return move;
+  }
+
+  public List<ShardStatus> status() {
+    var locations = directory.locationsByShard();
+    return shards.names().stream().map(shard -> {
+      long[] rows = store.countRows(shard);
+      return new ShardStatus(shard, rows[0], rows[1], locations.getOrDefault(shard, List.of()));
+    }).toList();
+  }
+}
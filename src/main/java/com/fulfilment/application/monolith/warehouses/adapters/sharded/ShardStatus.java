@@ -0,0 +1,6 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import java.util.List;
+
+/** One warehouse shard: its active and archived warehouses and the locations assigned to it. */
+public record ShardStatus(String shard, long activeWarehouses, long archivedWarehouses, List<String> locations) {}
@@ -0,0 +1,513 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import com.fulfilment.application.monolith.routing.ReadOnly;
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * {@link WarehouseStore} over several databases, sharded by location: all
+ * warehouses of a location live on one shard, so location-filtered searches,
+ * counts and per-location totals touch a single database. Enabled at build
+ * time with {@code warehouse.sharding.enabled}, in place of the
+ * single-database {@code WarehouseRepository}.
+ *
+ * Lookups by business unit code go through the {@link WarehouseShardDirectory}
+ * on the primary, which also keeps codes unique across shards. Searches
+ * without a location fan out: each shard returns its first
+ * {@code (page + 1) * pageSize} matches in the requested order and the sorted
+ * runs are merged, so deep pages cost every shard more rows.
+ *
+ * Shards are XA datasources, so a change spanning the directory and a shard,
+ * or two shards (a transfer, a warehouse moving location), commits or rolls
+ * back as a whole. Rows carry a version like DbWarehouse: an update whose row
+ * changed since it was read fails with {@link OptimisticLockException}.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+@IfBuildProperty(name = "warehouse.sharding.enabled", stringValue = "true")
+public class ShardedWarehouseStore implements WarehouseStore {
+
+  // Guarded stock updates retried after the row changed or moved in between
+  private static final int MAX_ADJUST_ATTEMPTS = 3;
+
+  private static final String COLUMNS =
+      "businessUnitCode, version, location, capacity, stock, createdAt, archivedAt";
+
+  @Inject
+  WarehouseShards shards;
+
+  @Inject
+  WarehouseShardDirectory directory;
+
+  @Inject
+  Event<WarehouseChangedEvent> warehouseChangedEvent;
+
+  @Override
+  @ReadOnly
+  public List<Warehouse> getAll() {
+    List<Warehouse> all = new ArrayList<>();
+    for (String shard : shards.names()) {
+      all.addAll(select(shard, "SELECT " + COLUMNS + " FROM warehouse WHERE archivedAt IS NULL", List.of()));
+    }
+    return all;
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    String shard = directory.shardForLocation(warehouse.location, LockModeType.PESSIMISTIC_READ);
+    directory.claim(warehouse.businessUnitCode, shard);
+
+    Warehouse created = copy(warehouse);
+    created.version = 0L;
+    insert(shard, List.of(created));
+    warehouseChangedEvent.fire(new WarehouseChangedEvent(WarehouseChangedEvent.Type.CREATED, null, created));
+  }
+
+  @Override
+  public void createAll(List<Warehouse> warehouses) {
+    // One batched INSERT per shard; the directory claims are still one row each
+    Map<String, String> shardsByLocation = new HashMap<>();
+    Map<String, List<Warehouse>> byShard = new LinkedHashMap<>();
+    for (Warehouse warehouse : warehouses) {
+      String shard = shardsByLocation.computeIfAbsent(
+          warehouse.location, location -> directory.shardForLocation(location, LockModeType.PESSIMISTIC_READ));
+      directory.claim(warehouse.businessUnitCode, shard);
+      Warehouse created = copy(warehouse);
+      created.version = 0L;
+      byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(created);
+    }
+    byShard.forEach(this::insert);
+    for (List<Warehouse> created : byShard.values()) {
+      for (Warehouse warehouse : created) {
+        warehouseChangedEvent.fire(new WarehouseChangedEvent(WarehouseChangedEvent.Type.CREATED, null, warehouse));
+      }
+    }
+  }
+
+  @Override
+  public void update(Warehouse warehouse) {
+    String shard = directory.shardOf(warehouse.businessUnitCode);
+    Warehouse previous = shard != null ? selectOne(shard, warehouse.businessUnitCode, false) : null;
+    if (previous == null) {
+      throw new IllegalArgumentException(
+          "Warehouse with business unit code '" + warehouse.businessUnitCode + "' not found for update");
+    }
+
+    Warehouse current = copy(previous);
+    current.location = warehouse.location;
+    current.capacity = warehouse.capacity;
+    current.stock = warehouse.stock;
+    current.archivedAt = warehouse.archivedAt;
+    // Like a Hibernate dirty check: no change, no new version
+    if (!sameState(previous, current)) {
+      current.version = previous.version + 1;
+      String target = Objects.equals(previous.location, current.location)
+          ? shard
+          : directory.shardForLocation(current.location, LockModeType.PESSIMISTIC_READ);
+      if (target.equals(shard)) {
+        updateRow(shard, previous.version, current);
+      } else {
+        // A new location on another shard: the row moves with it
+        deleteRow(shard, previous.businessUnitCode, previous.version);
+        insert(target, List.of(current));
+        directory.move(List.of(current.businessUnitCode), target);
+      }
+    }
+
+    WarehouseChangedEvent.Type type = previous.archivedAt == null && current.archivedAt != null
+        ? WarehouseChangedEvent.Type.ARCHIVED
+        : WarehouseChangedEvent.Type.UPDATED;
+    warehouseChangedEvent.fire(new WarehouseChangedEvent(type, previous, current));
+  }
+
+  /**
+   * Deletes the row from the shard holding it and releases the code in the
+   * directory, which no longer lists or routes to it. A warehouse carrying a
+   * version is only deleted at that version. Warehouses are normally
+   * archived; no change event is fired, so in-memory views drop a removed one
+   * at their next rebuild.
+   */
+  @Override
+  public void remove(Warehouse warehouse) {
+    String shard = directory.shardOf(warehouse.businessUnitCode);
+    Warehouse current = shard != null ? selectOne(shard, warehouse.businessUnitCode, true) : null;
+    if (current == null) {
+      throw new IllegalArgumentException(
+          "Warehouse with business unit code '" + warehouse.businessUnitCode + "' not found for removal");
+    }
+    deleteRow(shard, current.businessUnitCode, warehouse.version != null ? warehouse.version : current.version);
+    directory.release(current.businessUnitCode);
+  }
+
+  @Override
+  @ReadOnly
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    String shard = directory.shardOf(buCode);
+    return shard != null ? selectOne(shard, buCode, false) : null;
+  }
+
+  @Override
+  public List<String> getAllBusinessUnitCodes() {
+    return directory.allCodes();
+  }
+
+  @Override
+  @ReadOnly
+  public List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes) {
+    List<Warehouse> found = new ArrayList<>();
+    directory.shardsOf(buCodes).forEach((shard, codes) -> found.addAll(select(shard,
+        "SELECT " + COLUMNS + " FROM warehouse WHERE businessUnitCode IN (" + placeholders(codes.size()) + ")",
+        codes)));
+    return found;
+  }
+
+  @Override
+  public StockAdjustment adjustStock(String buCode, int delta) {
+    for (int attempt = 1; ; attempt++) {
+      String shard = directory.shardOf(buCode);
+      if (shard == null) {
+        return StockAdjustment.refusedBy(buCode, delta, null);
+      }
+      int updated = withConnection(shard, connection -> {
+        try (PreparedStatement statement = connection.prepareStatement(
+            "UPDATE warehouse SET stock = COALESCE(stock, 0) + ?, version = version + 1"
+                + " WHERE businessUnitCode = ? AND archivedAt IS NULL"
+                + " AND COALESCE(stock, 0) + ? BETWEEN 0 AND COALESCE(capacity, 0)")) {
+          statement.setInt(1, delta);
+          statement.setString(2, buCode);
+          statement.setInt(3, delta);
+          return statement.executeUpdate();
+        }
+      });
+      Warehouse current = selectOne(shard, buCode, false);
+      if (updated == 1) {
+        Warehouse previous = copy(current);
+        previous.stock -= delta;
+        previous.version -= 1;
+        warehouseChangedEvent.fire(
+            new WarehouseChangedEvent(WarehouseChangedEvent.Type.UPDATED, previous, current));
+        return new StockAdjustment(buCode, delta, StockAdjustment.Outcome.APPLIED, current.stock, current.capacity);
+      }
+
+      // Not on the shard the directory named: moved with its location in between
+      StockAdjustment refused = current != null ? StockAdjustment.refusedBy(buCode, delta, current) : null;
+      if (refused != null) {
+        return refused;
+      }
+      if (attempt == MAX_ADJUST_ATTEMPTS) {
+        throw new OptimisticLockException("Stock of warehouse " + buCode + " kept changing during adjustment");
+      }
+    }
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCodeForUpdate(String buCode) {
+    String shard = directory.shardOf(buCode);
+    return shard != null ? selectOne(shard, buCode, true) : null;
+  }
+
+  @Override
+  @ReadOnly
+  public List<Warehouse> search(
+      String location,
+      Integer minCapacity,
+      Integer maxCapacity,
+      String sortBy,
+      String sortOrder,
+      int page,
+      int pageSize) {
+    boolean byCapacity = "capacity".equals(sortBy);
+    boolean descending = "desc".equalsIgnoreCase(sortOrder);
+    List<Object> params = new ArrayList<>();
+    String where = activeFilter(location, minCapacity, maxCapacity, params);
+    String direction = descending ? " DESC" : " ASC";
+    String sql = "SELECT " + COLUMNS + " FROM warehouse WHERE " + where
+        + " ORDER BY " + (byCapacity ? "capacity" : "createdAt") + direction + " NULLS LAST, businessUnitCode"
+        + direction + " LIMIT " + ((long) (page + 1) * pageSize);
+
+    List<Iterator<Warehouse>> runs = new ArrayList<>();
+    for (String shard : shardsFor(location)) {
+      runs.add(select(shard, sql, params).iterator());
+    }
+    return merge(runs, order(byCapacity, descending), (long) page * pageSize, pageSize);
+  }
+
+  @Override
+  @ReadOnly
+  public long countActive(String location, Integer minCapacity, Integer maxCapacity) {
+    List<Object> params = new ArrayList<>();
+    String sql = "SELECT COUNT(*) FROM warehouse WHERE " + activeFilter(location, minCapacity, maxCapacity, params);
+    long count = 0;
+    for (String shard : shardsFor(location)) {
+      count += withConnection(shard, connection -> {
+        try (PreparedStatement statement = prepare(connection, sql, params);
+            ResultSet rows = statement.executeQuery()) {
+          rows.next();
+          return rows.getLong(1);
+        }
+      });
+    }
+    return count;
+  }
+
+  // Every warehouse at the location on the shard, archived included, locked
+  // for the rest of the transaction; for the rebalancer
+  List<Warehouse> lockLocation(String shard, String location) {
+    return select(shard, "SELECT " + COLUMNS + " FROM warehouse WHERE location = ? FOR UPDATE", List.of(location));
+  }
+
+  void deleteLocation(String shard, String location) {
+    withConnection(shard, connection -> {
+      try (PreparedStatement statement = connection.prepareStatement("DELETE FROM warehouse WHERE location = ?")) {
+        statement.setString(1, location);
+        return statement.executeUpdate();
+      }
+    });
+  }
+
+  // Active and archived warehouses on the shard
+  long[] countRows(String shard) {
+    return withConnection(shard, connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(
+              "SELECT COUNT(*), COUNT(archivedAt) FROM warehouse");
+          ResultSet rows = statement.executeQuery()) {
+        rows.next();
+        return new long[] {rows.getLong(1) - rows.getLong(2), rows.getLong(2)};
+      }
+    });
+  }
+
+  void insert(String shard, List<Warehouse> warehouses) {
+    withConnection(shard, connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(
+          "INSERT INTO warehouse (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+        for (Warehouse warehouse : warehouses) {
+          statement.setString(1, warehouse.businessUnitCode);
+          statement.setLong(2, warehouse.version);
+          statement.setString(3, warehouse.location);
+          setInteger(statement, 4, warehouse.capacity);
+          setInteger(statement, 5, warehouse.stock);
+          statement.setTimestamp(6, warehouse.createdAt != null ? Timestamp.valueOf(warehouse.createdAt) : null);
+          statement.setTimestamp(7, warehouse.archivedAt != null ? Timestamp.valueOf(warehouse.archivedAt) : null);
+          statement.addBatch();
+        }
+        return statement.executeBatch();
+      }
+    });
+  }
+
+  private void updateRow(String shard, long expectedVersion, Warehouse warehouse) {
+    int updated = withConnection(shard, connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(
+          "UPDATE warehouse SET version = ?, location = ?, capacity = ?, stock = ?, archivedAt = ?"
+              + " WHERE businessUnitCode = ? AND version = ?")) {
+        statement.setLong(1, warehouse.version);
+        statement.setString(2, warehouse.location);
+        setInteger(statement, 3, warehouse.capacity);
+        setInteger(statement, 4, warehouse.stock);
+        statement.setTimestamp(5, warehouse.archivedAt != null ? Timestamp.valueOf(warehouse.archivedAt) : null);
+        statement.setString(6, warehouse.businessUnitCode);
+        statement.setLong(7, expectedVersion);
+        return statement.executeUpdate();
+      }
+    });
+    if (updated == 0) {
+      throw new OptimisticLockException(
+          "Warehouse " + warehouse.businessUnitCode + " was changed or moved concurrently");
+    }
+  }
+
+  private void deleteRow(String shard, String businessUnitCode, long expectedVersion) {
+    int deleted = withConnection(shard, connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(
+          "DELETE FROM warehouse WHERE businessUnitCode = ? AND version = ?")) {
+        statement.setString(1, businessUnitCode);
+        statement.setLong(2, expectedVersion);
+        return statement.executeUpdate();
+      }
+    });
+    if (deleted == 0) {
+      throw new OptimisticLockException("Warehouse " + businessUnitCode + " was changed or moved concurrently");
+    }
+  }
+
+  private Warehouse selectOne(String shard, String businessUnitCode, boolean forUpdate) {
+    List<Warehouse> found = select(shard, "SELECT " + COLUMNS + " FROM warehouse WHERE businessUnitCode = ?"
+        + (forUpdate ? " FOR UPDATE" : ""), List.of(businessUnitCode));
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  private List<Warehouse> select(String shard, String sql, List<?> params) {
+    return withConnection(shard, connection -> {
+      try (PreparedStatement statement = prepare(connection, sql, params);
+          ResultSet rows = statement.executeQuery()) {
+        List<Warehouse> warehouses = new ArrayList<>();
+        while (rows.next()) {
+          warehouses.add(toWarehouse(rows));
+        }
+        return warehouses;
+      }
+    });
+  }
+
+  private List<String> shardsFor(String location) {
+    if (location == null || location.trim().isEmpty()) {
+      return shards.names();
+    }
+    return List.of(directory.currentShard(location));
+  }
+
+  // Same filters as WarehouseRepository.search and countActive
+  private static String activeFilter(
+      String location, Integer minCapacity, Integer maxCapacity, List<Object> params) {
+    StringBuilder where = new StringBuilder("archivedAt IS NULL");
+    if (location != null && !location.trim().isEmpty()) {
+      where.append(" AND location = ?");
+      params.add(location);
+    }
+    if (minCapacity != null) {
+      where.append(" AND capacity >= ?");
+      params.add(minCapacity);
+    }
+    if (maxCapacity != null) {
+      where.append(" AND capacity <= ?");
+      params.add(maxCapacity);
+    }
+    return where.toString();
+  }
+
+  // The ORDER BY of the shard queries, to merge their results
+  private static Comparator<Warehouse> order(boolean byCapacity, boolean descending) {
+    Comparator<Warehouse> order = byCapacity
+        ? Comparator.comparing(w -> w.capacity, Comparator.nullsLast(direction(descending)))
+        : Comparator.comparing(w -> w.createdAt, Comparator.nullsLast(direction(descending)));
+    return order.thenComparing(w -> w.businessUnitCode, direction(descending));
+  }
+
+  private static <T extends Comparable<? super T>> Comparator<T> direction(boolean descending) {
+    return descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+  }
+
+  // K-way merge of sorted runs, skipping offset elements and keeping limit
+  private static List<Warehouse> merge(
+      List<Iterator<Warehouse>> runs, Comparator<Warehouse> order, long offset, int limit) {
+    record Head(Warehouse warehouse, Iterator<Warehouse> rest) {}
+    PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+        Comparator.comparing(Head::warehouse, order));
+    for (Iterator<Warehouse> run : runs) {
+      if (run.hasNext()) {
+        heads.add(new Head(run.next(), run));
+      }
+    }
+
+    List<Warehouse> page = new ArrayList<>(Math.max(0, limit));
+    for (long position = 0; !heads.isEmpty() && page.size() < limit; position++) {
+      Head head = heads.poll();
+      if (position >= offset) {
+        page.add(head.warehouse());
+      }
+      if (head.rest().hasNext()) {
+        heads.add(new Head(head.rest().next(), head.rest()));
+      }
+    }
+    return page;
+  }
+
+  private static boolean sameState(Warehouse a, Warehouse b) {
+    return Objects.equals(a.location, b.location)
+        && Objects.equals(a.capacity, b.capacity)
+        && Objects.equals(a.stock, b.stock)
+        && Objects.equals(a.archivedAt, b.archivedAt);
+  }
+
+  private static Warehouse copy(Warehouse source) {
+    var warehouse = new Warehouse();
+    warehouse.businessUnitCode = source.businessUnitCode;
+    warehouse.location = source.location;
+    warehouse.capacity = source.capacity;
+    warehouse.stock = source.stock;
+    warehouse.createdAt = source.createdAt;
+    warehouse.archivedAt = source.archivedAt;
+    warehouse.version = source.version;
+    return warehouse;
+  }
+
+  private static Warehouse toWarehouse(ResultSet row) throws SQLException {
+    var warehouse = new Warehouse();
+    warehouse.businessUnitCode = row.getString(1);
+    warehouse.version = row.getLong(2);
+    warehouse.location = row.getString(3);
+    warehouse.capacity = row.getObject(4, Integer.class);
+    warehouse.stock = row.getObject(5, Integer.class);
+    Timestamp createdAt = row.getTimestamp(6);
+    warehouse.createdAt = createdAt != null ? createdAt.toLocalDateTime() : null;
+    Timestamp archivedAt = row.getTimestamp(7);
+    warehouse.archivedAt = archivedAt != null ? archivedAt.toLocalDateTime() : null;
+    return warehouse;
+  }
+
+  private static PreparedStatement prepare(Connection connection, String sql, List<?> params)
+      throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql);
+    for (int i = 0; i < params.size(); i++) {
+      statement.setObject(i + 1, params.get(i));
+    }
+    return statement;
+  }
+
+  private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+    if (value == null) {
+      statement.setNull(index, Types.INTEGER);
+    } else {
+      statement.setInt(index, value);
+    }
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+
+  private <T> T withConnection(String shard, SqlWork<T> work) {
+    // Inside a transaction the pool hands out the connection enlisted in it,
+    // so statements of one transaction share it and its locks
+    try (Connection connection = shards.dataSource(shard).getConnection()) {
+      return work.run(connection);
+    } catch (SQLException e) {
+      throw new PersistenceException("Warehouse shard " + shard + ": " + e.getMessage(), e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface SqlWork<T> {
+    T run(Connection connection) throws SQLException;
+  }
+}
@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing directory of the sharded warehouse store, kept on the primary.
+ *
+ * Every business unit code has a row naming its shard; the row's primary key
+ * is what keeps codes unique across shards, claimed in the same transaction as
+ * the insert on the shard. Every location with warehouses has a row naming the
+ * shard they live on, written with the hashed default when the location gets
+ * its first warehouse. Creates read that row with a shared lock and a
+ * rebalance takes it exclusively, so no create can land on the shard a
+ * location is being moved away from.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.sharding.enabled", stringValue = "true")
+public class WarehouseShardDirectory {
+
+  @Inject
+  EntityManager entityManager;
+
+  @Inject
+  WarehouseShards shards;
+
+  public String shardOf(String businessUnitCode) {
+    DbWarehouseShardEntry entry = entityManager.find(DbWarehouseShardEntry.class, businessUnitCode);
+    return entry != null ? entry.shard : null;
+  }
+
+  // Codes by the shard holding them; unknown codes are left out
+  public Map<String, List<String>> shardsOf(Collection<String> businessUnitCodes) {
+    Map<String, List<String>> byShard = new HashMap<>();
+    if (businessUnitCodes.isEmpty()) {
+      return byShard;
+    }
+    entityManager
+        .createQuery("FROM DbWarehouseShardEntry e WHERE e.businessUnitCode IN :codes", DbWarehouseShardEntry.class)
+        .setParameter("codes", businessUnitCodes)
+        .getResultList()
+        .forEach(e -> byShard.computeIfAbsent(e.shard, s -> new ArrayList<>()).add(e.businessUnitCode));
+    return byShard;
+  }
+
+  public List<String> allCodes() {
+    return entityManager
+        .createQuery("SELECT e.businessUnitCode FROM DbWarehouseShardEntry e", String.class)
+        .getResultList();
+  }
+
+  // Registers a new code on its shard; a code already registered anywhere is refused
+  public void claim(String businessUnitCode, String shard) {
+    var entry = new DbWarehouseShardEntry();
+    entry.businessUnitCode = businessUnitCode;
+    entry.shard = shard;
+    try {
+      entityManager.persist(entry);
+      entityManager.flush();
+    } catch (PersistenceException e) {
+      throw new IllegalArgumentException(
+          "Warehouse with business unit code '" + businessUnitCode + "' already exists", e);
+    }
+  }
+
+  // Drops a removed warehouse's claim on its code
+  public void release(String businessUnitCode) {
+    entityManager
+        .createQuery("DELETE FROM DbWarehouseShardEntry e WHERE e.businessUnitCode = :code")
+        .setParameter("code", businessUnitCode)
+        .executeUpdate();
+  }
+
+  public void move(Collection<String> businessUnitCodes, String shard) {
+    if (businessUnitCodes.isEmpty()) {
+      return;
+    }
+    entityManager
+        .createQuery("UPDATE DbWarehouseShardEntry e SET e.shard = :shard WHERE e.businessUnitCode IN :codes")
+        .setParameter("shard", shard)
+        .setParameter("codes", businessUnitCodes)
+        .executeUpdate();
+  }
+
+  /**
+   * The shard for warehouses at the location, holding a shared lock on the
+   * location's row until the transaction ends so a rebalance cannot move it
+   * meanwhile. A location seen for the first time is registered on its
+   * default shard first, in a transaction of its own.
+   */
+  public String shardForLocation(String location, LockModeType lock) {
+    pin(location);
+    return entityManager.find(DbLocationShard.class, location, lock).shard;
+  }
+
+  // The shard a location's warehouses are on now, without locking or registering it
+  public String currentShard(String location) {
+    DbLocationShard row = entityManager.find(DbLocationShard.class, location);
+    return row != null ? row.shard : shards.defaultShard(location);
+  }
+
+  public void assign(String location, String shard) {
+    entityManager.find(DbLocationShard.class, location, LockModeType.PESSIMISTIC_WRITE).shard = shard;
+  }
+
+  // Locations by shard, for those whose rows exist
+  public Map<String, List<String>> locationsByShard() {
+    Map<String, List<String>> byShard = new HashMap<>();
+    entityManager.createQuery("FROM DbLocationShard l ORDER BY l.location", DbLocationShard.class)
+        .getResultList()
+        .forEach(l -> byShard.computeIfAbsent(l.shard, s -> new ArrayList<>()).add(l.location));
+    return byShard;
+  }
+
+  private void pin(String location) {
+    if (entityManager.find(DbLocationShard.class, location) != null) {
+      return;
+    }
+    try {
+      QuarkusTransaction.requiringNew().run(() -> {
+        var row = new DbLocationShard();
+        row.location = location;
+        row.shard = shards.defaultShard(location);
+        entityManager.persist(row);
+        entityManager.flush();
+      });
+    } catch (PersistenceException e) {
+      // Another create registered the location first; its row is as good as ours
+    }
+  }
+}
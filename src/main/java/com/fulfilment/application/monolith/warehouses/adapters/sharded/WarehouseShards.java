@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * The datasources warehouses are sharded over, by name, in the order of
+ * {@code warehouse.sharding.shards}, and the shard a location gets by default:
+ * the hash of its identifier over the shard count.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "warehouse.sharding.enabled", stringValue = "true")
+public class WarehouseShards {
+
+  @ConfigProperty(name = "warehouse.sharding.shards")
+  List<String> names;
+
+  @Inject
+  @Any
+  Instance<AgroalDataSource> dataSources;
+
+  private final Map<String, AgroalDataSource> byName = new LinkedHashMap<>();
+
+  @PostConstruct
+  void init() {
+    for (String name : names) {
+      byName.put(name, dataSources.select(new DataSource.DataSourceLiteral(name)).get());
+    }
+  }
+
+  public List<String> names() {
+    return names;
+  }
+
+  public boolean contains(String shard) {
+    return byName.containsKey(shard);
+  }
+
+  public AgroalDataSource dataSource(String shard) {
+    AgroalDataSource dataSource = byName.get(shard);
+    if (dataSource == null) {
+      throw new IllegalArgumentException("Unknown warehouse shard '" + shard + "'");
+    }
+    return dataSource;
+  }
+
+  // String.hashCode is specified, so the default stays put across restarts
+  public String defaultShard(String location) {
+    int hash = location == null ? 0 : location.hashCode();
+    return names.get(Math.floorMod(hash, names.size()));
+  }
+}
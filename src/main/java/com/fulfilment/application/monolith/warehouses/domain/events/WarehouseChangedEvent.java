@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.warehouses.domain.events;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+
+/**
+ * Fired by the WarehouseStore on every create/update. Observers that need
+ * committed state must use {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}.
+ */
+public class WarehouseChangedEvent {
+
+  public enum Type {
+    CREATED,
+    UPDATED,
+    ARCHIVED
+  }
+
+  private final Type type;
+  private final Warehouse previous;
+  private final Warehouse current;
+
+  public WarehouseChangedEvent(Type type, Warehouse previous, Warehouse current) {
+    this.type = type;
+    this.previous = previous;
+    this.current = current;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /** State before the change, {@code null} for {@link Type#CREATED}. */
+  public Warehouse getPrevious() {
+    return previous;
+  }
+
+  public Warehouse getCurrent() {
+    return current;
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.List;
+
+/**
+ * Placement of {@code requestedQuantity} units across warehouses. When the fleet
+ * does not have enough free capacity, {@code allocatedQuantity} is lower than
+ * the requested quantity.
+ */
+public record AllocationPlan(
+    int requestedQuantity, int allocatedQuantity, List<Allocation> allocations) {
+
+  public boolean isComplete() {
+    return allocatedQuantity == requestedQuantity;
+  }
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import java.util.List;
+
+public record FleetUtilization(
+    long warehouseCount, long totalCapacity, long totalStock, List<LocationUtilization> locations) {
+
+  // Share of capacity in use, 0 when there is no capacity at all
+  public double utilization() {
+    return totalCapacity == 0 ? 0d : (double) totalStock / totalCapacity;
+  }
+}
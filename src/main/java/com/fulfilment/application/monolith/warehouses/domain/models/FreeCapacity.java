@@ -0,0 +1,3 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public record FreeCapacity(String businessUnitCode, String location, int freeCapacity) {}
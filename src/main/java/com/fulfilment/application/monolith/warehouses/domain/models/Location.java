@@ -1,3 +1,9 @@
 package com.fulfilment.application.monolith.warehouses.domain.models;
 
-public record Location(String identifier, int maxNumberOfWarehouses, int maxCapacity) {}
+/** {@code latitude} and {@code longitude} are WGS84 degrees. */
+public record Location(
+    String identifier,
+    int maxNumberOfWarehouses,
+    int maxCapacity,
+    double latitude,
+    double longitude) {}
@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+public record LocationUtilization(
+    String location, long warehouseCount, long totalCapacity, long totalStock) {
+
+  // Share of capacity in use, 0 when there is no capacity at all
+  public double utilization() {
+    return totalCapacity == 0 ? 0d : (double) totalStock / totalCapacity;
+  }
+}
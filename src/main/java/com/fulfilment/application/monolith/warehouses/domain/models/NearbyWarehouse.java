@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * A warehouse returned by a nearest-warehouse query: its free capacity
+ * ({@code capacity - stock}) and the great-circle distance from the query point.
+ */
+public record NearbyWarehouse(Warehouse warehouse, int freeCapacity, double distanceKm) {}
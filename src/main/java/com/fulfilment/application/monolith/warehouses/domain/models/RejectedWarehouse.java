@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * A warehouse of an import batch that was not created, with the reason, as a
+ * create of the same warehouse would have reported it.
+ */
+public record RejectedWarehouse(Warehouse warehouse, String reason) {}
@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Outcome of adding {@code delta} to a warehouse's stock in one guarded
+ * statement: the stock after it when applied, otherwise why it was refused
+ * with the stock and capacity that refused it (both null when not found).
+ */
+public record StockAdjustment(
+    String businessUnitCode, int delta, Outcome outcome, Integer stock, Integer capacity) {
+
+  public enum Outcome {
+    APPLIED,
+    NOT_FOUND,
+    ARCHIVED,
+    INSUFFICIENT_STOCK,
+    EXCEEDS_CAPACITY
+  }
+
+  public boolean applied() {
+    return outcome == Outcome.APPLIED;
+  }
+
+  public String reason() {
+    return switch (outcome) {
+      case APPLIED -> null;
+      case NOT_FOUND -> "Warehouse with business unit code '" + businessUnitCode + "' does not exist";
+      case ARCHIVED -> "Warehouse with business unit code '" + businessUnitCode
+          + "' is archived and cannot move stock";
+      case INSUFFICIENT_STOCK -> "Warehouse '" + businessUnitCode + "' has insufficient stock (" + stock
+          + ") to remove " + -delta;
+      case EXCEEDS_CAPACITY -> "Warehouse stock (" + (stock + delta) + ") exceeds warehouse capacity ("
+          + capacity + ") for '" + businessUnitCode + "'";
+    };
+  }
+
+  // The state of a warehouse that refused delta, or null if it would now accept it.
+  // A missing stock or capacity counts as 0, as in the guarded statement.
+  public static StockAdjustment refusedBy(String businessUnitCode, int delta, Warehouse warehouse) {
+    return refusedBy(businessUnitCode, delta, warehouse, UnflushedStock.NONE);
+  }
+
+  // As above, leaving room for the unflushed changes of a StockCounter; a refusal
+  // reports the stock counting the unflushed changes that refused it
+  public static StockAdjustment refusedBy(
+      String businessUnitCode, int delta, Warehouse warehouse, UnflushedStock unflushed) {
+    if (warehouse == null) {
+      return new StockAdjustment(businessUnitCode, delta, Outcome.NOT_FOUND, null, null);
+    }
+    int stock = warehouse.stock != null ? warehouse.stock : 0;
+    int capacity = warehouse.capacity != null ? warehouse.capacity : 0;
+    if (warehouse.archivedAt != null) {
+      return new StockAdjustment(businessUnitCode, delta, Outcome.ARCHIVED, stock, capacity);
+    } else if (stock - unflushed.shipped() + delta < 0) {
+      return new StockAdjustment(
+          businessUnitCode, delta, Outcome.INSUFFICIENT_STOCK, stock - unflushed.shipped(), capacity);
+    } else if (stock + unflushed.received() + delta > capacity) {
+      return new StockAdjustment(
+          businessUnitCode, delta, Outcome.EXCEEDS_CAPACITY, stock + unflushed.received(), capacity);
+    }
+    return null;
+  }
+}
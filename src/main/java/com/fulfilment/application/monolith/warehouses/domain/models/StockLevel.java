@@ -0,0 +1,7 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Stock of a warehouse including every admitted receipt and shipment;
+ * {@code unflushed} of it is not yet written to the warehouse itself.
+ */
+public record StockLevel(String businessUnitCode, int stock, int capacity, int unflushed) {}
@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * A single leg of a stock transfer: moves {@code quantity} units from the
+ * source warehouse to the destination warehouse.
+ */
+public record StockTransfer(
+    String sourceBusinessUnitCode, String destinationBusinessUnitCode, int quantity) {}
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * Room a writer must leave for the receipts and shipments a StockCounter has
+ * admitted for a warehouse and not yet written: {@code shipped} units must stay
+ * in stock and {@code received} units must still fit under capacity.
+ */
+public record UnflushedStock(int shipped, int received) {
+
+  public static final UnflushedStock NONE = new UnflushedStock(0, 0);
+
+  // Changes written in two steps, the first then the rest, must fit after each step
+  public static UnflushedStock of(int first, int rest) {
+    int total = first + rest;
+    return new UnflushedStock(Math.max(0, -Math.min(first, total)), Math.max(0, Math.max(first, total)));
+  }
+
+  public boolean isEmpty() {
+    return shipped == 0 && received == 0;
+  }
+}
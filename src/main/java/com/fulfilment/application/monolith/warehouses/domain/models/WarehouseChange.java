@@ -0,0 +1,11 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import java.time.LocalDateTime;
+
+/**
+ * A committed warehouse change as published on the change feed. Sequences are
+ * strictly increasing, so a consumer can resume after the last one it saw.
+ */
+public record WarehouseChange(
+    long sequence, WarehouseChangedEvent.Type type, LocalDateTime committedAt, Warehouse warehouse) {}
@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.domain.models;
+
+/**
+ * A warehouse found by fuzzy search. {@code score} is in (0, 1], 1 being an
+ * exact match; {@code matchedOn} is the field that produced the score.
+ */
+public record WarehouseMatch(Warehouse warehouse, double score, Field matchedOn) {
+
+  public enum Field {
+    BUSINESS_UNIT_CODE,
+    LOCATION
+  }
+}
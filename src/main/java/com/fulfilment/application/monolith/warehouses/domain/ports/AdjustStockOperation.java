@@ -0,0 +1,8 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
+
+public interface AdjustStockOperation {
+
+  StockAdjustment adjust(String businessUnitCode, int delta);
+}
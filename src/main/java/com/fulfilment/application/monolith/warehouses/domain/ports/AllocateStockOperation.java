@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.AllocationPlan;
+
+public interface AllocateStockOperation {
+
+  AllocationPlan plan(int quantity, String preferredLocation);
+
+  AllocationPlan commit(int quantity, String preferredLocation);
+}
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+public interface BusinessUnitCodeFilter {
+
+  // False only when no warehouse, active or archived, has the code; true may be
+  // a false positive, to be settled by the WarehouseStore
+  boolean mightExist(String businessUnitCode);
+
+  // The store was asked about a code mightExist accepted and did not have it
+  void recordFalsePositive(String businessUnitCode);
+
+  // Discards the filter and reloads it from the WarehouseStore
+  void rebuild();
+}
@@ -0,0 +1,12 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.FleetUtilization;
+
+public interface FleetUtilizationStats {
+
+  // Totals over active warehouses, globally and per location
+  FleetUtilization current();
+
+  // Recomputes the totals from the WarehouseStore, replacing the maintained ones
+  FleetUtilization rebuild();
+}
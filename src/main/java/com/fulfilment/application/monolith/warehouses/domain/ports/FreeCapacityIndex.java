@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.FreeCapacity;
+
+public interface FreeCapacityIndex {
+
+  // Active warehouses with free capacity, largest free capacity first
+  Iterable<FreeCapacity> byFreeCapacityDescending();
+
+  // Same as above, restricted to a single location
+  Iterable<FreeCapacity> byFreeCapacityDescending(String location);
+
+  // Discards the index and reloads it from the WarehouseStore
+  void rebuild();
+}
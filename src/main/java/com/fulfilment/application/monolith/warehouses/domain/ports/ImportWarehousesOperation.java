@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.RejectedWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.List;
+
+public interface ImportWarehousesOperation {
+
+  // Creates the valid warehouses of one batch together and returns the others,
+  // in batch order. Must be called inside a transaction; a code taken by a
+  // concurrent create fails the whole batch with IllegalArgumentException
+  List<RejectedWarehouse> importBatch(List<Warehouse> warehouses);
+}
@@ -0,0 +1,10 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+
+public interface MoveStockOperation {
+
+  StockLevel receive(String businessUnitCode, int quantity);
+
+  StockLevel ship(String businessUnitCode, int quantity);
+}
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.NearbyWarehouse;
+import java.util.List;
+
+public interface NearestWarehouseIndex {
+
+  // Up to limit active warehouses with at least minFreeCapacity free, nearest
+  // first; warehouses at the same location by free capacity, largest first
+  List<NearbyWarehouse> nearest(double latitude, double longitude, int limit, int minFreeCapacity);
+
+  // Discards the index and reloads it from the WarehouseStore
+  void rebuild();
+}
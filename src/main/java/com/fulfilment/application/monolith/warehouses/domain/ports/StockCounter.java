@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.models.UnflushedStock;
+
+public interface StockCounter {
+
+  // Admits a stock change (negative for shipments) if stock stays within
+  // 0..capacity counting every change admitted so far, and records it durably;
+  // the WarehouseStore catches up on the next flush
+  StockLevel adjust(String businessUnitCode, int delta);
+
+  // For any other writer of a warehouse's stock, capacity or archival: admits
+  // no change for it until the current transaction ends, and returns the
+  // unflushed changes the writer must leave room for. Must be called inside a
+  // transaction, before the new state is checked
+  UnflushedStock hold(String businessUnitCode);
+
+  // Writes every admitted change to the WarehouseStore now
+  void flush();
+}
@@ -0,0 +1,9 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.List;
+
+public interface TransferStockOperation {
+  List<Warehouse> transfer(List<StockTransfer> transfers);
+}
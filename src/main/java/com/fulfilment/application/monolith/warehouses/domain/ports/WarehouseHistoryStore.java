@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WarehouseHistoryStore {
+
+  // State of the warehouse at the given time, or null if it did not exist yet
+  Warehouse findByBusinessUnitCodeAsOf(String buCode, LocalDateTime asOf);
+
+  // Every warehouse that was active (created and not yet archived) at the given time
+  List<Warehouse> getAllAsOf(LocalDateTime asOf);
+}
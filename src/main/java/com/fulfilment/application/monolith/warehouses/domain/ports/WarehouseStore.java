@@ -1,6 +1,8 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.Collection;
 import java.util.List;
 
 public interface WarehouseStore {
@@ -9,9 +11,46 @@ public interface WarehouseStore {
 
   void create(Warehouse warehouse);
 
+  // Creates all the warehouses with batched inserts. A code that already exists
+  // fails the whole call with IllegalArgumentException, like create
+  void createAll(List<Warehouse> warehouses);
+
   void update(Warehouse warehouse);
 
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
+
+  // Business unit codes of all warehouses, archived ones included
+  List<String> getAllBusinessUnitCodes();
+
+  // Batch form of findByBusinessUnitCode, in one query. Result order is
+  // unspecified; codes without a warehouse are simply absent
+  List<Warehouse> findByBusinessUnitCodes(Collection<String> buCodes);
+
+  // Adds delta to the stock of an active warehouse in one guarded statement,
+  // only if the result stays within 0..capacity. Reads no version, so
+  // concurrent adjustments never conflict; bumps it, so an update built from
+  // an earlier read still fails rather than overwrite the adjusted stock.
+  // Must be called inside a transaction
+  StockAdjustment adjustStock(String buCode, int delta);
+
+  // Same as findByBusinessUnitCode but holds a write lock on the row until the
+  // current transaction ends
+  Warehouse findByBusinessUnitCodeForUpdate(String buCode);
+
+  // One page of active warehouses matching the search filters, sorted by
+  // capacity or (by default) createdAt, ascending unless sortOrder is "desc"
+  List<Warehouse> search(
+      String location,
+      Integer minCapacity,
+      Integer maxCapacity,
+      String sortBy,
+      String sortOrder,
+      int page,
+      int pageSize);
+
+  // Number of active warehouses matching the search filters; null/blank
+  // location and null bounds do not filter
+  long countActive(String location, Integer minCapacity, Integer maxCapacity);
 }
@@ -0,0 +1,14 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMatch;
+import java.util.List;
+
+public interface WarehouseTextIndex {
+
+  // Active warehouses whose business unit code or location contains or resembles
+  // the query, best match first, at most limit of them
+  List<WarehouseMatch> search(String query, int limit);
+
+  // Discards the index and reloads it from the WarehouseStore
+  void rebuild();
+}
@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
+import com.fulfilment.application.monolith.warehouses.domain.models.UnflushedStock;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AdjustStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class AdjustStockUseCase implements AdjustStockOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final StockCounter stockCounter;
+
+  public AdjustStockUseCase(WarehouseStore warehouseStore, StockCounter stockCounter) {
+    this.warehouseStore = warehouseStore;
+    this.stockCounter = stockCounter;
+  }
+
+  /**
+   * No lookup, no lock held across statements and no version to match: the
+   * store checks and applies the change in one statement, so adjustments to the
+   * same warehouse commute and never fail on each other. A refusal comes back
+   * as the outcome, not as an exception.
+   *
+   * Only while the StockCounter has unflushed receipts or shipments for the
+   * warehouse is the row locked and checked first, so the adjustment leaves
+   * room for them.
+   */
+  @Override
+  public StockAdjustment adjust(String businessUnitCode, int delta) {
+    if (delta == 0) {
+      throw new IllegalArgumentException("Stock adjustment delta must not be zero");
+    }
+    UnflushedStock unflushed = stockCounter.hold(businessUnitCode);
+    if (!unflushed.isEmpty()) {
+      StockAdjustment refused = StockAdjustment.refusedBy(businessUnitCode, delta,
+          warehouseStore.findByBusinessUnitCodeForUpdate(businessUnitCode), unflushed);
+      if (refused != null) {
+        return refused;
+      }
+    }
+    return warehouseStore.adjustStock(businessUnitCode, delta);
+  }
+}
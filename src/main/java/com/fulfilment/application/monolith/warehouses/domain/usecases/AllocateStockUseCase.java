@@ -0,0 +1,127 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Allocation;
+import com.fulfilment.application.monolith.warehouses.domain.models.AllocationPlan;
+import com.fulfilment.application.monolith.warehouses.domain.models.FreeCapacity;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockAdjustment;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.AllocateStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FreeCapacityIndex;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+public class AllocateStockUseCase implements AllocateStockOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final FreeCapacityIndex freeCapacityIndex;
+  private final StockCounter stockCounter;
+
+  public AllocateStockUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      FreeCapacityIndex freeCapacityIndex,
+      StockCounter stockCounter) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.freeCapacityIndex = freeCapacityIndex;
+    this.stockCounter = stockCounter;
+  }
+
+  /**
+   * Greedy placement: warehouses in the preferred location are filled first,
+   * then the rest of the fleet, each time taking the warehouse with the most
+   * free capacity. Only touches as many index entries as there are allocations.
+   */
+  @Override
+  public AllocationPlan plan(int quantity, String preferredLocation) {
+    // Validation 1: Quantity must be positive
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Allocation quantity must be a positive value");
+    }
+
+    // Validation 2: Preferred location, when given, must be valid
+    boolean hasPreference = preferredLocation != null && !preferredLocation.isBlank();
+    if (hasPreference && locationResolver.resolveByIdentifier(preferredLocation) == null) {
+      throw new IllegalArgumentException("Location '" + preferredLocation + "' is not valid");
+    }
+
+    List<Allocation> allocations = new ArrayList<>();
+    Set<String> used = new HashSet<>();
+    int remaining = quantity;
+
+    if (hasPreference) {
+      remaining = take(freeCapacityIndex.byFreeCapacityDescending(preferredLocation),
+          remaining, allocations, used);
+    }
+    if (remaining > 0) {
+      remaining = take(freeCapacityIndex.byFreeCapacityDescending(), remaining, allocations, used);
+    }
+
+    return new AllocationPlan(quantity, quantity - remaining, List.copyOf(allocations));
+  }
+
+  /**
+   * Plans and applies the allocation in the caller's transaction. The index
+   * may lag behind the database, so every target row is locked (in
+   * businessUnitCode order, as in {@link TransferStockUseCase}) and its free
+   * capacity re-checked before stock is added.
+   */
+  @Override
+  public AllocationPlan commit(int quantity, String preferredLocation) {
+    AllocationPlan plan = plan(quantity, preferredLocation);
+
+    // Validation 3: The fleet must be able to absorb the whole quantity
+    if (!plan.isComplete()) {
+      throw new IllegalArgumentException(
+          "Insufficient free capacity: requested " + quantity + ", available "
+              + plan.allocatedQuantity());
+    }
+
+    List<Allocation> ordered = new ArrayList<>(plan.allocations());
+    ordered.sort(Comparator.comparing(Allocation::businessUnitCode));
+
+    List<Warehouse> locked = new ArrayList<>(ordered.size());
+    for (Allocation allocation : ordered) {
+      Warehouse warehouse = warehouseStore.findByBusinessUnitCodeForUpdate(allocation.businessUnitCode());
+
+      // Validation 4: Target must still be active with enough free capacity, counting
+      // the receipts and shipments the stock counter has not flushed yet
+      if (StockAdjustment.refusedBy(allocation.businessUnitCode(), allocation.quantity(), warehouse,
+          stockCounter.hold(allocation.businessUnitCode())) != null) {
+        throw new IllegalArgumentException(
+            "Warehouse '" + allocation.businessUnitCode()
+                + "' no longer has the planned free capacity, please retry");
+      }
+      warehouse.stock = (warehouse.stock != null ? warehouse.stock : 0) + allocation.quantity();
+      locked.add(warehouse);
+    }
+
+    locked.forEach(warehouseStore::update);
+    return plan;
+  }
+
+  private int take(Iterable<FreeCapacity> candidates, int remaining,
+      List<Allocation> allocations, Set<String> used) {
+    for (FreeCapacity candidate : candidates) {
+      if (remaining == 0) {
+        break;
+      }
+      if (!used.add(candidate.businessUnitCode())) {
+        continue;
+      }
+      int quantity = Math.min(remaining, candidate.freeCapacity());
+      allocations.add(new Allocation(candidate.businessUnitCode(), candidate.location(), quantity));
+      remaining -= quantity;
+    }
+    return remaining;
+  }
+}
@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -9,9 +10,11 @@ import jakarta.enterprise.context.ApplicationScoped;
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
+  private final StockCounter stockCounter;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore, StockCounter stockCounter) {
     this.warehouseStore = warehouseStore;
+    this.stockCounter = stockCounter;
   }
 
   @Override
@@ -29,6 +32,14 @@ public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
           "Warehouse with business unit code '" + warehouse.businessUnitCode + "' is already archived");
     }
 
+    // Validation 3: No receipt or shipment may be waiting to be written, as an
+    // archived warehouse would refuse it
+    if (!stockCounter.hold(warehouse.businessUnitCode).isEmpty()) {
+      throw new IllegalArgumentException(
+          "Warehouse with business unit code '" + warehouse.businessUnitCode
+              + "' has stock movements not yet written, retry shortly");
+    }
+
     // Set archive timestamp
     existing.archivedAt = java.time.LocalDateTime.now();
 
@@ -2,31 +2,63 @@ package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitCodeFilter;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
 @ApplicationScoped
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final BusinessUnitCodeFilter businessUnitCodeFilter;
 
+  // Without a filter every code is looked up
   public CreateWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+    this(warehouseStore, locationResolver, null);
+  }
+
+  @Inject
+  public CreateWarehouseUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      BusinessUnitCodeFilter businessUnitCodeFilter) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.businessUnitCodeFilter = businessUnitCodeFilter;
   }
 
   @Override
   public void create(Warehouse warehouse) {
     // Validation 1: Business unit code must be unique
-    Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode);
-    if (existing != null) {
-      throw new IllegalArgumentException(
-          "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
+    // Almost every code is new: when the filter rules it out the lookup is
+    // skipped, and the unique constraint on insert remains the final check
+    if (businessUnitCodeFilter == null || businessUnitCodeFilter.mightExist(warehouse.businessUnitCode)) {
+      Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.businessUnitCode);
+      if (existing != null) {
+        throw new IllegalArgumentException(
+            "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists");
+      }
+      if (businessUnitCodeFilter != null) {
+        businessUnitCodeFilter.recordFalsePositive(warehouse.businessUnitCode);
+      }
     }
 
+    // Validations 2 and 3: location and capacity
+    validateAgainstLocation(warehouse, locationResolver);
+
+    // Set creation timestamp
+    warehouse.createdAt = java.time.LocalDateTime.now();
+
+    // All validations passed, create the warehouse
+    warehouseStore.create(warehouse);
+  }
+
+  // Shared with ImportWarehousesUseCase, so imported rows obey the same rules
+  static void validateAgainstLocation(Warehouse warehouse, LocationResolver locationResolver) {
     // Validation 2: Location must be valid (must exist)
     Location location = locationResolver.resolveByIdentifier(warehouse.location);
     if (location == null) {
@@ -48,11 +80,5 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
           "Warehouse stock (" + warehouse.stock + 
           ") exceeds warehouse capacity (" + warehouse.capacity + ")");
     }
-
-    // Set creation timestamp
-    warehouse.createdAt = java.time.LocalDateTime.now();
-
-    // All validations passed, create the warehouse
-    warehouseStore.create(warehouse);
   }
 }
@@ -0,0 +1,93 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.RejectedWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.BusinessUnitCodeFilter;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ImportWarehousesOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+public class ImportWarehousesUseCase implements ImportWarehousesOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final BusinessUnitCodeFilter businessUnitCodeFilter;
+
+  @Inject
+  public ImportWarehousesUseCase(
+      WarehouseStore warehouseStore,
+      LocationResolver locationResolver,
+      BusinessUnitCodeFilter businessUnitCodeFilter) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.businessUnitCodeFilter = businessUnitCodeFilter;
+  }
+
+  /**
+   * Applies the rules of CreateWarehouseUseCase to every warehouse of the
+   * batch, but looks up existing codes in one query for the whole batch, and
+   * only for the codes the BusinessUnitCodeFilter cannot rule out, then
+   * creates the accepted warehouses with a single WarehouseStore call.
+   */
+  @Override
+  public List<RejectedWarehouse> importBatch(List<Warehouse> warehouses) {
+    // Validation 1: Business unit code must be unique, in the store and in the batch
+    List<String> maybeTaken = new ArrayList<>();
+    for (Warehouse warehouse : warehouses) {
+      if (warehouse.businessUnitCode != null && businessUnitCodeFilter.mightExist(warehouse.businessUnitCode)) {
+        maybeTaken.add(warehouse.businessUnitCode);
+      }
+    }
+    Set<String> taken = new HashSet<>();
+    if (!maybeTaken.isEmpty()) {
+      for (Warehouse existing : warehouseStore.findByBusinessUnitCodes(maybeTaken)) {
+        taken.add(existing.businessUnitCode);
+      }
+      for (String code : maybeTaken) {
+        if (!taken.contains(code)) {
+          businessUnitCodeFilter.recordFalsePositive(code);
+        }
+      }
+    }
+
+    List<Warehouse> accepted = new ArrayList<>();
+    List<RejectedWarehouse> rejected = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    LocalDateTime now = LocalDateTime.now();
+    for (Warehouse warehouse : warehouses) {
+      if (warehouse.businessUnitCode == null || warehouse.businessUnitCode.isBlank()) {
+        rejected.add(new RejectedWarehouse(warehouse, "Business unit code must be provided"));
+        continue;
+      }
+      if (taken.contains(warehouse.businessUnitCode) || !seen.add(warehouse.businessUnitCode)) {
+        rejected.add(new RejectedWarehouse(warehouse,
+            "Warehouse with business unit code '" + warehouse.businessUnitCode + "' already exists"));
+        continue;
+      }
+
+      // Validations 2 and 3: location and capacity
+      try {
+        CreateWarehouseUseCase.validateAgainstLocation(warehouse, locationResolver);
+      } catch (IllegalArgumentException e) {
+        rejected.add(new RejectedWarehouse(warehouse, e.getMessage()));
+        continue;
+      }
+
+      warehouse.createdAt = now;
+      accepted.add(warehouse);
+    }
+
+    if (!accepted.isEmpty()) {
+      warehouseStore.createAll(accepted);
+    }
+    return rejected;
+  }
+}
@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import com.fulfilment.application.monolith.warehouses.domain.ports.MoveStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class MoveStockUseCase implements MoveStockOperation {
+
+  private final StockCounter stockCounter;
+
+  public MoveStockUseCase(StockCounter stockCounter) {
+    this.stockCounter = stockCounter;
+  }
+
+  /**
+   * Receipts and shipments do not go through the WarehouseStore: the
+   * StockCounter admits them against stock and capacity and writes them behind,
+   * so a busy site does not pay a lookup and a versioned update per movement.
+   */
+  @Override
+  public StockLevel receive(String businessUnitCode, int quantity) {
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Stock receipt quantity must be a positive value");
+    }
+    return stockCounter.adjust(businessUnitCode, quantity);
+  }
+
+  @Override
+  public StockLevel ship(String businessUnitCode, int quantity) {
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Stock shipment quantity must be a positive value");
+    }
+    return stockCounter.adjust(businessUnitCode, -quantity);
+  }
+}
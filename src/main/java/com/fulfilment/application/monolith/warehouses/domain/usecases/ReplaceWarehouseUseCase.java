@@ -1,9 +1,11 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.UnflushedStock;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -12,10 +14,13 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private final WarehouseStore warehouseStore;
   private final LocationResolver locationResolver;
+  private final StockCounter stockCounter;
 
-  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, LocationResolver locationResolver) {
+  public ReplaceWarehouseUseCase(
+      WarehouseStore warehouseStore, LocationResolver locationResolver, StockCounter stockCounter) {
     this.warehouseStore = warehouseStore;
     this.locationResolver = locationResolver;
+    this.stockCounter = stockCounter;
   }
 
   @Override
@@ -66,6 +71,20 @@ public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
               ") exceeds warehouse capacity (" + newWarehouse.capacity + ")");
     }
 
+    // Validation 6: Receipts and shipments the stock counter has not flushed yet
+    // are applied on top of the new stock, so it must leave room for them
+    UnflushedStock unflushed = stockCounter.hold(newWarehouse.businessUnitCode);
+    if (newWarehouse.stock < unflushed.shipped()) {
+      throw new IllegalArgumentException(
+          "Warehouse stock (" + newWarehouse.stock + ") is less than the " + unflushed.shipped()
+              + " shipped and not yet written");
+    }
+    if (newWarehouse.stock + unflushed.received() > newWarehouse.capacity) {
+      throw new IllegalArgumentException(
+          "Warehouse stock (" + (newWarehouse.stock + unflushed.received()) +
+              ") exceeds warehouse capacity (" + newWarehouse.capacity + ")");
+    }
+
     // Update warehouse fields (preserve createdAt, businessUnitCode, archivedAt)
     existing.location = newWarehouse.location;
     existing.capacity = newWarehouse.capacity;
@@ -0,0 +1,115 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.UnflushedStock;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import com.fulfilment.application.monolith.warehouses.domain.ports.TransferStockOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@ApplicationScoped
+public class TransferStockUseCase implements TransferStockOperation {
+
+  private final WarehouseStore warehouseStore;
+  private final StockCounter stockCounter;
+
+  public TransferStockUseCase(WarehouseStore warehouseStore, StockCounter stockCounter) {
+    this.warehouseStore = warehouseStore;
+    this.stockCounter = stockCounter;
+  }
+
+  /**
+   * Applies all legs atomically within the caller's transaction.
+   *
+   * Row locks are taken in ascending businessUnitCode order regardless of the
+   * direction of each leg, so two concurrent transfers A→B and B→A always
+   * queue on the same first lock instead of deadlocking each other. Each leg
+   * leaves room for the receipts and shipments the stock counter has not
+   * flushed yet.
+   */
+  @Override
+  public List<Warehouse> transfer(List<StockTransfer> transfers) {
+    // Validation 1: At least one leg, each with distinct endpoints and a positive quantity
+    if (transfers == null || transfers.isEmpty()) {
+      throw new IllegalArgumentException("At least one stock transfer must be provided");
+    }
+    TreeSet<String> codes = new TreeSet<>();
+    for (StockTransfer leg : transfers) {
+      if (leg.sourceBusinessUnitCode() == null || leg.destinationBusinessUnitCode() == null) {
+        throw new IllegalArgumentException(
+            "Stock transfer source and destination business unit codes must be provided");
+      }
+      if (leg.sourceBusinessUnitCode().equals(leg.destinationBusinessUnitCode())) {
+        throw new IllegalArgumentException(
+            "Stock transfer source and destination must differ ('"
+                + leg.sourceBusinessUnitCode() + "')");
+      }
+      if (leg.quantity() <= 0) {
+        throw new IllegalArgumentException("Stock transfer quantity must be a positive value");
+      }
+      codes.add(leg.sourceBusinessUnitCode());
+      codes.add(leg.destinationBusinessUnitCode());
+    }
+
+    // Validation 2: Every warehouse involved must exist and be active.
+    // Locks are acquired in canonical (sorted) order to avoid deadlocks.
+    Map<String, Warehouse> locked = new TreeMap<>();
+    Map<String, UnflushedStock> unflushed = new TreeMap<>();
+    for (String code : codes) {
+      Warehouse warehouse = warehouseStore.findByBusinessUnitCodeForUpdate(code);
+      if (warehouse == null) {
+        throw new IllegalArgumentException(
+            "Warehouse with business unit code '" + code + "' does not exist");
+      }
+      if (warehouse.archivedAt != null) {
+        throw new IllegalArgumentException(
+            "Warehouse with business unit code '" + code + "' is archived and cannot transfer stock");
+      }
+      locked.put(code, warehouse);
+      unflushed.put(code, stockCounter.hold(code));
+    }
+
+    // Validation 3: Apply legs in order; each one must keep
+    // 0 <= stock at the source and stock <= capacity at the destination
+    for (StockTransfer leg : transfers) {
+      Warehouse source = locked.get(leg.sourceBusinessUnitCode());
+      Warehouse destination = locked.get(leg.destinationBusinessUnitCode());
+      // A missing stock or capacity counts as 0, as in StockAdjustment
+      int sourceStock = source.stock != null ? source.stock : 0;
+      int destinationStock = destination.stock != null ? destination.stock : 0;
+      int destinationCapacity = destination.capacity != null ? destination.capacity : 0;
+      // Unflushed shipments keep their stock, unflushed receipts their room
+      int available = sourceStock - unflushed.get(source.businessUnitCode).shipped();
+      int counted = destinationStock + unflushed.get(destination.businessUnitCode).received();
+
+      if (available < leg.quantity()) {
+        throw new IllegalArgumentException(
+            "Warehouse '" + source.businessUnitCode + "' has insufficient stock (" + available
+                + ") to transfer " + leg.quantity());
+      }
+      if (counted + leg.quantity() > destinationCapacity) {
+        throw new IllegalArgumentException(
+            "Warehouse stock (" + (counted + leg.quantity())
+                + ") exceeds warehouse capacity (" + destinationCapacity + ") for '"
+                + destination.businessUnitCode + "'");
+      }
+
+      source.stock = sourceStock - leg.quantity();
+      destination.stock = destinationStock + leg.quantity();
+    }
+
+    // All legs passed, write every touched warehouse back in lock order
+    List<Warehouse> updated = new ArrayList<>(locked.size());
+    for (Warehouse warehouse : locked.values()) {
+      warehouseStore.update(warehouse);
+      updated.add(warehouse);
+    }
+    return updated;
+  }
+}
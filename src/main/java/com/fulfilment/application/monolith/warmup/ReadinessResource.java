@@ -0,0 +1,28 @@
+package com.fulfilment.application.monolith.warmup;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Readiness probe: 503 while the startup warm-up runs, 200 once the instance
+ * should get traffic. The body is the warm-up status either way.
+ */
+@Path("admin/readiness")
+@ApplicationScoped
+public class ReadinessResource {
+
+  @Inject
+  WarmUp warmUp;
+
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response get() {
+    WarmUpStatus status = warmUp.status();
+    return Response.status(status.ready() ? 200 : 503).entity(status).build();
+  }
+}
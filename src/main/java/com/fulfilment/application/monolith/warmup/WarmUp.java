@@ -0,0 +1,271 @@
+package com.fulfilment.application.monolith.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.products.ProductRepository;
+import com.fulfilment.application.monolith.routing.DataSourceRouting;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseSearchCounts;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.WarehouseListJsonWriter;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.WarehouseResourceImpl;
+import com.fulfilment.application.monolith.warehouses.adapters.restapi.WarehouseResponseList;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.NearestWarehouseIndex;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseTextIndex;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Warms the instance up after startup, before {@link ReadinessResource}
+ * reports it ready.
+ *
+ * Freshly deployed, the first requests to the warehouse endpoints run in the
+ * interpreter, fill the second-level cache one row at a time and initialise
+ * the location gateway, Jackson serializers and Hibernate query plans on the
+ * way. Warm-up does that work up front, in phases that are each timed:
+ * <ol>
+ *   <li>{@code warehouses}: pages through up to {@code warmup.sample-size}
+ *       active warehouses, oldest first, and counts each of their locations
+ *       into the search total cache;</li>
+ *   <li>{@code locations}: resolves every location in the sample;</li>
+ *   <li>{@code products}: loads the {@code warmup.top-products} best stocked
+ *       products;</li>
+ *   <li>{@code synthetic-calls}: {@code warmup.iterations} rounds of reads
+ *       through the ports the endpoints use, sampled over those warehouses
+ *       (search, get by code, fuzzy search, nearest, products), each
+ *       serialized to JSON as the endpoint would and discarded. A round runs
+ *       in its own request context, like a request; rounds stop early after
+ *       {@code warmup.max-duration}.</li>
+ * </ol>
+ *
+ * The REST resources are not called: their bulkheads and concurrency limiter
+ * would count warm-up as load and could turn real requests away while it
+ * runs.
+ *
+ * Only reads are made, so warm-up changes nothing. It runs on its own thread
+ * after the in-memory indexes have loaded. A failed warm-up is logged and the
+ * instance still becomes ready: warm-up only makes the first requests faster.
+ */
+@ApplicationScoped
+public class WarmUp {
+
+  private static final Logger LOGGER = Logger.getLogger(WarmUp.class.getName());
+
+  private static final String[] SORT_FIELDS = {"createdAt", "capacity"};
+  private static final String[] SORT_ORDERS = {"asc", "desc"};
+  private static final int PAGE_SIZE = 10;
+  // Warehouses read per query while sampling
+  private static final int SAMPLE_PAGE_SIZE = 500;
+
+  public enum State { PENDING, RUNNING, COMPLETED, FAILED, DISABLED }
+
+  @ConfigProperty(name = "warmup.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "warmup.iterations", defaultValue = "500")
+  int iterations;
+
+  @ConfigProperty(name = "warmup.sample-size", defaultValue = "1000")
+  int sampleSize;
+
+  @ConfigProperty(name = "warmup.top-products", defaultValue = "20")
+  int topProducts;
+
+  @ConfigProperty(name = "warmup.max-duration", defaultValue = "60s")
+  Duration maxDuration;
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Inject
+  WarehouseSearchCounts searchCounts;
+
+  @Inject
+  LocationResolver locationResolver;
+
+  @Inject
+  WarehouseTextIndex textIndex;
+
+  @Inject
+  NearestWarehouseIndex nearestIndex;
+
+  @Inject
+  ProductRepository productRepository;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  private volatile State state = State.PENDING;
+  private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+  private volatile long totalMillis;
+  private volatile int syntheticCalls;
+  private volatile String error;
+
+  // After the observers that load the in-memory indexes
+  void onStart(@Observes @Priority(Interceptor.Priority.LIBRARY_AFTER) StartupEvent event) {
+    if (!enabled) {
+      state = State.DISABLED;
+      return;
+    }
+    Thread thread = new Thread(this::run, "warm-up");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public WarmUpStatus status() {
+    State current = state;
+    boolean ready = current == State.COMPLETED || current == State.FAILED || current == State.DISABLED;
+    synchronized (phaseMillis) {
+      return new WarmUpStatus(ready, current, Collections.unmodifiableMap(new LinkedHashMap<>(phaseMillis)), totalMillis, syntheticCalls, error);
+    }
+  }
+
+  void run() {
+    state = State.RUNNING;
+    long started = System.nanoTime();
+    try {
+      List<Warehouse> active = phase("warehouses", () -> inRequest(this::sampleWarehouses));
+      List<Location> locations = phase("locations", () -> resolveLocations(active));
+      List<Product> products = phase("products", () -> inRequest(this::loadProducts));
+      phase("synthetic-calls", () -> syntheticCalls(active, locations, products));
+      totalMillis = millisSince(started);
+      state = State.COMPLETED;
+      LOGGER.infof("Warm-up completed in %d ms: %s, %d synthetic calls", totalMillis, phaseMillis, syntheticCalls);
+    } catch (RuntimeException e) {
+      totalMillis = millisSince(started);
+      error = e.toString();
+      state = State.FAILED;
+      LOGGER.warnf(e, "Warm-up failed after %d ms, marking the instance ready anyway", totalMillis);
+    }
+  }
+
+  private List<Warehouse> sampleWarehouses() {
+    List<Warehouse> sample = new ArrayList<>();
+    for (int page = 0; sample.size() < sampleSize; page++) {
+      List<Warehouse> rows = warehouseStore.search(null, null, null, "createdAt", "asc", page, SAMPLE_PAGE_SIZE);
+      sample.addAll(rows.subList(0, Math.min(rows.size(), sampleSize - sample.size())));
+      if (rows.size() < SAMPLE_PAGE_SIZE) {
+        break;
+      }
+    }
+    for (String location : distinctLocations(sample)) {
+      searchCounts.exact(location, null, null);
+    }
+    return sample;
+  }
+
+  private List<Location> resolveLocations(List<Warehouse> active) {
+    List<Location> locations = new ArrayList<>();
+    for (String identifier : distinctLocations(active)) {
+      Location location = locationResolver.resolveByIdentifier(identifier);
+      if (location != null) {
+        locations.add(location);
+      }
+    }
+    return locations;
+  }
+
+  private List<Product> loadProducts() {
+    return productRepository.findAll(Sort.descending("stock")).page(0, topProducts).list();
+  }
+
+  private Void syntheticCalls(List<Warehouse> active, List<Location> locations, List<Product> products) {
+    WarehouseListJsonWriter listWriter = new WarehouseListJsonWriter(objectMapper);
+    long deadline = System.nanoTime() + maxDuration.toNanos();
+    for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+      int round = i;
+      inRequest(() -> {
+        if (!active.isEmpty()) {
+          Warehouse sample = active.get(round % active.size());
+          serialize(listWriter, new WarehouseResponseList(
+              warehouseStore.search(sample.location, null, null,
+                  SORT_FIELDS[round % 2], SORT_ORDERS[round / 2 % 2], 0, PAGE_SIZE),
+              WarehouseResourceImpl::toWarehouseResponse));
+          Warehouse found = warehouseStore.findByBusinessUnitCode(sample.businessUnitCode);
+          if (found != null) {
+            serialize(listWriter, WarehouseResourceImpl.toWarehouseResponse(found));
+          }
+          String code = sample.businessUnitCode;
+          serialize(listWriter, textIndex.search(code.substring(0, Math.max(1, code.length() - 1)), PAGE_SIZE));
+          syntheticCalls += 3;
+        }
+        if (!locations.isEmpty()) {
+          Location location = locations.get(round % locations.size());
+          serialize(listWriter, nearestIndex.nearest(location.latitude(), location.longitude(), 5, 0));
+          syntheticCalls++;
+        }
+        serialize(listWriter, productRepository.listAll(Sort.by("name")));
+        syntheticCalls++;
+        if (!products.isEmpty()) {
+          serialize(listWriter, productRepository.findById(products.get(round % products.size()).id));
+          syntheticCalls++;
+        }
+        return null;
+      });
+    }
+    return null;
+  }
+
+  // As the response would be written, to nowhere
+  private void serialize(WarehouseListJsonWriter listWriter, Object body) {
+    try {
+      if (body instanceof WarehouseResponseList list) {
+        listWriter.writeTo(list, WarehouseResponseList.class, WarehouseResponseList.class, null,
+            MediaType.APPLICATION_JSON_TYPE, null, OutputStream.nullOutputStream());
+      } else {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), body);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Serializing " + body.getClass().getSimpleName() + " failed", e);
+    }
+  }
+
+  private <T> T phase(String name, Supplier<T> work) {
+    long started = System.nanoTime();
+    T result = work.get();
+    synchronized (phaseMillis) {
+      phaseMillis.put(name, millisSince(started));
+    }
+    return result;
+  }
+
+  // In a request context of its own, pinned to the primary
+  private static <T> T inRequest(Supplier<T> work) {
+    List<T> result = new ArrayList<>(1);
+    DataSourceRouting.outsideRequest(() -> result.add(work.get())).run();
+    return result.get(0);
+  }
+
+  private static Set<String> distinctLocations(List<Warehouse> warehouses) {
+    Set<String> locations = new LinkedHashSet<>();
+    for (Warehouse warehouse : warehouses) {
+      locations.add(warehouse.location);
+    }
+    return locations;
+  }
+
+  private static long millisSince(long started) {
+    return (System.nanoTime() - started) / 1_000_000;
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warmup;
+
+import java.util.Map;
+
+/**
+ * Startup warm-up progress: whether the instance is ready for traffic, the
+ * warm-up state, the milliseconds each finished phase took and their total,
+ * the synthetic calls made, and why warm-up failed if it did.
+ */
+public record WarmUpStatus(
+    boolean ready,
+    WarmUp.State state,
+    Map<String, Long> phaseMillis,
+    long totalMillis,
+    int syntheticCalls,
+    String error) {}
@@ -0,0 +1,56 @@
+-- Baseline schema, equivalent to what Hibernate generated with
+-- quarkus.hibernate-orm.database.generation=drop-and-create.
+-- Sequences step by 50 to match Hibernate's default allocationSize.
+
+CREATE SEQUENCE store_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE warehouse_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE warehouse_history_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE store (
+    id BIGINT NOT NULL,
+    name VARCHAR(40) UNIQUE,
+    quantityProductsInStock INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product (
+    id BIGINT NOT NULL,
+    name VARCHAR(40) UNIQUE,
+    description VARCHAR(255),
+    price NUMERIC(10, 2),
+    stock INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE warehouse (
+    id BIGINT NOT NULL,
+    version BIGINT,
+    businessUnitCode VARCHAR(255) NOT NULL,
+    location VARCHAR(255),
+    capacity INTEGER,
+    stock INTEGER,
+    createdAt TIMESTAMP(6),
+    archivedAt TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_warehouse_business_unit_code UNIQUE (businessUnitCode)
+);
+
+CREATE TABLE warehouse_history (
+    id BIGINT NOT NULL,
+    businessUnitCode VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL,
+    changedAt TIMESTAMP(6) NOT NULL,
+    snapshot BOOLEAN NOT NULL,
+    changeType VARCHAR(16) NOT NULL,
+    location VARCHAR(255),
+    capacity INTEGER,
+    stock INTEGER,
+    createdAt TIMESTAMP(6),
+    archivedAt TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_warehouse_history_version UNIQUE (businessUnitCode, version),
+    CONSTRAINT ck_warehouse_history_change_type CHECK (changeType IN ('CREATED', 'UPDATED', 'ARCHIVED'))
+);
+
+CREATE INDEX idx_warehouse_history_changed ON warehouse_history (changedAt, snapshot);
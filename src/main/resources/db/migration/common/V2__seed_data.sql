@@ -0,0 +1,27 @@
+-- Seed data, formerly import.sql.
+
+INSERT INTO store(id, name, quantityProductsInStock) VALUES (1, 'TONSTAD', 10);
+INSERT INTO store(id, name, quantityProductsInStock) VALUES (2, 'KALLAX', 5);
+INSERT INTO store(id, name, quantityProductsInStock) VALUES (3, 'BESTÅ', 3);
+ALTER SEQUENCE store_seq RESTART WITH 4;
+
+INSERT INTO product(id, name, stock) VALUES (1, 'TONSTAD', 10);
+INSERT INTO product(id, name, stock) VALUES (2, 'KALLAX', 5);
+INSERT INTO product(id, name, stock) VALUES (3, 'BESTÅ', 3);
+ALTER SEQUENCE product_seq RESTART WITH 4;
+
+INSERT INTO warehouse(id, version, businessUnitCode, location, capacity, stock, createdAt, archivedAt) 
+VALUES (1, 0, 'MWH.001', 'ZWOLLE-001', 100, 10, '2024-07-01', null);
+INSERT INTO warehouse(id, version, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
+VALUES (2, 0, 'MWH.012', 'AMSTERDAM-001', 50, 5, '2023-07-01', null);
+INSERT INTO warehouse(id, version, businessUnitCode, location, capacity, stock, createdAt, archivedAt)
+VALUES (3, 0, 'MWH.023', 'TILBURG-001', 30, 27, '2021-02-01', null);
+ALTER SEQUENCE warehouse_seq RESTART WITH 4;
+
+INSERT INTO warehouse_history(id, businessUnitCode, version, changedAt, snapshot, changeType, location, capacity, stock, createdAt, archivedAt)
+VALUES (1, 'MWH.001', 0, '2024-07-01', true, 'CREATED', 'ZWOLLE-001', 100, 10, '2024-07-01', null);
+INSERT INTO warehouse_history(id, businessUnitCode, version, changedAt, snapshot, changeType, location, capacity, stock, createdAt, archivedAt)
+VALUES (2, 'MWH.012', 0, '2023-07-01', true, 'CREATED', 'AMSTERDAM-001', 50, 5, '2023-07-01', null);
+INSERT INTO warehouse_history(id, businessUnitCode, version, changedAt, snapshot, changeType, location, capacity, stock, createdAt, archivedAt)
+VALUES (3, 'MWH.023', 0, '2021-02-01', true, 'CREATED', 'TILBURG-001', 30, 27, '2021-02-01', null);
+ALTER SEQUENCE warehouse_history_seq RESTART WITH 4;
@@ -0,0 +1,15 @@
+-- Responses to requests sent with an Idempotency-Key, replayed to retries
+-- until they expire (idempotency.ttl).
+
+CREATE TABLE idempotency_record (
+    idempotencyKey VARCHAR(512) NOT NULL,
+    requestHash VARCHAR(64) NOT NULL,
+    status INTEGER NOT NULL,
+    contentType VARCHAR(255),
+    body VARCHAR(1000000),
+    createdAt TIMESTAMP(6) NOT NULL,
+    expiresAt TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (idempotencyKey)
+);
+
+CREATE INDEX idx_idempotency_record_expires ON idempotency_record (expiresAt);
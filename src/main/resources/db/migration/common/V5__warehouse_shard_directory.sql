@@ -0,0 +1,15 @@
+-- Routing directory for the sharded warehouse store (warehouse.sharding.*):
+-- the shard holding each business unit code, whose primary key keeps codes
+-- unique across shards, and locations moved off their default (hashed) shard.
+
+CREATE TABLE warehouse_shard_directory (
+    businessUnitCode VARCHAR(255) NOT NULL,
+    shard VARCHAR(64) NOT NULL,
+    PRIMARY KEY (businessUnitCode)
+);
+
+CREATE TABLE location_shard (
+    location VARCHAR(255) NOT NULL,
+    shard VARCHAR(64) NOT NULL,
+    PRIMARY KEY (location)
+);
@@ -0,0 +1,8 @@
+-- Per warehouse, the last stock delta log entry whose stock change is
+-- committed; entries up to it are skipped when the log is replayed.
+
+CREATE TABLE stock_delta_checkpoint (
+    businessUnitCode VARCHAR(255) NOT NULL,
+    lastSequence BIGINT NOT NULL,
+    PRIMARY KEY (businessUnitCode)
+);
@@ -0,0 +1,34 @@
+-- Warehouse CSV import jobs. Progress is committed with each chunk of rows,
+-- so an interrupted job resumes at bytesCommitted of its spooled file; rows
+-- refused by validation are kept per job.
+
+CREATE SEQUENCE warehouse_import_error_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE warehouse_import_job (
+    id VARCHAR(36) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    bytesTotal BIGINT NOT NULL,
+    bytesCommitted BIGINT NOT NULL,
+    rowsProcessed BIGINT NOT NULL,
+    rowsAccepted BIGINT NOT NULL,
+    rowsRejected BIGINT NOT NULL,
+    activeMillis BIGINT NOT NULL,
+    createdAt TIMESTAMP(6) NOT NULL,
+    startedAt TIMESTAMP(6),
+    finishedAt TIMESTAMP(6),
+    failure VARCHAR(1024),
+    PRIMARY KEY (id),
+    CONSTRAINT ck_warehouse_import_job_status
+        CHECK (status IN ('QUEUED', 'RUNNING', 'CANCELLING', 'CANCELLED', 'FAILED', 'COMPLETED'))
+);
+
+CREATE TABLE warehouse_import_error (
+    id BIGINT NOT NULL,
+    jobId VARCHAR(36) NOT NULL,
+    rowNumber BIGINT NOT NULL,
+    businessUnitCode VARCHAR(255),
+    message VARCHAR(1024) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_warehouse_import_error_job ON warehouse_import_error (jobId, rowNumber);
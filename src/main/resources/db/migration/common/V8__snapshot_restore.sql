@@ -0,0 +1,11 @@
+-- Snapshot files restored into this database, identified by the checksum in
+-- their trailer and their size; snapshot.restore-from skips the file restored
+-- last, so it can stay set across restarts.
+
+CREATE TABLE snapshot_restore (
+    checksum BIGINT NOT NULL,
+    bytes BIGINT NOT NULL,
+    fileName VARCHAR(1024) NOT NULL,
+    restoredAt TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (checksum, bytes)
+);
@@ -0,0 +1,14 @@
+-- H2 has no partial indexes. Same indexes as the PostgreSQL migration, with
+-- archivedAt as a key column (matched by IS NULL) instead of a predicate.
+
+CREATE INDEX idx_warehouse_active_location_capacity
+    ON warehouse (location, archivedAt, capacity);
+
+CREATE INDEX idx_warehouse_active_location_created
+    ON warehouse (location, archivedAt, createdAt);
+
+CREATE INDEX idx_warehouse_active_capacity
+    ON warehouse (archivedAt, capacity);
+
+CREATE INDEX idx_warehouse_active_created
+    ON warehouse (archivedAt, createdAt);
@@ -0,0 +1,19 @@
+-- Indexes for WarehouseRepository.search and the active-warehouse scans.
+-- Every one of those queries filters on archivedAt IS NULL, so the indexes
+-- are partial: archived rows (which only grow) are never indexed.
+
+-- location = ? ORDER BY capacity, optionally with capacity range
+CREATE INDEX idx_warehouse_active_location_capacity
+    ON warehouse (location, capacity) WHERE archivedAt IS NULL;
+
+-- location = ? ORDER BY createdAt (the default sort)
+CREATE INDEX idx_warehouse_active_location_created
+    ON warehouse (location, createdAt) WHERE archivedAt IS NULL;
+
+-- no location filter: capacity range and/or ORDER BY capacity
+CREATE INDEX idx_warehouse_active_capacity
+    ON warehouse (capacity) WHERE archivedAt IS NULL;
+
+-- no location filter: ORDER BY createdAt
+CREATE INDEX idx_warehouse_active_created
+    ON warehouse (createdAt) WHERE archivedAt IS NULL;
@@ -0,0 +1,28 @@
+-- Warehouse shard: the warehouses of the locations assigned to this shard
+-- (see warehouse.sharding.*). Business unit codes are unique across shards
+-- through warehouse_shard_directory on the primary; here they are the key.
+-- Indexes as on the primary, with archivedAt as a key column so the same
+-- script runs on H2 and PostgreSQL.
+
+CREATE TABLE warehouse (
+    businessUnitCode VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL,
+    location VARCHAR(255),
+    capacity INTEGER,
+    stock INTEGER,
+    createdAt TIMESTAMP(6),
+    archivedAt TIMESTAMP(6),
+    PRIMARY KEY (businessUnitCode)
+);
+
+CREATE INDEX idx_warehouse_active_location_capacity
+    ON warehouse (location, archivedAt, capacity);
+
+CREATE INDEX idx_warehouse_active_location_created
+    ON warehouse (location, archivedAt, createdAt);
+
+CREATE INDEX idx_warehouse_active_capacity
+    ON warehouse (archivedAt, capacity);
+
+CREATE INDEX idx_warehouse_active_created
+    ON warehouse (archivedAt, createdAt);
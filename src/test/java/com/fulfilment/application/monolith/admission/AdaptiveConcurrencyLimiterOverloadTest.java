@@ -0,0 +1,101 @@
+package com.fulfilment.application.monolith.admission;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Overload run against a simulated 8-connection pool: open-loop arrivals at
+ * 1.5x what the pool can serve for 3 s, with and without the limiter in front,
+ * the limited tail asserted well below the unlimited one.
+ *
+ * Wall-clock bound, so it is a benchmark, left out of the default build; run it
+ * with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class AdaptiveConcurrencyLimiterOverloadTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  public void testTailLatencyUnderOverload() throws Exception {
+    Overload unlimited = overload(null);
+    var limiter = AdaptiveConcurrencyLimiterTest.limiter(16, 2, 64);
+    Overload limited = overload(limiter);
+
+    assertEquals(0, unlimited.shed());
+    assertTrue(limited.shed() > 0, "adaptive limiter shed nothing, final limit " + limiter.limit());
+    assertTrue(limited.percentile(99) * 4 < unlimited.percentile(99), String.format(
+        "limited: served %d, shed %d, p99 %d ms, final limit %d; unlimited: served %d, p99 %d ms",
+        limited.served(), limited.shed(), limited.percentile(99), limiter.limit(),
+        unlimited.served(), unlimited.percentile(99)));
+  }
+
+  private static final int POOL_SIZE = 8;
+  private static final long SERVICE_MS = 10;
+  private static final int ARRIVALS_PER_SECOND = 1_200;
+  private static final int SECONDS = 3;
+
+  // Open-loop load: arrivals keep their schedule however slow the responses get
+  private static Overload overload(AdaptiveConcurrencyLimiter limiter) throws Exception {
+    Semaphore pool = new Semaphore(POOL_SIZE, true);
+    ExecutorService clients = Executors.newCachedThreadPool();
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    AtomicInteger shed = new AtomicInteger();
+
+    long interval = 1_000_000_000L / ARRIVALS_PER_SECOND;
+    long start = System.nanoTime();
+    for (int i = 0; i < ARRIVALS_PER_SECOND * SECONDS; i++) {
+      long arrival = start + i * interval;
+      for (long wait = arrival - System.nanoTime(); wait > 0; wait = arrival - System.nanoTime()) {
+        LockSupport.parkNanos(wait);
+      }
+      clients.execute(() -> {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter != null ? limiter.tryAcquire() : null;
+        if (limiter != null && permit == null) {
+          shed.incrementAndGet();
+          return;
+        }
+        try {
+          pool.acquire();
+          try {
+            Thread.sleep(SERVICE_MS);
+          } finally {
+            pool.release();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        if (permit != null) {
+          permit.complete();
+        }
+        latencies.add(System.nanoTime() - arrival);
+      });
+    }
+    clients.shutdown();
+    assertTrue(clients.awaitTermination(60, TimeUnit.SECONDS));
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    return new Overload(sorted, shed.get());
+  }
+
+  private record Overload(long[] latencies, int shed) {
+
+    int served() {
+      return latencies.length;
+    }
+
+    long percentile(int p) {
+      int index = Math.min(latencies.length - 1, latencies.length * p / 100);
+      return latencies[index] / MS;
+    }
+  }
+}
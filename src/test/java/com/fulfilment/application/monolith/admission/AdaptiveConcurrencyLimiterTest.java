@@ -0,0 +1,91 @@
+package com.fulfilment.application.monolith.admission;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gradient limit adaptation on synthetic latencies and shedding at the limit.
+ * The wall-clock overload run is {@link AdaptiveConcurrencyLimiterOverloadTest}.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  public void testLimitGrowsWhileLatencyHoldsSteady() {
+    var limiter = limiter(8, 2, 32);
+    for (int window = 0; window < 50; window++) {
+      feedWindow(limiter, 10 * MS, limiter.limit());
+    }
+    assertEquals(32, limiter.limit());
+  }
+
+  @Test
+  public void testLimitShrinksWhenRequestsStartQueueing() {
+    var limiter = limiter(16, 2, 64);
+    feedWindow(limiter, 10 * MS, 16);
+    int before = limiter.limit();
+
+    // Latency four times the baseline: the pool is queueing
+    for (int window = 0; window < 20; window++) {
+      feedWindow(limiter, 40 * MS, limiter.limit());
+    }
+    assertTrue(limiter.limit() < before / 2, "limit should have dropped, is " + limiter.limit());
+
+    // Halving each window is offset by the sqrt(limit) headroom at 4
+    for (int window = 0; window < 100; window++) {
+      feedWindow(limiter, 400 * MS, limiter.limit());
+    }
+    assertEquals(4, limiter.limit());
+  }
+
+  @Test
+  public void testWindowsUsingLittleOfTheLimitLeaveItAlone() {
+    var limiter = limiter(16, 2, 64);
+    for (int window = 0; window < 50; window++) {
+      feedWindow(limiter, 10 * MS, 3);
+    }
+    assertEquals(16, limiter.limit());
+  }
+
+  @Test
+  public void testRequestsBeyondTheLimitShed() {
+    var limiter = limiter(3, 2, 64);
+    List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      permits.add(limiter.tryAcquire());
+    }
+    assertNull(limiter.tryAcquire());
+
+    permits.get(0).abandon();
+    assertNotNull(limiter.tryAcquire());
+    assertNull(limiter.tryAcquire());
+
+    ConcurrencyLimitStatus status = limiter.status();
+    assertEquals(3, status.inFlight());
+    assertEquals(4, status.admitted());
+    assertEquals(2, status.rejected());
+  }
+
+  private static void feedWindow(AdaptiveConcurrencyLimiter limiter, long rttNanos, int inFlight) {
+    for (int i = 0; i < limiter.windowSamples; i++) {
+      limiter.onSample(rttNanos, inFlight);
+    }
+  }
+
+  static AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+    var limiter = new AdaptiveConcurrencyLimiter();
+    limiter.enabled = true;
+    limiter.initialLimit = initial;
+    limiter.minLimit = min;
+    limiter.maxLimit = max;
+    limiter.windowSamples = 20;
+    limiter.tolerance = 1.5;
+    limiter.smoothing = 0.2;
+    limiter.init();
+    return limiter;
+  }
+}
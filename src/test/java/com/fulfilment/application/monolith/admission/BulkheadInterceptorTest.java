@@ -0,0 +1,75 @@
+package com.fulfilment.application.monolith.admission;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Bulkheads end to end: with every read slot taken, reads on warehouse, store
+ * and product endpoints get 503 while writes go through, and saturation is
+ * reported per bulkhead.
+ */
+@QuarkusTest
+@TestProfile(BulkheadInterceptorTest.SmallBulkheads.class)
+public class BulkheadInterceptorTest {
+
+  public static class SmallBulkheads implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "bulkhead.enabled", "true",
+          "bulkhead.read.connections", "2",
+          "bulkhead.read.queue", "0");
+    }
+  }
+
+  @Inject
+  Bulkheads bulkheads;
+
+  @Test
+  public void testFullReadBulkheadLeavesWritesAvailable() throws Exception {
+    Bulkheads.Compartment read = bulkheads.compartment(Bulkhead.Kind.READ);
+
+    // Stand in for two long-running reports
+    read.acquire();
+    read.acquire();
+    try {
+      given()
+          .when().get("/warehouse/search")
+          .then()
+          .statusCode(503)
+          .header("Retry-After", "1")
+          .body("error", containsString("read bulkhead"));
+      given().when().get("/store").then().statusCode(503);
+      given().when().get("/product/1").then().statusCode(503);
+
+      given()
+          .contentType("application/json")
+          .body("{\"name\": \"BULKHEAD-PRODUCT\", \"stock\": 1}")
+          .when().post("/product")
+          .then()
+          .statusCode(201);
+
+      given()
+          .when().get("/admin/bulkheads")
+          .then()
+          .statusCode(200)
+          .body("find { it.name == 'read' }.active", is(2))
+          .body("find { it.name == 'read' }.utilization", is(1.0f))
+          .body("find { it.name == 'read' }.rejectedQueueFull", is(3))
+          .body("find { it.name == 'write' }.admitted", is(1))
+          .body("find { it.name == 'write' }.active", is(0));
+    } finally {
+      read.release();
+      read.release();
+    }
+
+    given().when().get("/product").then().statusCode(200).body("name", hasItem("BULKHEAD-PRODUCT"));
+  }
+}
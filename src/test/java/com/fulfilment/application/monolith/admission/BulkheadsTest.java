@@ -0,0 +1,133 @@
+package com.fulfilment.application.monolith.admission;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compartment admission: running slots, bounded queue and wait, the saturation
+ * counters, and writes admitted at once while a read spike has every read slot
+ * and queue place taken.
+ */
+public class BulkheadsTest {
+
+  @Test
+  public void testQueueFullAndTimeoutRejected() throws Exception {
+    var compartment = new Bulkheads.Compartment("read", 1, 1, Duration.ofMillis(50));
+    assertTrue(compartment.acquire());
+
+    ExecutorService waiter = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> queued = waiter.submit(compartment::acquire);
+      awaitQueued(compartment, 1);
+      assertFalse(compartment.acquire(), "queue of one is taken");
+      assertFalse(queued.get(), "waited past max-wait");
+    } finally {
+      waiter.shutdownNow();
+    }
+
+    compartment.release();
+    assertTrue(compartment.acquire());
+    compartment.release();
+
+    BulkheadStatus status = compartment.status();
+    assertEquals(0, status.active());
+    assertEquals(1, status.peakActive());
+    assertEquals(1, status.peakQueued());
+    assertEquals(2, status.admitted());
+    assertEquals(1, status.rejectedQueueFull());
+    assertEquals(1, status.rejectedTimeout());
+  }
+
+  @Test
+  public void testQueuedRequestGetsTheReleasedSlot() throws Exception {
+    var compartment = new Bulkheads.Compartment("write", 1, 4, Duration.ofSeconds(5));
+    assertTrue(compartment.acquire());
+
+    ExecutorService waiter = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> queued = waiter.submit(compartment::acquire);
+      awaitQueued(compartment, 1);
+      compartment.release();
+      assertTrue(queued.get(5, TimeUnit.SECONDS));
+    } finally {
+      waiter.shutdownNow();
+    }
+    assertEquals(1, compartment.status().admittedAfterWait());
+  }
+
+  @Test
+  public void testReadSpikeDoesNotDelayWrites() throws Exception {
+    var bulkheads = new Bulkheads();
+    bulkheads.readConnections = 5;
+    bulkheads.readQueue = 16;
+    bulkheads.readMaxWait = Duration.ofSeconds(5);
+    bulkheads.writeConnections = 3;
+    bulkheads.writeQueue = 32;
+    bulkheads.writeMaxWait = Duration.ofSeconds(2);
+    bulkheads.init();
+    Bulkheads.Compartment read = bulkheads.compartment(Bulkhead.Kind.READ);
+    Bulkheads.Compartment write = bulkheads.compartment(Bulkhead.Kind.WRITE);
+
+    // 100 slow reports: 5 run, 16 queue, the rest are turned away
+    CountDownLatch finish = new CountDownLatch(1);
+    ExecutorService readers = Executors.newFixedThreadPool(100);
+    List<Future<Boolean>> reads = new ArrayList<>();
+    try {
+      for (int i = 0; i < 100; i++) {
+        reads.add(readers.submit(() -> {
+          if (!read.acquire()) {
+            return false;
+          }
+          try {
+            finish.await();
+          } finally {
+            read.release();
+          }
+          return true;
+        }));
+      }
+      awaitQueued(read, 16);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (read.status().rejectedQueueFull() < 79 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+
+      for (int i = 0; i < 3; i++) {
+        long start = System.nanoTime();
+        assertTrue(write.acquire());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+      }
+      for (int i = 0; i < 3; i++) {
+        write.release();
+      }
+      assertEquals(5, read.status().active());
+      assertEquals(79, read.status().rejectedQueueFull());
+    } finally {
+      finish.countDown();
+      readers.shutdown();
+    }
+
+    int served = 0;
+    for (Future<Boolean> result : reads) {
+      served += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+    }
+    assertEquals(21, served);
+  }
+
+  private static void awaitQueued(Bulkheads.Compartment compartment, int queued) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (compartment.status().queued() < queued && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(queued, compartment.status().queued());
+  }
+}
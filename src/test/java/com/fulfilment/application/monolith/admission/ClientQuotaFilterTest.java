@@ -0,0 +1,70 @@
+package com.fulfilment.application.monolith.admission;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Write quotas end to end: 429 with Retry-After once a client's burst is used,
+ * per API key isolation, unregistered keys counted by address, reads never
+ * limited, usage reported per client.
+ */
+@QuarkusTest
+@TestProfile(ClientQuotaFilterTest.TightQuota.class)
+public class ClientQuotaFilterTest {
+
+  public static class TightQuota implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "quota.enabled", "true",
+          "quota.requests-per-second", "0.1",
+          "quota.burst", "2");
+    }
+  }
+
+  @Test
+  public void testOverQuotaWritesRejectedBeforeReachingTheResource() {
+    // Archiving an unknown warehouse is a cheap write: 404 while admitted
+    given().header("X-API-Key", "looping-integrator")
+        .when().delete("/warehouse/QUOTA-UNKNOWN").then().statusCode(404);
+    given().header("X-API-Key", "looping-integrator")
+        .when().delete("/warehouse/QUOTA-UNKNOWN").then().statusCode(404);
+    given().header("X-API-Key", "looping-integrator")
+        .when().delete("/warehouse/QUOTA-UNKNOWN")
+        .then()
+        .statusCode(429)
+        .header("Retry-After", "10")
+        .body("error", containsString("looping-integrator"));
+
+    // Another client and reads are unaffected
+    given().header("X-API-Key", "well-behaved")
+        .when().delete("/warehouse/QUOTA-UNKNOWN").then().statusCode(404);
+    given().header("X-API-Key", "looping-integrator")
+        .when().get("/warehouse").then().statusCode(200);
+
+    // Made-up keys are not identities: both land in the caller's address bucket
+    given().header("X-API-Key", "rotated-1")
+        .when().delete("/warehouse/QUOTA-UNKNOWN").then().statusCode(404);
+    given().header("X-API-Key", "rotated-2")
+        .when().delete("/warehouse/QUOTA-UNKNOWN").then().statusCode(404);
+    given().header("X-API-Key", "rotated-3")
+        .when().delete("/warehouse/QUOTA-UNKNOWN").then().statusCode(429);
+
+    given()
+        .when().get("/admin/quotas")
+        .then()
+        .statusCode(200)
+        .body("burst", is(2))
+        .body("clients.find { it.client == 'key:looping-integrator' }.admitted", is(2))
+        .body("clients.find { it.client == 'key:looping-integrator' }.rejected", is(1))
+        .body("clients.find { it.client == 'key:well-behaved' }.admitted", is(1))
+        .body("clients.find { it.client.startsWith('key:rotated') }", nullValue())
+        .body("clients.find { it.client.startsWith('address:') }.rejected", is(1));
+  }
+}
@@ -0,0 +1,122 @@
+package com.fulfilment.application.monolith.admission;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Token bucket arithmetic on a fake clock: burst, refill, retry hints, client
+ * isolation, idle eviction, the bucket cap, and exactly burst admissions under
+ * contention.
+ */
+public class ClientQuotasTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+  @Test
+  public void testBurstThenSustainedRate() {
+    var quotas = quotas(10, 3);
+
+    assertEquals(0, quotas.tryAcquire("a"));
+    assertEquals(0, quotas.tryAcquire("a"));
+    assertEquals(0, quotas.tryAcquire("a"));
+    // Empty: the next token is one interval (100 ms) away
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), quotas.tryAcquire("a"));
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(60), quotas.tryAcquire("a"));
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+    assertEquals(0, quotas.tryAcquire("a"));
+
+    // Other clients have their own bucket
+    assertEquals(0, quotas.tryAcquire("b"));
+
+    QuotaUsage usage = quotas.usage();
+    assertEquals(5, usage.admitted());
+    assertEquals(2, usage.rejected());
+    assertEquals("a", usage.clients().get(0).client());
+    assertEquals(4, usage.clients().get(0).admitted());
+    assertEquals(0, usage.clients().get(0).availableTokens(), 1e-9);
+    assertEquals(2, usage.clients().get(1).availableTokens(), 1e-9);
+  }
+
+  @Test
+  public void testIdleFullBucketsAreEvicted() {
+    var quotas = quotas(10, 3);
+    quotas.tryAcquire("idle");
+    quotas.tryAcquire("busy");
+
+    now.addAndGet(Duration.ofMinutes(6).toNanos());
+    quotas.tryAcquire("busy");
+    now.addAndGet(Duration.ofMinutes(5).toNanos());
+    quotas.tryAcquire("busy");
+
+    QuotaUsage usage = quotas.usage();
+    assertEquals(1, usage.evictedClients());
+    assertEquals(1, usage.clients().size());
+    assertEquals("busy", usage.clients().get(0).client());
+    // Totals survive eviction
+    assertEquals(4, usage.admitted());
+  }
+
+  @Test
+  public void testClientsBeyondTheCapShareTheOverflowBucket() {
+    var quotas = quotas(10, 2);
+    quotas.maxClients = 3;
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, quotas.tryAcquire("address:10.0.0." + i));
+    }
+
+    // Each new client would otherwise start with a full bucket of its own
+    assertEquals(0, quotas.tryAcquire("address:10.0.1.1"));
+    assertEquals(0, quotas.tryAcquire("address:10.0.1.2"));
+    assertTrue(quotas.tryAcquire("address:10.0.1.3") > 0);
+    // Clients that already had a bucket keep it
+    assertEquals(0, quotas.tryAcquire("address:10.0.0.0"));
+
+    QuotaUsage usage = quotas.usage();
+    assertEquals(4, usage.clients().size());
+    assertEquals(ClientQuotas.OVERFLOW, usage.clients().get(3).client());
+    assertEquals(2, usage.clients().get(3).admitted());
+    assertEquals(1, usage.clients().get(3).rejected());
+  }
+
+  @Test
+  public void testConcurrentCallersGetExactlyTheBurst() throws InterruptedException {
+    var quotas = quotas(0.001, 50);
+    var admitted = new AtomicInteger();
+    var start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 400; i++) {
+      pool.submit(() -> {
+        start.await();
+        if (quotas.tryAcquire("shared") == 0) {
+          admitted.incrementAndGet();
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(50, admitted.get());
+    assertEquals(350, quotas.usage().rejected());
+  }
+
+  private ClientQuotas quotas(double requestsPerSecond, int burst) {
+    var quotas = new ClientQuotas(now::get);
+    quotas.requestsPerSecond = requestsPerSecond;
+    quotas.burst = burst;
+    quotas.idleEviction = Duration.ofMinutes(10);
+    quotas.maxClients = 10_000;
+    return quotas;
+  }
+}
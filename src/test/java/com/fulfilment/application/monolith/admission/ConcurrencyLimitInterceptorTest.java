@@ -0,0 +1,72 @@
+package com.fulfilment.application.monolith.admission;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Concurrency limit end to end: database-bound warehouse, store and product
+ * endpoints get 503 with Retry-After while the limit is taken, in-memory
+ * endpoints stay available, and the limit is reported.
+ */
+@QuarkusTest
+@TestProfile(ConcurrencyLimitInterceptorTest.SmallLimit.class)
+public class ConcurrencyLimitInterceptorTest {
+
+  public static class SmallLimit implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "concurrency-limit.enabled", "true",
+          "concurrency-limit.initial-limit", "4");
+    }
+  }
+
+  @Inject
+  AdaptiveConcurrencyLimiter limiter;
+
+  @Test
+  public void testDatabaseBoundRequestsShedAtTheLimit() {
+    given().when().get("/store").then().statusCode(200);
+
+    // Stand in for four slow requests holding the limit
+    List<AdaptiveConcurrencyLimiter.Permit> held = new ArrayList<>();
+    for (AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(); permit != null;
+        permit = limiter.tryAcquire()) {
+      held.add(permit);
+    }
+    try {
+      given()
+          .when().get("/warehouse")
+          .then()
+          .statusCode(503)
+          .header("Retry-After", "1")
+          .body("error", containsString("concurrency limit"));
+      given().when().get("/store").then().statusCode(503);
+      given().when().get("/product").then().statusCode(503);
+
+      // Served from memory, no connection needed
+      given().queryParam("q", "zwolle").when().get("/warehouse/search/fuzzy").then().statusCode(200);
+      given()
+          .when().get("/admin/concurrency")
+          .then()
+          .statusCode(200)
+          .body("limit", is(4))
+          .body("inFlight", is(4))
+          .body("rejected", greaterThanOrEqualTo(3));
+    } finally {
+      held.forEach(AdaptiveConcurrencyLimiter.Permit::abandon);
+    }
+
+    given().when().get("/product").then().statusCode(200);
+    given().when().get("/admin/concurrency").then().body("inFlight", is(0));
+  }
+}
@@ -0,0 +1,156 @@
+package com.fulfilment.application.monolith.idempotency;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency-Key on POST: retries replayed without running again (also after
+ * the in-memory copy is gone), concurrent duplicates executed once, keys scoped
+ * per client and refused for a different request, and non-final outcomes not
+ * kept.
+ */
+@QuarkusTest
+public class IdempotencyFilterTest {
+
+  @Inject
+  EntityManager em;
+
+  @Inject
+  IdempotencyStore idempotencyStore;
+
+  private static final String WAREHOUSE =
+      "{\"businessUnitCode\": \"IDEM.001\", \"location\": \"AMSTERDAM-001\", \"capacity\": 30, \"stock\": 3}";
+
+  @BeforeEach
+  public void setup() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+      em.createQuery("DELETE FROM IdempotencyRecord").executeUpdate();
+      em.createQuery("DELETE FROM Store WHERE name LIKE 'IDEM-%'").executeUpdate();
+    });
+    idempotencyStore.clearCache();
+  }
+
+  @Test
+  public void testRetryReplaysTheFirstResponse() {
+    String first = post("/warehouse", "retry-1", WAREHOUSE)
+        .then()
+        .statusCode(200)
+        .header(IdempotencyFilter.REPLAYED_HEADER, nullValue())
+        .extract().asString();
+
+    // Without the key the same request is a duplicate
+    given().contentType("application/json").body(WAREHOUSE)
+        .when().post("/warehouse").then().statusCode(400);
+
+    post("/warehouse", "retry-1", WAREHOUSE)
+        .then()
+        .statusCode(200)
+        .header(IdempotencyFilter.REPLAYED_HEADER, "true")
+        .body(equalTo(first));
+
+    // After a restart the record comes from the table
+    idempotencyStore.clearCache();
+    post("/warehouse", "retry-1", WAREHOUSE)
+        .then()
+        .statusCode(200)
+        .header(IdempotencyFilter.REPLAYED_HEADER, "true")
+        .body("businessUnitCode", is("IDEM.001"));
+  }
+
+  @Test
+  public void testKeyReusedForADifferentRequestRefused() {
+    post("/warehouse", "reused", WAREHOUSE).then().statusCode(200);
+    post("/warehouse", "reused", WAREHOUSE.replace("IDEM.001", "IDEM.002"))
+        .then()
+        .statusCode(422)
+        .body("error", containsString("different request"));
+
+    // The same key from another client is another key
+    given()
+        .header(IdempotencyFilter.HEADER, "reused")
+        .header("X-API-Key", "other-client")
+        .contentType("application/json")
+        .body(WAREHOUSE.replace("IDEM.001", "IDEM.002"))
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200)
+        .header(IdempotencyFilter.REPLAYED_HEADER, nullValue());
+  }
+
+  @Test
+  public void testValidationFailureKeptButKeyMustBeValid() {
+    String invalid = WAREHOUSE.replace("AMSTERDAM-001", "NOWHERE-001");
+    post("/warehouse", "invalid", invalid).then().statusCode(400);
+    post("/warehouse", "invalid", invalid)
+        .then()
+        .statusCode(400)
+        .header(IdempotencyFilter.REPLAYED_HEADER, "true");
+
+    post("/warehouse", " ", WAREHOUSE).then().statusCode(400);
+    post("/warehouse", "k".repeat(256), WAREHOUSE).then().statusCode(400);
+  }
+
+  @Test
+  public void testConcurrentDuplicatesExecuteOnce() throws Exception {
+    String store = "{\"name\": \"IDEM-STORE\", \"quantityProductsInStock\": 4}";
+    int clients = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    List<Future<Response>> responses = new ArrayList<>();
+    try {
+      for (int i = 0; i < clients; i++) {
+        Callable<Response> retry = () -> {
+          start.await();
+          return post("/store", "store-once", store);
+        };
+        responses.add(executor.submit(retry));
+      }
+      start.countDown();
+
+      int replayed = 0;
+      Long id = null;
+      for (Future<Response> future : responses) {
+        Response response = future.get();
+        assertEquals(201, response.statusCode());
+        replayed += "true".equals(response.header(IdempotencyFilter.REPLAYED_HEADER)) ? 1 : 0;
+        Long responseId = response.jsonPath().getLong("id");
+        assertTrue(id == null || id.equals(responseId));
+        id = responseId;
+      }
+      assertEquals(clients - 1, replayed);
+    } finally {
+      executor.shutdown();
+    }
+
+    long stores = QuarkusTransaction.requiringNew().call(() -> em
+        .createQuery("SELECT COUNT(s) FROM Store s WHERE s.name = 'IDEM-STORE'", Long.class)
+        .getSingleResult());
+    assertEquals(1, stores);
+  }
+
+  private static Response post(String path, String key, String body) {
+    return given()
+        .header(IdempotencyFilter.HEADER, key)
+        .contentType("application/json")
+        .body(body)
+        .when().post(path);
+  }
+}
@@ -0,0 +1,61 @@
+package com.fulfilment.application.monolith.routing;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Read-your-writes pinning on a fake clock: per caller, for the window only,
+ * callers forgotten once their window is over, and no pinning with a window of
+ * zero.
+ */
+public class ReadReplicaPolicyTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+  @Test
+  public void testCallerPinnedToPrimaryForTheWindowAfterItsWrite() {
+    var policy = policy(Duration.ofSeconds(5));
+    policy.recordWrite("key:writer");
+
+    assertTrue(policy.mustReadPrimary("key:writer"));
+    assertFalse(policy.mustReadPrimary("key:reader"));
+
+    advance(Duration.ofMillis(4_999));
+    assertTrue(policy.mustReadPrimary("key:writer"));
+    advance(Duration.ofMillis(1));
+    assertFalse(policy.mustReadPrimary("key:writer"));
+  }
+
+  @Test
+  public void testCallersForgottenAfterTheirWindow() {
+    var policy = policy(Duration.ofSeconds(5));
+    policy.recordWrite("key:a");
+    policy.recordWrite("key:b");
+    assertEquals(2, policy.status().pinnedClients());
+
+    advance(Duration.ofSeconds(6));
+    policy.recordWrite("key:c");
+    assertEquals(1, policy.status().pinnedClients());
+  }
+
+  @Test
+  public void testZeroWindowNeverPins() {
+    var policy = policy(Duration.ZERO);
+    policy.recordWrite("key:writer");
+    assertFalse(policy.mustReadPrimary("key:writer"));
+  }
+
+  private void advance(Duration duration) {
+    now.addAndGet(duration.toNanos());
+  }
+
+  private ReadReplicaPolicy policy(Duration window) {
+    var policy = new ReadReplicaPolicy(now::get);
+    policy.enabled = true;
+    policy.readYourWritesWindow = window;
+    return policy;
+  }
+}
@@ -0,0 +1,141 @@
+package com.fulfilment.application.monolith.routing;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Read replica routing against two in-memory H2 databases, the replica not
+ * replicated: rows only the replica has show which database answered. GET
+ * handlers and @ReadOnly queries read the replica, writes and their responses
+ * use the primary, and a caller that just wrote reads the primary until its
+ * read-your-writes window is over. Work on a worker thread reads the primary.
+ */
+@QuarkusTest
+@TestProfile(ReadReplicaRoutingTest.WithReplica.class)
+public class ReadReplicaRoutingTest {
+
+  public static class WithReplica implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "quarkus.hibernate-orm.multitenant", "DATABASE",
+          "datasource-routing.read-replica.enabled", "true",
+          "datasource-routing.read-your-writes-window", "1s");
+    }
+  }
+
+  @Inject
+  AgroalDataSource primary;
+
+  @Inject
+  WarehouseStore warehouseStore;
+
+  @Inject
+  @DataSource("replica")
+  AgroalDataSource replica;
+
+  @BeforeEach
+  public void setup() throws SQLException {
+    execute(replica, "DELETE FROM product WHERE id >= 900");
+    execute(replica, "DELETE FROM warehouse WHERE id >= 900");
+    execute(replica, "INSERT INTO product(id, name, stock) VALUES (900, 'REPLICA-ONLY', 1)");
+    execute(replica, "INSERT INTO warehouse(id, version, businessUnitCode, location, capacity, stock, createdAt)"
+        + " VALUES (900, 0, 'REPLICA.900', 'EINDHOVEN-001', 40, 0, '2024-01-01')");
+  }
+
+  @Test
+  public void testReadsServedByTheReplica() {
+    given().when().get("/product").then().statusCode(200).body("name", hasItem("REPLICA-ONLY"));
+    given().when().get("/product/900").then().statusCode(200).body("name", is("REPLICA-ONLY"));
+    given().when().get("/warehouse").then().statusCode(200)
+        .body("businessUnitCode", hasItem("REPLICA.900"));
+    given().queryParam("location", "EINDHOVEN-001").queryParam("count", "exact")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .header("X-Total-Count", "1")
+        .body("businessUnitCode", contains("REPLICA.900"));
+
+    // A batch lookup is a POST but only reads
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCodes\": [\"REPLICA.900\"]}")
+        .when().post("/warehouse/lookup")
+        .then()
+        .statusCode(200)
+        .body("warehouses.businessUnitCode", contains("REPLICA.900"));
+
+    given().when().get("/admin/routing").then().statusCode(200)
+        .body("readReplicaEnabled", is(true))
+        .body("replicaSessions", greaterThanOrEqualTo(5));
+  }
+
+  @Test
+  public void testWriterReadsItsOwnWritesFromThePrimaryUntilTheWindowEnds() throws Exception {
+    // The write and the warehouse it returns come from the primary
+    given()
+        .header("X-API-Key", "writer")
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"PRIMARY.901\", \"location\": \"HELMOND-001\", \"capacity\": 30, \"stock\": 3}")
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", is("PRIMARY.901"));
+
+    given().header("X-API-Key", "writer").when().get("/warehouse").then().statusCode(200)
+        .body("businessUnitCode", hasItem("PRIMARY.901"))
+        .body("businessUnitCode", not(hasItem("REPLICA.900")));
+    given().header("X-API-Key", "writer").when().get("/warehouse/PRIMARY.901").then().statusCode(200);
+
+    // Other callers still read the replica, which has not seen the write
+    given().header("X-API-Key", "reader").when().get("/warehouse").then().statusCode(200)
+        .body("businessUnitCode", hasItem("REPLICA.900"))
+        .body("businessUnitCode", not(hasItem("PRIMARY.901")));
+    given().header("X-API-Key", "reader").when().get("/warehouse/PRIMARY.901").then().statusCode(404);
+
+    Thread.sleep(1_100);
+    given().header("X-API-Key", "writer").when().get("/warehouse").then().statusCode(200)
+        .body("businessUnitCode", hasItem("REPLICA.900"));
+  }
+
+  @Test
+  public void testWorkOffARequestUsesThePrimary() throws Exception {
+    var codes = new CompletableFuture<List<String>>();
+    Thread worker = new Thread(DataSourceRouting.outsideRequest(() -> {
+      try {
+        codes.complete(warehouseStore.getAll().stream().map(w -> w.businessUnitCode).toList());
+      } catch (RuntimeException e) {
+        codes.completeExceptionally(e);
+      }
+    }));
+    worker.start();
+
+    List<String> read = codes.get(10, TimeUnit.SECONDS);
+    assertFalse(read.isEmpty());
+    assertFalse(read.contains("REPLICA.900"));
+  }
+
+  private static void execute(AgroalDataSource dataSource, String sql) throws SQLException {
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.fulfilment.application.monolith.serialization;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Accept-based negotiation of CBOR and Smile on the warehouse, store and
+ * product read endpoints, with JSON still the default.
+ */
+@QuarkusTest
+public class BinaryContentNegotiationTest {
+
+  private static final TypeReference<List<Map<String, Object>>> ROWS = new TypeReference<>() {};
+
+  private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+  private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+  @Inject
+  EntityManager em;
+
+  @BeforeEach
+  public void setup() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+  }
+
+  @Test
+  public void testWarehouseSearchAsCbor() throws Exception {
+    createWarehouse("BIN-001");
+    createWarehouse("BIN-002");
+
+    byte[] body = given()
+        .accept(BinaryJacksonWriters.APPLICATION_CBOR)
+        .queryParam("location", "AMSTERDAM-001")
+        .when().get("/warehouse/search")
+        .then()
+        .statusCode(200)
+        .contentType(BinaryJacksonWriters.APPLICATION_CBOR)
+        .extract().asByteArray();
+
+    List<Map<String, Object>> rows = cbor.readValue(body, ROWS);
+    assertEquals(2, rows.size());
+    assertEquals("BIN-001", rows.get(0).get("businessUnitCode"));
+    assertEquals(40, rows.get(0).get("capacity"));
+    // Same document as JSON: timestamps keep the bean's string format
+    assertTrue(((String) rows.get(0).get("createdAt")).endsWith("Z"));
+  }
+
+  @Test
+  public void testWarehouseByIdAsSmile() throws Exception {
+    createWarehouse("BIN-002");
+
+    byte[] body = given()
+        .accept(BinaryJacksonWriters.APPLICATION_SMILE)
+        .when().get("/warehouse/BIN-002")
+        .then()
+        .statusCode(200)
+        .contentType(BinaryJacksonWriters.APPLICATION_SMILE)
+        .extract().asByteArray();
+
+    assertEquals("BIN-002", smile.readValue(body, Map.class).get("businessUnitCode"));
+  }
+
+  @Test
+  public void testStoresAndProductsAsCbor() throws Exception {
+    for (String path : List.of("/store", "/product")) {
+      byte[] body = given()
+          .accept(BinaryJacksonWriters.APPLICATION_CBOR)
+          .when().get(path)
+          .then()
+          .statusCode(200)
+          .contentType(BinaryJacksonWriters.APPLICATION_CBOR)
+          .extract().asByteArray();
+
+      assertFalse(cbor.readValue(body, ROWS).isEmpty(), path);
+    }
+  }
+
+  @Test
+  public void testJsonRemainsDefault() {
+    for (String path : List.of("/warehouse", "/store", "/product")) {
+      given()
+          .header("Accept", "*/*")
+          .when().get(path)
+          .then()
+          .statusCode(200)
+          .contentType(startsWith("application/json"));
+    }
+  }
+
+  private void createWarehouse(String code) {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"" + code + "\", \"location\": \"AMSTERDAM-001\", "
+            + "\"capacity\": 40, \"stock\": 5}")
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200);
+  }
+}
@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.serialization;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.warehouse.api.beans.Warehouse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Payload size of a 10k-row warehouse result in JSON, CBOR and Smile, using
+ * the same generated bean the API serializes. Asserts that both binary
+ * encodings are smaller and decode back to the same rows.
+ */
+public class BinaryEncodingComparisonTest {
+
+  private static final int ROWS = 10_000;
+  private static final TypeReference<List<Warehouse>> WAREHOUSES = new TypeReference<>() {};
+
+  @Test
+  public void testCompareEncodingsOn10kRows() throws IOException {
+    List<Warehouse> rows = rows();
+    ObjectMapper json = new ObjectMapper();
+    ObjectMapper cbor = json.copyWith(new CBORFactory());
+    ObjectMapper smile = json.copyWith(new SmileFactory());
+
+    long jsonSize = encodedSize(json, rows);
+    long cborSize = encodedSize(cbor, rows);
+    long smileSize = encodedSize(smile, rows);
+
+    assertTrue(cborSize < jsonSize, "cbor " + cborSize + " bytes, json " + jsonSize + " bytes");
+    assertTrue(smileSize < jsonSize, "smile " + smileSize + " bytes, json " + jsonSize + " bytes");
+  }
+
+  // Round-trips the rows and returns the payload size
+  private static long encodedSize(ObjectMapper mapper, List<Warehouse> rows) throws IOException {
+    byte[] payload = mapper.writeValueAsBytes(rows);
+    List<Warehouse> decoded = mapper.readValue(payload, WAREHOUSES);
+    assertEquals(rows.size(), decoded.size());
+    assertEquals(rows.get(ROWS - 1).getBusinessUnitCode(), decoded.get(ROWS - 1).getBusinessUnitCode());
+    return payload.length;
+  }
+
+  private static List<Warehouse> rows() {
+    List<Warehouse> rows = new ArrayList<>(ROWS);
+    LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+    for (int i = 0; i < ROWS; i++) {
+      var warehouse = new Warehouse();
+      warehouse.setBusinessUnitCode("MWH." + i);
+      warehouse.setLocation("LOCATION-" + (i % 50));
+      warehouse.setCapacity(100 + i % 400);
+      warehouse.setStock(i % 100);
+      warehouse.setCreatedAt(Date.from(base.plusMinutes(i).atZone(ZoneId.systemDefault()).toInstant()));
+      rows.add(warehouse);
+    }
+    return rows;
+  }
+}
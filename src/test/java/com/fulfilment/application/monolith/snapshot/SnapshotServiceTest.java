@@ -0,0 +1,257 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Snapshots restored at startup from {@code snapshot.restore-from}: the store,
+ * product and warehouse tables hold exactly the file's rows, new ids come
+ * after the restored ones, the stock delta log and its checkpoints are
+ * cleared rather than replayed onto the restored warehouses, and the file is
+ * not restored again once applied. A damaged file is refused without
+ * touching the tables, and GET /admin/snapshot downloads an export.
+ *
+ * The profile enables the export, and writes the snapshot and a delta log with
+ * changes for two of its warehouses before the application starts, on a
+ * database of its own.
+ */
+@QuarkusTest
+@TestProfile(SnapshotServiceTest.RestoreAtStartup.class)
+public class SnapshotServiceTest {
+
+  public static class RestoreAtStartup implements QuarkusTestProfile {
+
+    static final Path SNAPSHOT = Path.of("target/snapshot-test-seed.wsnap");
+    static final Path DELTA_LOG = Path.of("target/stock-deltas-snapshot-test.log");
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      try {
+        writeSeed(SNAPSHOT);
+        Files.writeString(DELTA_LOG, "1 SNAP.0 5\n2 SNAP.1 -1\n");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return Map.of(
+          "quarkus.datasource.jdbc.url", "jdbc:h2:mem:snapshot-test;DB_CLOSE_DELAY=-1",
+          "snapshot.restore-from", SNAPSHOT.toString(),
+          "snapshot.export.enabled", "true",
+          "snapshot.batch-size", "7",
+          "warehouse.stock-counter.log", DELTA_LOG.toString());
+    }
+  }
+
+  private static final List<String> TABLES = List.of("store", "product", "warehouse");
+
+  // Enough rows for several batches, with NULL and non-ASCII values
+  private static final int WAREHOUSES = 40;
+
+  @Inject
+  SnapshotService snapshots;
+
+  @Inject
+  AgroalDataSource dataSource;
+
+  @Test
+  public void testRestoredAtStartup() throws Exception {
+    assertEquals(List.of(List.of(2L), List.of(2L), List.of((long) WAREHOUSES)), List.of(
+        query("SELECT COUNT(*) FROM store").get(0),
+        query("SELECT COUNT(*) FROM product").get(0),
+        query("SELECT COUNT(*) FROM warehouse").get(0)));
+    assertEquals(List.of(List.of("CRÈME ☕", 4, new BigDecimal("12.35"))),
+        query("SELECT name, stock, price FROM product WHERE id = 900 AND description IS NULL"));
+    assertEquals(List.of(List.of("SNAP.1", 1L, "ZWOLLE-001", 10, 1)), query(
+        "SELECT businessUnitCode, version, location, capacity, stock FROM warehouse"
+            + " WHERE id = 1001 AND archivedAt = TIMESTAMP '2024-03-01 00:00:00'"
+            + " AND createdAt = TIMESTAMP '2024-02-29 13:14:15.123456'"));
+    assertEquals(List.of(List.of(Files.size(RestoreAtStartup.SNAPSHOT))),
+        query("SELECT bytes FROM snapshot_restore"));
+
+    // The delta log's changes were for the replaced warehouses: not replayed
+    assertEquals(List.of(List.of(0L)), query("SELECT COUNT(*) FROM stock_delta_checkpoint"));
+    assertTrue(Files.readString(RestoreAtStartup.DELTA_LOG).isEmpty());
+    given().when().get("/warehouse/SNAP.0").then().statusCode(200).body("stock", is(1));
+    given().when().get("/warehouse/SNAP.1").then().statusCode(200).body("stock", is(1));
+    given().when().get("/warehouse/MWH.001").then().statusCode(404);
+
+    for (String table : TABLES) {
+      assertTrue(query("SELECT NEXT VALUE FOR " + table + "_seq").get(0).get(0) instanceof Number next
+          && next.longValue() > maxId(table), table + " sequence restarted past the restored ids");
+    }
+    given().contentType("application/json")
+        .body("{\"businessUnitCode\": \"SNAP.AFTER\", \"location\": \"ZWOLLE-001\", \"capacity\": 10, \"stock\": 1}")
+        .when().post("/warehouse")
+        .then().statusCode(200);
+  }
+
+  @Test
+  public void testSnapshotRestoredLastIsSkipped() throws Exception {
+    execute("UPDATE warehouse SET stock = 7 WHERE businessUnitCode = 'SNAP.2'");
+    try {
+      snapshots.onStart(new StartupEvent());
+
+      assertEquals(List.of(List.of(7)), query("SELECT stock FROM warehouse WHERE businessUnitCode = 'SNAP.2'"));
+      assertEquals(List.of(List.of(1L)), query("SELECT COUNT(*) FROM snapshot_restore"));
+    } finally {
+      execute("UPDATE warehouse SET stock = 1 WHERE businessUnitCode = 'SNAP.2'");
+    }
+  }
+
+  @Test
+  public void testDamagedSnapshotIsRefusedAndTablesKept() throws Exception {
+    Path file = download();
+    byte[] original = Files.readAllBytes(file);
+    List<List<List<Object>>> before = dumpTables();
+
+    byte[] flipped = original.clone();
+    flipped[original.length / 2] ^= 0x10;
+    byte[] wrongMagic = original.clone();
+    wrongMagic[0] = 'X';
+    byte[] truncated = Arrays.copyOf(original, original.length - 20);
+
+    for (byte[] damaged : List.of(flipped, wrongMagic, truncated)) {
+      Files.write(file, damaged);
+      assertThrows(IOException.class, () -> snapshots.restore(file));
+      assertEquals(before, dumpTables());
+    }
+  }
+
+  @Test
+  public void testExportIsAnAttachment() {
+    given().when().get("/admin/snapshot")
+        .then()
+        .statusCode(200)
+        .contentType("application/octet-stream")
+        .header("Content-Disposition", startsWith("attachment; filename=\"snapshot-"));
+  }
+
+  // Helper methods
+
+  // A snapshot of two stores, two products and WAREHOUSES warehouses, laid out as an export writes it
+  private static void writeSeed(Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      SnapshotOutput output = new SnapshotOutput(out);
+      output.writeBytes(SnapshotFormat.MAGIC);
+      output.writeByte(SnapshotFormat.VERSION);
+      writeTable(output, SnapshotTable.STORE, List.of(
+          new Object[] {1L, "TONSTAD", 10},
+          new Object[] {2L, "KALLAX", 5}));
+      writeTable(output, SnapshotTable.PRODUCT, List.of(
+          new Object[] {1L, "TONSTAD", "a chair", new BigDecimal("49.99"), 10},
+          new Object[] {900L, "CRÈME ☕", null, new BigDecimal("12.35"), 4}));
+      List<Object[]> warehouses = new ArrayList<>();
+      for (int i = 0; i < WAREHOUSES; i++) {
+        warehouses.add(new Object[] {1000L + i, 1L, "SNAP." + i, "ZWOLLE-001", 10, 1,
+            LocalDateTime.of(2024, 2, 29, 13, 14, 15, 123_456_000),
+            i % 2 == 0 ? null : LocalDateTime.of(2024, 3, 1, 0, 0)});
+      }
+      writeTable(output, SnapshotTable.WAREHOUSE, warehouses);
+      output.writeByte(SnapshotFormat.FINISH);
+      output.finish();
+    }
+  }
+
+  private static void writeTable(SnapshotOutput output, SnapshotTable table, List<Object[]> rows)
+      throws IOException {
+    output.writeByte(SnapshotFormat.TABLE);
+    output.writeString(table.tableName);
+    output.writeVarLong(table.columns.size());
+    for (SnapshotTable.Column column : table.columns) {
+      output.writeString(column.name());
+      output.writeByte(column.type().ordinal());
+    }
+    for (Object[] row : rows) {
+      long nulls = 0;
+      for (int i = 0; i < row.length; i++) {
+        if (row[i] == null) {
+          nulls |= 1L << i;
+        }
+      }
+      output.writeByte(SnapshotFormat.ROW);
+      output.writeVarLong(nulls);
+      for (Object value : row) {
+        if (value instanceof Number number && !(value instanceof BigDecimal)) {
+          output.writeVarLong(number.longValue());
+        } else if (value instanceof String string) {
+          output.writeString(string);
+        } else if (value instanceof BigDecimal decimal) {
+          output.writeDecimal(decimal);
+        } else if (value instanceof LocalDateTime timestamp) {
+          output.writeTimestamp(timestamp);
+        }
+      }
+    }
+    output.writeByte(SnapshotFormat.END);
+    output.writeVarLong(rows.size());
+  }
+
+  private static Path download() throws IOException {
+    Path file = Files.createTempFile(Path.of("target"), "snapshot-test-", ".wsnap");
+    try (InputStream in = given().when().get("/admin/snapshot").then().statusCode(200).extract().asInputStream()) {
+      Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return file;
+  }
+
+  private List<List<List<Object>>> dumpTables() throws SQLException {
+    List<List<List<Object>>> tables = new ArrayList<>();
+    for (String table : TABLES) {
+      tables.add(query("SELECT * FROM " + table + " ORDER BY id"));
+    }
+    return tables;
+  }
+
+  private long maxId(String table) throws SQLException {
+    return ((Number) query("SELECT MAX(id) FROM " + table).get(0).get(0)).longValue();
+  }
+
+  private List<List<Object>> query(String sql) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(sql)) {
+      List<List<Object>> rows = new ArrayList<>();
+      int columns = resultSet.getMetaData().getColumnCount();
+      while (resultSet.next()) {
+        List<Object> row = new ArrayList<>();
+        for (int i = 1; i <= columns; i++) {
+          row.add(resultSet.getObject(i));
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.warehouses.adapters;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Schema owned by the Flyway migrations: all versions applied, and the
+ * search query shapes of WarehouseRepository.search planned on a location
+ * index rather than a table scan. H2 picks between the two location indexes
+ * by cost, so only the PostgreSQL planner is expected to pick the one that
+ * also matches the sort.
+ */
+@QuarkusTest
+public class WarehouseSchemaMigrationTest {
+
+  @Inject
+  Flyway flyway;
+
+  @Inject
+  EntityManager em;
+
+  @Test
+  public void testAllMigrationsApplied() {
+    assertEquals(0, flyway.info().pending().length);
+    assertEquals("8", flyway.info().current().getVersion().getVersion());
+  }
+
+  @Test
+  @Transactional
+  public void testSearchByLocationOrderedByCapacityUsesIndex() {
+    String plan = explain(
+        "SELECT * FROM warehouse WHERE archivedAt IS NULL AND location = 'ZWOLLE-001'"
+            + " ORDER BY capacity");
+
+    assertTrue(plan.contains("IDX_WAREHOUSE_ACTIVE_LOCATION_"), plan);
+    assertFalse(plan.contains("TABLESCAN"), plan);
+  }
+
+  @Test
+  @Transactional
+  public void testSearchByLocationOrderedByCreatedAtUsesIndex() {
+    String plan = explain(
+        "SELECT * FROM warehouse WHERE archivedAt IS NULL AND location = 'ZWOLLE-001'"
+            + " ORDER BY createdAt");
+
+    assertTrue(plan.contains("IDX_WAREHOUSE_ACTIVE_LOCATION_"), plan);
+    assertFalse(plan.contains("TABLESCAN"), plan);
+  }
+
+  private String explain(String sql) {
+    return String.valueOf(em.createNativeQuery("EXPLAIN " + sql).getSingleResult()).toUpperCase();
+  }
+}
@@ -44,6 +44,7 @@ public class WarehouseTestcontainersIT {
   public void setup() {
     // Clean database
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
     
     createWarehouseUseCase = new CreateWarehouseUseCase(warehouseRepository, locationResolver);
   }
@@ -0,0 +1,235 @@
+package com.fulfilment.application.monolith.warehouses.adapters.csvimport;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.path.json.JsonPath;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV imports through POST /warehouse/imports: rows validated like creates and
+ * inserted in chunks, progress and rejected rows reported per job, and a
+ * cancelled or interrupted job resumed after its last committed chunk without
+ * creating any warehouse twice. Uploads over the maximum size are refused.
+ */
+@QuarkusTest
+@TestProfile(WarehouseImportJobsTest.SmallChunks.class)
+public class WarehouseImportJobsTest {
+
+  public static class SmallChunks implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "warehouse.import.chunk-size", "3",
+          "warehouse.import.directory", "target/imports-test",
+          "warehouse.import.max-upload-size", "256K");
+    }
+  }
+
+  private static final Set<String> ENDED = Set.of("CANCELLED", "FAILED", "COMPLETED");
+
+  @Inject
+  WarehouseImportJobs imports;
+
+  @Inject
+  EntityManager em;
+
+  @Test
+  public void testRowsValidatedAndRejectionsReported() {
+    String csv = "stock,location,businessUnitCode,capacity,comment\r\n"
+        + "10,AMSTERDAM-001,IMPORT.A1,50,first\r\n"
+        + "5,\"ZWOLLE-001\",IMPORT.Z1,30,\"quoted, with a comma\"\r\n"
+        + "\r\n"
+        + "1,ROTTERDAM-001,IMPORT.R1,30,unknown location\r\n"
+        + "1,ZWOLLE-001,IMPORT.Z2,41,over the location's maximum\r\n"
+        + "31,ZWOLLE-001,IMPORT.Z3,30,over its own capacity\r\n"
+        + "1,AMSTERDAM-001,IMPORT.A1,20,twice in the file\r\n"
+        + "1,ZWOLLE-001,MWH.001,20,already exists\r\n"
+        + "1,ZWOLLE-001,IMPORT.Z4,lots,not a number\r\n"
+        + "1,ZWOLLE-001,IMPORT.Z5\r\n"
+        + "0,EINDHOVEN-001,IMPORT.E1,70,\"a\r\nline break\"\r\n";
+
+    String location = given().contentType("text/csv").body(csv)
+        .when().post("/warehouse/imports")
+        .then()
+        .statusCode(202)
+        .body("status", is("QUEUED"))
+        .extract().header("Location");
+    String id = location.substring(location.lastIndexOf('/') + 1);
+
+    JsonPath status = awaitEnd(id);
+    assertEquals("COMPLETED", status.getString("status"));
+    assertEquals(10, status.getLong("rowsProcessed"));
+    assertEquals(3, status.getLong("rowsAccepted"));
+    assertEquals(7, status.getLong("rowsRejected"));
+    assertEquals(status.getLong("bytesTotal"), status.getLong("bytesCommitted"));
+
+    given().when().get("/warehouse/imports/" + id + "/errors")
+        .then()
+        .statusCode(200)
+        .body("row", contains(3, 4, 5, 6, 7, 8, 9))
+        .body("[0].message", containsString("Location 'ROTTERDAM-001' is not valid"))
+        .body("[1].message", containsString("exceeds location max capacity (40)"))
+        .body("[2].message", containsString("exceeds warehouse capacity (30)"))
+        .body("[3].message", containsString("'IMPORT.A1' already exists"))
+        .body("[4].message", containsString("'MWH.001' already exists"))
+        .body("[5].message", containsString("capacity must be a whole number"))
+        .body("[6].message", containsString("Missing value for capacity"));
+    given().queryParam("page", 1).queryParam("pageSize", 5)
+        .when().get("/warehouse/imports/" + id + "/errors")
+        .then().statusCode(200).body("row", contains(8, 9));
+
+    given().when().get("/warehouse/IMPORT.Z1").then().statusCode(200).body("stock", is(5));
+    given().when().get("/warehouse/IMPORT.E1").then().statusCode(200).body("capacity", is(70));
+    given().when().get("/warehouse/IMPORT.A1").then().statusCode(200).body("capacity", is(50));
+    given().when().get("/warehouse/IMPORT.Z3").then().statusCode(404);
+  }
+
+  @Test
+  public void testUploadWithoutRequiredColumnsIsRefused() {
+    given().contentType("text/csv").body("businessUnitCode,location,capacity\nIMPORT.X,ZWOLLE-001,10\n")
+        .when().post("/warehouse/imports")
+        .then().statusCode(400).body(containsString("no 'stock' column"));
+    given().contentType("text/csv").body("")
+        .when().post("/warehouse/imports")
+        .then().statusCode(400);
+    given().when().get("/warehouse/imports/no-such-job").then().statusCode(404);
+  }
+
+  @Test
+  public void testUploadOverTheMaximumSizeIsRefused() throws IOException {
+    StringBuilder csv = new StringBuilder("businessUnitCode,location,capacity,stock\n");
+    for (int i = 0; csv.length() <= 256 * 1024; i++) {
+      csv.append("IMPORT.BIG").append(i).append(",AMSTERDAM-001,10,1\n");
+    }
+    Set<Path> spooled = spooled();
+    given().contentType("text/csv").body(csv.toString())
+        .when().post("/warehouse/imports")
+        .then().statusCode(413).body(containsString("maximum import size"));
+
+    // The partial upload is not left behind
+    Set<Path> after = spooled();
+    after.removeAll(spooled);
+    assertEquals(Set.of(), after);
+    assertEquals(0, countImported("IMPORT.BIG%"));
+  }
+
+  @Test
+  public void testCancelledImportResumesAfterLastCommittedChunk() {
+    StringBuilder csv = new StringBuilder("businessUnitCode,location,capacity,stock\n");
+    for (int i = 0; i < 3000; i++) {
+      csv.append("IMPORT.C").append(i).append(",AMSTERDAM-001,10,1\n");
+    }
+    String id = given().contentType("text/csv").body(csv.toString())
+        .when().post("/warehouse/imports")
+        .then().statusCode(202)
+        .extract().path("id");
+
+    given().when().post("/warehouse/imports/" + id + "/cancel")
+        .then().statusCode(200).body("status", oneOf("CANCELLING", "CANCELLED"));
+    JsonPath cancelled = awaitEnd(id);
+    assertEquals("CANCELLED", cancelled.getString("status"));
+    long accepted = cancelled.getLong("rowsAccepted");
+    assertTrue(accepted < 3000, "cancelled after " + accepted + " rows");
+    assertEquals(accepted, countImported("IMPORT.C%"));
+    given().when().post("/warehouse/imports/" + id + "/cancel").then().statusCode(409);
+
+    given().when().post("/warehouse/imports/" + id + "/resume").then().statusCode(200);
+    JsonPath completed = awaitEnd(id);
+    assertEquals("COMPLETED", completed.getString("status"));
+    assertEquals(3000, completed.getLong("rowsAccepted"));
+    assertEquals(0, completed.getLong("rowsRejected"));
+    assertTrue(completed.getDouble("rowsPerSecond") > 0);
+    assertEquals(3000, countImported("IMPORT.C%"));
+    given().when().post("/warehouse/imports/" + id + "/resume").then().statusCode(409);
+  }
+
+  @Test
+  public void testInterruptedImportResumesAtStartup() throws IOException {
+    String header = "businessUnitCode,location,capacity,stock\n";
+    List<String> rows = List.of(
+        "IMPORT.I1,ZWOLLE-001,10,1\n",
+        "IMPORT.I2,ZWOLLE-001,10,1\n",
+        "IMPORT.I3,ZWOLLE-001,10,1\n",
+        "IMPORT.I4,ZWOLLE-001,10,1\n",
+        "IMPORT.I5,ZWOLLE-001,10,1\n");
+    String csv = header + String.join("", rows);
+    String id = "interrupted-import";
+    Files.writeString(Path.of("target/imports-test", id + ".csv"), csv, StandardCharsets.UTF_8);
+
+    // The first chunk was committed, then the application went down
+    long committed = (header + rows.get(0) + rows.get(1) + rows.get(2)).getBytes(StandardCharsets.UTF_8).length;
+    QuarkusTransaction.requiringNew().run(() -> {
+      DbWarehouseImportJob job = new DbWarehouseImportJob();
+      job.id = id;
+      job.status = DbWarehouseImportJob.Status.RUNNING;
+      job.bytesTotal = csv.length();
+      job.bytesCommitted = committed;
+      job.rowsProcessed = 3;
+      job.rowsAccepted = 3;
+      job.createdAt = LocalDateTime.now();
+      job.startedAt = LocalDateTime.now();
+      em.persist(job);
+    });
+
+    imports.recover();
+
+    JsonPath status = awaitEnd(id);
+    assertEquals("COMPLETED", status.getString("status"));
+    assertEquals(5, status.getLong("rowsProcessed"));
+    assertEquals(5, status.getLong("rowsAccepted"));
+    // Rows of the committed chunk are not read again
+    given().when().get("/warehouse/IMPORT.I1").then().statusCode(404);
+    given().when().get("/warehouse/IMPORT.I4").then().statusCode(200);
+    given().when().get("/warehouse/IMPORT.I5").then().statusCode(200);
+    assertFalse(Files.exists(Path.of("target/imports-test", id + ".csv")));
+  }
+
+  // Helper methods
+
+  private static JsonPath awaitEnd(String id) {
+    long deadline = System.currentTimeMillis() + 60_000;
+    while (true) {
+      JsonPath status = given().when().get("/warehouse/imports/" + id)
+          .then().statusCode(200).extract().jsonPath();
+      if (ENDED.contains(status.getString("status")) || System.currentTimeMillis() > deadline) {
+        return status;
+      }
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return status;
+      }
+    }
+  }
+
+  private static Set<Path> spooled() throws IOException {
+    try (var files = Files.list(Path.of("target/imports-test"))) {
+      return files.collect(Collectors.toSet());
+    }
+  }
+
+  private long countImported(String pattern) {
+    return QuarkusTransaction.requiringNew().call(() -> em
+        .createQuery("SELECT COUNT(w) FROM DbWarehouse w WHERE w.businessUnitCode LIKE :pattern", Long.class)
+        .setParameter("pattern", pattern)
+        .getSingleResult());
+  }
+}
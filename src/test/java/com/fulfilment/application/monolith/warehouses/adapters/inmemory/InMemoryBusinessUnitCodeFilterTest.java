@@ -0,0 +1,46 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bloom filter sizing and accuracy: no false negatives, and over 100k codes the
+ * measured false positive rate close to the configured one (printed).
+ */
+public class InMemoryBusinessUnitCodeFilterTest {
+
+  @Test
+  public void testSizedForExpectedCodesAndRate() {
+    var bits = InMemoryBusinessUnitCodeFilter.Bits.sizedFor(100_000, 0.01);
+
+    // About 9.6 bits and 7 probes per code for 1%
+    assertEquals(958_506, bits.size());
+    assertEquals(7, bits.hashFunctions);
+  }
+
+  @Test
+  public void testFalsePositiveRateOverHundredThousandCodes() {
+    int codes = 100_000;
+    var bits = InMemoryBusinessUnitCodeFilter.Bits.sizedFor(codes, 0.01);
+    for (int i = 0; i < codes; i++) {
+      bits.add(String.format("MWH.%06d", i));
+    }
+
+    for (int i = 0; i < codes; i++) {
+      assertTrue(bits.mightContain(String.format("MWH.%06d", i)));
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < codes; i++) {
+      if (bits.mightContain(String.format("NEW.%06d", i))) {
+        falsePositives++;
+      }
+    }
+
+    double observed = (double) falsePositives / codes;
+    assertTrue(observed < 0.015, String.format(
+        "%d codes in %d bits, k=%d: observed false positive rate %.4f",
+        codes, bits.size(), bits.hashFunctions, observed));
+    assertEquals(0.01, bits.estimatedFalsePositiveRate(), 0.002);
+  }
+}
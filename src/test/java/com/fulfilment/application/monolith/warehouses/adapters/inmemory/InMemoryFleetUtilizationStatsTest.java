@@ -0,0 +1,81 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.FleetUtilization;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.test.junit.QuarkusTest;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rebuilding the fleet totals while changes commit: a change already in what
+ * the rebuild read is not applied again, one after it is, and a change still
+ * committing when the read returns is waited for.
+ */
+@QuarkusTest
+public class InMemoryFleetUtilizationStatsTest {
+
+  @Test
+  public void testChangesCommittingDuringRebuildCountOnce() throws Exception {
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    WarehouseStore store = Mockito.mock(WarehouseStore.class);
+    // What the read sees: A and D after their changes below, C before its change, no B yet
+    Mockito.when(store.getAll()).thenAnswer(invocation -> {
+      reading.countDown();
+      assertTrue(release.await(10, TimeUnit.SECONDS));
+      return List.of(warehouse("A", 1, 10), warehouse("C", 0, 5), warehouse("D", 1, 7));
+    });
+    InMemoryFleetUtilizationStats stats = new InMemoryFleetUtilizationStats();
+    stats.warehouseStore = store;
+
+    CompletableFuture<FleetUtilization> rebuilt = CompletableFuture.supplyAsync(stats::rebuild);
+    assertTrue(reading.await(10, TimeUnit.SECONDS));
+
+    commit(stats, updated(warehouse("A", 0, 4), warehouse("A", 1, 10)));
+    commit(stats, new WarehouseChangedEvent(WarehouseChangedEvent.Type.CREATED, null, warehouse("B", 0, 3)));
+    commit(stats, updated(warehouse("C", 0, 5), warehouse("C", 1, 6)));
+    WarehouseChangedEvent committing = updated(warehouse("D", 0, 6), warehouse("D", 1, 7));
+    stats.onWarehouseChanging(committing);
+    release.countDown();
+
+    // The rebuild must not finish before the committing change has been seen
+    Thread.sleep(200);
+    assertFalse(rebuilt.isDone(), "rebuild swapped while a change was still committing");
+    stats.onWarehouseChanged(committing);
+
+    FleetUtilization totals = rebuilt.get(10, TimeUnit.SECONDS);
+    assertEquals(4, totals.warehouseCount());
+    assertEquals(400, totals.totalCapacity());
+    assertEquals(10 + 3 + 6 + 7, totals.totalStock());
+    assertEquals(totals, stats.current());
+  }
+
+  // Helper methods
+
+  private static void commit(InMemoryFleetUtilizationStats stats, WarehouseChangedEvent event) {
+    stats.onWarehouseChanging(event);
+    stats.onWarehouseChanged(event);
+  }
+
+  private static WarehouseChangedEvent updated(Warehouse previous, Warehouse current) {
+    return new WarehouseChangedEvent(WarehouseChangedEvent.Type.UPDATED, previous, current);
+  }
+
+  private static Warehouse warehouse(String code, long version, int stock) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = "ZWOLLE-001";
+    warehouse.capacity = 100;
+    warehouse.stock = stock;
+    warehouse.version = version;
+    return warehouse;
+  }
+}
@@ -0,0 +1,132 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseMatch;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Trigram index ranking and maintenance, and recall of exact, prefix, typo and
+ * location queries over 100k warehouses.
+ */
+public class InMemoryTrigramIndexTest {
+
+  private static final String[] CITIES = {
+      "AMSTERDAM", "ROTTERDAM", "UTRECHT", "EINDHOVEN", "TILBURG", "GRONINGEN", "ALMERE",
+      "BREDA", "NIJMEGEN", "ENSCHEDE", "HAARLEM", "ARNHEM", "ZAANDAM", "AMERSFOORT",
+      "APELDOORN", "ZWOLLE", "LEIDEN", "MAASTRICHT", "DORDRECHT", "HELMOND"};
+
+  @Test
+  public void testSubstringMatchesRankAboveFuzzyOnes() {
+    var index = new InMemoryTrigramIndex();
+    index.apply(warehouse("MWH.001", "AMSTERDAM-001"));
+    index.apply(warehouse("MWH.012", "ZWOLLE-001"));
+    index.apply(warehouse("MWH.100", "TILBURG-001"));
+    index.apply(warehouse("XWH.001", "HELMOND-001"));
+
+    List<WarehouseMatch> matches = index.search("mwh.0", 10);
+
+    assertEquals(List.of("MWH.001", "MWH.012"), codes(matches.subList(0, 2)));
+    assertTrue(matches.stream().allMatch(m -> m.matchedOn() == WarehouseMatch.Field.BUSINESS_UNIT_CODE));
+    assertEquals(1.0, index.search("MWH.012", 1).get(0).score());
+    // Typo, no substring: still found through shared trigrams
+    assertEquals("XWH.001", index.search("XWH.00l", 1).get(0).warehouse().businessUnitCode);
+  }
+
+  @Test
+  public void testMisspelledLocationMatchesItsWarehouses() {
+    var index = new InMemoryTrigramIndex();
+    index.apply(warehouse("MWH.001", "AMSTERDAM-001"));
+    index.apply(warehouse("MWH.002", "AMSTERDAM-001"));
+    index.apply(warehouse("MWH.003", "ROTTERDAM-001"));
+
+    List<WarehouseMatch> matches = index.search("amstrdam", 10);
+
+    assertEquals(List.of("MWH.001", "MWH.002"), codes(matches.subList(0, 2)));
+    assertEquals(WarehouseMatch.Field.LOCATION, matches.get(0).matchedOn());
+    assertTrue(matches.get(0).score() >= InMemoryTrigramIndex.MIN_SIMILARITY);
+    assertTrue(index.search("qqqq", 10).isEmpty());
+  }
+
+  @Test
+  public void testIndexFollowsArchiveRelocationAndStockChanges() {
+    var index = new InMemoryTrigramIndex();
+    index.apply(warehouse("MWH.001", "AMSTERDAM-001"));
+    index.apply(warehouse("MWH.002", "ZWOLLE-001"));
+
+    Warehouse restocked = warehouse("MWH.002", "ZWOLLE-001");
+    restocked.stock = 42;
+    index.apply(restocked);
+    assertEquals(42, index.search("MWH.002", 1).get(0).warehouse().stock);
+
+    index.apply(warehouse("MWH.002", "TILBURG-001"));
+    assertTrue(index.search("zwolle", 10).isEmpty());
+    assertEquals(List.of("MWH.002"), codes(index.search("tilburg", 10)));
+
+    Warehouse archived = warehouse("MWH.001", "AMSTERDAM-001");
+    archived.archivedAt = LocalDateTime.now();
+    index.apply(archived);
+    assertEquals(List.of("MWH.002"), codes(index.search("MWH.00", 10)));
+  }
+
+  @Test
+  public void testFindsEveryQueryAt100kWarehouses() {
+    var index = new InMemoryTrigramIndex();
+    var random = new Random(42);
+    int size = 100_000;
+    for (int i = 0; i < size; i++) {
+      index.apply(warehouse(String.format("MWH.%06d", i),
+          CITIES[random.nextInt(CITIES.length)] + "-" + String.format("%03d", 1 + random.nextInt(5))));
+    }
+    // Archive and re-create a slice, so postings have seen removals
+    for (int i = 0; i < size; i += 10) {
+      Warehouse archived = warehouse(String.format("MWH.%06d", i), "AMSTERDAM-001");
+      archived.archivedAt = LocalDateTime.now();
+      index.apply(archived);
+      index.apply(warehouse(String.format("MWH.%06d", i), "AMSTERDAM-002"));
+    }
+
+    // Exact, prefix, typo and location queries
+    String[] queries = new String[2_000];
+    for (int i = 0; i < queries.length; i++) {
+      String code = String.format("MWH.%06d", random.nextInt(size));
+      queries[i] = switch (i % 5) {
+        case 0 -> code;
+        case 1 -> code.substring(0, 8);
+        case 2 -> code.substring(0, 6) + code.charAt(7) + code.charAt(6) + code.substring(8);
+        case 3 -> code.substring(4);
+        default -> {
+          String city = CITIES[random.nextInt(CITIES.length)];
+          yield city.substring(1, Math.min(city.length(), 7));
+        }
+      };
+    }
+
+    for (int i = 0; i < queries.length; i++) {
+      List<WarehouseMatch> matches = index.search(queries[i], 20);
+      assertFalse(matches.isEmpty(), "no match for " + queries[i]);
+      if (i % 5 == 0) {
+        assertEquals(queries[i], matches.get(0).warehouse().businessUnitCode,
+            "exact code should rank first");
+      }
+    }
+  }
+
+  private static List<String> codes(List<WarehouseMatch> matches) {
+    return matches.stream().map(m -> m.warehouse().businessUnitCode).toList();
+  }
+
+  private static Warehouse warehouse(String code, String location) {
+    var warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = location;
+    warehouse.capacity = 100;
+    warehouse.stock = 0;
+    warehouse.createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+    return warehouse;
+  }
+}
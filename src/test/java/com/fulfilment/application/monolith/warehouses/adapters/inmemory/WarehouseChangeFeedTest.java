@@ -0,0 +1,162 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.models.WarehouseChange;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the warehouse change feed: sequencing, resume from the replay
+ * buffer, dropping slow subscribers, and the SSE endpoint itself.
+ */
+@QuarkusTest
+public class WarehouseChangeFeedTest {
+
+  @Inject
+  WarehouseChangeFeed warehouseChangeFeed;
+
+  @ConfigProperty(name = "warehouse.change-feed.replay-buffer-size")
+  int replayBufferSize;
+
+  @ConfigProperty(name = "warehouse.change-feed.subscriber-buffer-size")
+  int subscriberBufferSize;
+
+  @TestHTTPResource("/warehouse/changes")
+  URL changesUrl;
+
+  @Test
+  public void testSubscriberReceivesLiveChangesInSequence() {
+    AssertSubscriber<WarehouseChange> subscriber = warehouseChangeFeed
+        .subscribe(warehouseChangeFeed.lastSequence())
+        .subscribe().withSubscriber(AssertSubscriber.create(10));
+
+    WarehouseChange first = warehouseChangeFeed.publish(event("FEED-001", WarehouseChangedEvent.Type.CREATED));
+    WarehouseChange second = warehouseChangeFeed.publish(event("FEED-001", WarehouseChangedEvent.Type.ARCHIVED));
+
+    subscriber.awaitItems(2);
+    assertEquals(List.of(first, second), subscriber.getItems());
+    assertEquals(first.sequence() + 1, second.sequence());
+    subscriber.cancel();
+  }
+
+  @Test
+  public void testSubscriberResumesFromReplayBuffer() {
+    long before = warehouseChangeFeed.lastSequence();
+    warehouseChangeFeed.publish(event("RESUME-001", WarehouseChangedEvent.Type.CREATED));
+    WarehouseChange second = warehouseChangeFeed.publish(event("RESUME-002", WarehouseChangedEvent.Type.CREATED));
+    WarehouseChange third = warehouseChangeFeed.publish(event("RESUME-003", WarehouseChangedEvent.Type.CREATED));
+
+    AssertSubscriber<WarehouseChange> subscriber = warehouseChangeFeed
+        .subscribe(before + 1)
+        .subscribe().withSubscriber(AssertSubscriber.create(10));
+
+    subscriber.awaitItems(2);
+    assertEquals(List.of(second, third), subscriber.getItems());
+    subscriber.cancel();
+  }
+
+  @Test
+  public void testSlowSubscriberIsDroppedWithoutBlockingWriters() {
+    // No demand at all: the subscriber never consumes anything
+    AssertSubscriber<WarehouseChange> slow = warehouseChangeFeed
+        .subscribe(warehouseChangeFeed.lastSequence())
+        .subscribe().withSubscriber(AssertSubscriber.create(0));
+    int subscribersBefore = warehouseChangeFeed.subscriberCount();
+
+    // The subscriber buffer may be rounded up internally, so overshoot generously
+    int overflow = 2 * (replayBufferSize + subscriberBufferSize);
+    for (int i = 0; i < overflow; i++) {
+      warehouseChangeFeed.publish(event("SLOW-" + i, WarehouseChangedEvent.Type.CREATED));
+    }
+
+    slow.awaitFailure(Duration.ofSeconds(5));
+    assertInstanceOf(BackPressureFailure.class, slow.getFailure());
+    assertEquals(subscribersBefore - 1, warehouseChangeFeed.subscriberCount());
+
+    // The oldest changes have left the replay buffer
+    assertFalse(warehouseChangeFeed.canResumeAfter(0));
+    assertTrue(warehouseChangeFeed.canResumeAfter(warehouseChangeFeed.lastSequence() - 1));
+  }
+
+  @Test
+  public void testSseEndpointStreamsCommittedChanges() throws Exception {
+    long before = warehouseChangeFeed.lastSequence();
+
+    given()
+        .contentType("application/json")
+        .body("""
+            {
+              "businessUnitCode": "FEED-HTTP-001",
+              "location": "AMSTERDAM-001",
+              "capacity": 80,
+              "stock": 20
+            }
+            """)
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200);
+
+    HttpURLConnection connection = (HttpURLConnection) changesUrl.openConnection();
+    connection.setRequestProperty("Accept", "text/event-stream");
+    connection.setRequestProperty("Last-Event-ID", String.valueOf(before));
+    connection.setReadTimeout(5000);
+
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+        if (line.startsWith("data:")) {
+          break;
+        }
+      }
+    } finally {
+      connection.disconnect();
+    }
+
+    assertTrue(lines.contains("id:" + (before + 1)), "Missing sequence id in " + lines);
+    assertTrue(lines.contains("event:CREATED"), "Missing event type in " + lines);
+    assertTrue(lines.stream().anyMatch(l -> l.startsWith("data:") && l.contains("FEED-HTTP-001")),
+        "Missing payload in " + lines);
+  }
+
+  @Test
+  public void testResumeFromEvictedSequenceReturns410() {
+    // Push sequence 1 out of the replay buffer
+    for (int i = 0; i <= replayBufferSize; i++) {
+      warehouseChangeFeed.publish(event("EVICT-" + i, WarehouseChangedEvent.Type.CREATED));
+    }
+
+    given()
+        .queryParam("afterSequence", 0)
+        .when().get("/warehouse/changes")
+        .then()
+        .statusCode(410);
+  }
+
+  private WarehouseChangedEvent event(String buCode, WarehouseChangedEvent.Type type) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = buCode;
+    warehouse.location = "AMSTERDAM-001";
+    warehouse.capacity = 10;
+    warehouse.stock = 0;
+    return new WarehouseChangedEvent(type, null, warehouse);
+  }
+}
@@ -0,0 +1,269 @@
+package com.fulfilment.application.monolith.warehouses.adapters.inmemory;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.domain.events.WarehouseChangedEvent;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockLevel;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Receipts and shipments through the write-behind stock counter: admitted
+ * against stock and capacity including unflushed changes, left room by stock
+ * adjustments written directly, written as one versioned update per warehouse
+ * on flush or at the threshold, counted once while a flush commits, and
+ * replayed exactly once from the delta log after a crash.
+ */
+@QuarkusTest
+@TestProfile(WriteBehindStockCounterTest.ManualFlush.class)
+public class WriteBehindStockCounterTest {
+
+  public static class ManualFlush implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "warehouse.stock-counter.flush-interval", "1h",
+          "warehouse.stock-counter.flush-threshold", "4",
+          "warehouse.stock-counter.log", "target/stock-deltas-test.log");
+    }
+  }
+
+  /**
+   * Runs an action on the flush thread after the counter has seen the flush's
+   * own change committed, before the flush itself returns.
+   */
+  @ApplicationScoped
+  public static class AfterFlushCommit {
+
+    static volatile Runnable action;
+
+    void onWarehouseChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS)
+        @Priority(Interceptor.Priority.APPLICATION + 1000) WarehouseChangedEvent event) {
+      Runnable run = action;
+      if (run != null) {
+        action = null;
+        run.run();
+      }
+    }
+  }
+
+  @Inject
+  WriteBehindStockCounter stockCounter;
+
+  @Inject
+  EntityManager em;
+
+  @Test
+  public void testMovementsWrittenAsOneUpdateOnFlush() {
+    warehouse("STOCK.FLUSH", 50, 10);
+
+    given().contentType("application/json").body("{\"quantity\": 15}")
+        .when().post("/warehouse/STOCK.FLUSH/receipts")
+        .then()
+        .statusCode(200)
+        .body("stock", is(25))
+        .body("capacity", is(50))
+        .body("unflushed", is(15));
+    given().contentType("application/json").body("{\"quantity\": 5}")
+        .when().post("/warehouse/STOCK.FLUSH/shipments")
+        .then().statusCode(200).body("stock", is(20)).body("unflushed", is(10));
+
+    // Not written yet
+    given().when().get("/warehouse/STOCK.FLUSH").then().body("stock", is(10));
+
+    given().when().post("/admin/stock-counter/flush").then().statusCode(200).body("unflushedWarehouses", is(0));
+    given().when().get("/warehouse/STOCK.FLUSH").then().body("stock", is(20));
+    assertEquals(1L, stored("STOCK.FLUSH").version);
+  }
+
+  @Test
+  public void testAdmissionCountsUnflushedChanges() {
+    warehouse("STOCK.ADMIT", 30, 20);
+
+    given().contentType("application/json").body("{\"quantity\": 8}")
+        .when().post("/warehouse/STOCK.ADMIT/receipts")
+        .then().statusCode(200).body("stock", is(28));
+    // 28 + 3 > 30, although the warehouse row still says 20
+    given().contentType("application/json").body("{\"quantity\": 3}")
+        .when().post("/warehouse/STOCK.ADMIT/receipts")
+        .then().statusCode(400).body(containsString("exceeds warehouse capacity"));
+    given().contentType("application/json").body("{\"quantity\": 29}")
+        .when().post("/warehouse/STOCK.ADMIT/shipments")
+        .then().statusCode(400).body(containsString("insufficient stock (28)"));
+    given().contentType("application/json").body("{\"quantity\": 0}")
+        .when().post("/warehouse/STOCK.ADMIT/shipments")
+        .then().statusCode(400);
+    given().contentType("application/json").body("{\"quantity\": 1}")
+        .when().post("/warehouse/STOCK.NOPE/receipts")
+        .then().statusCode(404);
+
+    stockCounter.flush();
+    assertEquals(28, stored("STOCK.ADMIT").stock);
+  }
+
+  @Test
+  public void testAdjustmentLeavesRoomForAPendingReceipt() {
+    warehouse("STOCK.HELD", 50, 10);
+    given().contentType("application/json").body("{\"quantity\": 15}")
+        .when().post("/warehouse/STOCK.HELD/receipts")
+        .then().statusCode(200).body("stock", is(25)).body("unflushed", is(15));
+    long dropped = stockCounter.stats().dropped();
+
+    // The row still says 10: 10 + 30 fits, but the acknowledged receipt would no longer
+    given().contentType("application/json").body("{\"delta\": 30}")
+        .when().post("/warehouse/STOCK.HELD/stock-adjustments")
+        .then()
+        .statusCode(409)
+        .body("outcome", is("EXCEEDS_CAPACITY"))
+        .body("stock", is(25));
+    given().contentType("application/json").body("{\"delta\": 25}")
+        .when().post("/warehouse/STOCK.HELD/stock-adjustments")
+        .then().statusCode(200).body("stock", is(35));
+
+    // Admissions see the adjustment: 35 written + 15 unflushed fills the warehouse
+    given().contentType("application/json").body("{\"quantity\": 1}")
+        .when().post("/warehouse/STOCK.HELD/receipts")
+        .then().statusCode(400).body(containsString("exceeds warehouse capacity"));
+
+    stockCounter.flush();
+    assertEquals(50, stored("STOCK.HELD").stock);
+    assertEquals(dropped, stockCounter.stats().dropped());
+  }
+
+  @Test
+  public void testAdmissionWhileAFlushCommitsCountsTheFlushedChangeOnce() throws Exception {
+    warehouse("STOCK.RACE", 100, 10);
+    stockCounter.adjust("STOCK.RACE", 50);
+
+    // Another caller admits a receipt between the commit and the end of the flush
+    var admitted = new CompletableFuture<StockLevel>();
+    AfterFlushCommit.action = () -> {
+      Thread caller = new Thread(() -> {
+        try {
+          admitted.complete(stockCounter.adjust("STOCK.RACE", 40));
+        } catch (RuntimeException e) {
+          admitted.completeExceptionally(e);
+        }
+      });
+      caller.start();
+      try {
+        caller.join(10_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    stockCounter.flush();
+
+    // 60 committed + 40: counting the flushed 50 again would refuse it as over capacity
+    StockLevel level = admitted.get(10, TimeUnit.SECONDS);
+    assertEquals(100, level.stock());
+    assertEquals(40, level.unflushed());
+    stockCounter.flush();
+    assertEquals(100, stored("STOCK.RACE").stock);
+  }
+
+  @Test
+  public void testThresholdTriggersFlush() throws InterruptedException {
+    warehouse("STOCK.BUSY", 100, 0);
+    stockCounter.flush();
+
+    for (int i = 0; i < 4; i++) {
+      given().contentType("application/json").body("{\"quantity\": 1}")
+          .when().post("/warehouse/STOCK.BUSY/receipts")
+          .then().statusCode(200);
+    }
+
+    // Flushed by the background thread, long before the 1h interval
+    for (int attempt = 0; attempt < 50 && stored("STOCK.BUSY").stock != 4; attempt++) {
+      Thread.sleep(100);
+    }
+    assertEquals(4, stored("STOCK.BUSY").stock);
+  }
+
+  @Test
+  public void testAcknowledgedChangesReplayedOnceAfterCrash() {
+    warehouse("STOCK.CRASH", 100, 10);
+
+    given().contentType("application/json").body("{\"quantity\": 7}")
+        .when().post("/warehouse/STOCK.CRASH/receipts")
+        .then().statusCode(200);
+    given().contentType("application/json").body("{\"quantity\": 2}")
+        .when().post("/warehouse/STOCK.CRASH/shipments")
+        .then().statusCode(200).body("stock", is(15));
+
+    stockCounter.crash();
+    assertEquals(10, stored("STOCK.CRASH").stock);
+
+    stockCounter.recover();
+    assertEquals(15, stored("STOCK.CRASH").stock);
+
+    // A second replay finds the checkpoint and applies nothing
+    stockCounter.crash();
+    stockCounter.recover();
+    assertEquals(15, stored("STOCK.CRASH").stock);
+    given().contentType("application/json").body("{\"quantity\": 1}")
+        .when().post("/warehouse/STOCK.CRASH/receipts")
+        .then().statusCode(200).body("stock", is(16)).body("unflushed", is(1));
+  }
+
+  @Test
+  public void testReplayForMissingWarehouseDoesNotBlockItsCode() {
+    warehouse("STOCK.GONE", 40, 0);
+    given().contentType("application/json").body("{\"quantity\": 5}")
+        .when().post("/warehouse/STOCK.GONE/receipts")
+        .then().statusCode(200);
+
+    // Crash, and the warehouse is gone when the log is replayed
+    stockCounter.crash();
+    QuarkusTransaction.requiringNew().run(() -> em
+        .createQuery("DELETE FROM DbWarehouse w WHERE w.businessUnitCode = 'STOCK.GONE'")
+        .executeUpdate());
+    stockCounter.recover();
+
+    warehouse("STOCK.GONE", 40, 0);
+    given().contentType("application/json").body("{\"quantity\": 40}")
+        .when().post("/warehouse/STOCK.GONE/receipts")
+        .then().statusCode(200).body("stock", is(40));
+  }
+
+  // Helper methods
+
+  private void warehouse(String code, int capacity, int stock) {
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse w WHERE w.businessUnitCode = :code")
+          .setParameter("code", code)
+          .executeUpdate();
+      DbWarehouse warehouse = new DbWarehouse();
+      warehouse.businessUnitCode = code;
+      warehouse.location = "AMSTERDAM-002";
+      warehouse.capacity = capacity;
+      warehouse.stock = stock;
+      warehouse.createdAt = LocalDateTime.now();
+      em.persist(warehouse);
+    });
+  }
+
+  private DbWarehouse stored(String code) {
+    return QuarkusTransaction.requiringNew().call(() -> em
+        .createQuery("SELECT w FROM DbWarehouse w WHERE w.businessUnitCode = :code", DbWarehouse.class)
+        .setParameter("code", code)
+        .getSingleResult());
+  }
+}
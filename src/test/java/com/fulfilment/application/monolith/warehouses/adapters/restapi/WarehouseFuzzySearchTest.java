@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseTextIndex;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * GET /warehouse/search/fuzzy: substring and typo-tolerant matching on code and
+ * location, ranked by similarity and kept current by committed writes.
+ */
+@QuarkusTest
+public class WarehouseFuzzySearchTest {
+
+  @Inject
+  WarehouseTextIndex warehouseTextIndex;
+
+  @Inject
+  EntityManager em;
+
+  private static final String FUZZY = "/warehouse/search/fuzzy";
+
+  @BeforeEach
+  public void setup() {
+    // Bulk delete bypasses the change events, so reload the index
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+    warehouseTextIndex.rebuild();
+
+    create("FUZZY.001", "AMSTERDAM-001");
+    create("FUZZY.002", "AMSTERDAM-002");
+    create("FUZZY.120", "TILBURG-001");
+  }
+
+  @Test
+  public void testSubstringOfCodeRankedByCoverage() {
+    given()
+        .queryParam("q", "fuzzy.00")
+        .when().get(FUZZY)
+        .then()
+        .statusCode(200)
+        .body("warehouse.businessUnitCode", hasItems("FUZZY.001", "FUZZY.002"))
+        .body("[0].warehouse.businessUnitCode", is("FUZZY.001"))
+        .body("[0].matchedOn", is("businessUnitCode"))
+        .body("[0].score", greaterThan(0.5f));
+
+    given()
+        .queryParam("q", "FUZZY.120")
+        .queryParam("limit", 1)
+        .when().get(FUZZY)
+        .then()
+        .statusCode(200)
+        .body("$.size()", is(1))
+        .body("[0].score", is(1.0f));
+  }
+
+  @Test
+  public void testMisspelledLocation() {
+    given()
+        .queryParam("q", "tillburg")
+        .when().get(FUZZY)
+        .then()
+        .statusCode(200)
+        .body("$.size()", is(1))
+        .body("[0].warehouse.businessUnitCode", is("FUZZY.120"))
+        .body("[0].matchedOn", is("location"));
+  }
+
+  @Test
+  public void testArchivedWarehouseLeavesTheIndex() {
+    given().when().delete("/warehouse/FUZZY.120").then().statusCode(204);
+
+    given()
+        .queryParam("q", "FUZZY.120")
+        .when().get(FUZZY)
+        .then()
+        .statusCode(200)
+        .body("warehouse.businessUnitCode", not(hasItem("FUZZY.120")));
+  }
+
+  @Test
+  public void testBlankQueryAndLimitOutOfRangeRejected() {
+    given().queryParam("q", " ").when().get(FUZZY).then().statusCode(400);
+    given().queryParam("q", "fuzzy").queryParam("limit", 0).when().get(FUZZY).then().statusCode(400);
+    given().queryParam("q", "fuzzy").queryParam("limit", 101).when().get(FUZZY).then().statusCode(400);
+  }
+
+  private void create(String buCode, String location) {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"" + buCode + "\", \"location\": \"" + location
+            + "\", \"capacity\": 20, \"stock\": 0}")
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200);
+  }
+}
@@ -0,0 +1,215 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouseHistory;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseHistoryRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Time-travel reads (asOf) over the warehouse_history table.
+ */
+@QuarkusTest
+public class WarehouseHistoryTest {
+
+  @Inject
+  WarehouseHistoryRepository warehouseHistoryRepository;
+
+  @Inject
+  EntityManager em;
+
+  private static final String BASE = "/warehouse";
+
+  @BeforeEach
+  @Transactional
+  public void setup() {
+    em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+  }
+
+  @Test
+  public void testGetByIdAsOfReturnsStateAtThatTime() throws InterruptedException {
+    LocalDateTime beforeCreate = tick();
+    create("HIST-001", "AMSTERDAM-001", 80, 20);
+    LocalDateTime afterCreate = tick();
+    replace("HIST-001", "ZWOLLE-001", 30, 10);
+    LocalDateTime afterReplace = tick();
+    given().when().delete(BASE + "/HIST-001").then().statusCode(204);
+
+    given()
+        .queryParam("asOf", beforeCreate.toString())
+        .when().get(BASE + "/HIST-001")
+        .then()
+        .statusCode(404);
+
+    given()
+        .queryParam("asOf", afterCreate.toString())
+        .when().get(BASE + "/HIST-001")
+        .then()
+        .statusCode(200)
+        .body("location", equalTo("AMSTERDAM-001"))
+        .body("capacity", is(80))
+        .body("stock", is(20))
+        .body("archivedAt", nullValue());
+
+    given()
+        .queryParam("asOf", afterReplace.toString())
+        .when().get(BASE + "/HIST-001")
+        .then()
+        .statusCode(200)
+        .body("location", equalTo("ZWOLLE-001"))
+        .body("capacity", is(30))
+        .body("archivedAt", nullValue());
+  }
+
+  @Test
+  public void testSearchAsOfExcludesWarehousesArchivedLater() throws InterruptedException {
+    create("HIST-S-001", "AMSTERDAM-001", 80, 20);
+    create("HIST-S-002", "AMSTERDAM-001", 60, 20);
+    LocalDateTime bothActive = tick();
+    given().when().delete(BASE + "/HIST-S-002").then().statusCode(204);
+
+    given()
+        .queryParam("location", "AMSTERDAM-001")
+        .queryParam("sortBy", "capacity")
+        .queryParam("asOf", bothActive.toString())
+        .when().get(BASE + "/search")
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", contains("HIST-S-002", "HIST-S-001"));
+
+    given()
+        .queryParam("location", "AMSTERDAM-001")
+        .queryParam("asOf", LocalDateTime.now().toString())
+        .when().get(BASE + "/search")
+        .then()
+        .statusCode(200)
+        .body("businessUnitCode", contains("HIST-S-001"));
+  }
+
+  @Test
+  public void testReconstructionAcrossSnapshotsAndDeltas() throws InterruptedException {
+    create("HIST-D-001", "AMSTERDAM-001", 100, 0);
+    LocalDateTime[] after = new LocalDateTime[13];
+    for (int stock = 1; stock <= 12; stock++) {
+      replace("HIST-D-001", "AMSTERDAM-001", 100, stock);
+      after[stock] = tick();
+    }
+
+    // Version 0 and version 10 are snapshots, everything else is a delta
+    assertEquals(2, warehouseHistoryRepository.count(
+        "businessUnitCode = ?1 AND snapshot = true", "HIST-D-001"));
+    DbWarehouseHistory delta = warehouseHistoryRepository.find(
+        "businessUnitCode = ?1 AND version = ?2", "HIST-D-001", 5L).firstResult();
+    assertFalse(delta.snapshot);
+    assertNull(delta.location, "Unchanged fields are not stored in deltas");
+
+    for (int stock = 1; stock <= 12; stock++) {
+      assertEquals(stock, warehouseHistoryRepository
+          .findByBusinessUnitCodeAsOf("HIST-D-001", after[stock]).stock);
+    }
+  }
+
+  @Test
+  public void testSearchAsOfFiltersAndPagesStateRebuiltFromDeltas() throws InterruptedException {
+    LocalDateTime created = LocalDateTime.now().minusHours(1);
+    // No capacity recorded at all: sorts first, and does not break the comparison
+    history("HIST-P-001", 0, true, created, "ZWOLLE-001", null, 5, null);
+    history("HIST-P-002", 0, true, created, "AMSTERDAM-001", 30, 5, null);
+    history("HIST-P-002", 1, false, created.plusMinutes(1), "ZWOLLE-001", null, null, null);
+    history("HIST-P-003", 0, true, created, "ZWOLLE-001", 20, 5, null);
+    history("HIST-P-003", 1, false, created.plusMinutes(1), null, 10, null, null);
+    history("HIST-P-004", 0, true, created, "ZWOLLE-001", 15, 5, null);
+    history("HIST-P-004", 1, false, created.plusMinutes(1), null, null, null, created.plusMinutes(2));
+    // After asOf: not applied
+    history("HIST-P-003", 2, false, created.plusMinutes(30), null, 99, null, null);
+    LocalDateTime asOf = created.plusMinutes(10);
+
+    List<String> pages = new ArrayList<>();
+    for (int page = 0; page < 4; page++) {
+      pages.addAll(warehouseHistoryRepository.search(asOf, "ZWOLLE-001", null, null, "capacity", "asc", page, 1)
+          .stream().map(w -> w.businessUnitCode).toList());
+    }
+    assertEquals(List.of("HIST-P-001", "HIST-P-003", "HIST-P-002"), pages);
+    assertEquals(List.of("HIST-P-002", "HIST-P-003", "HIST-P-001"), warehouseHistoryRepository
+        .search(asOf, "ZWOLLE-001", null, null, "capacity", "desc", 0, 10)
+        .stream().map(w -> w.businessUnitCode).toList());
+    assertEquals(2, warehouseHistoryRepository.countAsOf(asOf, "ZWOLLE-001", 10, 30));
+    assertEquals(0, warehouseHistoryRepository.countAsOf(asOf, "AMSTERDAM-001", null, null));
+
+    Warehouse moved = warehouseHistoryRepository.search(asOf, null, 30, 30, null, null, 0, 10).get(0);
+    assertEquals("ZWOLLE-001", moved.location);
+    assertEquals(30, moved.capacity);
+    assertEquals(5, moved.stock);
+    assertEquals(1L, moved.version);
+  }
+
+  @Test
+  public void testInvalidAsOfReturns400() {
+    given()
+        .queryParam("asOf", "yesterday")
+        .when().get(BASE + "/MWH.001")
+        .then()
+        .statusCode(400);
+  }
+
+  // Helper methods
+
+  private LocalDateTime tick() throws InterruptedException {
+    // Keep history timestamps strictly apart from the captured instants
+    Thread.sleep(15);
+    LocalDateTime now = LocalDateTime.now();
+    Thread.sleep(15);
+    return now;
+  }
+
+  @Transactional
+  void history(String buCode, long version, boolean snapshot, LocalDateTime changedAt,
+      String location, Integer capacity, Integer stock, LocalDateTime archivedAt) {
+    DbWarehouseHistory row = new DbWarehouseHistory();
+    row.businessUnitCode = buCode;
+    row.version = version;
+    row.snapshot = snapshot;
+    row.changedAt = changedAt;
+    row.changeType = snapshot ? DbWarehouseHistory.ChangeType.CREATED
+        : archivedAt != null ? DbWarehouseHistory.ChangeType.ARCHIVED : DbWarehouseHistory.ChangeType.UPDATED;
+    row.location = location;
+    row.capacity = capacity;
+    row.stock = stock;
+    row.createdAt = snapshot ? changedAt : null;
+    row.archivedAt = archivedAt;
+    em.persist(row);
+  }
+
+  private void create(String buCode, String location, int capacity, int stock) {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"" + buCode + "\", \"location\": \"" + location
+            + "\", \"capacity\": " + capacity + ", \"stock\": " + stock + "}")
+        .when().post(BASE)
+        .then()
+        .statusCode(200);
+  }
+
+  private void replace(String buCode, String location, int capacity, int stock) {
+    given()
+        .contentType("application/json")
+        .body("{\"location\": \"" + location + "\", \"capacity\": " + capacity
+            + ", \"stock\": " + stock + "}")
+        .when().post(BASE + "/" + buCode + "/replacement")
+        .then()
+        .statusCode(200);
+  }
+}
@@ -0,0 +1,129 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Direct JSON writer for warehouse lists: identical bytes to Jackson on the
+ * generated bean, and less allocation per row than that bean path.
+ */
+public class WarehouseListJsonWriterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final WarehouseListJsonWriter writer = new WarehouseListJsonWriter(objectMapper);
+
+  @Test
+  public void testOutputMatchesJacksonOnGeneratedBean() throws IOException {
+    List<Warehouse> rows = new ArrayList<>();
+    rows.add(warehouse("MWH.001", "ZWOLLE-001", 100, 10, LocalDateTime.of(2024, 7, 1, 0, 0), null));
+    rows.add(warehouse("MWH.\"Q\"", "AMSTERDAM-001", 50, 5,
+        LocalDateTime.of(2023, 12, 31, 23, 59, 59, 999_000_000),
+        LocalDateTime.of(2024, 3, 31, 2, 30)));
+    rows.add(warehouse("MWH.EMPTY", null, null, null, null, null));
+    rows.add(warehouse("MWH.OLD", "TILBURG-001", 30, 27, LocalDateTime.of(1969, 2, 28, 13, 5, 7), null));
+
+    assertEquals(beanPath(rows), directPath(rows));
+    assertEquals("[]", directPath(List.of()));
+  }
+
+  @Test
+  public void testAllocatesLessPerRowThanBeanPath() throws IOException {
+    List<Warehouse> rows = new ArrayList<>();
+    LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+    for (int i = 0; i < 10_000; i++) {
+      rows.add(warehouse("MWH." + i, "LOCATION-" + (i % 50), 100 + i % 400, i % 100,
+          base.plusMinutes(i), i % 10 == 0 ? base.plusDays(i % 365) : null));
+    }
+    var warehouses = new WarehouseResponseList(rows, WarehouseListJsonWriterTest::toBean);
+    // Jackson closes the target after writeValue, so a sink that ignores close
+    var sink = new OutputStream() {
+      @Override
+      public void write(int b) {}
+
+      @Override
+      public void write(byte[] b, int off, int len) {}
+    };
+
+    // Warm up both paths before measuring
+    for (int i = 0; i < 20; i++) {
+      objectMapper.writeValue(sink, rows.stream().map(WarehouseListJsonWriterTest::toBean).toList());
+      writer.writeTo(warehouses, null, null, null, null, null, sink);
+    }
+
+    long bean = allocated(() ->
+        objectMapper.writeValue(sink, rows.stream().map(WarehouseListJsonWriterTest::toBean).toList()));
+    long direct = allocated(() -> writer.writeTo(warehouses, null, null, null, null, null, sink));
+
+    assertTrue(direct < bean, String.format("direct path allocates %d B/row, bean path %d B/row",
+        direct / rows.size(), bean / rows.size()));
+  }
+
+  private interface Run {
+    void run() throws IOException;
+  }
+
+  // Best of 10: bytes allocated by a single run
+  private static long allocated(Run run) throws IOException {
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    long bytes = Long.MAX_VALUE;
+    for (int i = 0; i < 10; i++) {
+      long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+      run.run();
+      bytes = Math.min(bytes, threads.getThreadAllocatedBytes(thread) - allocatedBefore);
+    }
+    return bytes;
+  }
+
+  private String beanPath(List<Warehouse> rows) throws IOException {
+    return objectMapper.writeValueAsString(rows.stream().map(WarehouseListJsonWriterTest::toBean).toList());
+  }
+
+  private String directPath(List<Warehouse> rows) throws IOException {
+    var out = new ByteArrayOutputStream();
+    writer.writeTo(new WarehouseResponseList(rows, WarehouseListJsonWriterTest::toBean),
+        null, null, null, null, null, out);
+    return out.toString(java.nio.charset.StandardCharsets.UTF_8);
+  }
+
+  // The per-row conversion WarehouseResourceImpl does for the generated bean
+  private static com.warehouse.api.beans.Warehouse toBean(Warehouse warehouse) {
+    var bean = new com.warehouse.api.beans.Warehouse();
+    bean.setBusinessUnitCode(warehouse.businessUnitCode);
+    bean.setLocation(warehouse.location);
+    bean.setCapacity(warehouse.capacity);
+    bean.setStock(warehouse.stock);
+    bean.setCreatedAt(toDate(warehouse.createdAt));
+    bean.setArchivedAt(toDate(warehouse.archivedAt));
+    return bean;
+  }
+
+  private static Date toDate(LocalDateTime ldt) {
+    return ldt == null ? null : Date.from(ldt.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  private static Warehouse warehouse(
+      String code, String location, Integer capacity, Integer stock,
+      LocalDateTime createdAt, LocalDateTime archivedAt) {
+    var warehouse = new Warehouse();
+    warehouse.businessUnitCode = code;
+    warehouse.location = location;
+    warehouse.capacity = capacity;
+    warehouse.stock = stock;
+    warehouse.createdAt = createdAt;
+    warehouse.archivedAt = archivedAt;
+    return warehouse;
+  }
+}
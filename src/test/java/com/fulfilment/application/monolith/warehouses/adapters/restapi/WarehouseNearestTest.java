@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.NearestWarehouseIndex;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * GET /warehouse/nearest: active warehouses by distance from a point, with an
+ * optional free capacity floor, kept current by committed writes.
+ */
+@QuarkusTest
+public class WarehouseNearestTest {
+
+  @Inject
+  NearestWarehouseIndex nearestWarehouseIndex;
+
+  @Inject
+  EntityManager em;
+
+  private static final String NEAREST = "/warehouse/nearest";
+
+  // Eindhoven city centre
+  private static final double LATITUDE = 51.4381;
+  private static final double LONGITUDE = 5.4752;
+
+  @BeforeEach
+  public void setup() {
+    // Bulk delete bypasses the change events, so reload the index
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+    nearestWarehouseIndex.rebuild();
+
+    create("NEAR-EHV", "EINDHOVEN-001", 30, 25);
+    create("NEAR-HLM", "HELMOND-001", 40, 0);
+    create("NEAR-TLB", "TILBURG-001", 40, 10);
+    create("NEAR-AMS", "AMSTERDAM-001", 100, 0);
+  }
+
+  @Test
+  public void testNearestFirst() {
+    given()
+        .queryParam("latitude", LATITUDE)
+        .queryParam("longitude", LONGITUDE)
+        .queryParam("limit", 3)
+        .when().get(NEAREST)
+        .then()
+        .statusCode(200)
+        .body("warehouse.businessUnitCode", contains("NEAR-EHV", "NEAR-HLM", "NEAR-TLB"))
+        .body("[0].freeCapacity", is(5))
+        .body("[0].distanceKm", lessThan(2f));
+  }
+
+  @Test
+  public void testMinFreeCapacityAndArchive() {
+    given()
+        .queryParam("latitude", LATITUDE)
+        .queryParam("longitude", LONGITUDE)
+        .queryParam("minFreeCapacity", 35)
+        .when().get(NEAREST)
+        .then()
+        .statusCode(200)
+        .body("warehouse.businessUnitCode", contains("NEAR-HLM", "NEAR-AMS"));
+
+    given().when().delete("/warehouse/NEAR-HLM").then().statusCode(204);
+
+    given()
+        .queryParam("latitude", LATITUDE)
+        .queryParam("longitude", LONGITUDE)
+        .queryParam("minFreeCapacity", 35)
+        .when().get(NEAREST)
+        .then()
+        .statusCode(200)
+        .body("warehouse.businessUnitCode", contains("NEAR-AMS"));
+  }
+
+  @Test
+  public void testInvalidParametersRejected() {
+    given().queryParam("longitude", LONGITUDE).when().get(NEAREST).then().statusCode(400);
+    given().queryParam("latitude", 91).queryParam("longitude", LONGITUDE)
+        .when().get(NEAREST).then().statusCode(400);
+    given().queryParam("latitude", LATITUDE).queryParam("longitude", LONGITUDE).queryParam("limit", 0)
+        .when().get(NEAREST).then().statusCode(400);
+    given().queryParam("latitude", LATITUDE).queryParam("longitude", LONGITUDE)
+        .queryParam("minFreeCapacity", -1)
+        .when().get(NEAREST).then().statusCode(400);
+  }
+
+  private void create(String buCode, String location, int capacity, int stock) {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"" + buCode + "\", \"location\": \"" + location
+            + "\", \"capacity\": " + capacity + ", \"stock\": " + stock + "}")
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200);
+  }
+}
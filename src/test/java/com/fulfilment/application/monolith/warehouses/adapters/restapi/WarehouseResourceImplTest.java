@@ -11,6 +11,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.*;
@@ -27,6 +30,8 @@ import static org.hamcrest.CoreMatchers.*;
  * GET /warehouse/{id} → getAWarehouseUnitByID()
  * DELETE /warehouse/{id} → archiveAWarehouseUnitByID()
  * POST /warehouse/{id}/replacement → replaceTheCurrentActiveWarehouse()
+ * POST /warehouse/transfer → transferStockBetweenWarehouses()
+ * POST /warehouse/lookup → lookUpWarehousesByBusinessUnitCodes()
  */
 @QuarkusTest
 public class WarehouseResourceImplTest {
@@ -44,6 +49,7 @@ public class WarehouseResourceImplTest {
   @Transactional
   public void setup() {
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
   }
 
   // ─── Helper: create a warehouse in its own committed transaction ───────────
@@ -340,4 +346,117 @@ public class WarehouseResourceImplTest {
         .then()
         .statusCode(400);
   }
+
+  // ─── POST /warehouse/transfer ────────────────────────────────────────────
+
+  @Test
+  public void testTransferStockSuccessfully() {
+    createWarehouse("XFER-001", "AMSTERDAM-001", 80, 20);
+    createWarehouse("XFER-002", "ZWOLLE-001", 30, 10);
+
+    given()
+        .contentType("application/json")
+        .body("""
+            [
+              {
+                "sourceBusinessUnitCode": "XFER-001",
+                "destinationBusinessUnitCode": "XFER-002",
+                "quantity": 15
+              }
+            ]
+            """)
+        .when().post(BASE + "/transfer")
+        .then()
+        .statusCode(200)
+        .body("find { it.businessUnitCode == 'XFER-001' }.stock", is(5))
+        .body("find { it.businessUnitCode == 'XFER-002' }.stock", is(25));
+  }
+
+  @Test
+  public void testTransferToNonExistentWarehouseReturns404() {
+    createWarehouse("XFER-003", "AMSTERDAM-001", 80, 20);
+
+    given()
+        .contentType("application/json")
+        .body("""
+            [
+              {
+                "sourceBusinessUnitCode": "XFER-003",
+                "destinationBusinessUnitCode": "NO-SUCH-CODE",
+                "quantity": 5
+              }
+            ]
+            """)
+        .when().post(BASE + "/transfer")
+        .then()
+        .statusCode(404);
+  }
+
+  @Test
+  public void testTransferOverCapacityReturns400AndLeavesStockUntouched() {
+    createWarehouse("XFER-004", "AMSTERDAM-001", 80, 50);
+    createWarehouse("XFER-005", "ZWOLLE-001", 30, 25);
+
+    given()
+        .contentType("application/json")
+        .body("""
+            [
+              {
+                "sourceBusinessUnitCode": "XFER-004",
+                "destinationBusinessUnitCode": "XFER-005",
+                "quantity": 10
+              }
+            ]
+            """)
+        .when().post(BASE + "/transfer")
+        .then()
+        .statusCode(400);
+
+    given()
+        .when().get(BASE + "/XFER-004")
+        .then()
+        .body("stock", is(50));
+  }
+
+  // ─── POST /warehouse/lookup ──────────────────────────────────────────────
+
+  @Test
+  public void testLookupPreservesRequestOrderAndReportsMissing() {
+    createWarehouse("LOOK-001", "AMSTERDAM-001", 50, 10);
+    createWarehouse("LOOK-002", "ZWOLLE-001", 30, 5);
+    createWarehouse("LOOK-003", "TILBURG-001", 40, 20);
+    archiveWarehouse("LOOK-003");
+
+    given()
+        .contentType("application/json")
+        .body("""
+            {"businessUnitCodes": ["LOOK-002", "NO-SUCH-CODE", "LOOK-003", "LOOK-001", "LOOK-002"]}
+            """)
+        .when().post(BASE + "/lookup")
+        .then()
+        .statusCode(200)
+        .body("warehouses.businessUnitCode", is(List.of("LOOK-002", "LOOK-003", "LOOK-001")))
+        .body("warehouses[1].archivedAt", notNullValue())
+        .body("missing", is(List.of("NO-SUCH-CODE")));
+  }
+
+  @Test
+  public void testLookupRejectsEmptyAndOversizedRequests() {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCodes\": []}")
+        .when().post(BASE + "/lookup")
+        .then()
+        .statusCode(400);
+
+    String tooMany = IntStream.rangeClosed(0, WarehouseResourceImpl.MAX_LOOKUP_CODES)
+        .mapToObj(i -> "\"CODE-" + i + "\"")
+        .collect(Collectors.joining(","));
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCodes\": [" + tooMany + "]}")
+        .when().post(BASE + "/lookup")
+        .then()
+        .statusCode(400);
+  }
 }
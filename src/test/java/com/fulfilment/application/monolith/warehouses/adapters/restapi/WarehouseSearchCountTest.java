@@ -0,0 +1,144 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.WarehouseSearchCounts;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FleetUtilizationStats;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * The count=exact|estimated|none option of GET /warehouse/search: totals in
+ * response headers, exact counts cached until a write that can change them.
+ */
+@QuarkusTest
+public class WarehouseSearchCountTest {
+
+  @Inject
+  WarehouseSearchCounts warehouseSearchCounts;
+
+  @Inject
+  FleetUtilizationStats fleetUtilizationStats;
+
+  @Inject
+  EntityManager em;
+
+  private static final String SEARCH = "/warehouse/search";
+
+  @BeforeEach
+  public void setup() {
+    // Bulk delete bypasses the change events, so reset what is derived from them
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+    warehouseSearchCounts.invalidate();
+    fleetUtilizationStats.rebuild();
+
+    create("COUNT-001", "AMSTERDAM-001", 30, 10);
+    create("COUNT-002", "AMSTERDAM-001", 20, 5);
+    create("COUNT-003", "AMSTERDAM-001", 10, 5);
+    create("COUNT-004", "ZWOLLE-001", 40, 20);
+  }
+
+  @Test
+  public void testExactCountCoversAllPages() {
+    given()
+        .queryParam("location", "AMSTERDAM-001")
+        .queryParam("minCapacity", 15)
+        .queryParam("pageSize", 1)
+        .queryParam("count", "exact")
+        .when().get(SEARCH)
+        .then()
+        .statusCode(200)
+        .header("X-Total-Count", "2")
+        .header("X-Total-Count-Accuracy", "exact")
+        .body("$.size()", is(1));
+  }
+
+  @Test
+  public void testExactCountCachedUntilAFilterRelevantWrite() {
+    assertExactTotal(4);
+
+    // A row written behind the API's back is not seen while the cache holds...
+    QuarkusTransaction.requiringNew().run(() -> {
+      DbWarehouse hidden = new DbWarehouse();
+      hidden.businessUnitCode = "COUNT-HIDDEN";
+      hidden.location = "TILBURG-001";
+      hidden.capacity = 10;
+      hidden.stock = 0;
+      hidden.createdAt = LocalDateTime.now();
+      em.persist(hidden);
+    });
+    assertExactTotal(4);
+
+    // ...a stock-only change keeps the cache...
+    given()
+        .contentType("application/json")
+        .body("[{\"sourceBusinessUnitCode\": \"COUNT-001\", "
+            + "\"destinationBusinessUnitCode\": \"COUNT-002\", \"quantity\": 1}]")
+        .when().post("/warehouse/transfer")
+        .then()
+        .statusCode(200);
+    assertExactTotal(4);
+
+    // ...and a create invalidates it
+    create("COUNT-005", "AMSTERDAM-002", 10, 0);
+    assertExactTotal(6);
+  }
+
+  @Test
+  public void testEstimatedCountFromFleetTotals() {
+    given()
+        .queryParam("location", "AMSTERDAM-001")
+        .queryParam("minCapacity", 25)
+        .queryParam("count", "estimated")
+        .when().get(SEARCH)
+        .then()
+        .statusCode(200)
+        .header("X-Total-Count", "3")
+        .header("X-Total-Count-Accuracy", "estimated")
+        .body("$.size()", is(1));
+  }
+
+  @Test
+  public void testNoCountByDefaultAndInvalidModeRejected() {
+    given()
+        .when().get(SEARCH)
+        .then()
+        .statusCode(200)
+        .header("X-Total-Count", nullValue());
+
+    given()
+        .queryParam("count", "approximate")
+        .when().get(SEARCH)
+        .then()
+        .statusCode(400);
+  }
+
+  private void assertExactTotal(int expected) {
+    given()
+        .queryParam("count", "exact")
+        .when().get(SEARCH)
+        .then()
+        .statusCode(200)
+        .header("X-Total-Count", String.valueOf(expected));
+  }
+
+  private void create(String buCode, String location, int capacity, int stock) {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"" + buCode + "\", \"location\": \"" + location
+            + "\", \"capacity\": " + capacity + ", \"stock\": " + stock + "}")
+        .when().post("/warehouse")
+        .then()
+        .statusCode(200);
+  }
+}
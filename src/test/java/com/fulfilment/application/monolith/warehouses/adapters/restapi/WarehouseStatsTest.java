@@ -0,0 +1,113 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.domain.ports.FleetUtilizationStats;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fleet utilization totals maintained through committed create, replace,
+ * transfer and archive calls, checked against a rebuild from the database.
+ */
+@QuarkusTest
+public class WarehouseStatsTest {
+
+  @Inject
+  FleetUtilizationStats fleetUtilizationStats;
+
+  @Inject
+  EntityManager em;
+
+  private static final String BASE = "/warehouse";
+
+  @BeforeEach
+  public void setup() {
+    // Bulk delete bypasses the change events, so rebuild the totals afterwards
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+    fleetUtilizationStats.rebuild();
+  }
+
+  @Test
+  public void testStatsFollowCommittedChanges() {
+    create("STATS-001", "AMSTERDAM-001", 100, 40);
+    create("STATS-002", "AMSTERDAM-001", 50, 10);
+    create("STATS-003", "ZWOLLE-001", 40, 20);
+
+    given()
+        .when().get(BASE + "/stats")
+        .then()
+        .statusCode(200)
+        .body("warehouseCount", is(3))
+        .body("totalCapacity", is(190))
+        .body("totalStock", is(70))
+        .body("locations.find { it.location == 'AMSTERDAM-001' }.warehouseCount", is(2))
+        .body("locations.find { it.location == 'AMSTERDAM-001' }.totalStock", is(50))
+        .body("locations.find { it.location == 'AMSTERDAM-001' }.utilization", is((float) (50.0 / 150)));
+
+    // Replace moves STATS-002 to another location
+    given()
+        .contentType("application/json")
+        .body("{\"location\": \"ZWOLLE-001\", \"capacity\": 30, \"stock\": 5}")
+        .when().post(BASE + "/STATS-002/replacement")
+        .then()
+        .statusCode(200);
+
+    // Archive removes STATS-003 from the totals
+    given().when().delete(BASE + "/STATS-003").then().statusCode(204);
+
+    given()
+        .when().get(BASE + "/stats")
+        .then()
+        .statusCode(200)
+        .body("warehouseCount", is(2))
+        .body("totalCapacity", is(130))
+        .body("totalStock", is(45))
+        .body("locations.find { it.location == 'ZWOLLE-001' }.warehouseCount", is(1))
+        .body("locations.find { it.location == 'ZWOLLE-001' }.totalCapacity", is(30));
+  }
+
+  @Test
+  public void testMaintainedTotalsMatchRebuild() {
+    create("STATS-R-001", "AMSTERDAM-001", 100, 40);
+    create("STATS-R-002", "ZWOLLE-001", 40, 0);
+    given()
+        .contentType("application/json")
+        .body("""
+            [{"sourceBusinessUnitCode": "STATS-R-001", "destinationBusinessUnitCode": "STATS-R-002", "quantity": 15}]
+            """)
+        .when().post(BASE + "/transfer")
+        .then()
+        .statusCode(200);
+
+    var maintained = fleetUtilizationStats.current();
+
+    given()
+        .when().post(BASE + "/stats/rebuild")
+        .then()
+        .statusCode(200)
+        .body("warehouseCount", is(2))
+        .body("totalStock", is(40));
+
+    assertEquals(maintained, fleetUtilizationStats.current());
+  }
+
+  private void create(String buCode, String location, int capacity, int stock) {
+    given()
+        .contentType("application/json")
+        .body("{\"businessUnitCode\": \"" + buCode + "\", \"location\": \"" + location
+            + "\", \"capacity\": " + capacity + ", \"stock\": " + stock + "}")
+        .when().post(BASE)
+        .then()
+        .statusCode(200);
+  }
+}
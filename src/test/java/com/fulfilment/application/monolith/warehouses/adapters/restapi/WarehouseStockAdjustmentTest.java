@@ -0,0 +1,174 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntUnaryOperator;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * POST /warehouse/{code}/stock-adjustments: the new stock or the precise
+ * reason for a refusal, and concurrent adjustments of one warehouse that all
+ * go through without a version conflict while stock stays within 0..capacity.
+ * A missing stock or capacity counts as 0.
+ */
+@QuarkusTest
+public class WarehouseStockAdjustmentTest {
+
+  @Inject
+  EntityManager em;
+
+  @Test
+  public void testAdjustmentReturnsNewStockOrReason() {
+    warehouse("ADJUST.ONE", 50, 10, false);
+
+    adjust("ADJUST.ONE", 15)
+        .then()
+        .statusCode(200)
+        .body("outcome", is("APPLIED"))
+        .body("stock", is(25))
+        .body("capacity", is(50))
+        .body("reason", nullValue());
+    adjust("ADJUST.ONE", -25).then().statusCode(200).body("stock", is(0));
+
+    adjust("ADJUST.ONE", -1)
+        .then()
+        .statusCode(409)
+        .body("outcome", is("INSUFFICIENT_STOCK"))
+        .body("stock", is(0))
+        .body("reason", containsString("insufficient stock (0) to remove 1"));
+    adjust("ADJUST.ONE", 51)
+        .then()
+        .statusCode(409)
+        .body("outcome", is("EXCEEDS_CAPACITY"))
+        .body("reason", containsString("exceeds warehouse capacity (50)"));
+
+    warehouse("ADJUST.OLD", 50, 10, true);
+    adjust("ADJUST.OLD", 1).then().statusCode(409).body("outcome", is("ARCHIVED"));
+    adjust("ADJUST.NONE", 1).then().statusCode(404).body("outcome", is("NOT_FOUND"));
+    adjust("ADJUST.ONE", 0).then().statusCode(400);
+    given()
+        .contentType("application/json")
+        .body("{}")
+        .when().post("/warehouse/ADJUST.ONE/stock-adjustments")
+        .then().statusCode(400);
+
+    // Two applied adjustments, two versions; refusals leave no trace
+    assertEquals(2L, stored("ADJUST.ONE").version);
+    assertEquals(0, stored("ADJUST.ONE").stock);
+  }
+
+  @Test
+  public void testMissingStockOrCapacityCountsAsZero() {
+    warehouse("ADJUST.BLANK", null, null, false);
+    adjust("ADJUST.BLANK", 1)
+        .then()
+        .statusCode(409)
+        .body("outcome", is("EXCEEDS_CAPACITY"))
+        .body("stock", is(0))
+        .body("capacity", is(0));
+    adjust("ADJUST.BLANK", -1).then().statusCode(409).body("outcome", is("INSUFFICIENT_STOCK"));
+
+    warehouse("ADJUST.EMPTY", 50, null, false);
+    adjust("ADJUST.EMPTY", 5).then().statusCode(200).body("stock", is(5));
+    assertEquals(5, stored("ADJUST.EMPTY").stock);
+  }
+
+  @Test
+  public void testConcurrentAdjustmentsNeverConflict() throws Exception {
+    warehouse("ADJUST.HOT", 1000, 0, false);
+    List<Integer> statuses = hammer("ADJUST.HOT", 8, 25, i -> 1);
+
+    assertTrue(statuses.stream().allMatch(status -> status == 200), "statuses: " + statuses);
+    assertEquals(200, stored("ADJUST.HOT").stock);
+    assertEquals(200L, stored("ADJUST.HOT").version);
+  }
+
+  @Test
+  public void testConcurrentAdjustmentsStayWithinCapacity() throws Exception {
+    warehouse("ADJUST.TIGHT", 20, 10, false);
+    // Receipts of 3 and shipments of 2: many are refused at either bound
+    List<Integer> statuses = hammer("ADJUST.TIGHT", 8, 25, i -> i % 2 == 0 ? 3 : -2);
+
+    long applied = statuses.stream().filter(status -> status == 200).count();
+    assertTrue(statuses.stream().allMatch(status -> status == 200 || status == 409), "statuses: " + statuses);
+    DbWarehouse tight = stored("ADJUST.TIGHT");
+    assertTrue(tight.stock >= 0 && tight.stock <= 20, "stock " + tight.stock);
+    assertEquals(applied, tight.version);
+  }
+
+  // Helper methods
+
+  private List<Integer> hammer(String code, int threads, int perThread, IntUnaryOperator delta)
+      throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<List<Integer>>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        tasks.add(() -> {
+          List<Integer> statuses = new ArrayList<>();
+          for (int i = 0; i < perThread; i++) {
+            Response response = adjust(code, delta.applyAsInt(i));
+            // A 409 must be a refusal with its reason, never a version conflict
+            if (response.statusCode() == 409) {
+              assertNotNull(response.jsonPath().getString("outcome"), response.asString());
+            }
+            statuses.add(response.statusCode());
+          }
+          return statuses;
+        });
+      }
+      List<Integer> statuses = new ArrayList<>();
+      for (Future<List<Integer>> result : clients.invokeAll(tasks)) {
+        statuses.addAll(result.get());
+      }
+      return statuses;
+    } finally {
+      clients.shutdown();
+    }
+  }
+
+  private static Response adjust(String code, int delta) {
+    return given()
+        .contentType("application/json")
+        .body("{\"delta\": " + delta + "}")
+        .when().post("/warehouse/" + code + "/stock-adjustments");
+  }
+
+  private void warehouse(String code, Integer capacity, Integer stock, boolean archived) {
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse w WHERE w.businessUnitCode = :code")
+          .setParameter("code", code)
+          .executeUpdate();
+      DbWarehouse warehouse = new DbWarehouse();
+      warehouse.businessUnitCode = code;
+      warehouse.location = "AMSTERDAM-002";
+      warehouse.capacity = capacity;
+      warehouse.stock = stock;
+      warehouse.createdAt = LocalDateTime.now();
+      warehouse.archivedAt = archived ? LocalDateTime.now() : null;
+      em.persist(warehouse);
+    });
+  }
+
+  private DbWarehouse stored(String code) {
+    return QuarkusTransaction.requiringNew().call(() -> em
+        .createQuery("SELECT w FROM DbWarehouse w WHERE w.businessUnitCode = :code", DbWarehouse.class)
+        .setParameter("code", code)
+        .getSingleResult());
+  }
+}
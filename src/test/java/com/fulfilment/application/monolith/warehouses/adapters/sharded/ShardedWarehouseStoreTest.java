@@ -0,0 +1,245 @@
+package com.fulfilment.application.monolith.warehouses.adapters.sharded;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Warehouse API over two in-memory H2 shards: warehouses land on their
+ * location's shard, codes stay unique across shards, searches without a
+ * location merge both shards in order, a transfer across shards commits on
+ * both, and a location moved to the other shard keeps its warehouses
+ * reachable and takes new ones there. Removing a warehouse deletes its row
+ * and frees its code.
+ *
+ * AMSTERDAM-001 and EINDHOVEN-001 hash to shard0, ZWOLLE-001 and
+ * AMSTERDAM-002 to shard1.
+ */
+@QuarkusTest
+@TestProfile(ShardedWarehouseStoreTest.TwoShards.class)
+public class ShardedWarehouseStoreTest {
+
+  public static class TwoShards implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      Map<String, String> config = new HashMap<>();
+      config.put("warehouse.sharding.enabled", "true");
+      config.put("warehouse.sharding.shards", "shard0,shard1");
+      for (String shard : List.of("shard0", "shard1")) {
+        config.put("quarkus.datasource." + shard + ".db-kind", "h2");
+        config.put("quarkus.datasource." + shard + ".jdbc.url", "jdbc:h2:mem:test-" + shard + ";DB_CLOSE_DELAY=-1");
+        config.put("quarkus.datasource." + shard + ".jdbc.transactions", "xa");
+        config.put("quarkus.datasource." + shard + ".devservices.enabled", "false");
+        config.put("quarkus.flyway." + shard + ".migrate-at-start", "true");
+        config.put("quarkus.flyway." + shard + ".locations", "db/migration/shard");
+        config.put("quarkus.flyway." + shard + ".clean-at-start", "true");
+      }
+      return config;
+    }
+  }
+
+  // Instance: test classes are beans in every test profile, and the shards
+  // only exist in this one
+  @Inject
+  Instance<WarehouseShards> shards;
+
+  @Inject
+  Instance<ShardedWarehouseStore> store;
+
+  @Inject
+  EntityManager em;
+
+  @BeforeEach
+  public void setup() throws SQLException {
+    for (String shard : shards.get().names()) {
+      try (Connection connection = shards.get().dataSource(shard).getConnection();
+          Statement statement = connection.createStatement()) {
+        statement.execute("DELETE FROM warehouse");
+      }
+    }
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouseShardEntry").executeUpdate();
+      em.createQuery("DELETE FROM DbLocationShard").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+  }
+
+  @Test
+  public void testWarehousesLandOnTheirLocationsShard() throws SQLException {
+    create("SHARD.A1", "AMSTERDAM-001", 90, 10);
+    create("SHARD.Z1", "ZWOLLE-001", 40, 5);
+
+    assertEquals(List.of("SHARD.A1"), codesOn("shard0"));
+    assertEquals(List.of("SHARD.Z1"), codesOn("shard1"));
+    given().when().get("/warehouse/SHARD.Z1").then().statusCode(200).body("location", is("ZWOLLE-001"));
+
+    // Same code at a location of the other shard: the directory refuses it
+    given().contentType("application/json")
+        .body(warehouse("SHARD.A1", "ZWOLLE-001", 30, 0))
+        .when().post("/warehouse")
+        .then().statusCode(400).body(containsString("already exists"));
+    assertEquals(List.of("SHARD.A1"), codesOn("shard0"));
+    assertEquals(List.of("SHARD.Z1"), codesOn("shard1"));
+  }
+
+  @Test
+  public void testSearchMergesShardsInOrder() {
+    create("SHARD.A90", "AMSTERDAM-001", 90, 0);
+    create("SHARD.A50", "AMSTERDAM-001", 50, 0);
+    create("SHARD.A10", "AMSTERDAM-001", 10, 0);
+    create("SHARD.E60", "EINDHOVEN-001", 60, 0);
+    create("SHARD.Z40", "ZWOLLE-001", 40, 0);
+    create("SHARD.Z20", "ZWOLLE-001", 20, 0);
+    create("SHARD.B70", "AMSTERDAM-002", 70, 0);
+    create("SHARD.B30", "AMSTERDAM-002", 30, 0);
+
+    assertEquals(List.of(90, 70, 60), capacities(0));
+    assertEquals(List.of(50, 40, 30), capacities(1));
+    assertEquals(List.of(20, 10), capacities(2));
+
+    given().queryParam("location", "ZWOLLE-001")
+        .when().get("/warehouse/search")
+        .then().statusCode(200).body("businessUnitCode", containsInAnyOrder("SHARD.Z40", "SHARD.Z20"));
+    given().when().get("/warehouse").then().statusCode(200).body("size()", is(8));
+  }
+
+  @Test
+  public void testTransferAcrossShardsCommitsOnBoth() {
+    create("SHARD.SRC", "AMSTERDAM-001", 90, 50);
+    create("SHARD.DST", "ZWOLLE-001", 40, 5);
+
+    given().contentType("application/json")
+        .body("[{\"sourceBusinessUnitCode\": \"SHARD.SRC\", \"destinationBusinessUnitCode\": \"SHARD.DST\","
+            + " \"quantity\": 20}]")
+        .when().post("/warehouse/transfer")
+        .then().statusCode(200);
+
+    given().when().get("/warehouse/SHARD.SRC").then().body("stock", is(30));
+    given().when().get("/warehouse/SHARD.DST").then().body("stock", is(25));
+
+    // Over the destination's capacity: neither shard changes
+    given().contentType("application/json")
+        .body("[{\"sourceBusinessUnitCode\": \"SHARD.SRC\", \"destinationBusinessUnitCode\": \"SHARD.DST\","
+            + " \"quantity\": 30}]")
+        .when().post("/warehouse/transfer")
+        .then().statusCode(400);
+    given().when().get("/warehouse/SHARD.SRC").then().body("stock", is(30));
+    given().when().get("/warehouse/SHARD.DST").then().body("stock", is(25));
+
+    // Guarded adjustments run on the shard holding the warehouse
+    given().contentType("application/json").body("{\"delta\": -30}")
+        .when().post("/warehouse/SHARD.SRC/stock-adjustments")
+        .then().statusCode(200).body("stock", is(0));
+    given().contentType("application/json").body("{\"delta\": -1}")
+        .when().post("/warehouse/SHARD.SRC/stock-adjustments")
+        .then().statusCode(409).body("outcome", is("INSUFFICIENT_STOCK"));
+  }
+
+  @Test
+  public void testMovedLocationStaysReachableAndTakesNewWarehouses() throws SQLException {
+    create("SHARD.M1", "AMSTERDAM-001", 60, 10);
+    create("SHARD.M2", "AMSTERDAM-001", 40, 10);
+    create("SHARD.STAY", "EINDHOVEN-001", 50, 10);
+
+    given().queryParam("to", "shard1")
+        .when().post("/admin/shards/locations/AMSTERDAM-001")
+        .then()
+        .statusCode(200)
+        .body("from", is("shard0"))
+        .body("to", is("shard1"))
+        .body("warehouses", is(2));
+
+    assertEquals(List.of("SHARD.STAY"), codesOn("shard0"));
+    assertEquals(List.of("SHARD.M1", "SHARD.M2"), codesOn("shard1"));
+    given().when().get("/warehouse/SHARD.M1").then().statusCode(200).body("capacity", is(60));
+    given().contentType("application/json")
+        .body(warehouse("SHARD.M1", "AMSTERDAM-001", 70, 15))
+        .when().post("/warehouse/SHARD.M1/replacement")
+        .then().statusCode(200).body("capacity", is(70));
+
+    create("SHARD.M3", "AMSTERDAM-001", 20, 0);
+    assertEquals(List.of("SHARD.M1", "SHARD.M2", "SHARD.M3"), codesOn("shard1"));
+
+    given().when().get("/admin/shards")
+        .then()
+        .statusCode(200)
+        .body("find { it.shard == 'shard0' }.activeWarehouses", is(1))
+        .body("find { it.shard == 'shard1' }.activeWarehouses", is(3))
+        .body("find { it.shard == 'shard1' }.locations", hasItem("AMSTERDAM-001"));
+    given().queryParam("to", "shard9")
+        .when().post("/admin/shards/locations/AMSTERDAM-001")
+        .then().statusCode(400);
+  }
+
+  @Test
+  public void testRemoveDeletesTheRowAndReleasesTheCode() throws SQLException {
+    create("SHARD.R1", "ZWOLLE-001", 40, 5);
+    create("SHARD.R2", "ZWOLLE-001", 30, 0);
+
+    QuarkusTransaction.requiringNew().run(() ->
+        store.get().remove(store.get().findByBusinessUnitCode("SHARD.R1")));
+
+    assertEquals(List.of("SHARD.R2"), codesOn("shard1"));
+    given().when().get("/warehouse/SHARD.R1").then().statusCode(404);
+    assertFalse(QuarkusTransaction.requiringNew().call(() -> store.get().getAllBusinessUnitCodes())
+        .contains("SHARD.R1"));
+
+    var unknown = new Warehouse();
+    unknown.businessUnitCode = "SHARD.NONE";
+    assertThrows(IllegalArgumentException.class,
+        () -> QuarkusTransaction.requiringNew().run(() -> store.get().remove(unknown)));
+  }
+
+  // Helper methods
+
+  private static void create(String code, String location, int capacity, int stock) {
+    given().contentType("application/json")
+        .body(warehouse(code, location, capacity, stock))
+        .when().post("/warehouse")
+        .then().statusCode(200);
+  }
+
+  private static String warehouse(String code, String location, int capacity, int stock) {
+    return "{\"businessUnitCode\": \"" + code + "\", \"location\": \"" + location
+        + "\", \"capacity\": " + capacity + ", \"stock\": " + stock + "}";
+  }
+
+  private static List<Integer> capacities(int page) {
+    return given()
+        .queryParam("sortBy", "capacity").queryParam("sortOrder", "desc")
+        .queryParam("page", page).queryParam("pageSize", 3)
+        .when().get("/warehouse/search")
+        .then().statusCode(200)
+        .extract().jsonPath().getList("capacity", Integer.class);
+  }
+
+  private List<String> codesOn(String shard) throws SQLException {
+    try (Connection connection = shards.get().dataSource(shard).getConnection();
+        Statement statement = connection.createStatement();
+        var rows = statement.executeQuery("SELECT businessUnitCode FROM warehouse ORDER BY businessUnitCode")) {
+      List<String> codes = new ArrayList<>();
+      while (rows.next()) {
+        codes.add(rows.getString(1));
+      }
+      return codes;
+    }
+  }
+}
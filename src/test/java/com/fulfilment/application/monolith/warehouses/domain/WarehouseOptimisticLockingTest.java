@@ -32,6 +32,7 @@ public class WarehouseOptimisticLockingTest {
   public void setup() {
     // Clean slate
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
     
     // Create a warehouse
     DbWarehouse warehouse = new DbWarehouse();
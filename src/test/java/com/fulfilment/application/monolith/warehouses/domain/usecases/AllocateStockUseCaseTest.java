@@ -0,0 +1,172 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.Allocation;
+import com.fulfilment.application.monolith.warehouses.domain.models.AllocationPlan;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.FreeCapacityIndex;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Allocate Stock use case.
+ *
+ * Warehouses are created in committed transactions so the free capacity
+ * index is maintained through the same AFTER_SUCCESS events as in production.
+ */
+@QuarkusTest
+public class AllocateStockUseCaseTest {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  LocationGateway locationResolver;
+
+  @Inject
+  FreeCapacityIndex freeCapacityIndex;
+
+  @Inject
+  StockCounter stockCounter;
+
+  @Inject
+  EntityManager em;
+
+  private AllocateStockUseCase allocateStockUseCase;
+
+  @BeforeEach
+  public void setup() {
+    // Bulk delete bypasses the change events, so rebuild the index afterwards
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+    freeCapacityIndex.rebuild();
+
+    allocateStockUseCase =
+        new AllocateStockUseCase(warehouseRepository, locationResolver, freeCapacityIndex, stockCounter);
+  }
+
+  @Test
+  public void testPlanTakesLargestFreeCapacityFirst() {
+    createWarehouse("ALLOC-001", "AMSTERDAM-001", 100, 90); // free 10
+    createWarehouse("ALLOC-002", "AMSTERDAM-001", 100, 40); // free 60
+    createWarehouse("ALLOC-003", "ZWOLLE-001", 40, 10);     // free 30
+
+    AllocationPlan plan = allocateStockUseCase.plan(70, null);
+
+    assertTrue(plan.isComplete());
+    assertEquals(List.of(
+        new Allocation("ALLOC-002", "AMSTERDAM-001", 60),
+        new Allocation("ALLOC-003", "ZWOLLE-001", 10)), plan.allocations());
+  }
+
+  @Test
+  public void testPlanFillsPreferredLocationFirst() {
+    createWarehouse("PREF-001", "AMSTERDAM-001", 100, 0); // free 100
+    createWarehouse("PREF-002", "ZWOLLE-001", 40, 20);    // free 20
+
+    AllocationPlan plan = allocateStockUseCase.plan(30, "ZWOLLE-001");
+
+    assertEquals(List.of(
+        new Allocation("PREF-002", "ZWOLLE-001", 20),
+        new Allocation("PREF-001", "AMSTERDAM-001", 10)), plan.allocations());
+  }
+
+  @Test
+  public void testPlanIsPartialWhenFleetIsFull() {
+    createWarehouse("PARTIAL-001", "AMSTERDAM-001", 50, 45);
+    createWarehouse("PARTIAL-002", "ZWOLLE-001", 30, 30);
+
+    AllocationPlan plan = allocateStockUseCase.plan(20, null);
+
+    assertFalse(plan.isComplete());
+    assertEquals(5, plan.allocatedQuantity());
+    assertEquals(1, plan.allocations().size());
+  }
+
+  @Test
+  public void testPlanRejectsInvalidInput() {
+    IllegalArgumentException quantity = assertThrows(IllegalArgumentException.class,
+        () -> allocateStockUseCase.plan(0, null));
+    assertTrue(quantity.getMessage().contains("positive"));
+
+    IllegalArgumentException location = assertThrows(IllegalArgumentException.class,
+        () -> allocateStockUseCase.plan(10, "INVALID-LOCATION"));
+    assertTrue(location.getMessage().contains("not valid"));
+  }
+
+  @Test
+  public void testCommitAppliesPlanAndUpdatesIndex() {
+    createWarehouse("COMMIT-001", "AMSTERDAM-001", 100, 40);
+    createWarehouse("COMMIT-002", "ZWOLLE-001", 40, 0);
+
+    QuarkusTransaction.requiringNew().run(() -> allocateStockUseCase.commit(80, null));
+
+    assertEquals(100, warehouseRepository.findByBusinessUnitCode("COMMIT-001").stock);
+    assertEquals(20, warehouseRepository.findByBusinessUnitCode("COMMIT-002").stock);
+
+    // COMMIT-001 is now full and must no longer be offered
+    AllocationPlan next = allocateStockUseCase.plan(100, null);
+    assertEquals(List.of(new Allocation("COMMIT-002", "ZWOLLE-001", 20)), next.allocations());
+  }
+
+  @Test
+  public void testCommitRejectsIncompletePlan() {
+    createWarehouse("SHORT-001", "ZWOLLE-001", 40, 35);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> QuarkusTransaction.requiringNew().run(() -> allocateStockUseCase.commit(10, null)));
+    assertTrue(ex.getMessage().contains("Insufficient free capacity"));
+    assertEquals(35, warehouseRepository.findByBusinessUnitCode("SHORT-001").stock);
+  }
+
+  @Test
+  public void testMissingStockCountsAsZero() {
+    createWarehouse("NULL-ALLOC-001", "ZWOLLE-001", 40, null);
+
+    assertEquals(List.of(new Allocation("NULL-ALLOC-001", "ZWOLLE-001", 40)),
+        allocateStockUseCase.plan(40, null).allocations());
+
+    QuarkusTransaction.requiringNew().run(() -> allocateStockUseCase.commit(25, null));
+    assertEquals(25, warehouseRepository.findByBusinessUnitCode("NULL-ALLOC-001").stock);
+  }
+
+  @Test
+  public void testArchivedWarehousesAreRemovedFromIndex() {
+    createWarehouse("ARCH-ALLOC-001", "AMSTERDAM-001", 100, 0);
+
+    QuarkusTransaction.requiringNew().run(() -> {
+      Warehouse warehouse = warehouseRepository.findByBusinessUnitCode("ARCH-ALLOC-001");
+      warehouse.archivedAt = LocalDateTime.now();
+      warehouseRepository.update(warehouse);
+    });
+
+    assertEquals(0, allocateStockUseCase.plan(10, null).allocatedQuantity());
+  }
+
+  // Helper methods
+
+  void createWarehouse(String businessUnitCode, String location, int capacity, Integer stock) {
+    QuarkusTransaction.requiringNew().run(() -> {
+      Warehouse warehouse = new Warehouse();
+      warehouse.businessUnitCode = businessUnitCode;
+      warehouse.location = location;
+      warehouse.capacity = capacity;
+      warehouse.stock = stock;
+      warehouse.createdAt = LocalDateTime.now();
+      warehouseRepository.create(warehouse);
+    });
+  }
+}
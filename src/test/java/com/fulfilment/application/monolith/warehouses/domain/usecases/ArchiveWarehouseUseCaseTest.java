@@ -42,6 +42,7 @@ public class ArchiveWarehouseUseCaseTest {
   public void setup() {
     // Clean slate
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
   }
 
   /**
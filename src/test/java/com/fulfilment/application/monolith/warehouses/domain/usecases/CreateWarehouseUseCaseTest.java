@@ -1,3 +1,108 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
-public class CreateWarehouseUseCaseTest {}
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.BusinessUnitCodeFilterStats;
+import com.fulfilment.application.monolith.warehouses.adapters.inmemory.InMemoryBusinessUnitCodeFilter;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Create Warehouse use case's uniqueness check.
+ *
+ * New codes skip the lookup through the business unit code filter, known codes
+ * are still looked up and refused, and a code the filter has never seen is
+ * refused by the unique constraint with the same error.
+ */
+@QuarkusTest
+public class CreateWarehouseUseCaseTest {
+
+  @Inject
+  CreateWarehouseUseCase createWarehouseUseCase;
+
+  @Inject
+  InMemoryBusinessUnitCodeFilter businessUnitCodeFilter;
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  EntityManager em;
+
+  @BeforeEach
+  public void setup() {
+    QuarkusTransaction.requiringNew().run(() -> {
+      em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+      em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    });
+  }
+
+  @Test
+  public void testNewCodeSkipsTheLookup() {
+    BusinessUnitCodeFilterStats before = businessUnitCodeFilter.stats();
+
+    create("BLOOM-NEW-001");
+
+    BusinessUnitCodeFilterStats after = businessUnitCodeFilter.stats();
+    assertTrue(after.enabled());
+    assertEquals(before.selectsSaved() + 1, after.selectsSaved());
+    assertEquals(before.codes() + 1, after.codes());
+    assertNotNull(warehouseRepository.findByBusinessUnitCode("BLOOM-NEW-001"));
+  }
+
+  @Test
+  public void testKnownCodeIsLookedUpAndRefused() {
+    create("BLOOM-DUP-001");
+    long savedBefore = businessUnitCodeFilter.stats().selectsSaved();
+
+    IllegalArgumentException duplicate =
+        assertThrows(IllegalArgumentException.class, () -> create("BLOOM-DUP-001"));
+
+    assertTrue(duplicate.getMessage().contains("already exists"));
+    assertEquals(savedBefore, businessUnitCodeFilter.stats().selectsSaved());
+  }
+
+  @Test
+  public void testCodeUnknownToTheFilterIsRefusedByTheConstraint() {
+    // Written without going through the store, so no event reaches the filter
+    QuarkusTransaction.requiringNew().run(() -> {
+      DbWarehouse behindItsBack = new DbWarehouse();
+      behindItsBack.businessUnitCode = "BLOOM-HIDDEN-001";
+      behindItsBack.location = "AMSTERDAM-001";
+      behindItsBack.capacity = 10;
+      behindItsBack.stock = 0;
+      behindItsBack.createdAt = LocalDateTime.now();
+      em.persist(behindItsBack);
+    });
+    assertFalse(businessUnitCodeFilter.mightExist("BLOOM-HIDDEN-001"));
+
+    IllegalArgumentException duplicate =
+        assertThrows(IllegalArgumentException.class, () -> create("BLOOM-HIDDEN-001"));
+
+    assertTrue(duplicate.getMessage().contains("already exists"));
+    assertEquals(1, QuarkusTransaction.requiringNew().call(() -> em
+        .createQuery("SELECT COUNT(w) FROM DbWarehouse w WHERE w.businessUnitCode = 'BLOOM-HIDDEN-001'",
+            Long.class)
+        .getSingleResult()));
+  }
+
+  // Helper methods
+
+  private void create(String businessUnitCode) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    warehouse.location = "AMSTERDAM-001";
+    warehouse.capacity = 50;
+    warehouse.stock = 10;
+    QuarkusTransaction.requiringNew().run(() -> createWarehouseUseCase.create(warehouse));
+  }
+}
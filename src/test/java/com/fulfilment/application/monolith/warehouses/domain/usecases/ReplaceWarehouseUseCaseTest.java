@@ -4,6 +4,7 @@ import com.fulfilment.application.monolith.location.LocationGateway;
 import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
 import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -40,6 +41,9 @@ public class ReplaceWarehouseUseCaseTest {
   @Inject
   LocationGateway locationResolver;
 
+  @Inject
+  StockCounter stockCounter;
+
   @Inject
   EntityManager em;
 
@@ -50,9 +54,10 @@ public class ReplaceWarehouseUseCaseTest {
   public void setup() {
     // Clean slate
     em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
 
     // Initialize use case
-    replaceWarehouseUseCase = new ReplaceWarehouseUseCase(warehouseRepository, locationResolver);
+    replaceWarehouseUseCase = new ReplaceWarehouseUseCase(warehouseRepository, locationResolver, stockCounter);
   }
 
   /**
@@ -0,0 +1,214 @@
+package com.fulfilment.application.monolith.warehouses.domain.usecases;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseRepository;
+import com.fulfilment.application.monolith.warehouses.domain.models.StockTransfer;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.StockCounter;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Transfer Stock use case.
+ *
+ * Covers single and multi-leg transfers, all-or-nothing validation, and
+ * concurrent opposite-direction transfers (ordered locking).
+ */
+@QuarkusTest
+public class TransferStockUseCaseTest {
+
+  @Inject
+  WarehouseRepository warehouseRepository;
+
+  @Inject
+  StockCounter stockCounter;
+
+  @Inject
+  EntityManager em;
+
+  private TransferStockUseCase transferStockUseCase;
+
+  @BeforeEach
+  @Transactional
+  public void setup() {
+    em.createQuery("DELETE FROM DbWarehouse").executeUpdate();
+    em.createQuery("DELETE FROM DbWarehouseHistory").executeUpdate();
+    transferStockUseCase = new TransferStockUseCase(warehouseRepository, stockCounter);
+  }
+
+  @Test
+  @Transactional
+  public void testTransferMovesStockBetweenWarehouses() {
+    createWarehouse("TRANSFER-A", "AMSTERDAM-001", 100, 40);
+    createWarehouse("TRANSFER-B", "ZWOLLE-001", 40, 10);
+
+    List<Warehouse> updated = transferStockUseCase.transfer(
+        List.of(new StockTransfer("TRANSFER-A", "TRANSFER-B", 25)));
+
+    assertEquals(2, updated.size());
+    assertEquals(15, warehouseRepository.findByBusinessUnitCode("TRANSFER-A").stock);
+    assertEquals(35, warehouseRepository.findByBusinessUnitCode("TRANSFER-B").stock);
+  }
+
+  @Test
+  @Transactional
+  public void testMultiLegTransferAppliesLegsInOrder() {
+    createWarehouse("LEG-A", "AMSTERDAM-001", 100, 30);
+    createWarehouse("LEG-B", "ZWOLLE-001", 40, 0);
+    createWarehouse("LEG-C", "TILBURG-001", 40, 0);
+
+    // LEG-B starts empty: the second leg is only valid after the first one
+    transferStockUseCase.transfer(List.of(
+        new StockTransfer("LEG-A", "LEG-B", 20),
+        new StockTransfer("LEG-B", "LEG-C", 15)));
+
+    assertEquals(10, warehouseRepository.findByBusinessUnitCode("LEG-A").stock);
+    assertEquals(5, warehouseRepository.findByBusinessUnitCode("LEG-B").stock);
+    assertEquals(15, warehouseRepository.findByBusinessUnitCode("LEG-C").stock);
+  }
+
+  @Test
+  @Transactional
+  public void testTransferRejectsInsufficientSourceStock() {
+    createWarehouse("SHORT-A", "AMSTERDAM-001", 100, 5);
+    createWarehouse("SHORT-B", "ZWOLLE-001", 40, 0);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("SHORT-A", "SHORT-B", 6))));
+    assertTrue(ex.getMessage().contains("insufficient stock"));
+  }
+
+  @Test
+  @Transactional
+  public void testTransferRejectsDestinationOverCapacity() {
+    createWarehouse("FULL-A", "AMSTERDAM-001", 100, 50);
+    createWarehouse("FULL-B", "ZWOLLE-001", 30, 25);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("FULL-A", "FULL-B", 10))));
+    assertTrue(ex.getMessage().contains("exceeds warehouse capacity"));
+  }
+
+  @Test
+  @Transactional
+  public void testMissingStockCountsAsZero() {
+    createWarehouse("EMPTY-A", "AMSTERDAM-001", 100, null);
+    createWarehouse("EMPTY-B", "ZWOLLE-001", 40, null);
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("EMPTY-A", "EMPTY-B", 1))));
+    assertTrue(ex.getMessage().contains("insufficient stock (0)"));
+
+    createWarehouse("STOCKED-C", "TILBURG-001", 100, 30);
+    transferStockUseCase.transfer(List.of(new StockTransfer("STOCKED-C", "EMPTY-B", 10)));
+    assertEquals(10, warehouseRepository.findByBusinessUnitCode("EMPTY-B").stock);
+  }
+
+  @Test
+  @Transactional
+  public void testTransferRejectsUnknownAndArchivedWarehouses() {
+    createWarehouse("KNOWN-A", "AMSTERDAM-001", 100, 50);
+    createWarehouse("ARCHIVED-B", "ZWOLLE-001", 30, 0);
+    Warehouse archived = warehouseRepository.findByBusinessUnitCode("ARCHIVED-B");
+    archived.archivedAt = LocalDateTime.now();
+    warehouseRepository.update(archived);
+
+    IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("KNOWN-A", "NO-SUCH", 1))));
+    assertTrue(missing.getMessage().contains("does not exist"));
+
+    IllegalArgumentException inactive = assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("KNOWN-A", "ARCHIVED-B", 1))));
+    assertTrue(inactive.getMessage().contains("archived"));
+  }
+
+  @Test
+  @Transactional
+  public void testTransferRejectsInvalidLegs() {
+    assertThrows(IllegalArgumentException.class, () -> transferStockUseCase.transfer(List.of()));
+    assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("SAME", "SAME", 1))));
+    assertThrows(IllegalArgumentException.class,
+        () -> transferStockUseCase.transfer(List.of(new StockTransfer("A", "B", 0))));
+  }
+
+  /**
+   * Opposite-direction transfers on the same pair of warehouses. Without
+   * ordered locking, A→B and B→A can each hold one row lock and wait for the
+   * other. With ordered locking every transfer completes and stock is conserved.
+   */
+  @Test
+  public void testConcurrentOppositeTransfersDoNotDeadlock() throws InterruptedException {
+    createWarehouseInNewTransaction("DEADLOCK-A", "AMSTERDAM-001", 100, 50);
+    createWarehouseInNewTransaction("DEADLOCK-B", "AMSTERDAM-001", 100, 50);
+
+    int rounds = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch startLatch = new CountDownLatch(1);
+    CountDownLatch finishLatch = new CountDownLatch(rounds * 2);
+    AtomicInteger failures = new AtomicInteger();
+
+    for (int i = 0; i < rounds; i++) {
+      executor.submit(() -> runTransfer(startLatch, finishLatch, failures, "DEADLOCK-A", "DEADLOCK-B"));
+      executor.submit(() -> runTransfer(startLatch, finishLatch, failures, "DEADLOCK-B", "DEADLOCK-A"));
+    }
+
+    startLatch.countDown();
+    assertTrue(finishLatch.await(30, TimeUnit.SECONDS), "Transfers did not finish in time");
+    executor.shutdown();
+
+    assertEquals(0, failures.get(), "No transfer should fail or deadlock");
+    int a = warehouseRepository.findByBusinessUnitCode("DEADLOCK-A").stock;
+    int b = warehouseRepository.findByBusinessUnitCode("DEADLOCK-B").stock;
+    assertEquals(50, a);
+    assertEquals(50, b);
+  }
+
+  // Helper methods
+
+  private void runTransfer(CountDownLatch startLatch, CountDownLatch finishLatch,
+      AtomicInteger failures, String from, String to) {
+    try {
+      startLatch.await();
+      QuarkusTransaction.requiringNew().run(
+          () -> transferStockUseCase.transfer(List.of(new StockTransfer(from, to, 5))));
+    } catch (Exception e) {
+      failures.incrementAndGet();
+    } finally {
+      finishLatch.countDown();
+    }
+  }
+
+  @Transactional(TxType.REQUIRES_NEW)
+  Warehouse createWarehouse(String businessUnitCode, String location, int capacity, Integer stock) {
+    Warehouse warehouse = new Warehouse();
+    warehouse.businessUnitCode = businessUnitCode;
+    warehouse.location = location;
+    warehouse.capacity = capacity;
+    warehouse.stock = stock;
+    warehouse.createdAt = LocalDateTime.now();
+
+    warehouseRepository.create(warehouse);
+    return warehouse;
+  }
+
+  void createWarehouseInNewTransaction(String businessUnitCode, String location, int capacity, int stock) {
+    QuarkusTransaction.requiringNew().run(
+        () -> createWarehouse(businessUnitCode, location, capacity, stock));
+  }
+}
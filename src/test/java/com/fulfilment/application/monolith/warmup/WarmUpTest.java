@@ -0,0 +1,82 @@
+package com.fulfilment.application.monolith.warmup;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.path.json.JsonPath;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup warm-up: GET /admin/readiness answers 503 until warm-up has run its
+ * phases, then 200 with how long each took. Warm-up calls the ports directly,
+ * so the bulkheads in front of the endpoints have admitted nothing.
+ */
+@QuarkusTest
+@TestProfile(WarmUpTest.Enabled.class)
+public class WarmUpTest {
+
+  public static class Enabled implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of(
+          "warmup.enabled", "true",
+          "warmup.iterations", "25",
+          "warmup.sample-size", "2");
+    }
+  }
+
+  @Test
+  public void testReadyOnceWarmUpCompletes() {
+    JsonPath status = awaitReady();
+    assertEquals("COMPLETED", status.getString("state"), status.prettify());
+    Map<String, Integer> phases = status.getMap("phaseMillis");
+    assertEquals(List.of("warehouses", "locations", "products", "synthetic-calls"),
+        List.copyOf(phases.keySet()));
+    // Per round: search, get, fuzzy search, nearest, product list and product
+    assertEquals(25 * 6, status.getInt("syntheticCalls"));
+    assertTrue(status.getLong("totalMillis") >= phases.get("synthetic-calls"));
+    assertNull(status.getString("error"));
+    given().when().get("/admin/bulkheads")
+        .then().statusCode(200).body("admitted", everyItem(is(0)));
+
+    // Reads only: the seeded warehouses are as they were
+    given().when().get("/warehouse").then().statusCode(200);
+  }
+
+  @Test
+  public void testNotReadyBeforeWarmUpCompletes() {
+    ReadinessResource readiness = new ReadinessResource();
+    readiness.warmUp = new WarmUp();
+
+    assertEquals(503, readiness.get().getStatus());
+    WarmUpStatus status = (WarmUpStatus) readiness.get().getEntity();
+    assertFalse(status.ready());
+    assertEquals(WarmUp.State.PENDING, status.state());
+  }
+
+  // Helper methods
+
+  private static JsonPath awaitReady() {
+    long deadline = System.currentTimeMillis() + 60_000;
+    while (true) {
+      var response = given().when().get("/admin/readiness").then().extract();
+      if (response.statusCode() == 200 || System.currentTimeMillis() > deadline) {
+        assertEquals(200, response.statusCode(), response.asString());
+        return response.jsonPath();
+      }
+      assertEquals(503, response.statusCode(), response.asString());
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return response.jsonPath();
+      }
+    }
+  }
+}